@@ -0,0 +1,52 @@
+package com.dogankaya.benchmarks;
+
+import com.dogankaya.FinanStream.abscraction.ICalculationEngine;
+import com.dogankaya.FinanStream.engine.CompiledCalculationEngine;
+import com.dogankaya.FinanStream.engine.Exp4JCalculationEngine;
+import com.dogankaya.FinanStream.engine.GroovyCalculationEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single {@link ICalculationEngine#evaluate(String, Map)} call of the shipped {@code USDMID} formula.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationEngineBenchmark {
+    private static final String USDMID = "((PF1_USDTRY_bid+PF2_USDTRY_bid)/2 + (PF1_USDTRY_ask+PF2_USDTRY_ask)/2) / 2";
+
+    @Param({"exp4j", "groovy", "compiled"})
+    public String engine;
+
+    private ICalculationEngine calculationEngine;
+    private Map<String, Object> bindings;
+
+    @Setup
+    public void setUp() {
+        calculationEngine = switch (engine) {
+            case "exp4j" -> new Exp4JCalculationEngine();
+            case "groovy" -> new GroovyCalculationEngine();
+            case "compiled" -> new CompiledCalculationEngine();
+            default -> throw new IllegalArgumentException("Unsupported calculation engine type: " + engine);
+        };
+        bindings = new HashMap<>();
+        bindings.put("PF1_USDTRY_bid", new BigDecimal("34.1012"));
+        bindings.put("PF2_USDTRY_bid", new BigDecimal("34.1034"));
+        bindings.put("PF1_USDTRY_ask", new BigDecimal("34.1042"));
+        bindings.put("PF2_USDTRY_ask", new BigDecimal("34.1064"));
+        calculationEngine.initialize(new HashMap<>(bindings));
+    }
+
+    @Benchmark
+    public BigDecimal evaluate() throws Exception {
+        return calculationEngine.evaluate(USDMID, bindings);
+    }
+}
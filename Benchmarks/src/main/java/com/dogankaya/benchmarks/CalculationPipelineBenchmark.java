@@ -0,0 +1,100 @@
+package com.dogankaya.benchmarks;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.dogankaya.FinanStream.services.CalculatorService;
+import com.dogankaya.FinanStream.services.RateBookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end recalculation path: raw updates are written to the rate book and
+ * {@link CalculatorService#calculateAffectedRates(java.util.Collection)} recalculates and publishes every
+ * affected formula, with Redis and Kafka replaced by in-memory stand-ins.
+ *
+ * <p>{@code formulaCount} synthetic formulas in chains of {@code depth} are added to the shipped
+ * {@code rates.properties}; {@code updatesPerBatch} raw updates are recalculated together, modelling the
+ * number of updates arriving while the calculator is busy.</p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationPipelineBenchmark {
+
+    @Param({"exp4j", "groovy", "compiled"})
+    public String engine;
+
+    @Param({"0", "1000", "5000"})
+    public int formulaCount;
+
+    @Param({"1", "5"})
+    public int depth;
+
+    @Param({"1", "16"})
+    public int updatesPerBatch;
+
+    private final TickerRegistry tickerRegistry = new TickerRegistry();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final List<RateTick> batch = new ArrayList<>();
+    private RateBookService rateBookService;
+    private CalculatorService calculatorService;
+    private int[] inputIds;
+
+    @Setup
+    public void setUp() throws Exception {
+        Path ratesFile = SyntheticRates.write(formulaCount, depth);
+        FinanStreamProperties properties = new FinanStreamProperties();
+        properties.setRatesConfigPath(ratesFile.toUri().toString());
+        properties.getEngine().setType(engine);
+        properties.getPipeline().setCalculationPartitions(1);
+
+        rateBookService = new RateBookService(new InMemoryRedisRateMirror(tickerRegistry, properties), tickerRegistry);
+        calculatorService = new CalculatorService(rateBookService, new InMemoryKafkaProducer(),
+                new DefaultResourceLoader(), properties, tickerRegistry);
+        calculatorService.init();
+        calculatorService.stop();
+
+        List<String> inputs = SyntheticRates.rawInputs(formulaCount, depth);
+        inputIds = new int[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            inputIds[i] = tickerRegistry.intern(inputs.get(i));
+            rateBookService.put(RateBookService.RAW_RATES, nextTick(inputIds[i]));
+        }
+        batch.clear();
+        for (int id : inputIds) {
+            batch.add(nextTick(id));
+        }
+        calculatorService.calculateAffectedRates(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        calculatorService.stop();
+    }
+
+    @Benchmark
+    public void recalculate() {
+        batch.clear();
+        for (int i = 0; i < updatesPerBatch; i++) {
+            RateTick tick = nextTick(inputIds[random.nextInt(inputIds.length)]);
+            rateBookService.put(RateBookService.RAW_RATES, tick);
+            batch.add(tick);
+        }
+        calculatorService.calculateAffectedRates(batch);
+    }
+
+    private RateTick nextTick(int tickerId) {
+        long bid = 1_000_000L + random.nextInt(10_000);
+        return new RateTick(tickerId, bid, bid + 3_000, RateTick.nowNanos());
+    }
+}
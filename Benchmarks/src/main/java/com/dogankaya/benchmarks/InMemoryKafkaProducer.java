@@ -0,0 +1,41 @@
+package com.dogankaya.benchmarks;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.dogankaya.FinanStream.kafka.KafkaProducer;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+/**
+ * Kafka stand-in that only counts the rates it is asked to send.
+ */
+public class InMemoryKafkaProducer extends KafkaProducer {
+    private long sent;
+
+    public InMemoryKafkaProducer() {
+        super(null, TickerRegistry.getInstance(), new FinanStreamProperties());
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void sendRate(String topic, RateDto rateDto) {
+        sent++;
+    }
+
+    @Override
+    public void sendRate(String topic, RateTick rateTick) {
+        sent++;
+    }
+
+    /**
+     * Returns the number of rates sent so far.
+     *
+     * @return the sent count
+     */
+    public long getSent() {
+        return sent;
+    }
+}
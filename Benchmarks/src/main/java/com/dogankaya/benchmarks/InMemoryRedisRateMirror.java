@@ -0,0 +1,25 @@
+package com.dogankaya.benchmarks;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.dogankaya.FinanStream.redis.RedisRateMirror;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.RedisTemplate;
+import rate.RateDto;
+import rate.TickerRegistry;
+
+import java.util.Map;
+
+/**
+ * Redis stand-in: writes are recorded in the pending map as usual but never flushed, and nothing is loaded.
+ */
+public class InMemoryRedisRateMirror extends RedisRateMirror {
+
+    public InMemoryRedisRateMirror(TickerRegistry tickerRegistry, FinanStreamProperties finanStreamProperties) {
+        super(new RedisTemplate<>(), new ObjectMapper(), tickerRegistry, finanStreamProperties);
+    }
+
+    @Override
+    public Map<String, RateDto> load(String hashName) {
+        return Map.of();
+    }
+}
@@ -0,0 +1,83 @@
+package com.dogankaya.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates {@code rates.properties} files for the benchmarks: the shipped formulas plus synthetic cross rates.
+ *
+ * <p>Synthetic formulas are laid out in independent chains of {@code depth} formulas. The first formula of chain
+ * {@code i} averages its two raw inputs {@code SYN_A_i} and {@code SYN_B_i}, every next one multiplies the
+ * previous formula by a raw input, so an update of a raw input recalculates a whole chain in dependency order.</p>
+ */
+public final class SyntheticRates {
+
+    private SyntheticRates() {
+    }
+
+    /**
+     * Writes a rates file to a temporary location.
+     *
+     * @param formulaCount number of synthetic formulas added to the shipped ones
+     * @param depth        number of formulas per dependency chain
+     * @return the written file
+     * @throws IOException if the shipped formulas cannot be read or the file cannot be written
+     */
+    public static Path write(int formulaCount, int depth) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (InputStream shipped = SyntheticRates.class.getResourceAsStream("/rates.properties")) {
+            if (shipped == null) {
+                throw new IOException("rates.properties is not on the classpath");
+            }
+            content.append(new String(shipped.readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+        }
+        for (int chain = 0; chain < chainCount(formulaCount, depth); chain++) {
+            String a = "SYN_A_" + chain;
+            String b = "SYN_B_" + chain;
+            for (int level = 0; level < depth && chain * depth + level < formulaCount; level++) {
+                String name = "SYN_" + chain + "_L" + level;
+                if (level == 0) {
+                    content.append(name).append(" = ((").append(a).append(".bid+").append(b).append(".bid)/2 + (")
+                            .append(a).append(".ask+").append(b).append(".ask)/2) / 2\n");
+                    content.append(name).append(".depends.on=").append(a).append(',').append(b).append('\n');
+                } else {
+                    String previous = "SYN_" + chain + "_L" + (level - 1);
+                    content.append(name).append(" = ").append(previous).append(" * ((").append(a).append(".bid+")
+                            .append(b).append(".ask)/2)\n");
+                    content.append(name).append(".depends.on=").append(previous).append(',').append(a).append(',')
+                            .append(b).append('\n');
+                }
+            }
+        }
+        Path file = Files.createTempFile("rates-" + formulaCount + "-" + depth + "-", ".properties");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return file;
+    }
+
+    /**
+     * Returns the raw inputs read by the shipped and synthetic formulas.
+     *
+     * @param formulaCount number of synthetic formulas
+     * @param depth        number of formulas per dependency chain
+     * @return the raw input rate names
+     */
+    public static List<String> rawInputs(int formulaCount, int depth) {
+        List<String> inputs = new ArrayList<>(List.of("PF1_USDTRY", "PF2_USDTRY", "PF1_EURUSD", "PF2_EURUSD",
+                "PF1_GBPUSD", "PF2_GBPUSD"));
+        for (int chain = 0; chain < chainCount(formulaCount, depth); chain++) {
+            inputs.add("SYN_A_" + chain);
+            inputs.add("SYN_B_" + chain);
+        }
+        return inputs;
+    }
+
+    private static int chainCount(int formulaCount, int depth) {
+        return (formulaCount + depth - 1) / depth;
+    }
+}
@@ -0,0 +1,92 @@
+package rate;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka {@link Deserializer} reading {@link RateDto}s written by {@link RateDtoBinarySerializer}.
+ *
+ * <p>The first byte selects the layout version. Records starting with any other byte, such as JSON records
+ * written before a rolling upgrade, are handed to the optional fallback deserializer; without one they are
+ * rejected.</p>
+ */
+public class RateDtoBinaryDeserializer implements Deserializer<RateDto> {
+    private final Deserializer<RateDto> fallback;
+
+    /**
+     * Creates a deserializer accepting binary records only.
+     */
+    public RateDtoBinaryDeserializer() {
+        this(null);
+    }
+
+    /**
+     * Creates a deserializer delegating records that are not binary to another deserializer.
+     *
+     * @param fallback the deserializer of non-binary records, or {@code null} to reject them
+     */
+    public RateDtoBinaryDeserializer(Deserializer<RateDto> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (fallback != null) {
+            fallback.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public RateDto deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public RateDto deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == RateDtoBinarySerializer.VERSION_1) {
+            return readVersion1(data);
+        }
+        if (fallback != null) {
+            return fallback.deserialize(topic, headers, data);
+        }
+        throw new SerializationException("Unsupported rate record version: " + data[0]);
+    }
+
+    @Override
+    public void close() {
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+
+    private static RateDto readVersion1(byte[] data) {
+        if (data.length < RateDtoBinarySerializer.HEADER_SIZE) {
+            throw new SerializationException("Rate record is truncated: " + data.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, data.length - 1);
+        int scale = buffer.get();
+        long bid = buffer.getLong();
+        long ask = buffer.getLong();
+        long updateTime = buffer.getLong();
+        int nameLength = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() < nameLength) {
+            throw new SerializationException("Rate record is truncated: " + data.length + " bytes");
+        }
+        String rateName = new String(data, buffer.position(), nameLength, StandardCharsets.UTF_8);
+        return new RateDto(rateName, toDecimal(bid, scale), toDecimal(ask, scale),
+                updateTime != RateTick.MISSING ? RateTick.toLocalDateTime(updateTime) : null);
+    }
+
+    private static BigDecimal toDecimal(long scaled, int scale) {
+        return scaled != RateTick.MISSING ? BigDecimal.valueOf(scaled, scale) : null;
+    }
+}
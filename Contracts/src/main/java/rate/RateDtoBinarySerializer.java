@@ -0,0 +1,78 @@
+package rate;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka {@link Serializer} writing {@link RateDto}s in a compact, versioned binary layout.
+ *
+ * <p>Version 1 layout, big-endian, {@value #HEADER_SIZE} fixed bytes followed by the rate name:</p>
+ * <pre>
+ * byte  version       {@value #VERSION_1}
+ * byte  scale         decimal places of both prices
+ * long  bid           bid scaled by 10^scale, or {@link RateTick#MISSING}
+ * long  ask           ask scaled by 10^scale, or {@link RateTick#MISSING}
+ * long  updateTime    nanoseconds since the epoch, UTC, or {@link RateTick#MISSING}
+ * short nameLength    number of UTF-8 bytes of the rate name
+ * byte[] rateName
+ * </pre>
+ *
+ * <p>The rate name is written instead of a {@link TickerRegistry} id because ids are assigned per process.
+ * The version byte is never {@code '{'}, so a reader can tell binary records from JSON ones during a rolling
+ * upgrade; see {@link RateDtoBinaryDeserializer}.</p>
+ */
+public class RateDtoBinarySerializer implements Serializer<RateDto> {
+    /**
+     * Version byte of the first binary layout.
+     */
+    public static final byte VERSION_1 = 1;
+    /**
+     * Number of bytes before the rate name.
+     */
+    public static final int HEADER_SIZE = 28;
+
+    private static final int MAX_SCALE = 18;
+
+    @Override
+    public byte[] serialize(String topic, RateDto rateDto) {
+        if (rateDto == null) {
+            return null;
+        }
+        byte[] name = rateDto.getRateName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new SerializationException("Rate name is too long: " + name.length + " bytes");
+        }
+        int scale = Math.min(MAX_SCALE, Math.max(scaleOf(rateDto.getBid()), scaleOf(rateDto.getAsk())));
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + name.length);
+        buffer.put(VERSION_1);
+        buffer.put((byte) scale);
+        buffer.putLong(toScaled(rateDto.getBid(), scale));
+        buffer.putLong(toScaled(rateDto.getAsk(), scale));
+        buffer.putLong(rateDto.getRateUpdateTime() != null
+                ? RateTick.toEpochNanos(rateDto.getRateUpdateTime())
+                : RateTick.MISSING);
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        return buffer.array();
+    }
+
+    private static int scaleOf(BigDecimal price) {
+        return price != null ? Math.max(price.scale(), 0) : 0;
+    }
+
+    private static long toScaled(BigDecimal price, int scale) {
+        if (price == null) {
+            return RateTick.MISSING;
+        }
+        try {
+            return price.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new SerializationException("Price " + price + " does not fit a scaled long", e);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package rate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact, allocation-friendly representation of a rate update used inside the pipeline.
+ *
+ * <p>The rate is identified by its interned {@link TickerRegistry} id, prices are {@code long}s scaled by the
+ * instrument's scale (e.g. {@code 34.1234} at scale 6 is {@code 34123400}) and the update time is in
+ * nanoseconds since the epoch, UTC. A missing side is {@link #MISSING}. {@link RateDto} is only used at the
+ * JSON, Redis and Kafka edges; see {@link #fromDto(RateDto, TickerRegistry)} and {@link #toDto(TickerRegistry)}.</p>
+ *
+ * @param tickerId       the interned ticker id
+ * @param bid            the scaled bid price, or {@link #MISSING}
+ * @param ask            the scaled ask price, or {@link #MISSING}
+ * @param timestampNanos the update time in nanoseconds since the epoch
+ */
+public record RateTick(int tickerId, long bid, long ask, long timestampNanos) {
+    /**
+     * Marker of a missing price side.
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final long EPOCH_NANOS_BASE;
+    private static final long NANO_TIME_BASE;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        Instant now = Instant.now();
+        NANO_TIME_BASE = System.nanoTime();
+        EPOCH_NANOS_BASE = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /**
+     * Returns the current time in nanoseconds since the epoch without allocating.
+     *
+     * <p>The wall clock is read once when the class is loaded and advanced with {@link System#nanoTime()}, so
+     * timestamps are monotonic within the process.</p>
+     *
+     * @return the current epoch nanoseconds
+     */
+    public static long nowNanos() {
+        return EPOCH_NANOS_BASE + (System.nanoTime() - NANO_TIME_BASE);
+    }
+
+    /**
+     * Returns whether the bid side is present.
+     *
+     * @return {@code true} if the bid is not {@link #MISSING}
+     */
+    public boolean hasBid() {
+        return bid != MISSING;
+    }
+
+    /**
+     * Returns whether the ask side is present.
+     *
+     * @return {@code true} if the ask is not {@link #MISSING}
+     */
+    public boolean hasAsk() {
+        return ask != MISSING;
+    }
+
+    /**
+     * Returns a copy of this tick with another timestamp.
+     *
+     * @param timestampNanos the new update time in epoch nanoseconds
+     * @return the new tick
+     */
+    public RateTick withTimestamp(long timestampNanos) {
+        return new RateTick(tickerId, bid, ask, timestampNanos);
+    }
+
+    /**
+     * Scales a decimal price, rounding half up.
+     *
+     * @param value the price, or {@code null}
+     * @param scale the number of decimal places to keep
+     * @return the scaled price, or {@link #MISSING} if the value is {@code null}
+     */
+    public static long toScaled(BigDecimal value, int scale) {
+        if (value == null) return MISSING;
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Scales a floating point price, rounding half up.
+     *
+     * @param value the price
+     * @param scale the number of decimal places to keep
+     * @return the scaled price, or {@link #MISSING} if the value is not finite
+     */
+    public static long toScaled(double value, int scale) {
+        if (!Double.isFinite(value)) return MISSING;
+        return Math.round(value * POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * Converts a scaled price back to a decimal.
+     *
+     * @param scaled the scaled price
+     * @param scale  the scale of the price
+     * @return the decimal price, or {@code null} if the price is {@link #MISSING}
+     */
+    public static BigDecimal toDecimal(long scaled, int scale) {
+        return scaled == MISSING ? null : BigDecimal.valueOf(scaled, scale);
+    }
+
+    /**
+     * Converts a scaled price to a double.
+     *
+     * @param scaled the scaled price
+     * @param scale  the scale of the price
+     * @return the price, or {@link Double#NaN} if the price is {@link #MISSING}
+     */
+    public static double toDouble(long scaled, int scale) {
+        return scaled == MISSING ? Double.NaN : (double) scaled / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parses a plain decimal number (e.g. {@code 34.1234} or {@code -0.5}) directly into a scaled price,
+     * rounding half up on the first dropped digit.
+     *
+     * @param chars  the characters holding the number
+     * @param offset offset of the first character
+     * @param length number of characters
+     * @param scale  the number of decimal places to keep
+     * @return the scaled price
+     * @throws NumberFormatException if the characters are not a plain decimal number
+     */
+    public static long parseScaled(char[] chars, int offset, int length, int scale) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a plain decimal number: " + new String(chars, offset, length));
+            }
+            anyDigit = true;
+            if (fractionDigits >= scale) {
+                if (fractionDigits == scale) roundUp = c >= '5';
+                fractionDigits++;
+                continue;
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            if (fractionDigits >= 0) fractionDigits++;
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Not a plain decimal number: " + new String(chars, offset, length));
+        }
+        int kept = Math.max(fractionDigits, 0);
+        if (kept < scale) {
+            value = Math.multiplyExact(value, POWERS_OF_TEN[scale - kept]);
+        }
+        if (roundUp) value++;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts a local date-time, interpreted as UTC like the platforms publish it, to epoch nanoseconds.
+     *
+     * @param dateTime the date-time, or {@code null}
+     * @return the epoch nanoseconds, or the current time if the date-time is {@code null}
+     */
+    public static long toEpochNanos(LocalDateTime dateTime) {
+        if (dateTime == null) return nowNanos();
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    /**
+     * Converts UTC date and time fields to epoch nanoseconds without allocating.
+     *
+     * @param year   the year
+     * @param month  the month, 1 to 12
+     * @param day    the day of month
+     * @param hour   the hour of day
+     * @param minute the minute of hour
+     * @param second the second of minute
+     * @param nano   the nanosecond of second
+     * @return the epoch nanoseconds
+     */
+    public static long toEpochNanos(int year, int month, int day, int hour, int minute, int second, int nano) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            if (!leap) total--;
+        }
+        long epochDay = total - DAYS_0000_TO_1970;
+        long secondOfDay = hour * 3600L + minute * 60L + second;
+        return (epochDay * 86_400L + secondOfDay) * 1_000_000_000L + nano;
+    }
+
+    /**
+     * Converts epoch nanoseconds to a UTC local date-time.
+     *
+     * @param epochNanos the epoch nanoseconds
+     * @return the local date-time
+     */
+    public static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts a {@link RateDto} into a tick, interning its rate name.
+     *
+     * @param dto      the rate
+     * @param registry the registry holding ids and scales
+     * @return the tick
+     */
+    public static RateTick fromDto(RateDto dto, TickerRegistry registry) {
+        int tickerId = registry.intern(dto.getRateName());
+        int scale = registry.scaleOf(tickerId);
+        return new RateTick(tickerId, toScaled(dto.getBid(), scale), toScaled(dto.getAsk(), scale),
+                toEpochNanos(dto.getRateUpdateTime()));
+    }
+
+    /**
+     * Converts this tick into a {@link RateDto} for the JSON, Redis and Kafka edges.
+     *
+     * @param registry the registry holding ids and scales
+     * @return the rate
+     */
+    public RateDto toDto(TickerRegistry registry) {
+        int scale = registry.scaleOf(tickerId);
+        return new RateDto(registry.nameOf(tickerId), toDecimal(bid, scale), toDecimal(ask, scale),
+                toLocalDateTime(timestampNanos));
+    }
+}
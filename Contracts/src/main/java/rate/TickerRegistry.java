@@ -0,0 +1,120 @@
+package rate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns rate names into dense {@code int} ticker ids and keeps the price scale of every instrument.
+ *
+ * <p>Ids are assigned on first use and never reused, so they can index plain arrays. The scale is the number of
+ * decimal places kept by the scaled {@code long} prices of a {@link RateTick}; it must be configured before
+ * ticks of the instrument are created, as existing ticks are not rescaled.</p>
+ */
+public final class TickerRegistry {
+    /**
+     * Scale used for instruments without an explicitly configured scale.
+     */
+    public static final int DEFAULT_SCALE = 6;
+
+    private static final TickerRegistry INSTANCE = new TickerRegistry();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int[] scales = new int[64];
+    private int size;
+
+    /**
+     * Returns the registry shared by every component of the process.
+     *
+     * @return the shared registry
+     */
+    public static TickerRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the id of a rate name, registering it with the default scale if it is unknown.
+     *
+     * @param rateName the rate name
+     * @return the ticker id
+     */
+    public int intern(String rateName) {
+        Integer id = ids.get(rateName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(rateName);
+            if (id != null) {
+                return id;
+            }
+            int newId = size;
+            if (newId == names.length) {
+                scales = Arrays.copyOf(scales, newId * 2);
+                names = Arrays.copyOf(names, newId * 2);
+            }
+            scales[newId] = DEFAULT_SCALE;
+            names[newId] = rateName;
+            size = newId + 1;
+            ids.put(rateName, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Returns the id of a rate name without registering it.
+     *
+     * @param rateName the rate name
+     * @return the ticker id, or {@code -1} if the rate name is unknown
+     */
+    public int idOf(String rateName) {
+        Integer id = ids.get(rateName);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the rate name of a ticker id.
+     *
+     * @param tickerId the ticker id
+     * @return the rate name
+     * @throws ArrayIndexOutOfBoundsException if the id was never assigned
+     */
+    public String nameOf(int tickerId) {
+        return names[tickerId];
+    }
+
+    /**
+     * Returns the price scale of a ticker id.
+     *
+     * @param tickerId the ticker id
+     * @return the number of decimal places of the scaled prices
+     */
+    public int scaleOf(int tickerId) {
+        return scales[tickerId];
+    }
+
+    /**
+     * Sets the price scale of an instrument, registering it if necessary.
+     *
+     * @param rateName the rate name
+     * @param scale    the number of decimal places, between 0 and 18
+     * @throws IllegalArgumentException if the scale is out of range
+     */
+    public synchronized void setScale(String rateName, int scale) {
+        if (scale < 0 || scale > 18) {
+            throw new IllegalArgumentException("Price scale must be between 0 and 18: " + scale);
+        }
+        int id = intern(rateName);
+        scales[id] = scale;
+    }
+
+    /**
+     * Returns the number of registered tickers; ids range from 0 to {@code size() - 1}.
+     *
+     * @return the number of registered tickers
+     */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,50 @@
+package rate;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateDtoBinarySerializerTests {
+
+	private final RateDtoBinarySerializer serializer = new RateDtoBinarySerializer();
+
+	@Test
+	void roundTripsPricesTimestampAndName() {
+		RateDto rate = new RateDto("PF1_USDTRY", new BigDecimal("34.1234"), new BigDecimal("34.125678"),
+				LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_456_789));
+
+		byte[] data = serializer.serialize("rate-topic", rate);
+		RateDto read = new RateDtoBinaryDeserializer().deserialize("rate-topic", data);
+
+		assertEquals(RateDtoBinarySerializer.HEADER_SIZE + "PF1_USDTRY".length(), data.length);
+		assertEquals("PF1_USDTRY", read.getRateName());
+		assertEquals(0, new BigDecimal("34.1234").compareTo(read.getBid()));
+		assertEquals(0, new BigDecimal("34.125678").compareTo(read.getAsk()));
+		assertEquals(rate.getRateUpdateTime(), read.getRateUpdateTime());
+	}
+
+	@Test
+	void keepsMissingSidesMissing() {
+		RateDto read = new RateDtoBinaryDeserializer().deserialize("rate-topic",
+				serializer.serialize("rate-topic", new RateDto("USDTRY", null, BigDecimal.ONE, null)));
+
+		assertNull(read.getBid());
+		assertEquals(0, BigDecimal.ONE.compareTo(read.getAsk()));
+		assertNull(read.getRateUpdateTime());
+	}
+
+	@Test
+	void handsRecordsOfOtherFormatsToTheFallback() {
+		Deserializer<RateDto> json = (topic, data) -> new RateDto("FROM_JSON", null, null, null);
+		byte[] jsonRecord = "{\"rateName\":\"USDTRY\"}".getBytes();
+
+		assertEquals("FROM_JSON", new RateDtoBinaryDeserializer(json).deserialize("rate-topic", jsonRecord).getRateName());
+		assertThrows(SerializationException.class,
+				() -> new RateDtoBinaryDeserializer().deserialize("rate-topic", jsonRecord));
+	}
+}
@@ -11,6 +11,9 @@ import java.time.LocalDateTime;
 
 /**
  * Represents a financial rate entity with bid and ask prices,timestamps and an identifier
+ * <p>
+ * The identifier is assigned by the writer, not by the database, so the same rate gets the same id in every
+ * store it is written to.
  */
 @Data
 @Builder
@@ -19,8 +22,7 @@ import java.time.LocalDateTime;
 @Entity
 public class Rate{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private int id;
+    private long id;
     private String rateName;
     private BigDecimal bid;
     private BigDecimal ask;
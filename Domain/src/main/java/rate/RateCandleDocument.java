@@ -0,0 +1,40 @@
+package rate;
+
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents an open/high/low/close candle of a rate for elasticsearch, identified by rate name, interval and
+ * window start
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "rate-candle-index")
+public class RateCandleDocument {
+    @Id
+    private String id;
+    @Field(type = FieldType.Keyword)
+    private String rateName;
+    @Field(type = FieldType.Keyword)
+    private String interval;
+
+    @Field(type = FieldType.Date, format = DateFormat.date_time)
+    private String windowStart;
+
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private long tickCount;
+}
@@ -22,7 +22,7 @@ import java.math.BigDecimal;
 @Document(indexName = "rate-index")
 public class RateDocument {
     @Id
-    private int id;
+    private long id;
     private String rateName;
     private BigDecimal bid;
     private BigDecimal ask;
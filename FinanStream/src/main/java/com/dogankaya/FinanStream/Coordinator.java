@@ -4,15 +4,21 @@ import com.dogankaya.FinanStream.abscraction.ICoordinatorActions;
 import com.dogankaya.FinanStream.abscraction.IPlatformHandler;
 import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
 import com.dogankaya.FinanStream.helpers.HandlerClassLoader;
+import com.dogankaya.FinanStream.ingestion.RateEvent;
+import com.dogankaya.FinanStream.ingestion.RateEventRingBuffer;
+import com.dogankaya.FinanStream.ingestion.WaitStrategy;
 import com.dogankaya.FinanStream.kafka.KafkaProducer;
 import com.dogankaya.FinanStream.services.CalculatorService;
+import com.dogankaya.FinanStream.services.RateBookService;
 import enums.PlatformName;
 import enums.TickerType;
-import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisTemplate;
 import rate.RateDto;
 import rate.RateStatus;
+import rate.RateTick;
+import rate.TickerRegistry;
 import com.dogankaya.FinanStream.abscraction.ICoordinatorCallback;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.boot.SpringApplication;
@@ -26,7 +32,10 @@ import java.util.List;
  * It implements both {@link ICoordinatorCallback} and {@link ICoordinatorActions} interfaces,
  * coordinating connections with platforms and handling rate updates.
  * <p>
- * This class also uses Redis (via {@link RedisTemplate}) to store and manage rate data.
+ * Rate updates from the platform handlers are published into a {@link RateEventRingBuffer}; a dedicated
+ * ingestion thread drains it, stores the rates in the in-memory {@link RateBookService} (mirrored into Redis),
+ * forwards them to Kafka and hands them to the {@link CalculatorService}, which recalculates the dependent
+ * rates on its partition threads.
  * Platform handlers are dynamically loaded using {@link HandlerClassLoader}.
  * </p>
  *
@@ -35,9 +44,11 @@ import java.util.List;
 public class Coordinator implements ICoordinatorCallback, ICoordinatorActions {
 	private static final Logger logger = LogManager.getLogger(Coordinator.class);
 	private final List<IPlatformHandler> platformHandlers;
-	private final HashOperations<String, String, RateDto> hashOperations;
+	private final RateBookService rateBookService;
 	private final CalculatorService calculatorService;
 	private final KafkaProducer kafkaProducer;
+	private final RateEventRingBuffer ringBuffer;
+	private final TickerRegistry tickerRegistry;
 
 	public static void main(String[] args) {
 		SpringApplication.run(Coordinator.class, args);
@@ -46,15 +57,40 @@ public class Coordinator implements ICoordinatorCallback, ICoordinatorActions {
 	 * Constructs a new {@code Coordinator} instance.
 	 *
 	 * @param finanStreamProperties Properties for configuring the financial stream.
-	 * @param redisTemplate         Redis template for caching .
+	 * @param rateBookService       In-memory rate book, mirrored into Redis.
+	 * @param tickerRegistry        Registry of ticker ids and price scales.
+	 * @throws IllegalArgumentException if the configured ring buffer size or wait strategy is invalid.
 	 */
-	Coordinator(FinanStreamProperties finanStreamProperties, RedisTemplate<String, Object> redisTemplate, CalculatorService calculatorService, KafkaProducer kafkaProducer) {
+	Coordinator(FinanStreamProperties finanStreamProperties, RateBookService rateBookService, CalculatorService calculatorService, KafkaProducer kafkaProducer,
+				TickerRegistry tickerRegistry) {
+		this.tickerRegistry = tickerRegistry;
 		platformHandlers = HandlerClassLoader.getHandlerInstances(finanStreamProperties.getHandlerClassNames(), this, finanStreamProperties);
-		this.hashOperations = redisTemplate.opsForHash();
+		this.rateBookService = rateBookService;
         this.calculatorService = calculatorService;
         this.kafkaProducer = kafkaProducer;
+		FinanStreamProperties.PipelineProperties pipeline = finanStreamProperties.getPipeline();
+		this.ringBuffer = new RateEventRingBuffer(pipeline.getRingBufferSize(),
+				WaitStrategy.fromName(pipeline.getWaitStrategy()),
+				(event, sequence, endOfBatch) -> processRateUpdate(event),
+				"rate-ingestion");
     }
 
+	/**
+	 * Starts the ingestion thread draining the ring buffer.
+	 */
+	@PostConstruct
+	public void startPipeline() {
+		ringBuffer.start();
+	}
+
+	/**
+	 * Stops the ingestion thread.
+	 */
+	@PreDestroy
+	public void stopPipeline() {
+		ringBuffer.stop();
+	}
+
 	/**
 	 * Called when a platform connection is established or fails.
 	 *
@@ -110,20 +146,33 @@ public class Coordinator implements ICoordinatorCallback, ICoordinatorActions {
 	}
 	/**
 	 * Called when a rate is updated.
-	 * The updated rate is stored in Redis.
+	 * The update is published into the ingestion ring buffer and processed on the ingestion thread,
+	 * so the handler thread returns immediately.
 	 *
 	 * @param platformName The name of the platform.
-	 * @param rateName     The name of the rate.
-	 * @param rateDto      The updated rate data.
+	 * @param rateTick     The updated rate data.
 	 */
 	@Override
-	public void onRateUpdate(String platformName, String rateName, RateDto rateDto) {
-		logger.info("{} from {} updated to {}", rateName, platformName, rateDto);
-		hashOperations.put(TickerType.getHashNameFromPlatformName(platformName),
-				rateName,
-				rateDto);
-		kafkaProducer.sendRate("rate-topic", rateDto);
-		calculatorService.calculateAffectedRates(rateDto);
+	public void onRateUpdate(String platformName, RateTick rateTick) {
+		ringBuffer.publish(platformName, rateTick);
+	}
+
+	/**
+	 * Processes a rate update on the ingestion thread.
+	 * The updated rate is stored in the rate book, queued for the Kafka outbound thread and queued for recalculation of the rates
+	 * depending on it.
+	 *
+	 * @param event the rate event taken from the ring buffer.
+	 */
+	private void processRateUpdate(RateEvent event) {
+		RateTick rateTick = event.getRateTick();
+		rateBookService.put(TickerType.getHashNameFromPlatformName(event.getPlatformName()), rateTick);
+		kafkaProducer.sendRate("rate-topic", rateTick);
+		if (logger.isDebugEnabled()) {
+			logger.debug("{} from {} updated to {}", tickerRegistry.nameOf(rateTick.tickerId()), event.getPlatformName(),
+					rateTick.toDto(tickerRegistry));
+		}
+		calculatorService.submit(event.getPlatformName(), rateTick);
 	}
 	/**
 	 * Subscribes to a specific ticker type on the platform.
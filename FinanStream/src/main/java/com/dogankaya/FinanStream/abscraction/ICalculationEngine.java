@@ -2,6 +2,7 @@ package com.dogankaya.FinanStream.abscraction;
 
 import java.math.BigDecimal;
 import java.util.Map;
+import java.util.SequencedMap;
 
 /**
  * Interface representing a generic calculation engine capable of evaluating
@@ -43,4 +44,19 @@ public interface ICalculationEngine {
      * @param value the value to assign to the variable.
      */
     void setVariable(String name, Object value);
+
+    /**
+     * Evaluates a batch of formulas against a single input snapshot.
+     *
+     * <p>The snapshot is bound once for the whole batch. Formulas are evaluated in iteration order, and the
+     * result of each one is bound under its output name before the next is evaluated, so later formulas can
+     * read the outputs of earlier ones. Formulas that cannot be evaluated are logged and left out of the result,
+     * and their output is unbound, so later formulas reading it fail as well instead of reading the value of a
+     * previous batch.</p>
+     *
+     * @param formulas expressions keyed by output variable name, in evaluation order.
+     * @param snapshot a {@link Map} containing the input variable bindings.
+     * @return the results keyed by output variable name.
+     */
+    Map<String, BigDecimal> evaluateAll(SequencedMap<String, String> formulas, Map<String, Object> snapshot);
 }
@@ -2,6 +2,8 @@ package com.dogankaya.FinanStream.abscraction;
 
 import rate.RateDto;
 import rate.RateStatus;
+import rate.RateTick;
+import rate.TickerRegistry;
 
 /**
  * Callback interface for coordinator events such as connection status and rate updates.
@@ -36,11 +38,24 @@ public interface ICoordinatorCallback {
     /**
      * Called when an existing rate is updated.
      *
+     * <p>Converts the rate into a {@link RateTick} and forwards it to {@link #onRateUpdate(String, RateTick)};
+     * handlers that can produce ticks directly should call that method instead.</p>
+     *
      * @param platformName name of the platform
      * @param rateName    the name of the rate
      * @param rateDto     updated rate details
      */
-    void onRateUpdate(String platformName, String rateName, RateDto rateDto);
+    default void onRateUpdate(String platformName, String rateName, RateDto rateDto) {
+        onRateUpdate(platformName, RateTick.fromDto(rateDto, TickerRegistry.getInstance()));
+    }
+
+    /**
+     * Called when an existing rate is updated.
+     *
+     * @param platformName name of the platform
+     * @param rateTick     updated rate, identified by its {@link TickerRegistry} id
+     */
+    void onRateUpdate(String platformName, RateTick rateTick);
 
     /**
      * Called to report the status of a rate.
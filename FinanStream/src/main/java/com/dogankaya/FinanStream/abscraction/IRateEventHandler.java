@@ -0,0 +1,18 @@
+package com.dogankaya.FinanStream.abscraction;
+
+import com.dogankaya.FinanStream.ingestion.RateEvent;
+
+/**
+ * Handler interface for the single consumer of the rate ingestion ring buffer.
+ */
+public interface IRateEventHandler {
+
+    /**
+     * Called for every published rate event, in sequence order, on the consumer thread.
+     *
+     * @param event      the event; only valid for the duration of the call
+     * @param sequence   the sequence number of the event
+     * @param endOfBatch true if no further event was available when the batch was read
+     */
+    void onEvent(RateEvent event, long sequence, boolean endOfBatch);
+}
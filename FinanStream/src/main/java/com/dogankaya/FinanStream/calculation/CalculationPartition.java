@@ -0,0 +1,345 @@
+package com.dogankaya.FinanStream.calculation;
+
+import com.dogankaya.FinanStream.abscraction.ICalculationEngine;
+import com.dogankaya.FinanStream.engine.CompiledCalculationEngine;
+import com.dogankaya.FinanStream.engine.CompiledFormula;
+import com.dogankaya.FinanStream.ingestion.ConflatingRateQueue;
+import com.dogankaya.FinanStream.kafka.KafkaProducer;
+import com.dogankaya.FinanStream.services.RateBookService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * One independent part of the formula graph, calculated on its own thread.
+ *
+ * <p>A partition owns a sub-graph made of whole connected components of the {@link RateDependencyGraph}, its
+ * own {@link ICalculationEngine} instance and its own {@link ConflatingRateQueue}. Only the partition thread
+ * touches the engine and the calculated rates of the partition, so no locking is needed inside it; raw rates
+ * are read from the concurrent {@link RateBookService}. Rates are handled as {@link RateTick}s and only
+ * converted to {@link RateDto} when a calculated rate is sent to Kafka.</p>
+ *
+ * <p>With a {@link CompiledCalculationEngine} and a graph compiled for it, the inputs are written from the scaled
+ * prices straight into the engine slots precomputed on the graph and every formula is evaluated through
+ * {@link CompiledCalculationEngine#evaluate(CompiledFormula)}, without building bindings or results maps. Other
+ * engines get a snapshot map and evaluate the formula batch with
+ * {@link ICalculationEngine#evaluateAll(SequencedMap, Map)}.</p>
+ */
+public class CalculationPartition {
+    private final Logger logger = LogManager.getLogger();
+
+    private final String name;
+    private final RateDependencyGraph dependencyGraph;
+    private final ICalculationEngine calculationEngine;
+    private final ConflatingRateQueue calculationQueue;
+    private final RateBookService rateBookService;
+    private final KafkaProducer kafkaProducer;
+    private final TickerRegistry tickerRegistry;
+    private final CompiledCalculationEngine compiledEngine;
+    private Thread calculationThread;
+
+    /**
+     * Constructs a new calculation partition.
+     *
+     * @param name              the partition name, used for its thread
+     * @param dependencyGraph   the formulas calculated by this partition, compiled for the engine if it is a
+     *                          {@link CompiledCalculationEngine}
+     * @param calculationEngine the engine used only by this partition
+     * @param queueCapacity     capacity of the partition's conflating queue
+     * @param rateBookService   in-memory rate book holding the latest raw and calculated rates
+     * @param kafkaProducer     KafkaProducer used to send calculated rates
+     * @param tickerRegistry    registry of ticker ids and price scales
+     */
+    public CalculationPartition(String name, RateDependencyGraph dependencyGraph, ICalculationEngine calculationEngine,
+                                int queueCapacity, RateBookService rateBookService, KafkaProducer kafkaProducer,
+                                TickerRegistry tickerRegistry) {
+        this.name = name;
+        this.dependencyGraph = dependencyGraph;
+        this.calculationEngine = calculationEngine;
+        this.calculationQueue = new ConflatingRateQueue(queueCapacity);
+        this.rateBookService = rateBookService;
+        this.kafkaProducer = kafkaProducer;
+        this.tickerRegistry = tickerRegistry;
+        this.compiledEngine = calculationEngine instanceof CompiledCalculationEngine engine
+                && dependencyGraph.getFormulas().stream().allMatch(node -> node.compiled() != null) ? engine : null;
+        for (RateDependencyGraph.FormulaNode node : dependencyGraph.getFormulas()) {
+            tickerRegistry.intern(node.name());
+        }
+    }
+
+    /**
+     * Returns the formulas calculated by this partition.
+     *
+     * @return the partition's dependency graph
+     */
+    public RateDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Starts the partition thread.
+     */
+    public void start() {
+        calculationThread = new Thread(this::runCalculationLoop, name);
+        calculationThread.setDaemon(true);
+        calculationThread.start();
+        logger.info("Calculation partition {} started with {} formulas", name, dependencyGraph.getFormulas().size());
+    }
+
+    /**
+     * Stops the partition thread. Pending updates are discarded.
+     */
+    public void stop() {
+        if (calculationThread != null) {
+            calculationThread.interrupt();
+            try {
+                calculationThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            calculationThread = null;
+        }
+    }
+
+    /**
+     * Queues a raw rate update read by this partition.
+     *
+     * @param rateTick     the updated raw rate
+     * @param policy       how a pending update of the same rate is handled
+     * @param windowMillis how long the update waits for newer updates
+     */
+    public void submit(RateTick rateTick, ConflatingRateQueue.ConflationPolicy policy, long windowMillis) {
+        calculationQueue.offer(rateTick, policy, windowMillis);
+    }
+
+    /**
+     * Drains the conflating queue in batches and recalculates the rates affected by each batch.
+     */
+    private void runCalculationLoop() {
+        List<RateTick> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                calculationQueue.drainTo(batch);
+                calculateAffectedRates(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Error while calculating rates in {}: {}", name, e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        logger.info("Calculation partition {} stopped, {} updates conflated, {} dropped",
+                name, calculationQueue.getConflatedCount(), calculationQueue.getDroppedCount());
+    }
+
+    /**
+     * Calculates all rates of this partition affected by a batch of updated rates, evaluating each affected
+     * formula once.
+     *
+     * <p>Must only be called from the partition thread, or while the partition is not started.</p>
+     *
+     * @param rateTicks the updated raw rates.
+     */
+    public void calculateAffectedRates(Collection<RateTick> rateTicks) {
+        if (rateTicks.size() == 1) {
+            calculate(dependencyGraph.getAffectedRates(tickerRegistry.nameOf(rateTicks.iterator().next().tickerId())));
+            return;
+        }
+        List<String> rateNames = new ArrayList<>(rateTicks.size());
+        for (RateTick rateTick : rateTicks) {
+            rateNames.add(tickerRegistry.nameOf(rateTick.tickerId()));
+        }
+        calculate(dependencyGraph.getAffectedRates(rateNames));
+    }
+
+    /**
+     * Adds rate ask and bid values to the current bindings map for formula evaluation.
+     *
+     * @param currentBindings the current bindings map where variables are stored.
+     * @param key             the rate name key.
+     * @param tick            the {@link RateTick} containing ask and bid values.
+     */
+    private void addBinding(Map<String, Object> currentBindings, String key, RateTick tick){
+        int scale = tickerRegistry.scaleOf(tick.tickerId());
+        double ask = RateTick.toDouble(tick.ask(), scale);
+        currentBindings.put(key, ask);
+        currentBindings.put(key + "_ask", ask);
+        currentBindings.put(key + "_bid", RateTick.toDouble(tick.bid(), scale));
+    }
+
+    /**
+     * Looks up the latest value of a rate used as a formula input, raw rates first.
+     *
+     * @param rateName the rate name.
+     * @return the latest {@link RateTick}, or {@code null} if the rate has no complete bid/ask yet.
+     */
+    private RateTick findInputRate(String rateName) {
+        RateTick tick = rateBookService.get(RateBookService.RAW_RATES, rateName);
+        if (tick == null) {
+            tick = rateBookService.get(RateBookService.CALCULATED_RATES, rateName);
+        }
+        if (tick == null || !tick.hasAsk() || !tick.hasBid()) {
+            return null;
+        }
+        return tick;
+    }
+
+    /**
+     * Builds the calculated rate of a formula from its results.
+     *
+     * <p>Updates the rate book and sends the result to Kafka.</p>
+     *
+     * @param node   the calculated formula.
+     * @param result the result of the single-valued formula, {@code NaN} if there is none.
+     * @param ask    the result of the ask formula, {@code NaN} if there is none.
+     * @param bid    the result of the bid formula, {@code NaN} if there is none.
+     */
+    private void publish(RateDependencyGraph.FormulaNode node, double result, double ask, double bid) {
+        if (Double.isNaN(result) && Double.isNaN(ask) && Double.isNaN(bid)) {
+            logger.warn("Ticker {} cannot be calculated", node.name());
+            return;
+        }
+
+        int tickerId = tickerRegistry.intern(node.name());
+        int scale = tickerRegistry.scaleOf(tickerId);
+        RateTick previous = rateBookService.get(RateBookService.CALCULATED_RATES, node.name());
+        long newBid = previous != null ? previous.bid() : RateTick.MISSING;
+        long newAsk = previous != null ? previous.ask() : RateTick.MISSING;
+        if(!Double.isNaN(bid)){
+            newBid = RateTick.toScaled(bid, scale);
+        }
+        if(!Double.isNaN(ask)){
+            newAsk = RateTick.toScaled(ask, scale);
+        }
+        if(!Double.isNaN(result)){
+            newAsk = RateTick.toScaled(result, scale);
+            newBid = newAsk;
+        }
+        RateTick tick = new RateTick(tickerId, newBid, newAsk, RateTick.nowNanos());
+        if(!tick.hasAsk() || !tick.hasBid()){
+            logger.debug("Ticker {} is missing one side and is not published yet", node.name());
+            return;
+        }
+        rateBookService.put(RateBookService.CALCULATED_RATES, tick);
+        kafkaProducer.sendRate("rate-topic", tick);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Key: {}, Calculated bid: {}, ask: {}", node.name(),
+                    RateTick.toDecimal(tick.bid(), scale), RateTick.toDecimal(tick.ask(), scale));
+        }
+    }
+
+    private static double resultOf(Map<String, BigDecimal> results, String expression, String key) {
+        BigDecimal result = expression != null ? results.get(key) : null;
+        return result != null ? result.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Evaluates the given affected formulas against a snapshot of their inputs and publishes the results.
+     *
+     * <p>Takes one snapshot of the inputs from the rate book and hands it to the calculation engine together
+     * with the precomputed, topologically ordered formula batch. Formulas whose inputs are not available yet
+     * are left out of the batch.</p>
+     *
+     * @param affected the affected formulas.
+     */
+    private void calculate(RateDependencyGraph.AffectedRates affected) {
+        if (affected.formulas().isEmpty()) {
+            return;
+        }
+        if (compiledEngine != null) {
+            calculateCompiled(affected);
+            return;
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        Set<String> available = new HashSet<>();
+        for (String rateName : affected.requiredRates()) {
+            RateTick tick = findInputRate(rateName);
+            if (tick != null) {
+                addBinding(snapshot, rateName, tick);
+                available.add(rateName);
+            }
+        }
+
+        List<RateDependencyGraph.FormulaNode> formulas = affected.formulas();
+        SequencedMap<String, String> formulaBatch = affected.formulaBatch();
+        if (available.size() < affected.requiredRates().size()) {
+            formulas = new ArrayList<>();
+            for (RateDependencyGraph.FormulaNode node : affected.formulas()) {
+                if (available.containsAll(node.dependencies())) {
+                    formulas.add(node);
+                    available.add(node.name());
+                } else {
+                    logger.debug("Ticker {} is waiting for dependencies {}", node.name(), node.dependencies());
+                }
+            }
+            formulaBatch = RateDependencyGraph.toFormulaBatch(formulas);
+        }
+
+        Map<String, BigDecimal> results = calculationEngine.evaluateAll(formulaBatch, snapshot);
+        for (RateDependencyGraph.FormulaNode node : formulas) {
+            publish(node, resultOf(results, node.expression(), node.name()),
+                    resultOf(results, node.askExpression(), node.name() + "_ask"),
+                    resultOf(results, node.bidExpression(), node.name() + "_bid"));
+        }
+    }
+
+    /**
+     * Evaluates the given affected formulas through the slots of the compiled engine and publishes the results.
+     *
+     * <p>The ask and bid of every required rate are written into its precomputed slots; a rate without a
+     * complete bid/ask writes {@code NaN}. A formula reading a {@code NaN} evaluates to {@code NaN}, so a node
+     * with a non-finite result is waiting for its dependencies: it is not published and its slots are set to
+     * {@code NaN}, which skips the formulas depending on it in turn.</p>
+     *
+     * @param affected the affected formulas of a compiled graph.
+     */
+    private void calculateCompiled(RateDependencyGraph.AffectedRates affected) {
+        List<String> requiredRates = affected.requiredRates();
+        int[] requiredSlots = affected.requiredSlots();
+        for (int i = 0; i < requiredRates.size(); i++) {
+            RateTick tick = findInputRate(requiredRates.get(i));
+            double ask = Double.NaN;
+            double bid = Double.NaN;
+            if (tick != null) {
+                int scale = tickerRegistry.scaleOf(tick.tickerId());
+                ask = RateTick.toDouble(tick.ask(), scale);
+                bid = RateTick.toDouble(tick.bid(), scale);
+            }
+            compiledEngine.setSlot(requiredSlots[i * 3], ask);
+            compiledEngine.setSlot(requiredSlots[i * 3 + 1], ask);
+            compiledEngine.setSlot(requiredSlots[i * 3 + 2], bid);
+        }
+
+        for (RateDependencyGraph.FormulaNode node : affected.formulas()) {
+            RateDependencyGraph.CompiledSlots compiled = node.compiled();
+            double result = evaluate(compiled.formula());
+            double ask = evaluate(compiled.askFormula());
+            double bid = evaluate(compiled.bidFormula());
+            if (Double.isInfinite(result) || Double.isInfinite(ask) || Double.isInfinite(bid)
+                    || (compiled.formula() != null && Double.isNaN(result))
+                    || (compiled.askFormula() != null && Double.isNaN(ask))
+                    || (compiled.bidFormula() != null && Double.isNaN(bid))) {
+                compiledEngine.setSlot(compiled.slot(), Double.NaN);
+                compiledEngine.setSlot(compiled.askSlot(), Double.NaN);
+                compiledEngine.setSlot(compiled.bidSlot(), Double.NaN);
+                logger.debug("Ticker {} is waiting for dependencies {}", node.name(), node.dependencies());
+                continue;
+            }
+            compiledEngine.setSlot(compiled.askSlot(), ask);
+            compiledEngine.setSlot(compiled.bidSlot(), bid);
+            compiledEngine.setSlot(compiled.slot(), compiled.formula() != null ? result : ask);
+            publish(node, result, ask, bid);
+        }
+    }
+
+    private double evaluate(CompiledFormula formula) {
+        return formula != null ? compiledEngine.evaluate(formula) : Double.NaN;
+    }
+}
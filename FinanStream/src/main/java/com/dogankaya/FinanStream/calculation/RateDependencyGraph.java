@@ -0,0 +1,450 @@
+package com.dogankaya.FinanStream.calculation;
+
+import com.dogankaya.FinanStream.engine.CompiledCalculationEngine;
+import com.dogankaya.FinanStream.engine.CompiledFormula;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * Dependency graph of the calculated rates defined in {@code rates.properties}.
+ *
+ * <p>The graph is built once when the formulas are loaded. Every formula (e.g. {@code USDMID}, {@code EURTRY})
+ * is a node, and every dependency that is not itself a formula is treated as a raw input rate. The nodes are
+ * sorted topologically, and for each raw input the list of formulas it invalidates is precomputed in that
+ * order, so a tick only has to evaluate a ready-made list where every intermediate is computed exactly once
+ * and before the formulas that use it.</p>
+ *
+ * <p>A graph built for a {@link CompiledCalculationEngine} carries {@link CompiledSlots} on every node: the
+ * compiled formulas and the engine slots of their inputs and outputs, so a recalculation writes and reads the
+ * engine slots directly.</p>
+ *
+ * <p>Cyclic definitions are rejected with an {@link IllegalStateException} while the graph is built.</p>
+ */
+public class RateDependencyGraph {
+    private static final Logger logger = LogManager.getLogger(RateDependencyGraph.class);
+
+    private final List<FormulaNode> topologicalOrder;
+    private final Map<String, Integer> position;
+    private final Map<String, AffectedRates> affectedByInput;
+
+    private RateDependencyGraph(List<FormulaNode> topologicalOrder, Map<String, Integer> position,
+                                Map<String, AffectedRates> affectedByInput) {
+        this.topologicalOrder = topologicalOrder;
+        this.position = position;
+        this.affectedByInput = affectedByInput;
+    }
+
+    /**
+     * Builds the dependency graph from the parsed formula definitions.
+     *
+     * @param formulas  formula expressions keyed by rate name, with {@code _ask}/{@code _bid} suffixes for
+     *                  side-specific formulas
+     * @param dependsOn declared dependencies keyed by rate name
+     * @return the built graph
+     * @throws IllegalStateException if the formulas contain a dependency cycle
+     */
+    public static RateDependencyGraph build(Map<String, String> formulas, Map<String, List<String>> dependsOn) {
+        return build(formulas, dependsOn, null);
+    }
+
+    /**
+     * Builds the dependency graph from the parsed formula definitions, compiling every formula against the slots
+     * of the given engine.
+     *
+     * @param formulas  formula expressions keyed by rate name, with {@code _ask}/{@code _bid} suffixes for
+     *                  side-specific formulas
+     * @param dependsOn declared dependencies keyed by rate name
+     * @param engine    the engine the formulas are compiled for, or {@code null} to not compile them
+     * @return the built graph
+     * @throws IllegalStateException    if the formulas contain a dependency cycle
+     * @throws IllegalArgumentException if a formula cannot be compiled
+     */
+    public static RateDependencyGraph build(Map<String, String> formulas, Map<String, List<String>> dependsOn,
+                                            CompiledCalculationEngine engine) {
+        Map<String, FormulaNode> nodes = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : dependsOn.entrySet()) {
+            String name = entry.getKey();
+            String expression = formulas.get(name);
+            String askExpression = formulas.get(name + "_ask");
+            String bidExpression = formulas.get(name + "_bid");
+            if (expression == null && askExpression == null && bidExpression == null) {
+                logger.warn("Rate {} has dependencies but no formula, it will not be calculated", name);
+                continue;
+            }
+            List<String> dependencies = List.copyOf(entry.getValue());
+            CompiledSlots compiled = engine != null
+                    ? CompiledSlots.compile(name, expression, askExpression, bidExpression, dependencies, engine)
+                    : null;
+            nodes.put(name, new FormulaNode(name, expression, askExpression, bidExpression, dependencies, compiled));
+        }
+        for (String key : formulas.keySet()) {
+            String baseKey = key.endsWith("_ask") || key.endsWith("_bid") ? key.substring(0, key.length() - 4) : key;
+            if (!dependsOn.containsKey(baseKey)) {
+                logger.warn("Formula {} has no depends.on definition, it will not be calculated", key);
+            }
+        }
+
+        List<FormulaNode> order = sortTopologically(nodes);
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i).name(), i);
+        }
+
+        Map<String, List<String>> dependents = new HashMap<>();
+        Set<String> inputs = new LinkedHashSet<>();
+        for (FormulaNode node : order) {
+            for (String dependency : node.dependencies()) {
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(node.name());
+                if (!nodes.containsKey(dependency)) {
+                    inputs.add(dependency);
+                }
+            }
+        }
+
+        Map<String, AffectedRates> affectedByInput = new HashMap<>();
+        for (String input : inputs) {
+            Set<String> reached = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>(dependents.get(input));
+            while (!queue.isEmpty()) {
+                String name = queue.poll();
+                if (reached.add(name)) {
+                    queue.addAll(dependents.getOrDefault(name, List.of()));
+                }
+            }
+            List<FormulaNode> affected = reached.stream()
+                    .sorted(Comparator.comparing(position::get))
+                    .map(nodes::get)
+                    .toList();
+            affectedByInput.put(input, toAffectedRates(affected));
+        }
+
+        logger.info("Rate dependency graph built with {} formulas and {} raw inputs", order.size(), inputs.size());
+        return new RateDependencyGraph(List.copyOf(order), Map.copyOf(position), Map.copyOf(affectedByInput));
+    }
+
+    /**
+     * Collects the rates read by the given formulas that they do not calculate themselves.
+     *
+     * @param affected formula nodes in topological order
+     * @return the affected rates with their required inputs and formula batch
+     */
+    private static AffectedRates toAffectedRates(List<FormulaNode> affected) {
+        Set<String> calculated = new HashSet<>();
+        for (FormulaNode node : affected) {
+            calculated.add(node.name());
+        }
+        Map<String, Integer> requiredRates = new LinkedHashMap<>();
+        int[] requiredSlots = new int[0];
+        for (FormulaNode node : affected) {
+            for (int i = 0; i < node.dependencies().size(); i++) {
+                String dependency = node.dependencies().get(i);
+                if (!calculated.contains(dependency) && !requiredRates.containsKey(dependency)) {
+                    int index = requiredRates.size();
+                    requiredRates.put(dependency, index);
+                    if (node.compiled() != null) {
+                        requiredSlots = Arrays.copyOf(requiredSlots, (index + 1) * 3);
+                        System.arraycopy(node.compiled().dependencySlots(), i * 3, requiredSlots, index * 3, 3);
+                    }
+                }
+            }
+        }
+        return new AffectedRates(affected, List.copyOf(requiredRates.keySet()), toFormulaBatch(affected), requiredSlots);
+    }
+
+    /**
+     * Sorts the formula nodes with Kahn's algorithm so that every formula comes after its dependencies.
+     *
+     * @param nodes formula nodes keyed by rate name
+     * @return the nodes in topological order
+     * @throws IllegalStateException if the nodes contain a dependency cycle
+     */
+    private static List<FormulaNode> sortTopologically(Map<String, FormulaNode> nodes) {
+        Map<String, Integer> inDegree = new LinkedHashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (FormulaNode node : nodes.values()) {
+            inDegree.putIfAbsent(node.name(), 0);
+            for (String dependency : node.dependencies()) {
+                if (nodes.containsKey(dependency)) {
+                    inDegree.merge(node.name(), 1, Integer::sum);
+                    dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(node.name());
+                }
+            }
+        }
+
+        Deque<String> ready = new ArrayDeque<>();
+        inDegree.forEach((name, degree) -> {
+            if (degree == 0) ready.add(name);
+        });
+
+        List<FormulaNode> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            String name = ready.poll();
+            order.add(nodes.get(name));
+            for (String dependent : dependents.getOrDefault(name, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (order.size() != nodes.size()) {
+            List<String> cyclic = inDegree.entrySet().stream()
+                    .filter(e -> e.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            throw new IllegalStateException("Cyclic rate dependencies detected between: " + cyclic);
+        }
+        return order;
+    }
+
+    /**
+     * Flattens formula nodes into a batch of expressions keyed by output variable name, in evaluation order.
+     *
+     * <p>A single-valued formula outputs its rate name, side-specific formulas output {@code name_ask} and
+     * {@code name_bid}. When a later node reads a two-sided rate by its plain name, an alias expression binding
+     * that name to the ask side is added right after it.</p>
+     *
+     * @param nodes formula nodes in topological order
+     * @return the formula batch
+     */
+    public static SequencedMap<String, String> toFormulaBatch(List<FormulaNode> nodes) {
+        Set<String> readByLaterNodes = new HashSet<>();
+        for (FormulaNode node : nodes) {
+            readByLaterNodes.addAll(node.dependencies());
+        }
+
+        SequencedMap<String, String> batch = new LinkedHashMap<>();
+        for (FormulaNode node : nodes) {
+            if (node.expression() != null) {
+                batch.put(node.name(), node.expression());
+            }
+            if (node.askExpression() != null) {
+                batch.put(node.name() + "_ask", node.askExpression());
+            }
+            if (node.bidExpression() != null) {
+                batch.put(node.name() + "_bid", node.bidExpression());
+            }
+            if (node.expression() == null && node.askExpression() != null && readByLaterNodes.contains(node.name())) {
+                batch.put(node.name(), node.name() + "_ask");
+            }
+        }
+        return Collections.unmodifiableSequencedMap(batch);
+    }
+
+    /**
+     * Returns the formulas invalidated by an update of the given raw rate.
+     *
+     * @param rateName the updated raw rate name
+     * @return the affected formulas in evaluation order, with the rates they read; empty if nothing depends on it
+     */
+    public AffectedRates getAffectedRates(String rateName) {
+        return affectedByInput.getOrDefault(rateName, AffectedRates.NONE);
+    }
+
+    /**
+     * Returns the formulas invalidated by updates of several raw rates, each formula once.
+     *
+     * <p>Used when a batch of updates is recalculated together: a formula reading more than one of the
+     * updated rates (e.g. {@code EURTRY} after both {@code PF1_USDTRY} and {@code PF1_EURUSD} ticked) is
+     * evaluated a single time, after all of its recalculated dependencies.</p>
+     *
+     * @param rateNames the updated raw rate names
+     * @return the affected formulas in evaluation order, with the rates they read; empty if nothing depends on them
+     */
+    public AffectedRates getAffectedRates(Collection<String> rateNames) {
+        AffectedRates single = null;
+        Set<FormulaNode> union = null;
+        for (String rateName : rateNames) {
+            AffectedRates affected = getAffectedRates(rateName);
+            if (affected.formulas().isEmpty()) continue;
+            if (single == null && union == null) {
+                single = affected;
+                continue;
+            }
+            if (union == null) {
+                union = new HashSet<>(single.formulas());
+            }
+            union.addAll(affected.formulas());
+        }
+        if (union == null) {
+            return single != null ? single : AffectedRates.NONE;
+        }
+        List<FormulaNode> ordered = union.stream()
+                .sorted(Comparator.comparing(node -> position.get(node.name())))
+                .toList();
+        return toAffectedRates(ordered);
+    }
+
+    /**
+     * Splits the graph into independent sub-graphs that can be calculated in parallel.
+     *
+     * <p>Formulas are grouped into connected components: two formulas belong to the same component when one
+     * depends on the other or when they read a common raw rate. Components never share state, so each can be
+     * calculated by its own thread without locks. When there are more components than {@code maxPartitions},
+     * components are packed into partitions, largest first, onto the partition with the fewest formulas.</p>
+     *
+     * @param maxPartitions upper bound on the number of partitions; {@code 0} or less for one per component
+     * @return the partition graphs, each holding whole components
+     */
+    public List<RateDependencyGraph> partition(int maxPartitions) {
+        Map<String, String> parent = new HashMap<>();
+        for (FormulaNode node : topologicalOrder) {
+            for (String dependency : node.dependencies()) {
+                union(parent, node.name(), dependency);
+            }
+        }
+        Map<String, List<FormulaNode>> components = new LinkedHashMap<>();
+        for (FormulaNode node : topologicalOrder) {
+            components.computeIfAbsent(find(parent, node.name()), k -> new ArrayList<>()).add(node);
+        }
+
+        int partitionCount = maxPartitions > 0 ? Math.min(maxPartitions, components.size()) : components.size();
+        List<List<FormulaNode>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        components.values().stream()
+                .sorted(Comparator.comparing(List<FormulaNode>::size).reversed())
+                .forEach(component -> partitions.stream()
+                        .min(Comparator.comparing(List::size))
+                        .orElseThrow()
+                        .addAll(component));
+
+        List<RateDependencyGraph> graphs = new ArrayList<>(partitionCount);
+        for (List<FormulaNode> nodes : partitions) {
+            nodes.sort(Comparator.comparing(node -> position.get(node.name())));
+            graphs.add(rebuild(nodes, null));
+        }
+        return graphs;
+    }
+
+    /**
+     * Returns this graph with every formula compiled against the slots of the given engine. The engine must
+     * only be used by the thread calculating this graph.
+     *
+     * @param engine the engine the formulas are compiled for
+     * @return the compiled graph
+     * @throws IllegalArgumentException if a formula cannot be compiled
+     */
+    public RateDependencyGraph compile(CompiledCalculationEngine engine) {
+        return rebuild(topologicalOrder, engine);
+    }
+
+    private static RateDependencyGraph rebuild(List<FormulaNode> nodes, CompiledCalculationEngine engine) {
+        Map<String, String> formulas = new HashMap<>();
+        Map<String, List<String>> dependsOn = new LinkedHashMap<>();
+        for (FormulaNode node : nodes) {
+            if (node.expression() != null) formulas.put(node.name(), node.expression());
+            if (node.askExpression() != null) formulas.put(node.name() + "_ask", node.askExpression());
+            if (node.bidExpression() != null) formulas.put(node.name() + "_bid", node.bidExpression());
+            dependsOn.put(node.name(), node.dependencies());
+        }
+        return build(formulas, dependsOn, engine);
+    }
+
+    private static String find(Map<String, String> parent, String name) {
+        String root = parent.computeIfAbsent(name, k -> k);
+        if (!root.equals(name)) {
+            root = find(parent, root);
+            parent.put(name, root);
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parent, String a, String b) {
+        String rootA = find(parent, a);
+        String rootB = find(parent, b);
+        if (!rootA.equals(rootB)) {
+            parent.put(rootA, rootB);
+        }
+    }
+
+    /**
+     * Returns the raw rates read by the formulas of this graph.
+     *
+     * @return the raw input rate names
+     */
+    public Set<String> getInputs() {
+        return affectedByInput.keySet();
+    }
+
+    /**
+     * Returns every formula in topological order.
+     *
+     * @return the formula nodes
+     */
+    public List<FormulaNode> getFormulas() {
+        return topologicalOrder;
+    }
+
+    /**
+     * A calculated rate definition.
+     *
+     * @param name          the calculated rate name
+     * @param expression    formula for a single-valued rate, or {@code null}
+     * @param askExpression formula for the ask side, or {@code null}
+     * @param bidExpression formula for the bid side, or {@code null}
+     * @param dependencies  rates the formulas read
+     * @param compiled      the compiled formulas and their slots, or {@code null} if the graph is not compiled
+     */
+    public record FormulaNode(String name, String expression, String askExpression, String bidExpression,
+                              List<String> dependencies, CompiledSlots compiled) {
+        public FormulaNode(String name, String expression, String askExpression, String bidExpression,
+                           List<String> dependencies) {
+            this(name, expression, askExpression, bidExpression, dependencies, null);
+        }
+    }
+
+    /**
+     * The formulas of a node compiled for a {@link CompiledCalculationEngine}, with the engine slots they use.
+     *
+     * <p>A formula that is not defined is {@code null}. A two-sided rate without a single-valued formula is also
+     * readable by its plain name, which holds the ask side, so {@code slot} is always assigned.</p>
+     *
+     * @param formula         the single-valued formula, or {@code null}
+     * @param askFormula      the ask formula, or {@code null}
+     * @param bidFormula      the bid formula, or {@code null}
+     * @param slot            the slot of the rate name
+     * @param askSlot         the slot of {@code name_ask}
+     * @param bidSlot         the slot of {@code name_bid}
+     * @param dependencySlots the slots of each dependency's name, {@code _ask} and {@code _bid}, three per
+     *                        dependency in declaration order
+     */
+    public record CompiledSlots(CompiledFormula formula, CompiledFormula askFormula, CompiledFormula bidFormula,
+                                int slot, int askSlot, int bidSlot, int[] dependencySlots) {
+
+        static CompiledSlots compile(String name, String expression, String askExpression, String bidExpression,
+                                     List<String> dependencies, CompiledCalculationEngine engine) {
+            int[] dependencySlots = new int[dependencies.size() * 3];
+            for (int i = 0; i < dependencies.size(); i++) {
+                String dependency = dependencies.get(i);
+                dependencySlots[i * 3] = engine.slotOf(dependency);
+                dependencySlots[i * 3 + 1] = engine.slotOf(dependency + "_ask");
+                dependencySlots[i * 3 + 2] = engine.slotOf(dependency + "_bid");
+            }
+            return new CompiledSlots(
+                    expression != null ? engine.compile(expression) : null,
+                    askExpression != null ? engine.compile(askExpression) : null,
+                    bidExpression != null ? engine.compile(bidExpression) : null,
+                    engine.slotOf(name), engine.slotOf(name + "_ask"), engine.slotOf(name + "_bid"),
+                    dependencySlots);
+        }
+    }
+
+    /**
+     * The precomputed result of an update to one raw rate.
+     *
+     * @param formulas      formulas to evaluate, in topological order
+     * @param requiredRates rates read by those formulas that are not recalculated themselves
+     * @param formulaBatch  the expressions of those formulas, see {@link #toFormulaBatch(List)}
+     * @param requiredSlots the engine slots of each required rate's name, {@code _ask} and {@code _bid}, three
+     *                      per required rate; empty if the graph is not compiled
+     */
+    public record AffectedRates(List<FormulaNode> formulas, List<String> requiredRates,
+                                SequencedMap<String, String> formulaBatch, int[] requiredSlots) {
+        static final AffectedRates NONE = new AffectedRates(List.of(), List.of(), Collections.emptySortedMap(),
+                new int[0]);
+    }
+}
@@ -1,6 +1,8 @@
 package com.dogankaya.FinanStream.config;
 
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +12,7 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import rate.RateDto;
+import rate.RateDtoBinarySerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,8 +24,11 @@ import java.util.Map;
  * <p>This configuration defines the necessary producer factory and Kafka template
  * beans required to produce messages to a Kafka topic.</p>
  *
- * <p>It uses {@link StringSerializer} for the key and {@link JsonSerializer} for
- * serializing the {@link RateDto} objects as message values.</p>
+ * <p>It uses {@link StringSerializer} for the key and, depending on {@code finanstream.kafka.value-format},
+ * {@link JsonSerializer} or {@link RateDtoBinarySerializer} for serializing the {@link RateDto} objects as
+ * message values. Batching, compression and acknowledgement are
+ * tuned through {@code finanstream.kafka.*}; acknowledgements other than {@code all} limit the producer to one
+ * in-flight request per connection, so the updates of a rate stay in order.</p>
  */
 @Configuration
 public class KafkaProducerConfig {
@@ -33,19 +39,42 @@ public class KafkaProducerConfig {
     @Value("${kafka.bootstrap.servers}")
     private String bootstrapServers;
 
+    private final FinanStreamProperties.KafkaProperties kafkaProperties;
+
+    public KafkaProducerConfig(FinanStreamProperties finanStreamProperties) {
+        this.kafkaProperties = finanStreamProperties.getKafka();
+    }
+
     /**
      * Creates a Kafka {@link ProducerFactory} bean configured for sending messages
-     * with String keys and {@link RateDto} values serialized as JSON.
+     * with String keys and {@link RateDto} values serialized as JSON or binary.
      *
      * @return a configured {@link ProducerFactory} instance
+     * @throws IllegalArgumentException if the configured value format is unknown
      */
     @Bean
     public ProducerFactory<String, RateDto> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, kafkaProperties.getLingerMs());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaProperties.getBatchSize());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, kafkaProperties.getCompressionType());
+        configProps.put(ProducerConfig.ACKS_CONFIG, kafkaProperties.getAcks());
+        if (!"all".equals(kafkaProperties.getAcks()) && !"-1".equals(kafkaProperties.getAcks())) {
+            // without idempotence retried requests could overtake later ones and reorder the updates of a rate
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+        }
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, kafkaProperties.getMaxBlockMs());
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer());
+    }
+
+    private Serializer<RateDto> valueSerializer() {
+        return switch (kafkaProperties.getValueFormat()) {
+            case "json" -> new JsonSerializer<>();
+            case "binary" -> new RateDtoBinarySerializer();
+            default -> throw new IllegalArgumentException("Unsupported Kafka value format: " + kafkaProperties.getValueFormat());
+        };
     }
 
     /**
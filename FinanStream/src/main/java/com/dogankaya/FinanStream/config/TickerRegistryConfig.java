@@ -0,0 +1,29 @@
+package com.dogankaya.FinanStream.config;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rate.TickerRegistry;
+
+/**
+ * Configuration class that exposes the shared {@link TickerRegistry} as a bean
+ * with the configured per-instrument price scales applied.
+ */
+@Configuration
+public class TickerRegistryConfig {
+    /**
+     * Creates the TickerRegistry bean.
+     *
+     * <p>The shared registry instance is returned so that platform handlers, which are not Spring beans,
+     * see the same ticker ids and scales.</p>
+     *
+     * @param finanStreamProperties properties containing the price scales
+     * @return the configured registry
+     */
+    @Bean
+    public TickerRegistry tickerRegistry(FinanStreamProperties finanStreamProperties) {
+        TickerRegistry registry = TickerRegistry.getInstance();
+        finanStreamProperties.getPriceScales().forEach(registry::setScale);
+        return registry;
+    }
+}
@@ -0,0 +1,188 @@
+package com.dogankaya.FinanStream.engine;
+
+import com.dogankaya.FinanStream.abscraction.ICalculationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SequencedMap;
+
+/**
+ * {@code CompiledCalculationEngine} is an implementation of {@link ICalculationEngine} that parses every
+ * expression once into a {@link CompiledFormula} and evaluates it against a primitive slot array.
+ *
+ * <p>Each variable name is assigned a fixed slot the first time it is seen, either while compiling a formula
+ * or when a value is bound. Binding a variable writes a {@code double} into its slot, and evaluating a
+ * compiled formula reads those slots directly, without boxing, map lookups or intermediate
+ * {@link BigDecimal}s. Variables that have never been bound hold {@code NaN}, and a non-finite result is
+ * reported as an error.</p>
+ *
+ * <p>Callers that keep the {@link CompiledFormula} and slot indices can use {@link #compile(String)},
+ * {@link #slotOf(String)}, {@link #setSlot(int, double)} and {@link #evaluate(CompiledFormula)} to evaluate
+ * without any allocation; the calculation partitions do so with the slots a compiled
+ * {@code RateDependencyGraph} keeps on its nodes. Instances are not thread-safe; each calculation thread should
+ * own one.</p>
+ */
+public class CompiledCalculationEngine implements ICalculationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledCalculationEngine.class);
+
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+    private final Map<String, CompiledFormula> compiledFormulas = new HashMap<>();
+    private double[] slots = new double[0];
+
+    /**
+     * Returns the name of this calculation engine.
+     *
+     * @return the string "compiled"
+     */
+    @Override
+    public String getName() {
+        return "compiled";
+    }
+
+    /**
+     * Initializes the engine by binding the given values to their slots.
+     *
+     * @param initialBindings a map of variable names to their initial values
+     */
+    @Override
+    public void initialize(Map<String, Object> initialBindings) {
+        initialBindings.forEach(this::setVariable);
+        logger.info("Compiled engine initialized successfully with {} initial bindings.", initialBindings.size());
+    }
+
+    /**
+     * Evaluates an expression after binding the given variables.
+     *
+     * <p>The expression is compiled and cached on first use.</p>
+     *
+     * @param expression      the expression to evaluate
+     * @param currentBindings optional map of variable bindings for this evaluation, can be null
+     * @return the evaluation result as a {@link BigDecimal}
+     * @throws IllegalArgumentException if the expression cannot be compiled
+     * @throws ArithmeticException      if the result is not a finite number
+     */
+    @Override
+    public BigDecimal evaluate(String expression, Map<String, Object> currentBindings) {
+        if (currentBindings != null) {
+            currentBindings.forEach(this::setVariable);
+        }
+        CompiledFormula formula = compile(expression);
+        double result = evaluate(formula);
+        if (!Double.isFinite(result)) {
+            throw new ArithmeticException("Expression did not evaluate to a finite number: " + expression);
+        }
+        return BigDecimal.valueOf(result);
+    }
+
+    /**
+     * Evaluates a batch of expressions after writing the snapshot into the slots once.
+     *
+     * <p>Each result is written to the slot of its output name, so later expressions of the batch read it
+     * without boxing. Expressions that fail are logged and left out of the result.</p>
+     *
+     * @param formulas expressions keyed by output variable name, in evaluation order
+     * @param snapshot the input variable bindings
+     * @return the results keyed by output variable name
+     */
+    @Override
+    public Map<String, BigDecimal> evaluateAll(SequencedMap<String, String> formulas, Map<String, Object> snapshot) {
+        snapshot.forEach(this::setVariable);
+
+        Map<String, BigDecimal> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> formula : formulas.entrySet()) {
+            int outputSlot = slotOf(formula.getKey());
+            try {
+                double result = evaluate(compile(formula.getValue()));
+                if (!Double.isFinite(result)) {
+                    throw new ArithmeticException("Expression did not evaluate to a finite number: " + formula.getValue());
+                }
+                slots[outputSlot] = result;
+                results.put(formula.getKey(), BigDecimal.valueOf(result));
+            } catch (RuntimeException e) {
+                slots[outputSlot] = Double.NaN;
+                logger.warn("Formula {} cannot be evaluated cause: {}", formula.getKey(), e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Binds a numeric value to a variable. {@code null} or non-numeric values unset the variable.
+     *
+     * @param name  the variable name
+     * @param value the variable value
+     */
+    @Override
+    public void setVariable(String name, Object value) {
+        int slot = slotOf(name);
+        if (value instanceof Number number) {
+            slots[slot] = number.doubleValue();
+        } else {
+            if (value != null) {
+                logger.warn("Variable '{}' has unsupported type for the compiled engine. Value: {}", name, value);
+            }
+            slots[slot] = Double.NaN;
+        }
+    }
+
+    /**
+     * Returns the compiled form of an expression, compiling and caching it on first use.
+     *
+     * @param expression the expression
+     * @return the compiled formula
+     * @throws IllegalArgumentException if the expression cannot be compiled
+     */
+    public CompiledFormula compile(String expression) {
+        CompiledFormula formula = compiledFormulas.get(expression);
+        if (formula == null) {
+            formula = CompiledFormula.compile(expression, this::slotOf);
+            compiledFormulas.put(expression, formula);
+        }
+        return formula;
+    }
+
+    /**
+     * Returns the slot index of a variable, assigning a new slot on first use.
+     *
+     * @param name the variable name
+     * @return the slot index
+     */
+    public int slotOf(String name) {
+        Integer slot = slotIndex.get(name);
+        if (slot == null) {
+            slot = slotIndex.size();
+            slotIndex.put(name, slot);
+            if (slot >= slots.length) {
+                int previousLength = slots.length;
+                slots = Arrays.copyOf(slots, Math.max(16, previousLength * 2));
+                Arrays.fill(slots, previousLength, slots.length, Double.NaN);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Writes a value directly into a slot.
+     *
+     * @param slot  the slot index returned by {@link #slotOf(String)}
+     * @param value the value
+     */
+    public void setSlot(int slot, double value) {
+        slots[slot] = value;
+    }
+
+    /**
+     * Evaluates a compiled formula against the current slot values without allocating.
+     *
+     * @param formula a formula returned by {@link #compile(String)} of this engine
+     * @return the result; {@code NaN} if a variable it reads has not been bound
+     */
+    public double evaluate(CompiledFormula formula) {
+        return formula.evaluate(slots);
+    }
+}
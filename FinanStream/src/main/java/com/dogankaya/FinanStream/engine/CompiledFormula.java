@@ -0,0 +1,424 @@
+package com.dogankaya.FinanStream.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * A formula parsed once into a closed tree of specialized nodes.
+ *
+ * <p>Every variable is resolved to a fixed index of a {@code double[]} slot array while parsing, so
+ * {@link #evaluate(double[])} only walks the tree and reads primitives: it performs no map lookups, no boxing
+ * and no allocation. Constant sub-expressions are folded at parse time.</p>
+ *
+ * <p>Supported syntax: decimal literals, variables ({@code [A-Za-z_][A-Za-z0-9_]*}), parentheses, unary
+ * {@code +}/{@code -}, the binary operators {@code + - * / %} and a right-associative {@code ^}, and the
+ * functions {@code abs, sqrt, exp, log, floor, ceil, min, max, pow}.</p>
+ */
+public final class CompiledFormula {
+    private final String expression;
+    private final Node root;
+
+    private CompiledFormula(String expression, Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * Parses an expression, resolving every variable name to a slot index.
+     *
+     * @param expression   the expression to parse
+     * @param slotResolver returns the slot index of a variable name
+     * @return the compiled formula
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CompiledFormula compile(String expression, ToIntFunction<String> slotResolver) {
+        Parser parser = new Parser(expression, slotResolver);
+        Node root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.position < expression.length()) {
+            throw parser.error("Unexpected character '" + expression.charAt(parser.position) + "'");
+        }
+        return new CompiledFormula(expression, root);
+    }
+
+    /**
+     * Evaluates the formula against the given slot values.
+     *
+     * @param slots variable values indexed by the slots resolved at compile time
+     * @return the result; {@code NaN} if a variable has not been set
+     */
+    public double evaluate(double[] slots) {
+        return root.evaluate(slots);
+    }
+
+    /**
+     * Returns the source expression of this formula.
+     *
+     * @return the expression string
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    private abstract static class Node {
+        abstract double evaluate(double[] slots);
+
+        boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Constant extends Node {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Variable extends Node {
+        private final int slot;
+
+        Variable(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return slots[slot];
+        }
+    }
+
+    private static final class Negate extends Node {
+        private final Node operand;
+
+        Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return -operand.evaluate(slots);
+        }
+    }
+
+    private static final class Add extends Node {
+        private final Node left;
+        private final Node right;
+
+        Add(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return left.evaluate(slots) + right.evaluate(slots);
+        }
+    }
+
+    private static final class Subtract extends Node {
+        private final Node left;
+        private final Node right;
+
+        Subtract(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return left.evaluate(slots) - right.evaluate(slots);
+        }
+    }
+
+    private static final class Multiply extends Node {
+        private final Node left;
+        private final Node right;
+
+        Multiply(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return left.evaluate(slots) * right.evaluate(slots);
+        }
+    }
+
+    private static final class Divide extends Node {
+        private final Node left;
+        private final Node right;
+
+        Divide(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return left.evaluate(slots) / right.evaluate(slots);
+        }
+    }
+
+    private static final class Remainder extends Node {
+        private final Node left;
+        private final Node right;
+
+        Remainder(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return left.evaluate(slots) % right.evaluate(slots);
+        }
+    }
+
+    private static final class Power extends Node {
+        private final Node base;
+        private final Node exponent;
+
+        Power(Node base, Node exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return Math.pow(base.evaluate(slots), exponent.evaluate(slots));
+        }
+    }
+
+    private static final class UnaryFunction extends Node {
+        private final DoubleUnaryOperator function;
+        private final Node operand;
+
+        UnaryFunction(DoubleUnaryOperator function, Node operand) {
+            this.function = function;
+            this.operand = operand;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return function.applyAsDouble(operand.evaluate(slots));
+        }
+    }
+
+    private static final class BinaryFunction extends Node {
+        private final DoubleBinaryOperator function;
+        private final Node left;
+        private final Node right;
+
+        BinaryFunction(DoubleBinaryOperator function, Node left, Node right) {
+            this.function = function;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] slots) {
+            return function.applyAsDouble(left.evaluate(slots), right.evaluate(slots));
+        }
+    }
+
+    /**
+     * Recursive-descent parser producing the node tree.
+     */
+    private static final class Parser {
+        private static final Map<String, DoubleUnaryOperator> UNARY_FUNCTIONS = Map.of(
+                "abs", Math::abs,
+                "sqrt", Math::sqrt,
+                "exp", Math::exp,
+                "log", Math::log,
+                "floor", Math::floor,
+                "ceil", Math::ceil);
+        private static final Map<String, DoubleBinaryOperator> BINARY_FUNCTIONS = Map.of(
+                "min", Math::min,
+                "max", Math::max,
+                "pow", Math::pow);
+
+        private final String source;
+        private final ToIntFunction<String> slotResolver;
+        private int position;
+
+        Parser(String source, ToIntFunction<String> slotResolver) {
+            this.source = source;
+            this.slotResolver = slotResolver;
+        }
+
+        Node parseExpression() {
+            Node node = parseTerm();
+            while (true) {
+                if (accept('+')) {
+                    node = fold(new Add(node, parseTerm()));
+                } else if (accept('-')) {
+                    node = fold(new Subtract(node, parseTerm()));
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node parseTerm() {
+            Node node = parseUnary();
+            while (true) {
+                if (accept('*')) {
+                    node = fold(new Multiply(node, parseUnary()));
+                } else if (accept('/')) {
+                    node = fold(new Divide(node, parseUnary()));
+                } else if (accept('%')) {
+                    node = fold(new Remainder(node, parseUnary()));
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node parseUnary() {
+            if (accept('-')) {
+                return fold(new Negate(parseUnary()));
+            }
+            if (accept('+')) {
+                return parseUnary();
+            }
+            Node base = parsePrimary();
+            if (accept('^')) {
+                return fold(new Power(base, parseUnary()));
+            }
+            return base;
+        }
+
+        private Node parsePrimary() {
+            skipWhitespace();
+            if (position >= source.length()) {
+                throw error("Unexpected end of expression");
+            }
+            char c = source.charAt(position);
+            if (accept('(')) {
+                Node node = parseExpression();
+                expect(')');
+                return node;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return parseNumber();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                String name = parseIdentifier();
+                if (accept('(')) {
+                    return parseFunction(name);
+                }
+                return new Variable(slotResolver.applyAsInt(name));
+            }
+            throw error("Unexpected character '" + c + "'");
+        }
+
+        private Node parseFunction(String name) {
+            List<Node> arguments = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    arguments.add(parseExpression());
+                } while (accept(','));
+                expect(')');
+            }
+            if (UNARY_FUNCTIONS.containsKey(name) && arguments.size() == 1) {
+                return fold(new UnaryFunction(UNARY_FUNCTIONS.get(name), arguments.get(0)));
+            }
+            if (BINARY_FUNCTIONS.containsKey(name) && arguments.size() == 2) {
+                return fold(new BinaryFunction(BINARY_FUNCTIONS.get(name), arguments.get(0), arguments.get(1)));
+            }
+            throw error("Unknown function " + name + " with " + arguments.size() + " argument(s)");
+        }
+
+        private Node parseNumber() {
+            int start = position;
+            while (position < source.length()
+                    && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+                position++;
+                if (position < source.length() && (source.charAt(position) == '+' || source.charAt(position) == '-')) {
+                    position++;
+                }
+                while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+            try {
+                return new Constant(Double.parseDouble(source.substring(start, position)));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + source.substring(start, position) + "'");
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = position;
+            while (position < source.length()
+                    && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+                position++;
+            }
+            return source.substring(start, position);
+        }
+
+        /**
+         * Replaces a node whose operands are all constants by its value.
+         */
+        private Node fold(Node node) {
+            boolean constant = switch (node) {
+                case Negate n -> n.operand.isConstant();
+                case Add n -> n.left.isConstant() && n.right.isConstant();
+                case Subtract n -> n.left.isConstant() && n.right.isConstant();
+                case Multiply n -> n.left.isConstant() && n.right.isConstant();
+                case Divide n -> n.left.isConstant() && n.right.isConstant();
+                case Remainder n -> n.left.isConstant() && n.right.isConstant();
+                case Power n -> n.base.isConstant() && n.exponent.isConstant();
+                case UnaryFunction n -> n.operand.isConstant();
+                case BinaryFunction n -> n.left.isConstant() && n.right.isConstant();
+                default -> false;
+            };
+            return constant ? new Constant(node.evaluate(new double[0])) : node;
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < source.length() && source.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in expression: " + source);
+        }
+    }
+}
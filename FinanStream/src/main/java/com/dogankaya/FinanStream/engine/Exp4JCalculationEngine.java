@@ -8,7 +8,9 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.SequencedMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -64,7 +66,8 @@ public class Exp4JCalculationEngine implements ICalculationEngine {
      * Variables are extracted via regex and registered with the expression builder.</p>
      *
      * <p>Variables present in the expression are assigned values from the context
-     * if they are numbers; unsupported types or missing variables will generate warnings.</p>
+     * if they are numbers; unsupported types or missing variables will generate warnings and are set to
+     * {@code NaN}, so an expression reading them fails instead of reusing their previous value.</p>
      *
      * @param expressionString the expression to evaluate
      * @param currentBindings optional map of variable bindings specific to this evaluation, can be null
@@ -77,7 +80,49 @@ public class Exp4JCalculationEngine implements ICalculationEngine {
             this.currentExp4jContext.putAll(currentBindings);
             this.knownVariables.addAll(currentBindings.keySet());
         }
+        return evaluateInContext(expressionString);
+    }
+
+    /**
+     * Evaluates a batch of expressions after copying the snapshot into the context once.
+     *
+     * <p>Each result is stored in the context under its output name so that later expressions of the
+     * batch read it. Expressions that fail are logged and left out of the result, and their output is removed
+     * from the context, so that later expressions reading it fail as well instead of reading the value of a
+     * previous batch.</p>
+     *
+     * @param formulas expressions keyed by output variable name, in evaluation order
+     * @param snapshot the input variable bindings
+     * @return the results keyed by output variable name
+     */
+    @Override
+    public Map<String, BigDecimal> evaluateAll(SequencedMap<String, String> formulas, Map<String, Object> snapshot) {
+        this.currentExp4jContext.putAll(snapshot);
+        this.knownVariables.addAll(snapshot.keySet());
+
+        Map<String, BigDecimal> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> formula : formulas.entrySet()) {
+            try {
+                BigDecimal result = evaluateInContext(formula.getValue());
+                this.currentExp4jContext.put(formula.getKey(), result);
+                this.knownVariables.add(formula.getKey());
+                results.put(formula.getKey(), result);
+            } catch (RuntimeException e) {
+                this.currentExp4jContext.remove(formula.getKey());
+                logger.warn("Formula {} cannot be evaluated cause: {}", formula.getKey(), e.getMessage());
+            }
+        }
+        return results;
+    }
 
+    /**
+     * Evaluates an expression against the current context, compiling and caching it on first use.
+     *
+     * @param expressionString the expression to evaluate
+     * @return the evaluation result as a {@link BigDecimal}
+     * @throws RuntimeException if the expression compilation or evaluation fails
+     */
+    private BigDecimal evaluateInContext(String expressionString) {
         Expression compiledExp = compiledExpressions.computeIfAbsent(expressionString, key -> {
             try {
                 Set<String> variablesInExpression = new HashSet<>();
@@ -106,6 +151,7 @@ public class Exp4JCalculationEngine implements ICalculationEngine {
                 compiledExp.setVariable(varName, ((Number) value).doubleValue());
             } else {
                 logger.warn("Variable '{}' has unsupported type or is null in Exp4j context. Value: {}", varName, value);
+                compiledExp.setVariable(varName, Double.NaN);
             }
         }
 
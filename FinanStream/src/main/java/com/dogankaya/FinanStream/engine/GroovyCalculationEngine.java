@@ -3,22 +3,36 @@ package com.dogankaya.FinanStream.engine;
 import com.dogankaya.FinanStream.abscraction.ICalculationEngine;
 import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
+import groovy.lang.Script;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
 import groovy.transform.CompileStatic;
 import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Implementation of {@link ICalculationEngine} that evaluates mathematical expressions using the Groovy language.
  *
- * <p>This engine uses a {@link GroovyShell} to evaluate expressions dynamically, with variables managed through
- * a {@link Binding}. It supports optional static compilation via the {@code @CompileStatic} annotation
- * to improve performance and type safety.</p>
+ * <p>Every distinct expression is parsed and compiled into a script class only once, and the class is cached
+ * by expression. Each thread gets its own {@link Binding} and its own {@link Script} instance per expression,
+ * bound to that binding, so evaluation only sets variables and runs an already compiled script.</p>
+ *
+ * <p>The engine supports optional static compilation via the {@code @CompileStatic} annotation to improve
+ * performance and type safety. Since a statically compiled script cannot read undeclared binding variables,
+ * each variable used by the expression is then declared as a {@link Number} read from the binding.</p>
  *
  * <p>The engine automatically imports {@code java.lang.Math} static methods and {@code java.math.BigDecimal}
  * for convenience in expression evaluation.</p>
@@ -37,17 +51,33 @@ import java.util.Map;
 public class GroovyCalculationEngine implements ICalculationEngine {
     private static final Logger logger = LoggerFactory.getLogger(GroovyCalculationEngine.class);
 
-    private GroovyShell shell;
-    private Binding binding;
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("(?<![\\w.])([A-Za-z_][A-Za-z0-9_]*)(?!\\w|\\s*[(.])");
+    private static final Set<String> KEYWORDS = Set.of("new", "as", "in", "instanceof", "true", "false", "null",
+            "def", "return", "if", "else");
+
+    private final GroovyShell shell;
     private final boolean staticCompile;
     private final String scriptBaseClass;
+    private final Map<String, Class<? extends Script>> compiledScripts = new ConcurrentHashMap<>();
+    private final ThreadLocal<ThreadContext> threadContext = ThreadLocal.withInitial(ThreadContext::new);
 
     /**
      * Default constructor which disables static compilation and does not set a custom script base class.
      */
     public GroovyCalculationEngine() {
-        this.staticCompile = false;
-        this.scriptBaseClass = null;
+        this(false, null);
+    }
+
+    /**
+     * Constructor with explicit compilation options.
+     *
+     * @param staticCompile   whether scripts are compiled with {@code @CompileStatic}
+     * @param scriptBaseClass fully qualified name of a custom script base class, or {@code null}
+     */
+    public GroovyCalculationEngine(boolean staticCompile, String scriptBaseClass) {
+        this.staticCompile = staticCompile;
+        this.scriptBaseClass = scriptBaseClass;
+        this.shell = createShell();
     }
 
     /**
@@ -63,18 +93,25 @@ public class GroovyCalculationEngine implements ICalculationEngine {
     /**
      * Initializes the calculation engine with a set of initial variable bindings.
      *
-     * <p>This method sets up the Groovy {@link Binding} with the provided variables,
-     * configures the Groovy shell including optional static compilation and
-     * script base class customization, and adds convenient imports such as {@code java.lang.Math}
-     * and {@code java.math.BigDecimal}.</p>
+     * <p>The given variables are set in the calling thread's {@link Binding}.</p>
      *
      * @param initialBindings a {@link Map} containing initial variable names and their values
      */
     @Override
     public void initialize(Map<String, Object> initialBindings) {
-        this.binding = new Binding();
-        initialBindings.forEach(this.binding::setVariable);
+        Binding binding = threadContext.get().binding;
+        initialBindings.forEach(binding::setVariable);
+    }
 
+    /**
+     * Creates the shell used to compile expressions.
+     *
+     * <p>Configures optional static compilation and script base class customization, and adds convenient
+     * imports such as {@code java.lang.Math} and {@code java.math.BigDecimal}.</p>
+     *
+     * @return the configured {@link GroovyShell}
+     */
+    private GroovyShell createShell() {
         CompilerConfiguration config = new CompilerConfiguration();
 
         if (scriptBaseClass != null && !scriptBaseClass.isEmpty()) {
@@ -92,14 +129,14 @@ public class GroovyCalculationEngine implements ICalculationEngine {
         importCustomizer.addImports("java.math.BigDecimal");
         config.addCompilationCustomizers(importCustomizer);
 
-        this.shell = new GroovyShell(this.getClass().getClassLoader(), binding, config);
+        return new GroovyShell(this.getClass().getClassLoader(), new Binding(), config);
     }
 
     /**
      * Evaluates the given Groovy expression string using the current variable bindings.
      *
      * <p>If {@code currentBindings} is provided, the variables in it are updated
-     * in the engine's binding before evaluation.</p>
+     * in the calling thread's binding before evaluation. The expression is compiled on first use only.</p>
      *
      * <p>The result is expected to be a numeric type and is converted to {@link BigDecimal}.
      * If the result is not numeric, this method throws an {@link IllegalArgumentException}.</p>
@@ -111,10 +148,61 @@ public class GroovyCalculationEngine implements ICalculationEngine {
      */
     @Override
     public BigDecimal evaluate(String expression, Map<String, Object> currentBindings) {
+        ThreadContext context = threadContext.get();
         if (currentBindings != null) {
-            currentBindings.forEach(this.binding::setVariable);
+            currentBindings.forEach(context.binding::setVariable);
         }
-        Object result = shell.evaluate(expression);
+        return run(context, expression);
+    }
+
+    /**
+     * Evaluates a batch of expressions after setting the snapshot in the calling thread's binding once.
+     *
+     * <p>Each result is set in the binding under its output name so that later expressions of the batch
+     * read it. Expressions that fail are logged and left out of the result, and their output is removed from
+     * the binding, so that later expressions reading it fail as well instead of reading the value of a
+     * previous batch.</p>
+     *
+     * @param formulas expressions keyed by output variable name, in evaluation order
+     * @param snapshot the input variable bindings
+     * @return the results keyed by output variable name
+     */
+    @Override
+    public Map<String, BigDecimal> evaluateAll(SequencedMap<String, String> formulas, Map<String, Object> snapshot) {
+        ThreadContext context = threadContext.get();
+        snapshot.forEach(context.binding::setVariable);
+
+        Map<String, BigDecimal> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> formula : formulas.entrySet()) {
+            try {
+                BigDecimal result = run(context, formula.getValue());
+                context.binding.setVariable(formula.getKey(), result);
+                results.put(formula.getKey(), result);
+            } catch (Exception e) {
+                if (context.binding.hasVariable(formula.getKey())) {
+                    context.binding.removeVariable(formula.getKey());
+                }
+                logger.warn("Formula {} cannot be evaluated cause: {}", formula.getKey(), e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs the thread's script instance for an expression, creating it on first use.
+     *
+     * @param context    the calling thread's context
+     * @param expression the Groovy expression
+     * @return the evaluated result as a {@link BigDecimal}
+     * @throws IllegalArgumentException if the evaluation result is not a number
+     */
+    private BigDecimal run(ThreadContext context, String expression) {
+        Script script = context.scripts.get(expression);
+        if (script == null) {
+            script = InvokerHelper.createScript(compiledScripts.computeIfAbsent(expression, this::compile), context.binding);
+            context.scripts.put(expression, script);
+        }
+        Object result = script.run();
         if (result instanceof BigDecimal) {
             return (BigDecimal) result;
         } else if (result instanceof Number) {
@@ -124,19 +212,56 @@ public class GroovyCalculationEngine implements ICalculationEngine {
     }
 
     /**
-     * Sets or updates a variable in the Groovy shell's binding.
+     * Compiles an expression into a script class.
+     *
+     * @param expression the Groovy expression
+     * @return the compiled script class
+     */
+    private Class<? extends Script> compile(String expression) {
+        String source = staticCompile ? declareVariables(expression) + expression : expression;
+        logger.debug("Compiling Groovy expression: {}", expression);
+        return shell.parse(source).getClass();
+    }
+
+    /**
+     * Builds typed declarations for the binding variables used by an expression, so that it can be
+     * compiled statically.
      *
-     * <p>If the binding is not initialized, this method logs a warning and does nothing.</p>
+     * @param expression the Groovy expression
+     * @return the declarations, one per line
+     */
+    private static String declareVariables(String expression) {
+        Set<String> variables = new LinkedHashSet<>();
+        Matcher matcher = IDENTIFIER_PATTERN.matcher(expression);
+        while (matcher.find()) {
+            if (!KEYWORDS.contains(matcher.group(1))) {
+                variables.add(matcher.group(1));
+            }
+        }
+        StringBuilder declarations = new StringBuilder();
+        for (String variable : variables) {
+            declarations.append("Number ").append(variable)
+                    .append(" = (Number) getBinding().getVariable('").append(variable).append("')\n");
+        }
+        return declarations.toString();
+    }
+
+    /**
+     * Sets or updates a variable in the calling thread's binding.
      *
      * @param name the variable name as a {@link String}
      * @param value the variable value as an {@link Object}
      */
     @Override
     public void setVariable(String name, Object value) {
-        if (binding != null) {
-            binding.setVariable(name, value);
-        } else {
-            logger.warn("Binding not initialized for GroovyCalculationEngine. Cannot set variable: {}={}", name, value);
-        }
+        threadContext.get().binding.setVariable(name, value);
+    }
+
+    /**
+     * Per-thread binding and script instances bound to it.
+     */
+    private static final class ThreadContext {
+        private final Binding binding = new Binding();
+        private final Map<String, Script> scripts = new HashMap<>();
     }
-}
\ No newline at end of file
+}
@@ -1,38 +1,70 @@
 package com.dogankaya.FinanStream.handlers;
 
 import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
-import rate.RateDto;
+import com.dogankaya.FinanStream.helpers.RateTickParser;
 import rate.RateStatus;
+import rate.RateTick;
+import rate.TickerRegistry;
 import com.dogankaya.FinanStream.abscraction.ICoordinatorCallback;
 import com.dogankaya.FinanStream.abscraction.IPlatformHandler;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 /**
  * Implementation of IPlatformHandler for handling Telnet-based platform connection.
  * Connects to a Telnet server, listens for JSON-encoded rate updates, and sends subscribe/unsubscribe commands.
+ * Rate updates are parsed directly into {@link RateTick}s. With {@code batch-frames} enabled the handler sends
+ * {@code batch|on} after connecting and the server sends the updates of each flush window as one JSON array line,
+ * whose rates are dispatched one by one. The configured {@code subscriptions}, such as the synthetic load
+ * instruments, are subscribed to right after connecting.
+ * <p>
+ * The handler remembers the last sequence number received for each rate. When the connection is lost it reconnects
+ * every {@code reconnect-interval-ms} and sends {@code resume|rate|seq} for the rates it has seen, so the server
+ * replays the missed updates, or the latest one, instead of the handler waiting for the next update; the other
+ * subscriptions are renewed with {@code subscribe}. Every connection starts with {@code hello}, whose answer carries
+ * the server's epoch: when it differs from the epoch of the previous connection the server has restarted and its
+ * sequence numbers started again, so the remembered ones are dropped and every rate is subscribed afresh. A server
+ * that does not answer {@code hello} within {@code handshake-timeout-ms} fails the connection attempt.
  */
 public class Platform1_TelnetHandler implements IPlatformHandler {
 
     private static final Logger logger = LogManager.getLogger(Platform1_TelnetHandler.class);
+    private static final String HELLO_RESPONSE = "Hello|epoch=";
+    private static final long NO_EPOCH = -1;
 
     private final int telnetPort;
     private final String telnetHost;
     private final String platformName;
+    private final boolean batchFrames;
+    private final List<String> subscriptions;
+    private final long reconnectIntervalMs;
+    private final int handshakeTimeoutMs;
+    private final Set<String> subscribedRates = ConcurrentHashMap.newKeySet();
+    private final Object sequenceLock = new Object();
+    private long[] lastSequences = new long[0];
+    private long serverEpoch = NO_EPOCH;
+    private volatile boolean disconnecting;
 
     private final ICoordinatorCallback callback;
     private Socket socket;
     private BufferedReader reader;
     private BufferedWriter writer;
-    private final ObjectMapper objectMapper;
+    private final TickerRegistry tickerRegistry;
+    private final RateTickParser rateTickParser;
 
     /**
      * Constructor for Platform1_TelnetHandler
@@ -44,9 +76,13 @@ public class Platform1_TelnetHandler implements IPlatformHandler {
         this.telnetPort = platformProperties.getPort();
         this.telnetHost = platformProperties.getHost();
         this.platformName = platformProperties.getName();
+        this.batchFrames = platformProperties.isBatchFrames();
+        this.subscriptions = platformProperties.getSubscriptions();
+        this.reconnectIntervalMs = platformProperties.getReconnectIntervalMs();
+        this.handshakeTimeoutMs = platformProperties.getHandshakeTimeoutMs();
         this.callback = callback;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.tickerRegistry = TickerRegistry.getInstance();
+        this.rateTickParser = new RateTickParser(tickerRegistry);
     }
     /**
      * Connects to the Telnet server and starts a listener thread for incoming rate updates.
@@ -58,35 +94,217 @@ public class Platform1_TelnetHandler implements IPlatformHandler {
     @Override
     public void connect(String platformName, String userid, String password) {
         try {
-            this.socket = new Socket(telnetHost, telnetPort);
-            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
-            new Thread(() -> {
-                try {
-                    callback.onConnect(platformName, true);
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        try {
-                            RateDto dto = objectMapper.readValue(line, RateDto.class);
-                            callback.onRateUpdate(platformName, dto.getRateName(), dto);
-                        } catch (Exception e) {
-                            logger.error("JSON parse error: {} | Line: {}", e.getMessage(), line, e);
-                        }
+            disconnecting = false;
+            open();
+            new Thread(() -> listen(platformName)).start();
+        } catch (Exception e) {
+            logger.error("Error connecting to Telnet server: {}", e.getMessage(), e);
+            callback.onConnect(platformName, false);
+        }
+    }
+
+    /**
+     * Opens the connection and sends the initial commands: {@code batch|on}, {@code hello}, {@code resume} for every
+     * subscribed rate with a known sequence number of the same server epoch and {@code subscribe} for the remaining
+     * subscriptions. Connecting and waiting for the answer to {@code hello} are bounded by
+     * {@code handshake-timeout-ms} and done without holding the handler's lock, so a platform that accepts the
+     * connection but never answers fails the attempt instead of blocking subscribe and unsubscribe calls.
+     *
+     * @throws IOException if the server cannot be reached or does not answer {@code hello} in time
+     */
+    private void open() throws IOException {
+        Socket newSocket = new Socket();
+        BufferedReader newReader;
+        BufferedWriter newWriter;
+        long epoch;
+        try {
+            newSocket.connect(new InetSocketAddress(telnetHost, telnetPort), handshakeTimeoutMs);
+            newReader = new BufferedReader(new InputStreamReader(newSocket.getInputStream()));
+            newWriter = new BufferedWriter(new OutputStreamWriter(newSocket.getOutputStream()));
+            if (batchFrames) {
+                newWriter.write("batch|on\n");
+            }
+            newWriter.write("hello\n");
+            newWriter.flush();
+            newSocket.setSoTimeout(handshakeTimeoutMs);
+            epoch = readEpoch(newReader);
+            newSocket.setSoTimeout(0);
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+        synchronized (this) {
+            if (disconnecting) {
+                newSocket.close();
+                throw new SocketException("Disconnected");
+            }
+            this.socket = newSocket;
+            this.reader = newReader;
+            this.writer = newWriter;
+            synchronized (sequenceLock) {
+                if (serverEpoch != NO_EPOCH && epoch != serverEpoch) {
+                    logger.info("{} restarted, subscribing to its rates afresh", platformName);
+                    lastSequences = new long[0];
+                }
+            }
+            serverEpoch = epoch;
+            Set<String> resumed = new HashSet<>();
+            synchronized (sequenceLock) {
+                for (int tickerId = 0; tickerId < lastSequences.length; tickerId++) {
+                    String rateName = tickerRegistry.nameOf(tickerId);
+                    if (lastSequences[tickerId] >= 0 && isSubscribed(rateName)) {
+                        writer.write("resume|" + rateName + "|" + lastSequences[tickerId] + "\n");
+                        resumed.add(rateName);
                     }
-                } catch (Exception e) {
-                    if(e instanceof SocketException) {
-                        logger.info("Socket Closed");
-                        return;
+                }
+            }
+            for (String subscription : subscriptions) {
+                writer.write("subscribe|" + subscription + "\n");
+            }
+            for (String rateName : subscribedRates) {
+                if (!resumed.contains(rateName)) {
+                    writer.write("subscribe|" + rateName + "\n");
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Reads the responses to the commands sent so far until the answer to {@code hello}.
+     *
+     * @param reader the reader of the connection being opened
+     * @return the server's epoch, or {@code -1} if the server does not know {@code hello}
+     * @throws IOException if the connection is closed before the answer or the answer times out
+     */
+    private long readEpoch(BufferedReader reader) throws IOException {
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(HELLO_RESPONSE)) {
+                    try {
+                        return Long.parseLong(line.substring(HELLO_RESPONSE.length()));
+                    } catch (NumberFormatException e) {
+                        return NO_EPOCH;
+                    }
+                }
+                if (line.startsWith("ERROR|")) {
+                    return NO_EPOCH;
+                }
+                logger.info("Received from {}: {}", platformName, line);
+            }
+        } catch (SocketTimeoutException e) {
+            throw new SocketTimeoutException(platformName + " did not answer hello within " + handshakeTimeoutMs + " ms");
+        }
+        throw new SocketException("Connection closed");
+    }
+
+    /**
+     * Reads rate updates until the handler is disconnected, reconnecting when the connection is lost.
+     *
+     * @param platformName the platform name
+     */
+    private void listen(String platformName) {
+        callback.onConnect(platformName, true);
+        while (true) {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        dispatch(platformName, line);
+                    } catch (Exception e) {
+                        logger.error("JSON parse error: {} | Line: {}", e.getMessage(), line, e);
                     }
+                }
+            } catch (IOException e) {
+                if (!disconnecting) {
                     logger.error("Error in client thread: {}", e.getMessage(), e);
-                    callback.onConnect(platformName, false);
                 }
-            }).start();
+            }
+            if (disconnecting) {
+                logger.info("Socket Closed");
+                return;
+            }
+            logger.warn("Connection to {} lost", platformName);
+            if (reconnectIntervalMs <= 0 || !reconnect(platformName)) {
+                callback.onConnect(platformName, false);
+                return;
+            }
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error connecting to Telnet server: {}", e.getMessage(), e);
-            callback.onConnect(platformName, false);
+    /**
+     * Tries to open the connection again every {@code reconnect-interval-ms} until it succeeds or the handler is
+     * disconnected.
+     *
+     * @param platformName the platform name
+     * @return {@code true} if the connection was opened
+     */
+    private boolean reconnect(String platformName) {
+        while (!disconnecting) {
+            try {
+                Thread.sleep(reconnectIntervalMs);
+                open();
+                logger.info("Reconnected to {}", platformName);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (IOException e) {
+                logger.debug("Cannot reconnect to {}: {}", platformName, e.getMessage());
+            }
         }
+        return false;
+    }
+
+    /**
+     * Dispatches the rates of a received line: a single rate object, or a JSON array of rates in batch mode.
+     * The sequence number of each rate is remembered for resuming. Other lines are responses to commands and only
+     * logged.
+     *
+     * @param platformName the platform name
+     * @param line         the received line
+     * @throws IOException if a rate line is not valid JSON
+     */
+    private void dispatch(String platformName, String line) throws IOException {
+        if (line.startsWith("{") || line.startsWith("[")) {
+            rateTickParser.parseSequenced(line, (rateTick, sequence) -> {
+                recordSequence(rateTick.tickerId(), sequence);
+                callback.onRateUpdate(platformName, rateTick);
+            });
+        } else {
+            logger.info("Received from {}: {}", platformName, line);
+        }
+    }
+
+    private void recordSequence(int tickerId, long sequence) {
+        if (sequence == RateTickParser.NO_SEQUENCE) {
+            return;
+        }
+        synchronized (sequenceLock) {
+            if (tickerId >= lastSequences.length) {
+                int oldLength = lastSequences.length;
+                lastSequences = Arrays.copyOf(lastSequences, Math.max(tickerId + 1, oldLength * 2));
+                Arrays.fill(lastSequences, oldLength, lastSequences.length, RateTickParser.NO_SEQUENCE);
+            }
+            lastSequences[tickerId] = sequence;
+        }
+    }
+
+    /**
+     * Returns whether a rate is subscribed to, directly or through a pattern such as {@code PF1_SYN*}.
+     */
+    private boolean isSubscribed(String rateName) {
+        if (subscribedRates.contains(rateName)) {
+            return true;
+        }
+        for (String subscription : subscriptions) {
+            if (subscription.endsWith("*")
+                    && rateName.startsWith(subscription.substring(0, subscription.length() - 1).toUpperCase())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -97,6 +315,11 @@ public class Platform1_TelnetHandler implements IPlatformHandler {
      */
     @Override
     public void disConnect(String platformName, String userid, String password) {
+        disconnecting = true;
+        subscribedRates.clear();
+        synchronized (sequenceLock) {
+            lastSequences = new long[0];
+        }
         try {
             if (socket != null) socket.close();
             if (reader != null) reader.close();
@@ -117,8 +340,11 @@ public class Platform1_TelnetHandler implements IPlatformHandler {
     public void subscribe(String platformName, String rateName) {
         try {
             if (writer != null) {
-                writer.write("subscribe|" + rateName + "\n");
-                writer.flush();
+                subscribedRates.add(rateName);
+                synchronized (this) {
+                    writer.write("subscribe|" + rateName + "\n");
+                    writer.flush();
+                }
                 callback.onRateAvailable(platformName, rateName, null);
             } else {
                 logger.warn("Writer not initialized. Call connect() first.");
@@ -137,8 +363,11 @@ public class Platform1_TelnetHandler implements IPlatformHandler {
     public void unSubscribe(String platformName, String rateName) {
         try {
             if (writer != null) {
-                writer.write("unsubscribe|" + rateName + "\n");
-                writer.flush();
+                subscribedRates.remove(rateName);
+                synchronized (this) {
+                    writer.write("unsubscribe|" + rateName + "\n");
+                    writer.flush();
+                }
                 callback.onRateStatus(platformName, rateName, RateStatus.NOT_AVAILABLE);
             } else {
                 logger.warn("Writer not initialized. Call connect() first.");
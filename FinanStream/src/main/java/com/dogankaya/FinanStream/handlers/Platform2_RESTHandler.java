@@ -3,12 +3,12 @@ package com.dogankaya.FinanStream.handlers;
 import com.dogankaya.FinanStream.abscraction.ICoordinatorCallback;
 import com.dogankaya.FinanStream.abscraction.IPlatformHandler;
 import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.dogankaya.FinanStream.helpers.RateTickParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import rate.RateDto;
 import rate.RateStatus;
+import rate.RateTick;
+import rate.TickerRegistry;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -24,7 +24,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * Active subscriptions are managed in a thread-safe manner and persisted in Redis to maintain state across restarts.
  * <p>
  * HTTP requests are sent using Java's {@link java.net.http.HttpClient}, and JSON responses are
- * deserialized into {@code RateDto} objects using Jackson's {@link com.fasterxml.jackson.databind.ObjectMapper}.
+ * stream-parsed directly into {@link RateTick}s by {@link RateTickParser}.
  * <p>
  * Implements the {@link IPlatformHandler} interface.
  *
@@ -41,7 +41,7 @@ public class Platform2_RESTHandler implements IPlatformHandler {
     private Thread restThread;
 
     private final ICoordinatorCallback callback;
-    private final ObjectMapper objectMapper;
+    private final RateTickParser rateTickParser;
     private final HttpClient httpClient;
     /**
      * Constructs a new Platform2_RESTHandler instance.
@@ -54,7 +54,7 @@ public class Platform2_RESTHandler implements IPlatformHandler {
         this.platformName = platformProperties.getName();
         this.API_REQUEST_URL = "http://" + platformProperties.getHost() + ":" + platformProperties.getPort() + "/api/rates/%7BtickerType%7D";
         this.callback = callback;
-        this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.rateTickParser = new RateTickParser(TickerRegistry.getInstance());
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(java.time.Duration.ofSeconds(5))
                 .build();
@@ -101,10 +101,7 @@ public class Platform2_RESTHandler implements IPlatformHandler {
                         logger.warn("REST status code for {}, url:{}", response.body(), url.toString());
                     }else{
                         String responseBody = response.body();
-                        RateDto[] rateDtos = objectMapper.readValue(responseBody, RateDto[].class);
-                        for (RateDto rateDto : rateDtos) {
-                            callback.onRateUpdate(platformName, rateDto.getRateName(), rateDto);
-                        }
+                        rateTickParser.parseArray(responseBody, rateTick -> callback.onRateUpdate(platformName, rateTick));
                     }
                     Thread.sleep(1000);
                 } catch (InterruptedException e) {
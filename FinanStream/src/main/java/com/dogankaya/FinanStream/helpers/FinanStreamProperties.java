@@ -3,6 +3,7 @@ package com.dogankaya.FinanStream.helpers;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 /**
@@ -20,6 +21,11 @@ public class FinanStreamProperties {
     private List<String> handlerClassNames;
     private Map<String, PlatformProperties> platforms;
     private String ratesConfigPath;
+    private RedisMirrorProperties redisMirror = new RedisMirrorProperties();
+    private EngineProperties engine = new EngineProperties();
+    private PipelineProperties pipeline = new PipelineProperties();
+    private KafkaProperties kafka = new KafkaProperties();
+    private Map<String, Integer> priceScales = new HashMap<>();
 
     /**
      * Returns the list of handler class names.
@@ -62,6 +68,72 @@ public class FinanStreamProperties {
         this.ratesConfigPath = ratesConfigPath;
     }
 
+    /**
+     * Returns the Redis write-behind mirror properties.
+     *
+     * @return the Redis mirror properties.
+     */
+    public RedisMirrorProperties getRedisMirror() {
+        return redisMirror;
+    }
+
+    public void setRedisMirror(RedisMirrorProperties redisMirror) {
+        this.redisMirror = redisMirror;
+    }
+
+    /**
+     * Returns the calculation engine properties.
+     *
+     * @return the engine properties.
+     */
+    public EngineProperties getEngine() {
+        return engine;
+    }
+
+    public void setEngine(EngineProperties engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the ingestion pipeline properties.
+     *
+     * @return the pipeline properties.
+     */
+    public PipelineProperties getPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(PipelineProperties pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Returns the Kafka producer tuning properties.
+     *
+     * @return the Kafka properties.
+     */
+    public KafkaProperties getKafka() {
+        return kafka;
+    }
+
+    public void setKafka(KafkaProperties kafka) {
+        this.kafka = kafka;
+    }
+
+    /**
+     * Returns the number of decimal places kept for the prices of each instrument, keyed by rate name.
+     * Instruments without an entry use {@link rate.TickerRegistry#DEFAULT_SCALE}.
+     *
+     * @return the price scales.
+     */
+    public Map<String, Integer> getPriceScales() {
+        return priceScales;
+    }
+
+    public void setPriceScales(Map<String, Integer> priceScales) {
+        this.priceScales = priceScales;
+    }
+
     /**
      * Retrieves the properties for a specific platform by name.
      *
@@ -79,6 +151,12 @@ public class FinanStreamProperties {
         private String host;
         private int port;
         private String name;
+        private String conflationPolicy = "latest";
+        private long conflationWindowMs;
+        private boolean batchFrames;
+        private List<String> subscriptions = List.of();
+        private long reconnectIntervalMs = 1000;
+        private int handshakeTimeoutMs = 5000;
 
         public String getHost() {
             return host;
@@ -103,5 +181,310 @@ public class FinanStreamProperties {
         public void setName(String name) {
             this.name = name;
         }
+
+        /**
+         * Returns how pending recalculations of the same rate from this platform are conflated:
+         * {@code latest} keeps only the newest update, {@code none} processes every update.
+         *
+         * @return the conflation policy name.
+         */
+        public String getConflationPolicy() {
+            return conflationPolicy;
+        }
+
+        public void setConflationPolicy(String conflationPolicy) {
+            this.conflationPolicy = conflationPolicy;
+        }
+
+        /**
+         * Returns how long an update from this platform waits for newer updates before it is recalculated.
+         *
+         * @return the conflation window in milliseconds.
+         */
+        public long getConflationWindowMs() {
+            return conflationWindowMs;
+        }
+
+        public void setConflationWindowMs(long conflationWindowMs) {
+            this.conflationWindowMs = conflationWindowMs;
+        }
+
+        /**
+         * Returns whether the platform is asked to send the ticks of each flush window as one frame
+         * ({@code batch|on} on the Telnet platform).
+         *
+         * @return {@code true} to request batched frames.
+         */
+        public boolean isBatchFrames() {
+            return batchFrames;
+        }
+
+        public void setBatchFrames(boolean batchFrames) {
+            this.batchFrames = batchFrames;
+        }
+
+        /**
+         * Returns the rates subscribed to right after connecting, in addition to the ones subscribed through the
+         * coordinator, e.g. {@code PF1_SYN*} for all synthetic load instruments of the Telnet platform.
+         *
+         * @return the rate names or patterns.
+         */
+        public List<String> getSubscriptions() {
+            return subscriptions;
+        }
+
+        public void setSubscriptions(List<String> subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+
+        /**
+         * Returns how long the handler waits between attempts to reconnect after the connection to the platform was
+         * lost; on reconnect the Telnet platform resumes every rate from its last received sequence number.
+         *
+         * @return the reconnect interval in milliseconds, {@code 0} to not reconnect.
+         */
+        public long getReconnectIntervalMs() {
+            return reconnectIntervalMs;
+        }
+
+        public void setReconnectIntervalMs(long reconnectIntervalMs) {
+            this.reconnectIntervalMs = reconnectIntervalMs;
+        }
+
+        /**
+         * Returns how long the handler waits for the platform to accept a connection and answer its {@code hello};
+         * a platform that does not answer in time fails the connection attempt, which is retried on reconnect.
+         *
+         * @return the handshake timeout in milliseconds.
+         */
+        public int getHandshakeTimeoutMs() {
+            return handshakeTimeoutMs;
+        }
+
+        public void setHandshakeTimeoutMs(int handshakeTimeoutMs) {
+            this.handshakeTimeoutMs = handshakeTimeoutMs;
+        }
+    }
+
+    /**
+     * Represents the configuration of the Redis write-behind mirror of the rate book.
+     */
+    public static class RedisMirrorProperties {
+        private long flushIntervalMs = 100;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    /**
+     * Represents the calculation engine configuration.
+     */
+    public static class EngineProperties {
+        private String type = "groovy";
+        private GroovyProperties groovy = new GroovyProperties();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public GroovyProperties getGroovy() {
+            return groovy;
+        }
+
+        public void setGroovy(GroovyProperties groovy) {
+            this.groovy = groovy;
+        }
+    }
+
+    /**
+     * Represents the compilation options of the Groovy calculation engine.
+     */
+    public static class GroovyProperties {
+        private boolean staticCompile;
+        private String scriptBaseClass;
+
+        public boolean isStaticCompile() {
+            return staticCompile;
+        }
+
+        public void setStaticCompile(boolean staticCompile) {
+            this.staticCompile = staticCompile;
+        }
+
+        public String getScriptBaseClass() {
+            return scriptBaseClass;
+        }
+
+        public void setScriptBaseClass(String scriptBaseClass) {
+            this.scriptBaseClass = scriptBaseClass;
+        }
+    }
+
+    /**
+     * Represents the configuration of the ingestion ring buffer between the platform handlers and the ingestion
+     * thread, and of the calculation partitions fed by the ingestion thread.
+     */
+    public static class PipelineProperties {
+        private int ringBufferSize = 1024;
+        private String waitStrategy = "blocking";
+        private int calculationQueueCapacity = 10000;
+        private int calculationPartitions;
+
+        public int getRingBufferSize() {
+            return ringBufferSize;
+        }
+
+        public void setRingBufferSize(int ringBufferSize) {
+            this.ringBufferSize = ringBufferSize;
+        }
+
+        public String getWaitStrategy() {
+            return waitStrategy;
+        }
+
+        public void setWaitStrategy(String waitStrategy) {
+            this.waitStrategy = waitStrategy;
+        }
+
+        public int getCalculationQueueCapacity() {
+            return calculationQueueCapacity;
+        }
+
+        public void setCalculationQueueCapacity(int calculationQueueCapacity) {
+            this.calculationQueueCapacity = calculationQueueCapacity;
+        }
+
+        /**
+         * Returns the maximum number of calculation partitions, each with its own thread.
+         *
+         * @return the partition limit, {@code 0} for one partition per independent formula group.
+         */
+        public int getCalculationPartitions() {
+            return calculationPartitions;
+        }
+
+        public void setCalculationPartitions(int calculationPartitions) {
+            this.calculationPartitions = calculationPartitions;
+        }
+    }
+
+    /**
+     * Represents the Kafka producer tuning and the outbound queue in front of it.
+     */
+    public static class KafkaProperties {
+        private int lingerMs = 5;
+        private int batchSize = 65536;
+        private String compressionType = "lz4";
+        private String acks = "all";
+        private long maxBlockMs = 1000;
+        private int outboundQueueCapacity = 10000;
+        private String valueFormat = "json";
+
+        /**
+         * Returns how long the producer waits for more records before sending a batch.
+         *
+         * @return the linger time in milliseconds.
+         */
+        public int getLingerMs() {
+            return lingerMs;
+        }
+
+        public void setLingerMs(int lingerMs) {
+            this.lingerMs = lingerMs;
+        }
+
+        /**
+         * Returns the maximum size of one batch per partition.
+         *
+         * @return the batch size in bytes.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Returns the compression of the batches: {@code none}, {@code gzip}, {@code snappy}, {@code lz4} or
+         * {@code zstd}.
+         *
+         * @return the compression type.
+         */
+        public String getCompressionType() {
+            return compressionType;
+        }
+
+        public void setCompressionType(String compressionType) {
+            this.compressionType = compressionType;
+        }
+
+        /**
+         * Returns how many replicas must acknowledge a record: {@code 0}, {@code 1} or {@code all}.
+         * <p>
+         * Only {@code all} keeps the producer idempotent, which lets it retry up to five in-flight requests without
+         * reordering the records of one partition. With {@code 0} or {@code 1} the producer is limited to one
+         * in-flight request per connection instead, which keeps the order per rate at a lower throughput.
+         * </p>
+         *
+         * @return the acks setting.
+         */
+        public String getAcks() {
+            return acks;
+        }
+
+        public void setAcks(String acks) {
+            this.acks = acks;
+        }
+
+        /**
+         * Returns how long a send may block when the broker is unreachable or the client buffer is full.
+         *
+         * @return the maximum blocking time in milliseconds.
+         */
+        public long getMaxBlockMs() {
+            return maxBlockMs;
+        }
+
+        public void setMaxBlockMs(long maxBlockMs) {
+            this.maxBlockMs = maxBlockMs;
+        }
+
+        /**
+         * Returns how many rates may wait for the outbound thread before new rates are dropped.
+         *
+         * @return the outbound queue capacity.
+         */
+        public int getOutboundQueueCapacity() {
+            return outboundQueueCapacity;
+        }
+
+        public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+            this.outboundQueueCapacity = outboundQueueCapacity;
+        }
+
+        /**
+         * Returns how rates are encoded on Kafka: {@code json} or {@code binary}
+         * (see {@link rate.RateDtoBinarySerializer}).
+         *
+         * @return the value format name.
+         */
+        public String getValueFormat() {
+            return valueFormat;
+        }
+
+        public void setValueFormat(String valueFormat) {
+            this.valueFormat = valueFormat;
+        }
     }
 }
@@ -0,0 +1,232 @@
+package com.dogankaya.FinanStream.helpers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser turning the platforms' {@code RateDto} JSON directly into {@link RateTick}s.
+ *
+ * <p>Prices are parsed from the number characters straight into scaled {@code long}s and timestamps into epoch
+ * nanoseconds, so no {@code RateDto}, {@code BigDecimal} or {@code LocalDateTime} is created per tick. Both
+ * timestamp encodings produced by the platforms are accepted: a {@code [y,M,d,H,m,s,n]} array (Telnet) and an
+ * ISO-8601 local date-time string (REST). Timestamps are interpreted as UTC; a missing one is replaced by the
+ * receive time. The {@code seq} field of the Telnet feed is available through
+ * {@link #parseSequenced(String, SequencedTickConsumer)}.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public class RateTickParser {
+    /**
+     * Sequence number of a tick without a {@code seq} field.
+     */
+    public static final long NO_SEQUENCE = -1;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final TickerRegistry registry;
+
+    /**
+     * Constructs a new RateTickParser.
+     *
+     * @param registry registry used to intern rate names and look up price scales
+     */
+    public RateTickParser(TickerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Parses a single {@code RateDto} JSON object.
+     *
+     * @param json the JSON text
+     * @return the tick
+     * @throws IOException if the text is not a valid rate object
+     */
+    public RateTick parse(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Rate JSON must be an object");
+            }
+            return readTick(parser, null);
+        }
+    }
+
+    /**
+     * Parses a JSON array of {@code RateDto} objects, handing each tick to the consumer as soon as it is read.
+     *
+     * @param json     the JSON text
+     * @param consumer receiver of the parsed ticks
+     * @throws IOException if the text is not a valid array of rate objects
+     */
+    public void parseArray(String json, Consumer<RateTick> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Rate JSON must be an array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(readTick(parser, null));
+            }
+        }
+    }
+
+    /**
+     * Parses a single rate object or a JSON array of them, handing each tick to the consumer together with its
+     * sequence number, or {@link #NO_SEQUENCE} if it has none.
+     *
+     * @param json     the JSON text
+     * @param consumer receiver of the parsed ticks
+     * @throws IOException if the text is not a valid rate object or array of rate objects
+     */
+    public void parseSequenced(String json, SequencedTickConsumer consumer) throws IOException {
+        long[] sequence = new long[1];
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                RateTick tick = readTick(parser, sequence);
+                consumer.accept(tick, sequence[0]);
+            } else if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    RateTick tick = readTick(parser, sequence);
+                    consumer.accept(tick, sequence[0]);
+                }
+            } else {
+                throw new IOException("Rate JSON must be an object or an array");
+            }
+        }
+    }
+
+    /**
+     * Reads one rate object; the parser must be positioned on its {@code START_OBJECT}. The {@code seq} field is
+     * stored in {@code sequence[0]} if an array is given.
+     */
+    private RateTick readTick(JsonParser parser, long[] sequence) throws IOException {
+        if (sequence != null) sequence[0] = NO_SEQUENCE;
+        int tickerId = -1;
+        long bid = RateTick.MISSING;
+        long ask = RateTick.MISSING;
+        String deferredBid = null;
+        String deferredAsk = null;
+        long timestampNanos = Long.MIN_VALUE;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "rateName" -> tickerId = registry.intern(parser.getText());
+                case "bid" -> {
+                    if (tickerId >= 0) bid = readPrice(parser, value, registry.scaleOf(tickerId));
+                    else if (value != JsonToken.VALUE_NULL) deferredBid = parser.getText();
+                }
+                case "ask" -> {
+                    if (tickerId >= 0) ask = readPrice(parser, value, registry.scaleOf(tickerId));
+                    else if (value != JsonToken.VALUE_NULL) deferredAsk = parser.getText();
+                }
+                case "rateUpdateTime" -> timestampNanos = readTimestamp(parser, value);
+                case "seq" -> {
+                    if (sequence != null && value == JsonToken.VALUE_NUMBER_INT) sequence[0] = parser.getLongValue();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (tickerId < 0) {
+            throw new IOException("Rate JSON has no rateName");
+        }
+        int scale = registry.scaleOf(tickerId);
+        if (deferredBid != null) bid = RateTick.toScaled(new BigDecimal(deferredBid), scale);
+        if (deferredAsk != null) ask = RateTick.toScaled(new BigDecimal(deferredAsk), scale);
+        if (timestampNanos == Long.MIN_VALUE) timestampNanos = RateTick.nowNanos();
+        return new RateTick(tickerId, bid, ask, timestampNanos);
+    }
+
+    private static long readPrice(JsonParser parser, JsonToken value, int scale) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return RateTick.MISSING;
+        }
+        try {
+            return RateTick.parseScaled(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), scale);
+        } catch (NumberFormatException e) {
+            return RateTick.toScaled(new BigDecimal(parser.getText()), scale);
+        }
+    }
+
+    private static long readTimestamp(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_ARRAY) {
+            int[] fields = new int[7];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count < fields.length) fields[count] = parser.getIntValue();
+                count++;
+            }
+            if (count < 5) {
+                throw new IOException("Rate timestamp array is too short");
+            }
+            return RateTick.toEpochNanos(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            return parseIsoLocalDateTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        if (value == JsonToken.VALUE_NULL) {
+            return Long.MIN_VALUE;
+        }
+        throw new IOException("Unsupported rate timestamp: " + parser.getText());
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm[:ss[.fffffffff]]} into epoch nanoseconds.
+     */
+    static long parseIsoLocalDateTime(char[] chars, int offset, int length) throws IOException {
+        if (length < 16 || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':') {
+            throw new IOException("Unsupported rate timestamp: " + new String(chars, offset, length));
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length >= 19 && chars[offset + 16] == ':') {
+            second = digits(chars, offset + 17, 2);
+            if (length > 20 && chars[offset + 19] == '.') {
+                int fractionLength = Math.min(length - 20, 9);
+                nano = digits(chars, offset + 20, fractionLength);
+                for (int i = fractionLength; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        return RateTick.toEpochNanos(year, month, day, hour, minute, second, nano);
+    }
+
+    private static int digits(char[] chars, int offset, int count) throws IOException {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                throw new IOException("Unsupported rate timestamp: " + new String(chars, offset, count));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Receiver of parsed ticks together with their sequence numbers.
+     */
+    @FunctionalInterface
+    public interface SequencedTickConsumer {
+        /**
+         * Receives a tick.
+         *
+         * @param tick     the tick
+         * @param sequence the sequence number of the tick, or {@link RateTickParser#NO_SEQUENCE}
+         */
+        void accept(RateTick tick, long sequence);
+    }
+}
@@ -0,0 +1,208 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import rate.RateTick;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue of rate updates waiting for recalculation that keeps only the newest pending update per rate.
+ *
+ * <p>With the {@link ConflationPolicy#LATEST} policy, an update for a rate that is already pending replaces
+ * the pending value in place: it keeps its position and window, so a burst (e.g. the REST handler returning
+ * every ticker at once) collapses into one entry per rate and the queue never holds more entries than there
+ * are rates. With {@link ConflationPolicy#NONE} every update is queued; those entries are bounded by the
+ * queue capacity and the oldest one is dropped when it is exceeded, so stale work does not pile up while the
+ * calculation is slow.</p>
+ *
+ * <p>Every entry becomes ready when its conflation window has elapsed. The consumer drains all ready entries
+ * as one batch, so the rates depending on them can be recalculated once per batch.</p>
+ */
+public class ConflatingRateQueue {
+
+    /**
+     * How updates of a rate that is already pending are handled.
+     */
+    public enum ConflationPolicy {
+        /** Replace the pending update with the newer one. */
+        LATEST,
+        /** Queue every update. */
+        NONE;
+
+        /**
+         * Parses a configured policy name.
+         *
+         * @param name {@code latest} or {@code none}, case-insensitive
+         * @return the policy
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static ConflationPolicy fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private final BitSet drainedTickers = new BitSet();
+    private Pending[] latestByTicker = new Pending[64];
+    private final int capacity;
+    private long conflatedCount;
+    private long droppedCount;
+
+    /**
+     * Constructs a new conflating queue.
+     *
+     * @param capacity maximum number of pending entries
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ConflatingRateQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a rate update.
+     *
+     * @param rateTick     the updated rate
+     * @param policy       how a pending update of the same rate is handled
+     * @param windowMillis how long the update waits for newer updates before it becomes ready
+     */
+    public void offer(RateTick rateTick, ConflationPolicy policy, long windowMillis) {
+        int tickerId = rateTick.tickerId();
+        lock.lock();
+        try {
+            if (policy == ConflationPolicy.LATEST) {
+                Pending pending = tickerId < latestByTicker.length ? latestByTicker[tickerId] : null;
+                if (pending != null) {
+                    pending.rateTick = rateTick;
+                    conflatedCount++;
+                    return;
+                }
+            }
+            if (queue.size() >= capacity) {
+                forget(queue.poll());
+                droppedCount++;
+            }
+            Pending pending = new Pending(rateTick, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis));
+            queue.add(pending);
+            if (policy == ConflationPolicy.LATEST) {
+                if (tickerId >= latestByTicker.length) {
+                    latestByTicker = Arrays.copyOf(latestByTicker, Math.max(tickerId + 1, latestByTicker.length * 2));
+                }
+                latestByTicker[tickerId] = pending;
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until at least one entry is ready, then moves every ready entry to the given collection.
+     *
+     * <p>A batch never contains two updates of the same rate; a second, unconflated update of a rate starts the
+     * next batch.</p>
+     *
+     * @param batch the collection receiving the updates, in arrival order
+     * @return the number of updates drained
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int drainTo(Collection<RateTick> batch) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Pending head = queue.peek();
+                if (head == null) {
+                    notEmpty.await();
+                    continue;
+                }
+                long delay = head.readyAt - System.nanoTime();
+                if (delay > 0) {
+                    notEmpty.awaitNanos(delay);
+                    continue;
+                }
+                break;
+            }
+
+            long now = System.nanoTime();
+            int drained = 0;
+            Pending head;
+            while ((head = queue.peek()) != null && head.readyAt - now <= 0
+                    && !drainedTickers.get(head.rateTick.tickerId())) {
+                queue.poll();
+                forget(head);
+                drainedTickers.set(head.rateTick.tickerId());
+                batch.add(head.rateTick);
+                drained++;
+            }
+            drainedTickers.clear();
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(Pending pending) {
+        int tickerId = pending.rateTick.tickerId();
+        if (tickerId < latestByTicker.length && latestByTicker[tickerId] == pending) {
+            latestByTicker[tickerId] = null;
+        }
+    }
+
+    /**
+     * Returns the number of pending entries.
+     *
+     * @return the queue size
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many updates replaced a pending update of the same rate.
+     *
+     * @return the conflated update count
+     */
+    public long getConflatedCount() {
+        lock.lock();
+        try {
+            return conflatedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many pending updates were dropped because the queue was full.
+     *
+     * @return the dropped update count
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Pending {
+        private RateTick rateTick;
+        private final long readyAt;
+
+        private Pending(RateTick rateTick, long readyAt) {
+            this.rateTick = rateTick;
+            this.readyAt = readyAt;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import rate.RateTick;
+
+/**
+ * A pre-allocated, reusable slot of the {@link RateEventRingBuffer}.
+ *
+ * <p>Producers fill the slot in place when publishing, so publishing allocates nothing. The values are only
+ * valid until the consumer has processed the slot.</p>
+ */
+public final class RateEvent {
+    private String platformName;
+    private RateTick rateTick;
+
+    void set(String platformName, RateTick rateTick) {
+        this.platformName = platformName;
+        this.rateTick = rateTick;
+    }
+
+    void clear() {
+        set(null, null);
+    }
+
+    public String getPlatformName() {
+        return platformName;
+    }
+
+    public RateTick getRateTick() {
+        return rateTick;
+    }
+}
@@ -0,0 +1,183 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import com.dogankaya.FinanStream.abscraction.IRateEventHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import rate.RateTick;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated, Disruptor-style ring buffer between the platform handlers and the ingestion thread.
+ *
+ * <p>Any number of producer threads (the platform handlers' reader and polling threads) claim a sequence,
+ * fill the pre-allocated {@link RateEvent} slot in place and mark it as published. A single dedicated consumer
+ * thread reads the published events in sequence order, in batches, and hands them to an
+ * {@link IRateEventHandler}. Producers never touch Redis, Kafka or the calculation engine; when the buffer is
+ * full they wait for the consumer to free a slot, unless the consumer has been stopped, in which case the event is
+ * dropped.</p>
+ *
+ * <p>How the consumer waits for new events is controlled by the {@link WaitStrategy}.</p>
+ */
+public class RateEventRingBuffer {
+    private static final Logger logger = LogManager.getLogger(RateEventRingBuffer.class);
+
+    private final RateEvent[] entries;
+    private final AtomicIntegerArray availableRounds;
+    private final int mask;
+    private final int indexShift;
+    private final WaitStrategy waitStrategy;
+    private final IRateEventHandler eventHandler;
+    private final String threadName;
+
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+    private final AtomicLong consumedSequence = new AtomicLong(-1);
+    private final AtomicLong droppedCount = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread consumerThread;
+
+    /**
+     * Constructs a new ring buffer.
+     *
+     * @param bufferSize   number of slots; must be a power of two
+     * @param waitStrategy strategy the consumer uses to wait for events
+     * @param eventHandler handler invoked on the consumer thread for every event
+     * @param threadName   name of the consumer thread
+     * @throws IllegalArgumentException if the buffer size is not a positive power of two
+     */
+    public RateEventRingBuffer(int bufferSize, WaitStrategy waitStrategy, IRateEventHandler eventHandler, String threadName) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + bufferSize);
+        }
+        this.entries = new RateEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new RateEvent();
+        }
+        this.availableRounds = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableRounds.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = waitStrategy;
+        this.eventHandler = eventHandler;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Starts the consumer thread.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        stopped = false;
+        consumerThread = new Thread(this::consume, threadName);
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        logger.info("Ring buffer consumer {} started with {} slots", threadName, entries.length);
+    }
+
+    /**
+     * Stops the consumer thread. Events not yet consumed are discarded, and producers waiting for a free slot drop
+     * their events instead of waiting forever.
+     */
+    public synchronized void stop() {
+        running = false;
+        stopped = true;
+        if (consumerThread != null) {
+            waitStrategy.signalAllWhenBlocking();
+            consumerThread.interrupt();
+            try {
+                consumerThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumerThread = null;
+        }
+    }
+
+    /**
+     * Publishes a rate update. Blocks while the buffer is full and the consumer is not stopped; once it is
+     * stopped the update is dropped.
+     *
+     * @param platformName name of the platform the update came from
+     * @param rateTick     the rate value
+     */
+    public void publish(String platformName, RateTick rateTick) {
+        long sequence = claimedSequence.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        while (wrapPoint > consumedSequence.get()) {
+            if (stopped) {
+                long dropped = droppedCount.incrementAndGet();
+                logger.debug("Ring buffer {} stopped, dropped the update of {} ({} so far)", threadName,
+                        platformName, dropped);
+                return;
+            }
+            LockSupport.parkNanos(1_000L);
+        }
+        int index = (int) sequence & mask;
+        entries[index].set(platformName, rateTick);
+        availableRounds.lazySet(index, (int) (sequence >>> indexShift));
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Returns the number of events published but not yet consumed.
+     *
+     * @return the backlog size
+     */
+    public long getBacklog() {
+        return Math.max(0, claimedSequence.get() - consumedSequence.get());
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full after the consumer was stopped.
+     *
+     * @return the dropped event count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private boolean isAvailable(long sequence) {
+        return availableRounds.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Consumer loop: waits for the next sequence, then processes every contiguous published event as one batch.
+     */
+    private void consume() {
+        long next = consumedSequence.get() + 1;
+        while (running) {
+            final long wanted = next;
+            try {
+                waitStrategy.waitFor(() -> !running || isAvailable(wanted));
+            } catch (InterruptedException e) {
+                if (!running) break;
+                continue;
+            }
+            if (!running) break;
+
+            long last = next;
+            while (last - next < entries.length - 1 && isAvailable(last + 1)) {
+                last++;
+            }
+            for (long sequence = next; sequence <= last; sequence++) {
+                RateEvent event = entries[(int) sequence & mask];
+                try {
+                    eventHandler.onEvent(event, sequence, sequence == last);
+                } catch (Exception e) {
+                    logger.error("Error while handling rate event {}: {}", sequence, e.getMessage(), e);
+                } finally {
+                    event.clear();
+                }
+            }
+            consumedSequence.lazySet(last);
+            next = last + 1;
+        }
+        logger.info("Ring buffer consumer {} stopped", threadName);
+    }
+}
@@ -0,0 +1,118 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by the consumer of the {@link RateEventRingBuffer} to wait for new events.
+ *
+ * <ul>
+ *     <li>{@code blocking}: parks on a lock/condition and is woken by producers; lowest CPU usage.</li>
+ *     <li>{@code yielding}: spins briefly, then yields the CPU between checks; low latency, moderate CPU.</li>
+ *     <li>{@code busy-spin}: spins continuously; lowest latency, burns a full core.</li>
+ * </ul>
+ */
+public interface WaitStrategy {
+
+    /**
+     * Blocks the consumer until the condition holds.
+     *
+     * @param condition returns true once the consumer can proceed
+     * @throws InterruptedException if the consumer thread is interrupted while waiting
+     */
+    void waitFor(BooleanSupplier condition) throws InterruptedException;
+
+    /**
+     * Called by producers after publishing, to wake a blocked consumer.
+     */
+    void signalAllWhenBlocking();
+
+    /**
+     * Creates a wait strategy from its configured name.
+     *
+     * @param name one of {@code blocking}, {@code yielding} or {@code busy-spin}
+     * @return the wait strategy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static WaitStrategy fromName(String name) {
+        return switch (name) {
+            case "blocking" -> new Blocking();
+            case "yielding" -> new Yielding();
+            case "busy-spin" -> new BusySpin();
+            default -> throw new IllegalArgumentException("Unsupported wait strategy: " + name);
+        };
+    }
+
+    /**
+     * Waits on a condition variable signalled by producers.
+     */
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        @Override
+        public void waitFor(BooleanSupplier condition) throws InterruptedException {
+            if (condition.getAsBoolean()) return;
+            lock.lock();
+            try {
+                while (!condition.getAsBoolean()) {
+                    published.await(100, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Spins for a short while, then yields between checks.
+     */
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public void waitFor(BooleanSupplier condition) {
+            int counter = SPIN_TRIES;
+            while (!condition.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    /**
+     * Spins continuously until the condition holds.
+     */
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public void waitFor(BooleanSupplier condition) {
+            while (!condition.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+}
@@ -1,35 +1,237 @@
 package com.dogankaya.FinanStream.kafka;
 
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service class responsible for producing and sending messages to Kafka topics.
  *
- * <p>This class uses {@link KafkaTemplate} to send {@link RateDto} messages to specified Kafka topics.</p>
+ * <p>This class uses {@link KafkaTemplate} to send {@link RateDto} messages to specified Kafka topics. Messages
+ * are keyed by rate name, so every ticker keeps its order within one partition and tickers are spread over all
+ * partitions of the topic.</p>
+ *
+ * <p>Callers never wait on the broker: {@code sendRate} only puts the rate on a bounded outbound queue. A
+ * dedicated outbound thread converts ticks to {@link RateDto}, hands them to the {@link KafkaTemplate} and counts
+ * the outcome in completion callbacks. When the queue is full the rate is dropped and counted instead of blocking
+ * the ingestion or calculation threads; drops are logged at warn at most once every ten seconds.</p>
  */
 @Service
 public class KafkaProducer {
+    private static final Logger logger = LogManager.getLogger(KafkaProducer.class);
+    private static final long DROP_WARN_INTERVAL_NANOS = 10_000_000_000L;
 
     private final KafkaTemplate<String, RateDto> kafkaTemplate;
+    private final TickerRegistry tickerRegistry;
+    private final BlockingQueue<OutboundRate> outboundQueue;
+    private Thread outboundThread;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong lastDropWarnNanos = new AtomicLong(System.nanoTime() - DROP_WARN_INTERVAL_NANOS);
+    private final AtomicLong droppedAtLastWarn = new AtomicLong();
 
     /**
      * Constructs a new KafkaProducer with the given KafkaTemplate.
      *
-     * @param kafkaTemplate the {@link KafkaTemplate} used to send messages to Kafka
+     * @param kafkaTemplate         the {@link KafkaTemplate} used to send messages to Kafka
+     * @param tickerRegistry        registry used to convert ticks to {@link RateDto}
+     * @param finanStreamProperties properties containing the outbound queue capacity
      */
-    public KafkaProducer(KafkaTemplate<String, RateDto> kafkaTemplate) {
+    public KafkaProducer(KafkaTemplate<String, RateDto> kafkaTemplate, TickerRegistry tickerRegistry,
+                         FinanStreamProperties finanStreamProperties) {
         this.kafkaTemplate = kafkaTemplate;
+        this.tickerRegistry = tickerRegistry;
+        this.outboundQueue = new ArrayBlockingQueue<>(finanStreamProperties.getKafka().getOutboundQueueCapacity());
+    }
+
+    /**
+     * Starts the outbound thread.
+     */
+    @PostConstruct
+    public void start() {
+        outboundThread = new Thread(this::runOutboundLoop, "kafka-outbound");
+        outboundThread.setDaemon(true);
+        outboundThread.start();
     }
 
     /**
-     * Sends a {@link RateDto} message to the specified Kafka topic.
+     * Stops the outbound thread and logs the publishing counters.
+     */
+    @PreDestroy
+    public void stop() {
+        if (outboundThread != null) {
+            outboundThread.interrupt();
+            try {
+                outboundThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            outboundThread = null;
+        }
+        logger.info("Kafka publishing stopped: {} sent, {} failed, {} dropped, average latency {} us, max latency {} us",
+                getSentCount(), getFailedCount(), getDroppedCount(),
+                getAverageLatencyNanos() / 1000, getMaxLatencyNanos() / 1000);
+    }
+
+    /**
+     * Queues a {@link RateDto} message for the specified Kafka topic, keyed by its rate name.
      *
      * @param topic the name of the Kafka topic to send the message to
      * @param rateDto the {@link RateDto} message object to send
      */
     public void sendRate(String topic, RateDto rateDto) {
-        kafkaTemplate.send(topic, rateDto);
+        enqueue(new OutboundRate(topic, null, rateDto, System.nanoTime()));
+    }
+
+    /**
+     * Queues a rate tick for the specified Kafka topic, keyed by its rate name.
+     * The tick is converted to {@link RateDto} on the outbound thread.
+     *
+     * @param topic    the name of the Kafka topic to send the message to
+     * @param rateTick the rate to send
+     */
+    public void sendRate(String topic, RateTick rateTick) {
+        enqueue(new OutboundRate(topic, rateTick, null, System.nanoTime()));
+    }
+
+    private void enqueue(OutboundRate outboundRate) {
+        if (!outboundQueue.offer(outboundRate)) {
+            droppedCount.increment();
+            warnDropped();
+        }
+    }
+
+    /**
+     * Logs dropped rates at most once per {@link #DROP_WARN_INTERVAL_NANOS}, so a full queue does not flood the log.
+     */
+    private void warnDropped() {
+        long now = System.nanoTime();
+        long last = lastDropWarnNanos.get();
+        if (now - last < DROP_WARN_INTERVAL_NANOS || !lastDropWarnNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long dropped = droppedCount.sum();
+        logger.warn("Kafka outbound queue is full: {} rates dropped since the last warning, {} in total",
+                dropped - droppedAtLastWarn.getAndSet(dropped), dropped);
+    }
+
+    /**
+     * Drains the outbound queue in batches and hands every rate to the Kafka client.
+     */
+    private void runOutboundLoop() {
+        List<OutboundRate> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(outboundQueue.take());
+                outboundQueue.drainTo(batch);
+                for (OutboundRate outboundRate : batch) {
+                    send(outboundRate);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(OutboundRate outboundRate) {
+        try {
+            RateDto rateDto = outboundRate.rateDto() != null
+                    ? outboundRate.rateDto()
+                    : outboundRate.rateTick().toDto(tickerRegistry);
+            kafkaTemplate.send(outboundRate.topic(), rateDto.getRateName(), rateDto)
+                    .whenComplete((result, exception) -> {
+                        if (exception != null) {
+                            failedCount.increment();
+                            logger.warn("Cannot send {} to {}: {}", rateDto.getRateName(), outboundRate.topic(),
+                                    exception.getMessage());
+                            return;
+                        }
+                        long latency = System.nanoTime() - outboundRate.enqueuedNanos();
+                        sentCount.increment();
+                        totalLatencyNanos.add(latency);
+                        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                    });
+        } catch (Exception e) {
+            failedCount.increment();
+            logger.warn("Cannot send rate to {}: {}", outboundRate.topic(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of rates acknowledged by the broker.
+     *
+     * @return the sent count
+     */
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    /**
+     * Returns the number of rates the broker or the client rejected.
+     *
+     * @return the failed count
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Returns the number of rates dropped because the outbound queue was full.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Returns the number of rates waiting on the outbound queue.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return outboundQueue.size();
+    }
+
+    /**
+     * Returns the average time from queueing a rate to its broker acknowledgement.
+     *
+     * @return the average latency in nanoseconds
+     */
+    public long getAverageLatencyNanos() {
+        long sent = sentCount.sum();
+        return sent == 0 ? 0 : totalLatencyNanos.sum() / sent;
+    }
+
+    /**
+     * Returns the longest time from queueing a rate to its broker acknowledgement.
+     *
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    private record OutboundRate(String topic, RateTick rateTick, RateDto rateDto, long enqueuedNanos) {
     }
 }
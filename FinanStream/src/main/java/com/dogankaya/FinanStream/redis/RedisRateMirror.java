@@ -0,0 +1,129 @@
+package com.dogankaya.FinanStream.redis;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind mirror of the in-memory rate book into Redis hashes.
+ *
+ * <p>Writes are only recorded in a pending map keyed by hash name and rate name, so repeated updates of the
+ * same rate between two flushes collapse into a single value, and only that value is converted to a
+ * {@link RateDto}. A single background thread periodically
+ * pushes every pending hash to Redis with one {@code HMSET} per hash. Failed flushes are re-queued unless
+ * a newer value has arrived in the meantime.</p>
+ */
+@Component
+public class RedisRateMirror {
+    private static final Logger logger = LogManager.getLogger(RedisRateMirror.class);
+
+    private final HashOperations<String, String, Object> hashOperations;
+    private final ObjectMapper objectMapper;
+    private final TickerRegistry tickerRegistry;
+    private final long flushIntervalMs;
+    private final Map<String, Map<String, RateTick>> pendingWrites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "redis-rate-mirror");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a new RedisRateMirror.
+     *
+     * @param redisTemplate         RedisTemplate used to access Redis storage.
+     * @param objectMapper          ObjectMapper used to convert stored hash values back to {@link RateDto}.
+     * @param tickerRegistry        registry used to convert ticks back to {@link RateDto}.
+     * @param finanStreamProperties properties containing the flush interval.
+     */
+    public RedisRateMirror(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                           TickerRegistry tickerRegistry, FinanStreamProperties finanStreamProperties) {
+        this.hashOperations = redisTemplate.opsForHash();
+        this.objectMapper = objectMapper;
+        this.tickerRegistry = tickerRegistry;
+        this.flushIntervalMs = finanStreamProperties.getRedisMirror().getFlushIntervalMs();
+    }
+
+    /**
+     * Starts the periodic flush task.
+     */
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes any pending writes and stops the background thread.
+     */
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Records a rate to be written to the given Redis hash on the next flush.
+     *
+     * @param hashName the Redis hash name
+     * @param rateName the rate name used as the hash field
+     * @param rateTick the rate value
+     */
+    public void write(String hashName, String rateName, RateTick rateTick) {
+        pendingWrites.computeIfAbsent(hashName, k -> new ConcurrentHashMap<>()).put(rateName, rateTick);
+    }
+
+    /**
+     * Reads a whole Redis hash synchronously. Used only to warm the rate book at startup.
+     *
+     * @param hashName the Redis hash name
+     * @return map of rate names to their {@link RateDto} values
+     * @throws RuntimeException if reading from Redis fails.
+     */
+    public Map<String, RateDto> load(String hashName) {
+        try {
+            Map<String, RateDto> rates = new HashMap<>();
+            hashOperations.entries(hashName)
+                    .forEach((key, value) -> rates.put(key, objectMapper.convertValue(value, RateDto.class)));
+            return rates;
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot read " + hashName + " from redis", e);
+        }
+    }
+
+    /**
+     * Pushes all pending writes to Redis, one hash at a time.
+     */
+    void flush() {
+        for (Map.Entry<String, Map<String, RateTick>> pending : pendingWrites.entrySet()) {
+            Map<String, RateTick> hashPending = pending.getValue();
+            if (hashPending.isEmpty()) continue;
+
+            Map<String, RateTick> batch = new HashMap<>(hashPending);
+            batch.forEach(hashPending::remove);
+            try {
+                Map<String, RateDto> values = new HashMap<>();
+                batch.forEach((rateName, rateTick) -> values.put(rateName, rateTick.toDto(tickerRegistry)));
+                hashOperations.putAll(pending.getKey(), values);
+            } catch (Exception e) {
+                logger.warn("Cannot mirror {} rates to redis hash {}: {}", batch.size(), pending.getKey(), e.getMessage());
+                batch.forEach(hashPending::putIfAbsent);
+            }
+        }
+    }
+}
@@ -1,86 +1,127 @@
 package com.dogankaya.FinanStream.services;
 
 import com.dogankaya.FinanStream.abscraction.ICalculationEngine;
+import com.dogankaya.FinanStream.calculation.CalculationPartition;
+import com.dogankaya.FinanStream.calculation.RateDependencyGraph;
+import com.dogankaya.FinanStream.engine.CompiledCalculationEngine;
 import com.dogankaya.FinanStream.engine.Exp4JCalculationEngine;
 import com.dogankaya.FinanStream.engine.GroovyCalculationEngine;
 import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.dogankaya.FinanStream.ingestion.ConflatingRateQueue;
 import com.dogankaya.FinanStream.kafka.KafkaProducer;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
-import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Service for calculating financial rates based on formulas and dependencies.
  *
- * <p>This service loads formulas, initializes the calculation engine, reads raw and calculated rates
- * from Redis, calculates dependent rates, and publishes updated rates to Kafka.</p>
+ * <p>This service loads formulas, builds their dependency graph and splits it into independent
+ * {@link CalculationPartition}s, one per group of connected formulas (USD crosses, EUR crosses, metals...).
+ * Each partition has its own calculation engine, conflating queue and thread, so independent groups are
+ * calculated in parallel without sharing mutable state.</p>
+ *
+ * <p>Updates are submitted through {@link #submit(String, RateTick)} and routed to every partition that reads
+ * the updated rate; updates of rates no formula reads are ignored.</p>
  */
 @Service
 public class CalculatorService {
     private final Logger logger = LogManager.getLogger();
-    private final HashOperations<String, String, RateDto> hashOperations;
+    private final RateBookService rateBookService;
     private final KafkaProducer kafkaProducer;
+    private final TickerRegistry tickerRegistry;
 
-    private final ObjectMapper objectMapper;
     private final ResourceLoader resourceLoader;
     private final String ratesConfigFilePath;
 
-    @Value("${finanstream.engine.type:groovy}")
-    private String engineType;
-    private ICalculationEngine calculationEngine;
+    private final FinanStreamProperties.EngineProperties engineProperties;
+    private final FinanStreamProperties.PipelineProperties pipelineProperties;
+    private final Map<String, FinanStreamProperties.PlatformProperties> platformsByName = new HashMap<>();
 
     private final Map<String, String> formulas = new HashMap<>();
     private final Map<String, List<String>> dependsOn = new HashMap<>();
+    private final List<CalculationPartition> partitions = new ArrayList<>();
+    private Map<String, CalculationPartition[]> partitionsByInput = Map.of();
 
     /**
      * Constructor for CalculatorService.
      *
-     * @param redisTemplate         RedisTemplate used to access Redis storage.
+     * @param rateBookService       In-memory rate book holding the latest raw and calculated rates.
      * @param kafkaProducer         KafkaProducer used to send calculated rates.
-     * @param objectMapper          ObjectMapper for JSON serialization/deserialization.
      * @param resourceLoader        ResourceLoader for loading configuration files.
      * @param finanStreamProperties Properties containing configuration such as rates config path.
+     * @param tickerRegistry        Registry of ticker ids and price scales.
      */
-    public CalculatorService(RedisTemplate<String, Object> redisTemplate, KafkaProducer kafkaProducer,
-                             ObjectMapper objectMapper,
+    public CalculatorService(RateBookService rateBookService, KafkaProducer kafkaProducer,
                              ResourceLoader resourceLoader,
-                             FinanStreamProperties finanStreamProperties) {
-        this.hashOperations = redisTemplate.opsForHash();
+                             FinanStreamProperties finanStreamProperties, TickerRegistry tickerRegistry) {
+        this.rateBookService = rateBookService;
         this.kafkaProducer = kafkaProducer;
-        this.objectMapper = objectMapper;
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.tickerRegistry = tickerRegistry;
         this.resourceLoader = resourceLoader;
         this.ratesConfigFilePath = finanStreamProperties.getRatesConfigPath();
+        this.engineProperties = finanStreamProperties.getEngine();
+        this.pipelineProperties = finanStreamProperties.getPipeline();
+        if (finanStreamProperties.getPlatforms() != null) {
+            for (FinanStreamProperties.PlatformProperties platform : finanStreamProperties.getPlatforms().values()) {
+                platformsByName.put(platform.getName(), platform);
+            }
+        }
     }
 
     /**
      * Initializes the service after construction.
      *
-     * <p>Loads formulas from configuration and initializes the calculation engine based on the configured type.</p>
+     * <p>Loads formulas from configuration, builds their dependency graph, partitions it and starts one
+     * calculation thread per partition.</p>
      *
      * @throws Exception if loading formulas or initializing the engine fails.
+     * @throws IllegalStateException if the formulas contain a dependency cycle.
      */
     @PostConstruct
     public void init() throws Exception {
         logger.info("Initializing CalculatorService");
         loadFormulasFromConfig();
-        initializeCalculationEngine();
+        RateDependencyGraph dependencyGraph = RateDependencyGraph.build(formulas, dependsOn);
+
+        Map<String, List<CalculationPartition>> byInput = new HashMap<>();
+        for (RateDependencyGraph partitionGraph : dependencyGraph.partition(pipelineProperties.getCalculationPartitions())) {
+            ICalculationEngine calculationEngine = createCalculationEngine();
+            RateDependencyGraph graph = calculationEngine instanceof CompiledCalculationEngine compiledEngine
+                    ? partitionGraph.compile(compiledEngine) : partitionGraph;
+            CalculationPartition partition = new CalculationPartition("rate-calculation-" + partitions.size(), graph,
+                    calculationEngine, pipelineProperties.getCalculationQueueCapacity(),
+                    rateBookService, kafkaProducer, tickerRegistry);
+            partitions.add(partition);
+            for (String input : graph.getInputs()) {
+                byInput.computeIfAbsent(input, k -> new ArrayList<>()).add(partition);
+            }
+        }
+        Map<String, CalculationPartition[]> routes = new HashMap<>();
+        byInput.forEach((input, owners) -> routes.put(input, owners.toArray(CalculationPartition[]::new)));
+        partitionsByInput = Map.copyOf(routes);
+
+        partitions.forEach(CalculationPartition::start);
+        logger.info("Calculating {} formulas in {} partitions", dependencyGraph.getFormulas().size(), partitions.size());
+    }
+
+    /**
+     * Stops the calculation threads. Pending updates are discarded.
+     */
+    @PreDestroy
+    public void stop() {
+        partitions.forEach(CalculationPartition::stop);
     }
 
     /**
@@ -121,244 +162,76 @@ public class CalculatorService {
     }
 
     /**
-     * Initializes the calculation engine based on the configured engine type.
+     * Creates the calculation engine of one partition based on the configured engine type.
+     *
+     * <p>Supports "groovy", "exp4j" and "compiled" engine types. Throws exception for unsupported types. The
+     * formulas of a "compiled" engine are compiled with its partition graph.</p>
      *
-     * <p>Supports "groovy" and "exp4j" engine types. Throws exception for unsupported types.</p>
+     * @return a new engine instance, not shared with other partitions.
      */
-    private void initializeCalculationEngine() {
-        switch (engineType) {
+    private ICalculationEngine createCalculationEngine() {
+        ICalculationEngine calculationEngine;
+        switch (engineProperties.getType()) {
             case "groovy":
-                this.calculationEngine = new GroovyCalculationEngine();
+                calculationEngine = new GroovyCalculationEngine(engineProperties.getGroovy().isStaticCompile(),
+                        engineProperties.getGroovy().getScriptBaseClass());
                 break;
             case "exp4j":
-                this.calculationEngine = new Exp4JCalculationEngine();
+                calculationEngine = new Exp4JCalculationEngine();
+                break;
+            case "compiled":
+                calculationEngine = new CompiledCalculationEngine();
                 break;
             default:
-                throw new IllegalArgumentException("Unsupported calculation engine type: " + engineType);
+                throw new IllegalArgumentException("Unsupported calculation engine type: " + engineProperties.getType());
         }
-        logger.info("Using calculation engine: {}", this.calculationEngine.getName());
+        calculationEngine.initialize(new HashMap<>());
+        logger.info("Using calculation engine: {}", calculationEngine.getName());
+        return calculationEngine;
     }
 
     /**
-     * Loads raw rate data from Redis.
+     * Queues a raw rate update for recalculation of the rates depending on it.
      *
-     * @return map of rate names to their {@link RateDto} raw values.
-     * @throws RuntimeException if reading from Redis fails.
-     */
-    private Map<String, RateDto> loadRawRatesFromRedis() {
-        try {
-            return hashOperations.entries("raw_rates");
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot read raw_rates from redis", e);
-        }
-    }
-
-    /**
-     * Loads calculated rate data from Redis.
+     * <p>The update is routed to every partition reading the rate and conflated according to the policy and
+     * window configured for the platform it came from; platforms without configuration use the {@code latest}
+     * policy without a window.</p>
      *
-     * @return map of rate names to their {@link RateDto} calculated values.
-     * @throws RuntimeException if reading from Redis fails.
+     * @param platformName the platform the update came from.
+     * @param rateTick     the updated raw rate.
      */
-    private Map<String, RateDto> loadCalculatedRatesFromRedis() {
-        try {
-            return hashOperations.entries("calculated_rates");
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot read calculated_rates from redis", e);
-        }
-    }
-
-    /**
-     * Adds rate ask and bid values to the current bindings map for formula evaluation.
-     *
-     * @param currentBindings the current bindings map where variables are stored.
-     * @param key             the rate name key.
-     * @param dto             the {@link RateDto} containing ask and bid values.
-     */
-    private void addBinding(Map<String, Object> currentBindings, String key, RateDto dto){
-        currentBindings.put(key, dto.getAsk());
-        currentBindings.put(key + "_ask", dto.getAsk());
-        currentBindings.put(key + "_bid", dto.getBid());
-    }
-
-    /**
-     * Recursively resolves and calculates a rate formula and its dependencies.
-     *
-     * <p>Updates the calculated rates map and sends updates to Kafka and Redis.</p>
-     *
-     * @param key        the formula key to resolve.
-     * @param raw        the raw rates map.
-     * @param calculated the calculated rates map to update.
-     */
-    private void resolve(String key, Map<String, RateDto> raw, Map<String, RateDto> calculated) {
-        String baseKey = key;
-        if(key.endsWith("_ask") || key.endsWith("_bid")){
-            baseKey = key.substring(0, key.indexOf("_"));
-        }
-
-        List<String> dependencies = dependsOn.get(baseKey);
-        if(dependencies == null){
-            logger.warn("No dependencies found for key:  {}",baseKey);
+    public void submit(String platformName, RateTick rateTick) {
+        CalculationPartition[] owners = partitionsByInput.get(tickerRegistry.nameOf(rateTick.tickerId()));
+        if (owners == null) {
             return;
         }
-
-        Map<String, Object> currentBindings = new HashMap<>();
-
-        for(String dependency : dependencies){
-            if(raw.containsKey(dependency)){
-                RateDto dto = objectMapper.convertValue(raw.get(dependency), RateDto.class);
-                addBinding(currentBindings, dependency, dto);
-                continue;
-            }
-            if(calculated.containsKey(dependency)){
-                RateDto dto = objectMapper.convertValue(calculated.get(dependency), RateDto.class);
-                addBinding(currentBindings, dependency, dto);
-                continue;
-            }
-            if(formulas.containsKey(dependency)){
-                resolve(dependency, raw, calculated);
-            } else {
-                logger.warn("Dependency '{}' for formula '{}' is not a raw rate, calculated rate, or a defined formula.", dependency, key);
-            }
-        }
-        String formula = formulas.get(key);
-        String formula_ask = formulas.get(key + "_ask");
-        String formulas_bid = formulas.get(key + "_bid");
-        BigDecimal result = null;
-        BigDecimal ask = null;
-        BigDecimal bid = null;
-
-        try{
-            if(formula != null){
-                result = calculationEngine.evaluate(formula, currentBindings);
-            }
-            if(formula_ask != null){
-                ask = calculationEngine.evaluate(formula_ask, currentBindings);
-            }
-            if (formulas_bid != null) {
-                bid = calculationEngine.evaluate(formulas_bid, currentBindings);
-            }
-        }catch (Exception e){
-            logger.warn("Ticker {} cannot be calculated cause: {}", key, e.getMessage());
-            return;
-        }
-
-        RateDto dto = calculated.get(baseKey);
-        if(dto == null){
-            dto = new RateDto();
-            dto.setRateName(baseKey);
-            dto.setRateUpdateTime(LocalDateTime.now());
-        }
-        if(bid != null){
-            dto.setBid(bid);
-            calculationEngine.setVariable(key, bid);
+        FinanStreamProperties.PlatformProperties platform = platformsByName.get(platformName);
+        ConflatingRateQueue.ConflationPolicy policy = platform == null
+                ? ConflatingRateQueue.ConflationPolicy.LATEST
+                : ConflatingRateQueue.ConflationPolicy.fromName(platform.getConflationPolicy());
+        long windowMillis = platform == null ? 0 : platform.getConflationWindowMs();
+        for (CalculationPartition partition : owners) {
+            partition.submit(rateTick, policy, windowMillis);
         }
-        if(ask != null){
-            dto.setAsk(ask);
-            calculationEngine.setVariable(key, ask);
-        }
-        if(result != null){
-            dto.setAsk(result);
-            dto.setBid(result);
-            calculationEngine.setVariable(key, result);
-        }
-        calculated.put(baseKey, dto);
-        kafkaProducer.sendRate("rate-topic", dto);
-        logger.info("Key: {}.bid, Calculated: {}", baseKey, dto.getBid());
-        logger.info("Key: {}.ask, Calculated: {}", baseKey, dto.getAsk());
-        hashOperations.put("calculated_rates", baseKey, dto);
     }
 
     /**
-     * Calculates all rates affected by a given updated {@link RateDto}.
+     * Synchronously calculates all rates affected by a batch of updated rates on the calling thread.
      *
-     * <p>Loads raw and calculated rates from Redis, determines which formulas depend on the updated rate,
-     * evaluates these formulas, and updates the calculated rates.</p>
-     *
-     * @param rateDto the updated raw rate that may affect calculated rates.
-     */
-    public void calculateAffectedRates(RateDto rateDto) {
-        Map<String, RateDto> raw = loadRawRatesFromRedis();
-        Map<String, RateDto> calculated = loadCalculatedRatesFromRedis();
-        List<String> toCalculateList = new ArrayList<>();
-
-        Map<String, Object> initialBindings = new HashMap<>();
-        for(Map.Entry<String, RateDto> r: raw.entrySet()){
-            RateDto dto = objectMapper.convertValue(r.getValue(), RateDto.class);
-            initialBindings.put(dto.getRateName() + "_ask", dto.getAsk());
-            initialBindings.put(dto.getRateName() + "_bid", dto.getBid());
-        }
-        for(Map.Entry<String, RateDto> r: calculated.entrySet()){
-            RateDto dto = objectMapper.convertValue(r.getValue(), RateDto.class);
-            if(Objects.equals(dto.getAsk(), dto.getBid())){
-                initialBindings.put(dto.getRateName(), dto.getAsk());
-                continue;
-            }
-            initialBindings.put(dto.getRateName() + "_ask", dto.getAsk());
-            initialBindings.put(dto.getRateName() + "_bid", dto.getBid());
-
-        }
-
-        for(String key : dependsOn.keySet()){
-            if (isAffectedRate(key, rateDto, calculated, initialBindings)) {
-                toCalculateList.add(key);
-            }
-        }
-
-        this.calculationEngine.initialize(initialBindings);
-
-        toCalculateList.forEach(key -> resolve(key, raw, calculated));
-    }
-
-    /**
-     * Determines whether the given rate key is affected by the specified RateDto,
-     * either directly or indirectly through dependencies.
-     * <p>
-     * This method recursively checks if the provided key or any of its dependencies
-     * match the rate name from the given RateDto. If a match is found, the related
-     * entries are removed from the provided calculated rates and initial bindings maps.
-     * </p>
+     * <p>Bypasses the partition queues and threads; only for callers that have stopped the partition threads
+     * (see {@link #stop()}), such as benchmarks.</p>
      *
-     * @param key             the rate key to check for dependency on the given RateDto
-     * @param rateDto         the RateDto object containing the rate name to check against dependencies
-     * @param calculated      the map of currently calculated rates that may be modified
-     * @param initialBindings the map of initial variable bindings that may be modified
-     * @return true if the key is affected by the rateDto (directly or indirectly), otherwise false
+     * @param rateTicks the updated raw rates.
      */
-    private boolean isAffectedRate(String key, RateDto rateDto, Map<String, RateDto> calculated, Map<String, Object> initialBindings) {
-        if(key.equals(rateDto.getRateName())){
-            calculated.remove(key);
-            initialBindings.remove(key);
-            return true;
-        }
-        List<String> dependencies = dependsOn.get(key);
-        if(dependencies == null)
-            return false;
-        for(String dependency : dependencies){
-            if(dependency.equals(rateDto.getRateName())){
-                calculated.remove(key);
-                initialBindings.remove(key);
-                initialBindings.remove(key + "_ask");
-                initialBindings.remove(key + "_bid");
-                return true;
-            }else{
-                List<String> childDependencies = dependsOn.get(dependency);
-                if(childDependencies == null)
-                    continue;
-                for(String childDep : childDependencies){
-                    if(isAffectedRate(childDep, rateDto, calculated, initialBindings)){
-                        calculated.remove(key);
-                        calculated.remove(dependency);
-                        initialBindings.remove(key);
-                        initialBindings.remove(key + "_ask");
-                        initialBindings.remove(key + "_bid");
-                        initialBindings.remove(dependency);
-                        initialBindings.remove(dependency + "_ask");
-                        initialBindings.remove(dependency + "_bid");
-                        return true;
-                    }
-                }
+    public void calculateAffectedRates(Collection<RateTick> rateTicks) {
+        Map<CalculationPartition, List<RateTick>> byPartition = new HashMap<>();
+        for (RateTick rateTick : rateTicks) {
+            CalculationPartition[] owners = partitionsByInput.get(tickerRegistry.nameOf(rateTick.tickerId()));
+            if (owners == null) continue;
+            for (CalculationPartition partition : owners) {
+                byPartition.computeIfAbsent(partition, k -> new ArrayList<>()).add(rateTick);
             }
         }
-        return false;
+        byPartition.forEach(CalculationPartition::calculateAffectedRates);
     }
-}
\ No newline at end of file
+}
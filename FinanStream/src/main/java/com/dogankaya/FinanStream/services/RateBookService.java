@@ -0,0 +1,100 @@
+package com.dogankaya.FinanStream.services;
+
+import com.dogankaya.FinanStream.redis.RedisRateMirror;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authoritative in-process book of the latest raw and calculated rates.
+ *
+ * <p>The book keeps one {@link RateTick} per rate name for every Redis hash name ({@code raw_rates},
+ * {@code calculated_rates}) and is read directly by the calculator. Redis is only a write-behind mirror:
+ * every update is handed to {@link RedisRateMirror}, and the book is warmed from Redis once at startup
+ * so calculated rates survive restarts.</p>
+ */
+@Service
+public class RateBookService {
+    public static final String RAW_RATES = "raw_rates";
+    public static final String CALCULATED_RATES = "calculated_rates";
+
+    private final Logger logger = LogManager.getLogger();
+    private final RedisRateMirror redisRateMirror;
+    private final TickerRegistry tickerRegistry;
+    private final Map<String, Map<String, RateTick>> books = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for RateBookService.
+     *
+     * @param redisRateMirror write-behind mirror used to persist rates into Redis.
+     * @param tickerRegistry  registry of ticker ids and price scales.
+     */
+    public RateBookService(RedisRateMirror redisRateMirror, TickerRegistry tickerRegistry) {
+        this.redisRateMirror = redisRateMirror;
+        this.tickerRegistry = tickerRegistry;
+    }
+
+    /**
+     * Loads the last mirrored raw and calculated rates from Redis.
+     *
+     * <p>Redis being unavailable is not fatal; the book then simply starts empty.</p>
+     */
+    @PostConstruct
+    public void init() {
+        for (String hashName : new String[]{RAW_RATES, CALCULATED_RATES}) {
+            try {
+                Map<String, RateDto> rates = redisRateMirror.load(hashName);
+                Map<String, RateTick> book = book(hashName);
+                rates.forEach((rateName, dto) -> book.put(rateName, RateTick.fromDto(dto, tickerRegistry)));
+                logger.info("Rate book warmed with {} entries from {}", rates.size(), hashName);
+            } catch (Exception e) {
+                logger.warn("Rate book cannot be warmed from {}: {}", hashName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stores the latest value of a rate and schedules it to be mirrored into Redis.
+     *
+     * @param hashName the Redis hash name the rate belongs to
+     * @param rateTick the latest rate value
+     */
+    public void put(String hashName, RateTick rateTick) {
+        String rateName = tickerRegistry.nameOf(rateTick.tickerId());
+        book(hashName).put(rateName, rateTick);
+        redisRateMirror.write(hashName, rateName, rateTick);
+    }
+
+    /**
+     * Returns the latest value of a rate.
+     *
+     * @param hashName the Redis hash name the rate belongs to
+     * @param rateName the rate name
+     * @return the latest {@link RateTick}, or {@code null} if the rate is unknown
+     */
+    public RateTick get(String hashName, String rateName) {
+        return book(hashName).get(rateName);
+    }
+
+    /**
+     * Returns a read-only live view of all rates in the given hash.
+     *
+     * @param hashName the Redis hash name
+     * @return map of rate names to their latest {@link RateTick} values
+     */
+    public Map<String, RateTick> getRates(String hashName) {
+        return Collections.unmodifiableMap(book(hashName));
+    }
+
+    private Map<String, RateTick> book(String hashName) {
+        return books.computeIfAbsent(hashName, k -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,120 @@
+package com.dogankaya.FinanStream.calculation;
+
+import com.dogankaya.FinanStream.engine.CompiledCalculationEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateDependencyGraphTests {
+
+	private final Map<String, String> formulas = Map.of(
+			"USDMID", "(PF1_USDTRY_bid + PF2_USDTRY_bid) / 2",
+			"USDTRY_bid", "(PF1_USDTRY_bid + PF2_USDTRY_bid) / 2",
+			"USDTRY_ask", "(PF1_USDTRY_ask + PF2_USDTRY_ask) / 2",
+			"EURTRY_bid", "USDMID * PF1_EURUSD_bid",
+			"EURTRY_ask", "USDMID * PF1_EURUSD_ask");
+
+	private final Map<String, List<String>> dependsOn = Map.of(
+			"USDMID", List.of("PF1_USDTRY", "PF2_USDTRY"),
+			"USDTRY", List.of("PF1_USDTRY", "PF2_USDTRY"),
+			"EURTRY", List.of("USDMID", "PF1_EURUSD"));
+
+	@Test
+	void intermediatesAreOrderedBeforeTheirDependents() {
+		RateDependencyGraph graph = RateDependencyGraph.build(formulas, dependsOn);
+
+		List<String> affected = graph.getAffectedRates("PF1_USDTRY").formulas().stream()
+				.map(RateDependencyGraph.FormulaNode::name)
+				.toList();
+
+		assertEquals(3, affected.size());
+		assertTrue(affected.indexOf("USDMID") < affected.indexOf("EURTRY"));
+		assertTrue(affected.contains("USDTRY"));
+		assertEquals(List.of("PF1_USDTRY", "PF2_USDTRY", "PF1_EURUSD"),
+				graph.getAffectedRates("PF1_USDTRY").requiredRates());
+	}
+
+	@Test
+	void inputOnlyAffectsItsDependents() {
+		RateDependencyGraph graph = RateDependencyGraph.build(formulas, dependsOn);
+
+		assertEquals(List.of("EURTRY"), graph.getAffectedRates("PF1_EURUSD").formulas().stream()
+				.map(RateDependencyGraph.FormulaNode::name)
+				.toList());
+		assertTrue(graph.getAffectedRates("PF1_GBPUSD").formulas().isEmpty());
+	}
+
+	@Test
+	void batchOfInputsEvaluatesEachFormulaOnce() {
+		RateDependencyGraph graph = RateDependencyGraph.build(formulas, dependsOn);
+
+		RateDependencyGraph.AffectedRates affected = graph.getAffectedRates(List.of("PF1_EURUSD", "PF1_USDTRY", "PF2_USDTRY"));
+		List<String> names = affected.formulas().stream()
+				.map(RateDependencyGraph.FormulaNode::name)
+				.toList();
+
+		assertEquals(3, names.size());
+		assertTrue(names.indexOf("USDMID") < names.indexOf("EURTRY"));
+		assertEquals(List.of("PF1_USDTRY", "PF2_USDTRY", "PF1_EURUSD"), affected.requiredRates());
+	}
+
+	@Test
+	void independentFormulaGroupsArePartitioned() {
+		Map<String, String> withMetals = new HashMap<>(formulas);
+		withMetals.put("XAUTRY", "PF1_XAUUSD_ask * PF1_USDTRY_ask");
+		withMetals.put("XAGUSD", "(PF1_XAGUSD_ask + PF2_XAGUSD_ask) / 2");
+		Map<String, List<String>> withMetalsDependsOn = new HashMap<>(dependsOn);
+		withMetalsDependsOn.put("XAUTRY", List.of("PF1_XAUUSD", "PF1_USDTRY"));
+		withMetalsDependsOn.put("XAGUSD", List.of("PF1_XAGUSD", "PF2_XAGUSD"));
+		RateDependencyGraph graph = RateDependencyGraph.build(withMetals, withMetalsDependsOn);
+
+		List<RateDependencyGraph> partitions = graph.partition(0);
+
+		assertEquals(2, partitions.size());
+		assertEquals(4, partitions.get(0).getFormulas().size());
+		assertEquals(List.of("XAGUSD"), partitions.get(1).getFormulas().stream()
+				.map(RateDependencyGraph.FormulaNode::name)
+				.toList());
+		assertTrue(partitions.get(0).getInputs().contains("PF1_XAUUSD"));
+		assertEquals(1, graph.partition(1).size());
+	}
+
+	@Test
+	void cyclesAreRejected() {
+		Map<String, String> cyclicFormulas = Map.of("A", "B + 1", "B", "A + 1");
+		Map<String, List<String>> cyclicDependsOn = Map.of("A", List.of("B"), "B", List.of("A"));
+
+		assertThrows(IllegalStateException.class, () -> RateDependencyGraph.build(cyclicFormulas, cyclicDependsOn));
+	}
+
+	@Test
+	void compiledGraphEvaluatesThroughEngineSlots() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		RateDependencyGraph graph = RateDependencyGraph.build(formulas, dependsOn).compile(engine);
+
+		RateDependencyGraph.AffectedRates affected = graph.getAffectedRates("PF1_USDTRY");
+		int[] slots = affected.requiredSlots();
+		assertEquals(affected.requiredRates().size() * 3, slots.length);
+		double[][] inputs = {{34.2, 34.0}, {34.4, 34.2}, {1.1, 1.0}};
+		for (int i = 0; i < inputs.length; i++) {
+			engine.setSlot(slots[i * 3], inputs[i][0]);
+			engine.setSlot(slots[i * 3 + 1], inputs[i][0]);
+			engine.setSlot(slots[i * 3 + 2], inputs[i][1]);
+		}
+
+		RateDependencyGraph.CompiledSlots usdMid = affected.formulas().stream()
+				.filter(node -> node.name().equals("USDMID"))
+				.findFirst().orElseThrow().compiled();
+		engine.setSlot(usdMid.slot(), engine.evaluate(usdMid.formula()));
+		RateDependencyGraph.CompiledSlots eurTry = affected.formulas().stream()
+				.filter(node -> node.name().equals("EURTRY"))
+				.findFirst().orElseThrow().compiled();
+		assertNull(eurTry.formula());
+		assertEquals(34.1 * 1.1, engine.evaluate(eurTry.askFormula()), 1e-9);
+		assertEquals(34.1 * 1.0, engine.evaluate(eurTry.bidFormula()), 1e-9);
+	}
+}
@@ -0,0 +1,38 @@
+package com.dogankaya.FinanStream.config;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaProducerConfigTests {
+
+	private static Map<String, Object> producerConfig(FinanStreamProperties properties) {
+		KafkaProducerConfig config = new KafkaProducerConfig(properties);
+		ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+		return config.producerFactory().getConfigurationProperties();
+	}
+
+	@Test
+	void defaultAcksKeepTheIdempotentProducer() {
+		Map<String, Object> config = producerConfig(new FinanStreamProperties());
+
+		assertEquals("all", config.get(ProducerConfig.ACKS_CONFIG));
+		assertFalse(config.containsKey(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+	}
+
+	@Test
+	void weakerAcksAllowOneRequestInFlight() {
+		FinanStreamProperties properties = new FinanStreamProperties();
+		properties.getKafka().setAcks("1");
+
+		Map<String, Object> config = producerConfig(properties);
+
+		assertEquals("1", config.get(ProducerConfig.ACKS_CONFIG));
+		assertEquals(1, config.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+	}
+}
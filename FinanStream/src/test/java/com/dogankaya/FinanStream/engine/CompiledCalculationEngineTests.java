@@ -0,0 +1,85 @@
+package com.dogankaya.FinanStream.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SequencedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledCalculationEngineTests {
+
+	@Test
+	void evaluatesRatesFormulas() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		engine.initialize(Map.of(
+				"PF1_USDTRY_bid", new BigDecimal("34.10"), "PF2_USDTRY_bid", new BigDecimal("34.20"),
+				"PF1_USDTRY_ask", new BigDecimal("34.30"), "PF2_USDTRY_ask", new BigDecimal("34.40")));
+
+		BigDecimal usdMid = engine.evaluate(
+				"((PF1_USDTRY_bid+PF2_USDTRY_bid)/2 + (PF1_USDTRY_ask+PF2_USDTRY_ask)/2) / 2", null);
+
+		assertEquals(34.25, usdMid.doubleValue(), 1e-9);
+	}
+
+	@Test
+	void honoursPrecedenceFunctionsAndConstants() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		engine.setVariable("x", 3);
+
+		assertEquals(-2.0, engine.evaluate("2 - 2 * 2 ^ 2 / 4 - 1 - -(-1)", null).doubleValue(), 1e-12);
+		assertEquals(6.0, engine.evaluate("max(abs(-x), sqrt(16)) + 2", null).doubleValue(), 1e-12);
+	}
+
+	@Test
+	void slotsCanBeWrittenDirectly() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		CompiledFormula formula = engine.compile("a * b");
+		engine.setSlot(engine.slotOf("a"), 1.5);
+		engine.setSlot(engine.slotOf("b"), 4);
+
+		assertEquals(6.0, engine.evaluate(formula), 1e-12);
+	}
+
+	@Test
+	void batchOutputsAreVisibleToLaterFormulas() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		SequencedMap<String, String> formulas = new LinkedHashMap<>();
+		formulas.put("MID", "(bid + ask) / 2");
+		formulas.put("CROSS_bid", "MID * 2");
+		formulas.put("BROKEN", "unknown * 2");
+
+		Map<String, BigDecimal> results = engine.evaluateAll(formulas, Map.of("bid", 1, "ask", 3));
+
+		assertEquals(2.0, results.get("MID").doubleValue(), 1e-12);
+		assertEquals(4.0, results.get("CROSS_bid").doubleValue(), 1e-12);
+		assertFalse(results.containsKey("BROKEN"));
+	}
+
+	@Test
+	void dependentsOfAFailedIntermediateFailInsteadOfReadingThePreviousBatch() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+		SequencedMap<String, String> formulas = new LinkedHashMap<>();
+		formulas.put("MID", "a / b");
+		formulas.put("CROSS", "MID * 2");
+
+		Map<String, BigDecimal> first = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 2.0));
+		assertEquals(1.0, first.get("CROSS").doubleValue(), 1e-12);
+
+		Map<String, BigDecimal> second = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 0.0));
+		assertTrue(second.isEmpty());
+
+		Map<String, BigDecimal> third = engine.evaluateAll(formulas, Map.of("a", 3.0, "b", 2.0));
+		assertEquals(3.0, third.get("CROSS").doubleValue(), 1e-12);
+	}
+
+	@Test
+	void unboundVariablesAndInvalidExpressionsAreRejected() {
+		CompiledCalculationEngine engine = new CompiledCalculationEngine();
+
+		assertThrows(ArithmeticException.class, () -> engine.evaluate("missing + 1", null));
+		assertThrows(IllegalArgumentException.class, () -> engine.evaluate("(1 + 2", null));
+	}
+}
@@ -0,0 +1,32 @@
+package com.dogankaya.FinanStream.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SequencedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Exp4JCalculationEngineTests {
+
+	@Test
+	void dependentsOfAFailedIntermediateFailInsteadOfReadingThePreviousBatch() {
+		Exp4JCalculationEngine engine = new Exp4JCalculationEngine();
+		engine.initialize(new HashMap<>());
+		SequencedMap<String, String> formulas = new LinkedHashMap<>();
+		formulas.put("MID", "a / b");
+		formulas.put("CROSS", "MID * 2");
+
+		Map<String, BigDecimal> first = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 2.0));
+		assertEquals(1.0, first.get("CROSS").doubleValue(), 1e-12);
+
+		Map<String, BigDecimal> second = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 0.0));
+		assertTrue(second.isEmpty());
+
+		Map<String, BigDecimal> third = engine.evaluateAll(formulas, Map.of("a", 3.0, "b", 2.0));
+		assertEquals(3.0, third.get("CROSS").doubleValue(), 1e-12);
+	}
+}
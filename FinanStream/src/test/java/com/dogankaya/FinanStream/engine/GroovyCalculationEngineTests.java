@@ -0,0 +1,162 @@
+package com.dogankaya.FinanStream.engine;
+
+import com.dogankaya.FinanStream.calculation.RateDependencyGraph;
+import groovy.lang.Binding;
+import groovy.lang.Script;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroovyCalculationEngineTests {
+
+	/**
+	 * Script base class recording the class of every script instance created.
+	 */
+	public abstract static class TrackingScript extends Script {
+		static final Set<Class<?>> SCRIPT_CLASSES = ConcurrentHashMap.newKeySet();
+		static final Set<Script> SCRIPTS = ConcurrentHashMap.newKeySet();
+
+		protected TrackingScript() {
+			SCRIPT_CLASSES.add(getClass());
+			SCRIPTS.add(this);
+		}
+
+		protected TrackingScript(Binding binding) {
+			super(binding);
+			SCRIPT_CLASSES.add(getClass());
+			SCRIPTS.add(this);
+		}
+	}
+
+	@Test
+	void repeatedExpressionReusesItsCompiledClass() throws Exception {
+		TrackingScript.SCRIPT_CLASSES.clear();
+		TrackingScript.SCRIPTS.clear();
+		GroovyCalculationEngine engine = new GroovyCalculationEngine(false, TrackingScript.class.getName());
+
+		assertEquals(3.0, engine.evaluate("a + b", Map.of("a", 1, "b", 2)).doubleValue(), 1e-12);
+		int scripts = TrackingScript.SCRIPTS.size();
+		assertEquals(7.0, engine.evaluate("a + b", Map.of("a", 3, "b", 4)).doubleValue(), 1e-12);
+		assertEquals(scripts, TrackingScript.SCRIPTS.size());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			assertEquals(11.0, executor.submit(() -> engine.evaluate("a + b", Map.of("a", 5, "b", 6)))
+					.get().doubleValue(), 1e-12);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, TrackingScript.SCRIPT_CLASSES.size());
+		assertEquals(scripts + 1, TrackingScript.SCRIPTS.size());
+	}
+
+	@Test
+	void threadsEvaluateAgainstTheirOwnBindings() throws Exception {
+		GroovyCalculationEngine engine = new GroovyCalculationEngine();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<Boolean>> threads = new ArrayList<>();
+			for (int thread = 0; thread < 2; thread++) {
+				int offset = thread * 1_000_000;
+				Callable<Boolean> task = () -> {
+					start.await();
+					for (int i = 0; i < 2000; i++) {
+						engine.setVariable("x", offset + i);
+						if (engine.evaluate("x * 2", null).intValue() != (offset + i) * 2) {
+							return false;
+						}
+					}
+					return true;
+				};
+				threads.add(executor.submit(task));
+			}
+			start.countDown();
+			for (Future<Boolean> thread : threads) {
+				assertTrue(thread.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void shippedFormulasEvaluateWithStaticCompilation() throws IOException {
+		Map<String, String> formulas = new HashMap<>();
+		Map<String, List<String>> dependsOn = new HashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				getClass().getClassLoader().getResourceAsStream("rates.properties")))) {
+			for (String line : reader.lines().map(String::trim).toList()) {
+				if (line.isEmpty() || line.startsWith("#") || !line.contains("=")) continue;
+				String[] parts = line.split("=", 2);
+				String key = parts[0].trim();
+				if (key.endsWith(".depends.on")) {
+					dependsOn.put(key.substring(0, key.indexOf(".depends.on")), List.of(parts[1].trim().split("\\s*,\\s*")));
+				} else {
+					formulas.put(key.replace(".", "_"), parts[1].trim().replace(".", "_"));
+				}
+			}
+		}
+		RateDependencyGraph graph = RateDependencyGraph.build(formulas, dependsOn);
+		Map<String, Object> snapshot = new HashMap<>();
+		snapshot.put("PF1_USDTRY_bid", 34.0);
+		snapshot.put("PF1_USDTRY_ask", 34.2);
+		snapshot.put("PF2_USDTRY_bid", 34.2);
+		snapshot.put("PF2_USDTRY_ask", 34.4);
+		snapshot.put("PF1_EURUSD_bid", 1.08);
+		snapshot.put("PF1_EURUSD_ask", 1.10);
+		snapshot.put("PF2_EURUSD_bid", 1.10);
+		snapshot.put("PF2_EURUSD_ask", 1.12);
+		snapshot.put("PF1_GBPUSD_bid", 1.26);
+		snapshot.put("PF1_GBPUSD_ask", 1.28);
+		snapshot.put("PF2_GBPUSD_bid", 1.28);
+		snapshot.put("PF2_GBPUSD_ask", 1.30);
+
+		GroovyCalculationEngine engine = new GroovyCalculationEngine(true, null);
+		Map<String, BigDecimal> results = engine.evaluateAll(RateDependencyGraph.toFormulaBatch(graph.getFormulas()), snapshot);
+
+		assertEquals(formulas.size(), results.size());
+		assertEquals(34.2, results.get("USDMID").doubleValue(), 1e-9);
+		assertEquals(34.1, results.get("USDTRY_bid").doubleValue(), 1e-9);
+		assertEquals(34.3, results.get("USDTRY_ask").doubleValue(), 1e-9);
+		assertEquals(34.2 * 1.09, results.get("EURTRY_bid").doubleValue(), 1e-9);
+		assertEquals(34.2 * 1.11, results.get("EURTRY_ask").doubleValue(), 1e-9);
+		assertEquals(34.2 * 1.27, results.get("GBPTRY_bid").doubleValue(), 1e-9);
+		assertEquals(34.2 * 1.29, results.get("GBPTRY_ask").doubleValue(), 1e-9);
+	}
+
+	@Test
+	void dependentsOfAFailedIntermediateFailInsteadOfReadingThePreviousBatch() {
+		GroovyCalculationEngine engine = new GroovyCalculationEngine();
+		SequencedMap<String, String> formulas = new LinkedHashMap<>();
+		formulas.put("MID", "a / b");
+		formulas.put("CROSS", "MID * 2");
+
+		Map<String, BigDecimal> first = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 2.0));
+		assertEquals(1.0, first.get("CROSS").doubleValue(), 1e-12);
+
+		Map<String, BigDecimal> second = engine.evaluateAll(formulas, Map.of("a", 1.0, "b", 0.0));
+		assertTrue(second.isEmpty());
+
+		Map<String, BigDecimal> third = engine.evaluateAll(formulas, Map.of("a", 3.0, "b", 2.0));
+		assertEquals(3.0, third.get("CROSS").doubleValue(), 1e-12);
+	}
+}
@@ -0,0 +1,95 @@
+package com.dogankaya.FinanStream.handlers;
+
+import com.dogankaya.FinanStream.abscraction.ICoordinatorCallback;
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import org.junit.jupiter.api.Test;
+import rate.RateTick;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class Platform1_TelnetHandlerTests {
+
+	private static final int HANDSHAKE_TIMEOUT_MS = 200;
+
+	private final ICoordinatorCallback callback = mock();
+
+	private Platform1_TelnetHandler createHandler(int port) {
+		FinanStreamProperties.PlatformProperties platform = new FinanStreamProperties.PlatformProperties();
+		platform.setHost("localhost");
+		platform.setPort(port);
+		platform.setName("Telnet");
+		platform.setReconnectIntervalMs(0);
+		platform.setHandshakeTimeoutMs(HANDSHAKE_TIMEOUT_MS);
+		FinanStreamProperties properties = new FinanStreamProperties();
+		properties.setPlatforms(Map.of("platform1", platform));
+		return new Platform1_TelnetHandler(callback, properties);
+	}
+
+	@Test
+	void serverThatNeverAnswersHelloFailsTheConnectAttempt() throws Exception {
+		try (ServerSocket server = new ServerSocket(0)) {
+			Platform1_TelnetHandler handler = createHandler(server.getLocalPort());
+			Thread silentServer = new Thread(() -> {
+				try (Socket client = server.accept()) {
+					client.getInputStream().readAllBytes();
+				} catch (Exception ignored) {
+				}
+			});
+			silentServer.start();
+
+			long start = System.nanoTime();
+			handler.connect("Telnet", null, null);
+			long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+			assertTrue(elapsedMs < 10 * HANDSHAKE_TIMEOUT_MS, "connect took " + elapsedMs + " ms");
+			verify(callback).onConnect("Telnet", false);
+			silentServer.join(1000);
+			assertFalse(silentServer.isAlive());
+		}
+	}
+
+	@Test
+	void connectionStaysReadableBeyondTheHandshakeTimeout() throws Exception {
+		try (ServerSocket server = new ServerSocket(0)) {
+			Platform1_TelnetHandler handler = createHandler(server.getLocalPort());
+			Thread slowServer = new Thread(() -> {
+				try (Socket client = server.accept()) {
+					BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream()));
+					Writer out = new OutputStreamWriter(client.getOutputStream());
+					while (!"hello".equals(in.readLine())) {
+					}
+					out.write("Hello|epoch=7\n");
+					out.flush();
+					Thread.sleep(3 * HANDSHAKE_TIMEOUT_MS);
+					out.write("{\"rateName\":\"PF1_USDTRY\",\"bid\":34.1,\"ask\":34.2,\"seq\":1}\n");
+					out.flush();
+					in.readLine();
+				} catch (Exception ignored) {
+				}
+			});
+			slowServer.start();
+
+			handler.connect("Telnet", null, null);
+
+			try {
+				verify(callback, timeout(2000)).onRateUpdate(eq("Telnet"), any(RateTick.class));
+				verify(callback).onConnect("Telnet", true);
+				verify(callback, never()).onConnect("Telnet", false);
+			} finally {
+				handler.disConnect("Telnet", null, null);
+				slowServer.join(1000);
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.dogankaya.FinanStream.helpers;
+
+import org.junit.jupiter.api.Test;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTickParserTests {
+
+	private final TickerRegistry registry = new TickerRegistry();
+	private final RateTickParser parser = new RateTickParser(registry);
+
+	@Test
+	void parsesTelnetLineWithTimestampArray() throws Exception {
+		RateTick tick = parser.parse(
+				"{\"rateName\":\"PF1_USDTRY\",\"bid\":34.1234,\"ask\":34.12375,\"rateUpdateTime\":[2025,6,1,10,15,30,123456000]}");
+
+		assertEquals("PF1_USDTRY", registry.nameOf(tick.tickerId()));
+		assertEquals(34_123_400L, tick.bid());
+		assertEquals(34_123_750L, tick.ask());
+		assertEquals(RateTick.toEpochNanos(LocalDateTime.of(2025, 6, 1, 10, 15, 30, 123_456_000)), tick.timestampNanos());
+	}
+
+	@Test
+	void parsesRestArrayWithIsoTimestampsAndRoundTripsToDto() throws Exception {
+		registry.setScale("PF2_EURUSD", 4);
+		List<RateTick> ticks = new ArrayList<>();
+		parser.parseArray("[{\"rateName\":\"PF2_EURUSD\",\"bid\":1.08345,\"ask\":null,\"rateUpdateTime\":\"2025-06-01T10:15:30.5\"},"
+				+ "{\"bid\":1.2,\"ask\":1.3,\"rateName\":\"PF2_GBPUSD\"}]", ticks::add);
+
+		assertEquals(2, ticks.size());
+		RateDto eurUsd = ticks.get(0).toDto(registry);
+		assertEquals(new BigDecimal("1.0835"), eurUsd.getBid());
+		assertNull(eurUsd.getAsk());
+		assertEquals(LocalDateTime.of(2025, 6, 1, 10, 15, 30, 500_000_000), eurUsd.getRateUpdateTime());
+		assertEquals(1_300_000L, ticks.get(1).ask());
+	}
+
+	@Test
+	void parsesSequenceNumbersOfObjectsAndArrays() throws Exception {
+		List<Long> sequences = new ArrayList<>();
+		parser.parseSequenced("{\"rateName\":\"PF1_USDTRY\",\"bid\":34.1,\"ask\":34.2,\"seq\":41}",
+				(tick, sequence) -> sequences.add(sequence));
+		parser.parseSequenced("[{\"rateName\":\"PF1_USDTRY\",\"seq\":42,\"bid\":34.1},{\"rateName\":\"PF1_EURUSD\"}]",
+				(tick, sequence) -> sequences.add(sequence));
+
+		assertEquals(List.of(41L, 42L, RateTickParser.NO_SEQUENCE), sequences);
+		assertThrows(IOException.class, () -> parser.parseSequenced("Subscribed to PF1_USDTRY", (tick, sequence) -> {}));
+	}
+}
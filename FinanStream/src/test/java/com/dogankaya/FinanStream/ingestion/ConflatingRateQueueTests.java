@@ -0,0 +1,51 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import org.junit.jupiter.api.Test;
+import rate.RateTick;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflatingRateQueueTests {
+
+	private static final int USDTRY = 0;
+	private static final int EURUSD = 1;
+
+	private static RateTick rate(int tickerId, long ask) {
+		return new RateTick(tickerId, RateTick.MISSING, ask, 0);
+	}
+
+	@Test
+	void latestPolicyKeepsOnlyTheNewestUpdatePerRate() throws Exception {
+		ConflatingRateQueue queue = new ConflatingRateQueue(16);
+		queue.offer(rate(USDTRY, 341000), ConflatingRateQueue.ConflationPolicy.LATEST, 0);
+		queue.offer(rate(EURUSD, 10800), ConflatingRateQueue.ConflationPolicy.LATEST, 0);
+		queue.offer(rate(USDTRY, 342000), ConflatingRateQueue.ConflationPolicy.LATEST, 0);
+
+		List<RateTick> batch = new ArrayList<>();
+		assertEquals(2, queue.drainTo(batch));
+
+		assertEquals(USDTRY, batch.get(0).tickerId());
+		assertEquals(342000, batch.get(0).ask());
+		assertEquals(EURUSD, batch.get(1).tickerId());
+		assertEquals(1, queue.getConflatedCount());
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	void nonePolicyQueuesEveryUpdateAndDropsTheOldestWhenFull() throws Exception {
+		ConflatingRateQueue queue = new ConflatingRateQueue(2);
+		queue.offer(rate(USDTRY, 341000), ConflatingRateQueue.ConflationPolicy.NONE, 0);
+		queue.offer(rate(USDTRY, 342000), ConflatingRateQueue.ConflationPolicy.NONE, 0);
+		queue.offer(rate(USDTRY, 343000), ConflatingRateQueue.ConflationPolicy.NONE, 0);
+
+		List<RateTick> batch = new ArrayList<>();
+		assertEquals(1, queue.drainTo(batch));
+		assertEquals(342000, batch.getFirst().ask());
+		assertEquals(1, queue.drainTo(batch));
+		assertEquals(343000, batch.getLast().ask());
+		assertEquals(1, queue.getDroppedCount());
+	}
+}
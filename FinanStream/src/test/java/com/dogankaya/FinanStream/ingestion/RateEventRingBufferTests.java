@@ -0,0 +1,97 @@
+package com.dogankaya.FinanStream.ingestion;
+
+import org.junit.jupiter.api.Test;
+import rate.RateTick;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateEventRingBufferTests {
+
+	@Test
+	void deliversEventsFromAllProducersInPublishOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 5_000;
+		CountDownLatch done = new CountDownLatch(producers * perProducer);
+		List<List<Integer>> received = new ArrayList<>();
+		for (int i = 0; i < producers; i++) {
+			received.add(new ArrayList<>());
+		}
+		RateEventRingBuffer ringBuffer = new RateEventRingBuffer(64, WaitStrategy.fromName("blocking"),
+				(event, sequence, endOfBatch) -> {
+					received.get(Integer.parseInt(event.getPlatformName()))
+							.add((int) event.getRateTick().bid());
+					done.countDown();
+				}, "test-consumer");
+		ringBuffer.start();
+		try {
+			List<Thread> threads = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				String platform = String.valueOf(p);
+				Thread thread = new Thread(() -> {
+					for (int i = 0; i < perProducer; i++) {
+						ringBuffer.publish(platform, new RateTick(0, i, i, i));
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		} finally {
+			ringBuffer.stop();
+		}
+
+		for (List<Integer> values : received) {
+			assertEquals(perProducer, values.size());
+			for (int i = 0; i < perProducer; i++) {
+				assertEquals(i, values.get(i));
+			}
+		}
+	}
+
+	@Test
+	void publishingIntoAFullStoppedBufferDropsTheEvent() throws Exception {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		RateEventRingBuffer ringBuffer = new RateEventRingBuffer(2, WaitStrategy.fromName("blocking"),
+				(event, sequence, endOfBatch) -> {
+					blocked.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}, "test-consumer");
+		ringBuffer.start();
+		ringBuffer.publish("P", new RateTick(0, 1, 1, 1));
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		ringBuffer.publish("P", new RateTick(0, 2, 2, 2));
+		ringBuffer.stop();
+		release.countDown();
+
+		Thread producer = new Thread(() -> {
+			for (int i = 3; i <= 5; i++) {
+				ringBuffer.publish("P", new RateTick(0, i, i, i));
+			}
+		});
+		producer.start();
+		producer.join(5000);
+
+		assertFalse(producer.isAlive());
+		assertEquals(2, ringBuffer.getDroppedCount());
+	}
+
+	@Test
+	void rejectsSizeThatIsNotAPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new RateEventRingBuffer(1000, WaitStrategy.fromName("busy-spin"), (e, s, b) -> { }, "test"));
+		assertThrows(IllegalArgumentException.class, () -> WaitStrategy.fromName("sleeping"));
+	}
+}
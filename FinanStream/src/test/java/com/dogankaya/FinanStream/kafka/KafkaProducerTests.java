@@ -0,0 +1,66 @@
+package com.dogankaya.FinanStream.kafka;
+
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class KafkaProducerTests {
+
+	private final KafkaTemplate<String, RateDto> kafkaTemplate = mock();
+
+	private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void sendsTicksKeyedByRateNameAndCountsOutcomes() throws Exception {
+		TickerRegistry registry = new TickerRegistry();
+		int usdtry = registry.intern("PF1_USDTRY");
+		SendResult<String, RateDto> sendResult = mock();
+		when(kafkaTemplate.send(anyString(), anyString(), any(RateDto.class)))
+				.thenReturn(CompletableFuture.completedFuture(sendResult))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+		KafkaProducer producer = new KafkaProducer(kafkaTemplate, registry, new FinanStreamProperties());
+		producer.start();
+		producer.sendRate("rate-topic", new RateTick(usdtry, 34_100_000, 34_200_000, 0));
+		producer.sendRate("rate-topic", new RateTick(usdtry, 34_150_000, 34_250_000, 0));
+		waitFor(() -> producer.getSentCount() + producer.getFailedCount() == 2);
+		producer.stop();
+
+		verify(kafkaTemplate, times(2)).send(eq("rate-topic"), eq("PF1_USDTRY"), any(RateDto.class));
+		assertEquals(1, producer.getSentCount());
+		assertEquals(1, producer.getFailedCount());
+		assertEquals(0, producer.getDroppedCount());
+	}
+
+	@Test
+	void dropsRatesInsteadOfBlockingWhenTheOutboundQueueIsFull() {
+		FinanStreamProperties properties = new FinanStreamProperties();
+		properties.getKafka().setOutboundQueueCapacity(2);
+		KafkaProducer producer = new KafkaProducer(kafkaTemplate, new TickerRegistry(), properties);
+
+		for (int i = 0; i < 5; i++) {
+			producer.sendRate("rate-topic", new RateTick(0, 1, 1, 0));
+		}
+
+		assertEquals(2, producer.getQueueDepth());
+		assertEquals(3, producer.getDroppedCount());
+		verifyNoInteractions(kafkaTemplate);
+	}
+}
@@ -0,0 +1,126 @@
+package com.dogankaya.FinanStream.redis;
+
+import com.dogankaya.FinanStream.config.RedisConfig;
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RedisRateMirrorTests {
+
+	private final RedisTemplate<String, Object> redisTemplate = mock();
+	private final HashOperations<String, String, Object> hashOperations = mock();
+	private final TickerRegistry registry = new TickerRegistry();
+	private final int usdtry = registry.intern("PF1_USDTRY");
+	private final int eurusd = registry.intern("PF1_EURUSD");
+
+	private RedisRateMirror createMirror() {
+		when(redisTemplate.<String, Object>opsForHash()).thenReturn(hashOperations);
+		return new RedisRateMirror(redisTemplate, new RedisConfig().redisObjectMapper(), registry,
+				new FinanStreamProperties());
+	}
+
+	private RateTick tick(int tickerId, long ask) {
+		return new RateTick(tickerId, ask - 100_000, ask, 0);
+	}
+
+	private static BigDecimal askOf(Map<String, RateDto> values, String rateName) {
+		return values.get(rateName).getAsk();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushWritesOnlyTheLatestPendingValueOfEachRate() {
+		RedisRateMirror mirror = createMirror();
+		mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_100_000));
+		mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_200_000));
+		mirror.write("raw_rates", "PF1_EURUSD", tick(eurusd, 1_080_000));
+		mirror.write("calculated_rates", "PF1_USDTRY", tick(usdtry, 34_300_000));
+
+		mirror.flush();
+		mirror.flush();
+
+		verify(hashOperations).putAll(eq("raw_rates"), argThat(values -> {
+			Map<String, RateDto> rates = (Map<String, RateDto>) values;
+			return rates.size() == 2 && askOf(rates, "PF1_USDTRY").compareTo(new BigDecimal("34.2")) == 0
+					&& askOf(rates, "PF1_EURUSD").compareTo(new BigDecimal("1.08")) == 0;
+		}));
+		verify(hashOperations).putAll(eq("calculated_rates"), argThat(values ->
+				askOf((Map<String, RateDto>) values, "PF1_USDTRY").compareTo(new BigDecimal("34.3")) == 0));
+		verifyNoMoreInteractions(hashOperations);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedFlushIsRetriedWithoutOverwritingANewerValue() {
+		RedisRateMirror mirror = createMirror();
+		mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_100_000));
+		mirror.write("raw_rates", "PF1_EURUSD", tick(eurusd, 1_080_000));
+		Map<String, RateDto> stored = new ConcurrentHashMap<>();
+		AtomicBoolean redisDown = new AtomicBoolean(true);
+		doAnswer(invocation -> {
+			if (redisDown.getAndSet(false)) {
+				mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_200_000));
+				throw new IllegalStateException("redis down");
+			}
+			stored.putAll(invocation.getArgument(1));
+			return null;
+		}).when(hashOperations).putAll(eq("raw_rates"), anyMap());
+
+		mirror.flush();
+		assertTrue(stored.isEmpty());
+		mirror.flush();
+
+		assertEquals(0, askOf(stored, "PF1_USDTRY").compareTo(new BigDecimal("34.2")));
+		assertEquals(0, askOf(stored, "PF1_EURUSD").compareTo(new BigDecimal("1.08")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void writesArrivingDuringAFlushAreKeptForTheNextFlush() {
+		RedisRateMirror mirror = createMirror();
+		mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_100_000));
+		Map<String, RateDto> stored = new ConcurrentHashMap<>();
+		AtomicBoolean firstFlush = new AtomicBoolean(true);
+		doAnswer(invocation -> {
+			stored.putAll(invocation.getArgument(1));
+			if (firstFlush.getAndSet(false)) {
+				mirror.write("raw_rates", "PF1_USDTRY", tick(usdtry, 34_200_000));
+			}
+			return null;
+		}).when(hashOperations).putAll(eq("raw_rates"), anyMap());
+
+		mirror.flush();
+		assertEquals(0, askOf(stored, "PF1_USDTRY").compareTo(new BigDecimal("34.1")));
+		mirror.flush();
+
+		assertEquals(0, askOf(stored, "PF1_USDTRY").compareTo(new BigDecimal("34.2")));
+	}
+
+	@Test
+	void loadConvertsTheStoredHashValues() {
+		RedisRateMirror mirror = createMirror();
+		when(hashOperations.entries("calculated_rates")).thenReturn(Map.of("USDTRY", Map.of(
+				"rateName", "USDTRY", "bid", "34.1", "ask", "34.2", "rateUpdateTime", "2026-10-16T10:15:30")));
+
+		RateDto rate = mirror.load("calculated_rates").get("USDTRY");
+
+		assertEquals("USDTRY", rate.getRateName());
+		assertEquals(new BigDecimal("34.2"), rate.getAsk());
+		assertEquals(LocalDateTime.of(2026, 10, 16, 10, 15, 30), rate.getRateUpdateTime());
+	}
+}
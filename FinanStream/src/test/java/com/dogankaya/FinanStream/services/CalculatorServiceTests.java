@@ -0,0 +1,138 @@
+package com.dogankaya.FinanStream.services;
+
+import com.dogankaya.FinanStream.calculation.CalculationPartition;
+import com.dogankaya.FinanStream.calculation.RateDependencyGraph;
+import com.dogankaya.FinanStream.helpers.FinanStreamProperties;
+import com.dogankaya.FinanStream.kafka.KafkaProducer;
+import com.dogankaya.FinanStream.redis.RedisRateMirror;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CalculatorServiceTests {
+
+	@TempDir
+	Path tempDir;
+
+	private final RedisRateMirror redisRateMirror = mock();
+	private final KafkaProducer kafkaProducer = mock();
+	private final TickerRegistry registry = new TickerRegistry();
+	private final RateBookService rateBook = new RateBookService(redisRateMirror, registry);
+
+	private CalculatorService createService() throws Exception {
+		Path rates = tempDir.resolve("rates.properties");
+		Files.writeString(rates, String.join("\n",
+				"USDMID = (PF1_USDTRY.bid + PF1_USDTRY.ask) / 2",
+				"EURTRY.bid = USDMID * PF1_EURUSD.bid",
+				"EURTRY.ask = USDMID * PF1_EURUSD.ask",
+				"XAUMID = (PF1_XAUUSD.bid + PF1_XAUUSD.ask) / 2",
+				"USDMID.depends.on=PF1_USDTRY",
+				"EURTRY.depends.on=USDMID,PF1_EURUSD",
+				"XAUMID.depends.on=PF1_XAUUSD"));
+		FinanStreamProperties properties = new FinanStreamProperties();
+		properties.setRatesConfigPath(rates.toUri().toString());
+		properties.getEngine().setType("exp4j");
+		CalculatorService service = new CalculatorService(rateBook, kafkaProducer, new DefaultResourceLoader(),
+				properties, registry);
+		service.init();
+		return service;
+	}
+
+	private RateTick putRaw(String rateName, double bid, double ask) {
+		int tickerId = registry.intern(rateName);
+		int scale = registry.scaleOf(tickerId);
+		RateTick tick = new RateTick(tickerId, RateTick.toScaled(bid, scale), RateTick.toScaled(ask, scale), 0);
+		rateBook.put(RateBookService.RAW_RATES, tick);
+		return tick;
+	}
+
+	private Map<String, Double> published() {
+		ArgumentCaptor<RateTick> ticks = ArgumentCaptor.forClass(RateTick.class);
+		verify(kafkaProducer, atLeast(0)).sendRate(eq("rate-topic"), ticks.capture());
+		Map<String, Double> asks = new HashMap<>();
+		for (RateTick tick : ticks.getAllValues()) {
+			asks.put(registry.nameOf(tick.tickerId()), RateTick.toDouble(tick.ask(), registry.scaleOf(tick.tickerId())));
+		}
+		return asks;
+	}
+
+	@Test
+	void rawUpdateIsCalculatedOnlyByThePartitionOwningIt() throws Exception {
+		CalculatorService service = createService();
+		try {
+			putRaw("PF1_USDTRY", 34.0, 34.2);
+			putRaw("PF1_EURUSD", 1.08, 1.10);
+			RateTick gold = putRaw("PF1_XAUUSD", 2300.0, 2302.0);
+
+			service.submit("Telnet", gold);
+
+			verify(kafkaProducer, timeout(2000)).sendRate(eq("rate-topic"),
+					argThat((RateTick tick) -> "XAUMID".equals(registry.nameOf(tick.tickerId()))));
+			verify(kafkaProducer, after(200).times(1)).sendRate(anyString(), any(RateTick.class));
+			assertEquals(Map.of("XAUMID", 2301.0), published());
+		} finally {
+			service.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void everyIndependentGroupHasItsOwnPartitionAndEngine() throws Exception {
+		CalculatorService service = createService();
+		service.stop();
+
+		List<CalculationPartition> partitions = (List<CalculationPartition>) ReflectionTestUtils.getField(service, "partitions");
+		Map<String, CalculationPartition[]> routes =
+				(Map<String, CalculationPartition[]>) ReflectionTestUtils.getField(service, "partitionsByInput");
+
+		assertEquals(2, partitions.size());
+		assertNotSame(ReflectionTestUtils.getField(partitions.get(0), "calculationEngine"),
+				ReflectionTestUtils.getField(partitions.get(1), "calculationEngine"));
+		assertEquals(Set.of("XAUMID"), formulaNames(routes.get("PF1_XAUUSD")));
+		assertEquals(Set.of("USDMID", "EURTRY"), formulaNames(routes.get("PF1_USDTRY")));
+		assertArrayEquals(routes.get("PF1_USDTRY"), routes.get("PF1_EURUSD"));
+	}
+
+	private static Set<String> formulaNames(CalculationPartition[] owners) {
+		assertEquals(1, owners.length);
+		return owners[0].getDependencyGraph().getFormulas().stream()
+				.map(RateDependencyGraph.FormulaNode::name)
+				.collect(Collectors.toSet());
+	}
+
+	@Test
+	void missingInputSuppressesOnlyTheFormulasDependingOnIt() throws Exception {
+		CalculatorService service = createService();
+		service.stop();
+		RateTick usdtry = putRaw("PF1_USDTRY", 34.0, 34.2);
+		RateTick gold = putRaw("PF1_XAUUSD", 2300.0, 2302.0);
+
+		service.calculateAffectedRates(List.of(usdtry, gold));
+
+		assertEquals(Map.of("USDMID", 34.1, "XAUMID", 2301.0), published());
+
+		RateTick eurusd = putRaw("PF1_EURUSD", 1.08, 1.10);
+		service.calculateAffectedRates(List.of(eurusd));
+
+		assertEquals(34.1 * 1.10, published().get("EURTRY"), 1e-6);
+	}
+}
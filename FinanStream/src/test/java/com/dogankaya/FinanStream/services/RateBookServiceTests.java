@@ -0,0 +1,55 @@
+package com.dogankaya.FinanStream.services;
+
+import com.dogankaya.FinanStream.redis.RedisRateMirror;
+import org.junit.jupiter.api.Test;
+import rate.RateDto;
+import rate.RateTick;
+import rate.TickerRegistry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateBookServiceTests {
+
+	private final RedisRateMirror redisRateMirror = mock();
+	private final TickerRegistry registry = new TickerRegistry();
+
+	@Test
+	void warmsFromRedisAndStartsEmptyWhenAHashCannotBeRead() {
+		when(redisRateMirror.load(RateBookService.CALCULATED_RATES)).thenReturn(Map.of("USDTRY",
+				new RateDto("USDTRY", new BigDecimal("34.1"), new BigDecimal("34.2"), LocalDateTime.of(2026, 10, 16, 10, 0))));
+		when(redisRateMirror.load(RateBookService.RAW_RATES)).thenThrow(new RuntimeException("redis down"));
+		RateBookService rateBook = new RateBookService(redisRateMirror, registry);
+
+		rateBook.init();
+
+		RateTick usdtry = rateBook.get(RateBookService.CALCULATED_RATES, "USDTRY");
+		assertEquals(registry.idOf("USDTRY"), usdtry.tickerId());
+		assertEquals(new BigDecimal("34.200000"), RateTick.toDecimal(usdtry.ask(), registry.scaleOf(usdtry.tickerId())));
+		assertTrue(rateBook.getRates(RateBookService.RAW_RATES).isEmpty());
+		verify(redisRateMirror, never()).write(anyString(), anyString(), any());
+	}
+
+	@Test
+	void putReplacesTheLatestValueAndMirrorsIt() {
+		RateBookService rateBook = new RateBookService(redisRateMirror, registry);
+		int usdtry = registry.intern("PF1_USDTRY");
+		RateTick first = new RateTick(usdtry, 34_100_000, 34_200_000, 1);
+		RateTick second = new RateTick(usdtry, 34_150_000, 34_250_000, 2);
+
+		rateBook.put(RateBookService.RAW_RATES, first);
+		rateBook.put(RateBookService.RAW_RATES, second);
+
+		assertEquals(second, rateBook.get(RateBookService.RAW_RATES, "PF1_USDTRY"));
+		assertNull(rateBook.get(RateBookService.CALCULATED_RATES, "PF1_USDTRY"));
+		assertEquals(Map.of("PF1_USDTRY", second), rateBook.getRates(RateBookService.RAW_RATES));
+		assertThrows(UnsupportedOperationException.class,
+				() -> rateBook.getRates(RateBookService.RAW_RATES).remove("PF1_USDTRY"));
+		verify(redisRateMirror).write(RateBookService.RAW_RATES, "PF1_USDTRY", first);
+		verify(redisRateMirror).write(RateBookService.RAW_RATES, "PF1_USDTRY", second);
+	}
+}
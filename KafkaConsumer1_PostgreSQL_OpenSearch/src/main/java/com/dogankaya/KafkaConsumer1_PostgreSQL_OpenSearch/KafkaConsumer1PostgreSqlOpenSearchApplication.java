@@ -3,6 +3,7 @@ package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot application entry point for the KafkaConsumer1_PostgreSQL_OpenSearch project.
@@ -13,6 +14,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
  */
 @SpringBootApplication
 @EntityScan(basePackages = {"rate"})
+@EnableScheduling
 public class KafkaConsumer1PostgreSqlOpenSearchApplication {
 
 	/**
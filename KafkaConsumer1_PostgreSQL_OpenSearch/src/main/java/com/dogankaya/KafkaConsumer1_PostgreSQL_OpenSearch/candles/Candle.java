@@ -0,0 +1,120 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles;
+
+import java.math.BigDecimal;
+
+/**
+ * Open/high/low/close state of one rate in one window.
+ *
+ * <p>Open and close are the prices with the earliest and the latest event time seen so far, so ticks arriving
+ * out of order still produce the right candle.</p>
+ */
+public final class Candle {
+    private final String rateName;
+    private final CandleInterval interval;
+    private final long windowStart;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private long openTime;
+    private long closeTime;
+    private long tickCount;
+
+    /**
+     * Creates a candle from its first tick.
+     *
+     * @param rateName  the rate name
+     * @param interval  the candle interval
+     * @param price     the price of the tick
+     * @param eventTime the time of the tick in milliseconds since the epoch
+     */
+    public Candle(String rateName, CandleInterval interval, BigDecimal price, long eventTime) {
+        this(rateName, interval, interval.windowStart(eventTime), price, price, price, price, 1);
+        this.openTime = eventTime;
+        this.closeTime = eventTime;
+    }
+
+    /**
+     * Creates a candle from stored values.
+     *
+     * @param rateName    the rate name
+     * @param interval    the candle interval
+     * @param windowStart the window start in milliseconds since the epoch
+     * @param open        the open price
+     * @param high        the high price
+     * @param low         the low price
+     * @param close       the close price
+     * @param tickCount   the number of ticks aggregated
+     */
+    public Candle(String rateName, CandleInterval interval, long windowStart, BigDecimal open, BigDecimal high,
+                  BigDecimal low, BigDecimal close, long tickCount) {
+        this.rateName = rateName;
+        this.interval = interval;
+        this.windowStart = windowStart;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.tickCount = tickCount;
+    }
+
+    /**
+     * Adds a tick of the window to the candle.
+     *
+     * @param price     the price of the tick
+     * @param eventTime the time of the tick in milliseconds since the epoch
+     */
+    void add(BigDecimal price, long eventTime) {
+        if (eventTime < openTime) {
+            open = price;
+            openTime = eventTime;
+        }
+        if (eventTime >= closeTime) {
+            close = price;
+            closeTime = eventTime;
+        }
+        if (price.compareTo(high) > 0) {
+            high = price;
+        }
+        if (price.compareTo(low) < 0) {
+            low = price;
+        }
+        tickCount++;
+    }
+
+    public String getRateName() {
+        return rateName;
+    }
+
+    public CandleInterval getInterval() {
+        return interval;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public long getWindowEnd() {
+        return windowStart + interval.getMillis();
+    }
+
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,134 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incrementally aggregates rate ticks into open/high/low/close candles per rate name and interval.
+ *
+ * <p>Windows are closed by event time. Each rate name has its own watermark, the latest tick time seen for that
+ * name advanced by the wall clock time passed since that tick arrived, so windows also close while the stream is
+ * quiet and a source whose clock runs ahead does not close the windows of the others. A window is closed once the
+ * watermark of its rate name passes its end by the grace period; ticks of a window arriving before that are
+ * absorbed, later ticks are counted and dropped.</p>
+ *
+ * <p>All methods are synchronized; the aggregator is shared by the listener threads and the flush.</p>
+ */
+public class CandleAggregator {
+    private final List<CandleInterval> intervals;
+    private final long gracePeriodMillis;
+    private final Map<CandleKey, Candle> openCandles = new HashMap<>();
+    private final Map<String, Watermark> watermarks = new HashMap<>();
+    private long lateTickCount;
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param intervals         the candle intervals to aggregate
+     * @param gracePeriodMillis how long after its end a window still accepts late ticks
+     */
+    public CandleAggregator(List<CandleInterval> intervals, long gracePeriodMillis) {
+        this.intervals = List.copyOf(intervals);
+        this.gracePeriodMillis = gracePeriodMillis;
+    }
+
+    /**
+     * Adds a tick to the candles of all intervals.
+     *
+     * @param rateName    the rate name
+     * @param price       the price of the tick
+     * @param eventTime   the time of the tick in milliseconds since the epoch
+     * @param arrivalTime the wall clock time the tick arrived in milliseconds since the epoch
+     */
+    public synchronized void add(String rateName, BigDecimal price, long eventTime, long arrivalTime) {
+        Watermark watermark = watermarks.computeIfAbsent(rateName, name -> new Watermark());
+        if (eventTime > watermark.maxEventTime) {
+            watermark.maxEventTime = eventTime;
+            watermark.maxEventArrival = arrivalTime;
+        }
+        for (CandleInterval interval : intervals) {
+            long windowStart = interval.windowStart(eventTime);
+            if (windowStart + interval.getMillis() + gracePeriodMillis <= watermark.closedUpTo) {
+                lateTickCount++;
+                continue;
+            }
+            CandleKey key = new CandleKey(rateName, interval, windowStart);
+            Candle candle = openCandles.get(key);
+            if (candle == null) {
+                openCandles.put(key, new Candle(rateName, interval, price, eventTime));
+            } else {
+                candle.add(price, eventTime);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the candles whose windows are closed at the given wall clock time.
+     *
+     * @param now the wall clock time in milliseconds since the epoch
+     * @return the closed candles
+     */
+    public synchronized List<Candle> takeClosed(long now) {
+        for (Watermark watermark : watermarks.values()) {
+            watermark.advance(now);
+        }
+        List<Candle> closed = new ArrayList<>();
+        Iterator<Candle> iterator = openCandles.values().iterator();
+        while (iterator.hasNext()) {
+            Candle candle = iterator.next();
+            if (candle.getWindowEnd() + gracePeriodMillis <= watermarks.get(candle.getRateName()).closedUpTo) {
+                closed.add(candle);
+                iterator.remove();
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Removes and returns all candles, including those of open windows.
+     *
+     * @return the candles
+     */
+    public synchronized List<Candle> takeAll() {
+        List<Candle> all = new ArrayList<>(openCandles.values());
+        openCandles.clear();
+        return all;
+    }
+
+    /**
+     * Returns the number of candles of open windows.
+     *
+     * @return the open candle count
+     */
+    public synchronized int getOpenCandleCount() {
+        return openCandles.size();
+    }
+
+    /**
+     * Returns the number of ticks dropped because their window was already closed.
+     *
+     * @return the late tick count
+     */
+    public synchronized long getLateTickCount() {
+        return lateTickCount;
+    }
+
+    private record CandleKey(String rateName, CandleInterval interval, long windowStart) {
+    }
+
+    private static final class Watermark {
+        private long maxEventTime = Long.MIN_VALUE;
+        private long maxEventArrival;
+        private long closedUpTo = Long.MIN_VALUE;
+
+        private void advance(long now) {
+            if (maxEventTime != Long.MIN_VALUE) {
+                closedUpTo = Math.max(closedUpTo, maxEventTime + Math.max(now - maxEventArrival, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles;
+
+/**
+ * Lengths of the candles aggregated from the rate stream. Windows are aligned to the Unix epoch, so daily
+ * candles start at midnight UTC.
+ */
+public enum CandleInterval {
+    SECOND("1s", 1_000L),
+    MINUTE("1m", 60_000L),
+    HOUR("1h", 3_600_000L),
+    DAY("1d", 86_400_000L);
+
+    private final String name;
+    private final long millis;
+
+    CandleInterval(String name, long millis) {
+        this.name = name;
+        this.millis = millis;
+    }
+
+    /**
+     * Returns the name of the interval, e.g. {@code 1m}.
+     *
+     * @return the interval name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the length of the interval.
+     *
+     * @return the length in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Returns the start of the window containing a time.
+     *
+     * @param epochMillis the time in milliseconds since the epoch
+     * @return the window start in milliseconds since the epoch
+     */
+    public long windowStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+
+    /**
+     * Returns the interval of a name.
+     *
+     * @param name the interval name: {@code 1s}, {@code 1m}, {@code 1h} or {@code 1d}
+     * @return the interval
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static CandleInterval fromName(String name) {
+        for (CandleInterval interval : values()) {
+            if (interval.name.equals(name)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + name);
+    }
+}
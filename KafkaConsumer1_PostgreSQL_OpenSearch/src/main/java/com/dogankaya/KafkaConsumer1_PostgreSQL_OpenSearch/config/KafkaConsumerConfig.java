@@ -1,5 +1,8 @@
 package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config;
 
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlowManager;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services.RateOpenSearchSinkService;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services.RatePostgresSinkService;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -8,9 +11,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
 import rate.RateDto;
+import rate.RateDtoBinaryDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -33,22 +41,58 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * Encoding of the rate records: {@code json}, {@code binary} or {@code auto} to accept both, which allows the
+     * producer to switch formats while records of the old format are still on the topic.
+     */
+    @Value("${kafka.value-format:auto}")
+    private String valueFormat;
+
+    /**
+     * Where a consumer group without committed offsets starts reading. Defaults to {@code earliest}, so a sink that
+     * joins with a new consumer group first consumes the records already on the topic.
+     */
+    @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
+    private String autoOffsetReset;
+
+    private final RateConsumerProperties rateConsumerProperties;
+    private final SinkFlowManager sinkFlowManager;
+
+    public KafkaConsumerConfig(RateConsumerProperties rateConsumerProperties, SinkFlowManager sinkFlowManager) {
+        this.rateConsumerProperties = rateConsumerProperties;
+        this.sinkFlowManager = sinkFlowManager;
+    }
+
     /**
      * Creates a {@link ConsumerFactory} bean configured to deserialize keys as Strings
-     * and values as JSON objects of type {@link RateDto}.
+     * and values as JSON or binary objects of type {@link RateDto}.
      *
      * @return a configured {@link ConsumerFactory} for Kafka consumers.
+     * @throws IllegalArgumentException if the configured value format is unknown.
      */
     @Bean
     public ConsumerFactory<String, RateDto> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), valueDeserializer());
+    }
+
+    private Map<String, Object> consumerProps() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "rate-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(RateDto.class));
+        return props;
+    }
+
+    private Deserializer<RateDto> valueDeserializer() {
+        return switch (valueFormat) {
+            case "json" -> new JsonDeserializer<>(RateDto.class);
+            case "binary" -> new RateDtoBinaryDeserializer();
+            case "auto" -> new RateDtoBinaryDeserializer(new JsonDeserializer<>(RateDto.class));
+            default -> throw new IllegalArgumentException("Unsupported Kafka value format: " + valueFormat);
+        };
     }
 
     /**
@@ -68,4 +112,116 @@ public class KafkaConsumerConfig {
         factory.setConsumerFactory(consumerFactory());
         return factory;
     }
+
+    /**
+     * Creates the listener container factory of the PostgreSQL sink.
+     *
+     * @return a configured batch {@link ConcurrentKafkaListenerContainerFactory}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RateDto> postgresSinkContainerFactory() {
+        return sinkContainerFactory(rateConsumerProperties.getPostgres(), RatePostgresSinkService.LISTENER_ID);
+    }
+
+    /**
+     * Creates the listener container factory of the OpenSearch sink.
+     *
+     * @return a configured batch {@link ConcurrentKafkaListenerContainerFactory}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RateDto> openSearchSinkContainerFactory() {
+        return sinkContainerFactory(rateConsumerProperties.getOpensearch(), RateOpenSearchSinkService.LISTENER_ID);
+    }
+
+    /**
+     * Creates the listener container factory of the candle sink.
+     *
+     * @return a configured batch {@link ConcurrentKafkaListenerContainerFactory}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, RateDto> candleSinkContainerFactory() {
+        return sinkContainerFactory(rateConsumerProperties.getCandles(), null);
+    }
+
+    /**
+     * Creates a batch listener container factory for one sink.
+     * <p>
+     * The sink consumes in its own consumer group with its own concurrency. Each poll returns at most
+     * {@code batch-size} records; the broker holds a fetch for up to {@code max-wait-ms} until
+     * {@code fetch-min-bytes} are available. Offsets are committed once per batch, after the listener has returned;
+     * a batch the listener failed is retried by {@link #sinkErrorHandler} until it succeeds. Sinks under flow
+     * control retry through {@link #flowControlledSinkErrorHandler} instead and tell their {@link SinkFlowManager}
+     * about revoked partitions.
+     * </p>
+     *
+     * @param sink       the consumer properties of the sink.
+     * @param listenerId the listener id of a sink under flow control, or {@code null}.
+     * @return a configured batch {@link ConcurrentKafkaListenerContainerFactory}.
+     */
+    private ConcurrentKafkaListenerContainerFactory<String, RateDto> sinkContainerFactory(
+            RateConsumerProperties.SinkProperties sink, String listenerId) {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, sink.getGroupId());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, sink.getBatchSize());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, sink.getMaxWaitMs());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, sink.getFetchMinBytes());
+
+        ConcurrentKafkaListenerContainerFactory<String, RateDto> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer()));
+        factory.setConcurrency(sink.getConcurrency());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (listenerId != null) {
+            factory.setCommonErrorHandler(flowControlledSinkErrorHandler(sink, rateConsumerProperties.getFlow()));
+            factory.getContainerProperties().setConsumerRebalanceListener(sinkFlowManager.rebalanceListener(listenerId));
+        } else {
+            factory.setCommonErrorHandler(sinkErrorHandler(sink));
+        }
+        return factory;
+    }
+
+    /**
+     * Creates the error handler of a sink's listener containers.
+     * <p>
+     * A failed batch is redelivered to the listener with an exponential backoff from {@code retry-backoff-ms} up
+     * to {@code max-retry-backoff-ms} between attempts, without a limit on the attempts. The consumer is paused
+     * meanwhile and the offsets of the batch are not committed, so an outage of the sink's downstream holds the
+     * sink back instead of skipping records.
+     * </p>
+     *
+     * @param sink the consumer properties of the sink.
+     * @return the error handler retrying failed batches until they succeed.
+     */
+    static DefaultErrorHandler sinkErrorHandler(RateConsumerProperties.SinkProperties sink) {
+        ExponentialBackOff backOff = new ExponentialBackOff(sink.getRetryBackoffMs(), 2.0);
+        backOff.setMaxInterval(sink.getMaxRetryBackoffMs());
+        backOff.setMaxElapsedTime(Long.MAX_VALUE);
+        return new DefaultErrorHandler(backOff);
+    }
+
+    /**
+     * Creates the error handler of the listener containers of a sink under flow control.
+     * <p>
+     * A failed batch is redelivered in place with the same exponential backoff as {@link #sinkErrorHandler}, but
+     * with attempts at most one {@code control-interval-ms} apart and only for one control interval, as the whole
+     * assignment of the consumer is paused meanwhile. By then the {@link SinkFlowManager} has paused the
+     * partitions of the failed batch, and the batch is handed back: its offsets are sought back instead of
+     * committed or skipped, so the consumer goes on polling its other partitions and redelivers the batch once
+     * its partitions are resumed after {@code pause-ms}.
+     * </p>
+     *
+     * @param sink the consumer properties of the sink.
+     * @param flow the flow control properties.
+     * @return the error handler retrying failed batches briefly before handing them back to the flow control.
+     */
+    static DefaultErrorHandler flowControlledSinkErrorHandler(RateConsumerProperties.SinkProperties sink,
+                                                              RateConsumerProperties.FlowProperties flow) {
+        ExponentialBackOff backOff = new ExponentialBackOff(sink.getRetryBackoffMs(), 2.0);
+        backOff.setMaxInterval(Math.min(sink.getMaxRetryBackoffMs(), flow.getControlIntervalMs()));
+        backOff.setMaxElapsedTime(flow.getControlIntervalMs());
+        return new DefaultErrorHandler((records, exception) -> {
+            throw new IllegalStateException("Batch handed back to the flow control", exception);
+        }, backOff);
+    }
 }
@@ -0,0 +1,554 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * The {@code RateConsumerProperties} class holds the configuration of the rate consumer.
+ * <p>
+ * It configures the consumer groups and batching of the PostgreSQL, OpenSearch and candle sinks, tunes the bulk
+ * indexing of rates into OpenSearch, the daily partitions of the rate table, the latest rate cache and the
+ * lag-driven flow control of the sinks.
+ * <p>
+ * The class is configured via Spring Boot's {@code @ConfigurationProperties} mechanism.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-consumer")
+public class RateConsumerProperties {
+    private SinkProperties postgres = new SinkProperties("rate-postgres-group");
+    private SinkProperties opensearch = new SinkProperties("rate-opensearch-group");
+    private CandleProperties candles = new CandleProperties();
+    private IndexerProperties indexer = new IndexerProperties();
+    private PartitionProperties partitions = new PartitionProperties();
+    private LatestRateProperties latest = new LatestRateProperties();
+    private FlowProperties flow = new FlowProperties();
+
+    /**
+     * Returns the consumer properties of the PostgreSQL sink.
+     *
+     * @return the PostgreSQL sink properties.
+     */
+    public SinkProperties getPostgres() {
+        return postgres;
+    }
+
+    public void setPostgres(SinkProperties postgres) {
+        this.postgres = postgres;
+    }
+
+    /**
+     * Returns the consumer properties of the OpenSearch sink.
+     *
+     * @return the OpenSearch sink properties.
+     */
+    public SinkProperties getOpensearch() {
+        return opensearch;
+    }
+
+    public void setOpensearch(SinkProperties opensearch) {
+        this.opensearch = opensearch;
+    }
+
+    /**
+     * Returns the OpenSearch bulk indexing properties.
+     *
+     * @return the indexer properties.
+     */
+    public IndexerProperties getIndexer() {
+        return indexer;
+    }
+
+    public void setIndexer(IndexerProperties indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * Returns the consumer and aggregation properties of the candle sink.
+     *
+     * @return the candle properties.
+     */
+    public CandleProperties getCandles() {
+        return candles;
+    }
+
+    public void setCandles(CandleProperties candles) {
+        this.candles = candles;
+    }
+
+    /**
+     * Returns the partitioning properties of the rate table.
+     *
+     * @return the partition properties.
+     */
+    public PartitionProperties getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(PartitionProperties partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Returns the properties of the latest rate lookup.
+     *
+     * @return the latest rate properties.
+     */
+    public LatestRateProperties getLatest() {
+        return latest;
+    }
+
+    public void setLatest(LatestRateProperties latest) {
+        this.latest = latest;
+    }
+
+    /**
+     * Returns the flow control properties of the PostgreSQL and OpenSearch sinks.
+     *
+     * @return the flow properties.
+     */
+    public FlowProperties getFlow() {
+        return flow;
+    }
+
+    public void setFlow(FlowProperties flow) {
+        this.flow = flow;
+    }
+
+    /**
+     * Represents the consumer configuration of one sink: its consumer group, concurrency and batching.
+     */
+    public static class SinkProperties {
+        private boolean enabled = true;
+        private String groupId;
+        private int concurrency = 6;
+        private int batchSize = 500;
+        private int maxWaitMs = 100;
+        private int fetchMinBytes = 16384;
+        private long retryBackoffMs = 200;
+        private long maxRetryBackoffMs = 30000;
+
+        public SinkProperties() {
+        }
+
+        SinkProperties(String groupId) {
+            this.groupId = groupId;
+        }
+
+        /**
+         * Returns whether the sink consumes at all, so each sink can run in its own deployment.
+         *
+         * @return {@code true} if the sink is enabled.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public void setGroupId(String groupId) {
+            this.groupId = groupId;
+        }
+
+        /**
+         * Returns the number of listener threads of the sink.
+         *
+         * @return the concurrency.
+         */
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * Returns the maximum number of records handed to the listener at once.
+         *
+         * @return the batch size.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Returns how long the broker may hold a fetch while fewer than {@link #getFetchMinBytes()} bytes are
+         * available, i.e. the longest a record waits for its batch to fill up.
+         *
+         * @return the maximum wait in milliseconds.
+         */
+        public int getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(int maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        /**
+         * Returns how many bytes the broker collects before it answers a fetch early.
+         *
+         * @return the minimum fetch size in bytes.
+         */
+        public int getFetchMinBytes() {
+            return fetchMinBytes;
+        }
+
+        public void setFetchMinBytes(int fetchMinBytes) {
+            this.fetchMinBytes = fetchMinBytes;
+        }
+
+        /**
+         * Returns the wait before a failed batch is redelivered for the first time; it doubles with every further
+         * attempt.
+         *
+         * @return the retry backoff in milliseconds.
+         */
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        /**
+         * Returns the longest wait between two attempts of a failed batch. Failed batches are retried until they
+         * succeed.
+         *
+         * @return the maximum retry backoff in milliseconds.
+         */
+        public long getMaxRetryBackoffMs() {
+            return maxRetryBackoffMs;
+        }
+
+        public void setMaxRetryBackoffMs(long maxRetryBackoffMs) {
+            this.maxRetryBackoffMs = maxRetryBackoffMs;
+        }
+    }
+
+    /**
+     * Represents the configuration of the candle sink: its consumer settings plus the aggregated intervals.
+     */
+    public static class CandleProperties extends SinkProperties {
+        private List<String> intervals = List.of("1s", "1m", "1h", "1d");
+        private long gracePeriodMs = 2000;
+        private long flushIntervalMs = 1000;
+        private int maxPendingCandles = 100_000;
+
+        public CandleProperties() {
+            super("rate-candle-group");
+        }
+
+        /**
+         * Returns the candle intervals: {@code 1s}, {@code 1m}, {@code 1h} and/or {@code 1d}.
+         *
+         * @return the interval names.
+         */
+        public List<String> getIntervals() {
+            return intervals;
+        }
+
+        public void setIntervals(List<String> intervals) {
+            this.intervals = intervals;
+        }
+
+        /**
+         * Returns how long after its end a window still absorbs late ticks before it is written.
+         *
+         * @return the grace period in milliseconds.
+         */
+        public long getGracePeriodMs() {
+            return gracePeriodMs;
+        }
+
+        public void setGracePeriodMs(long gracePeriodMs) {
+            this.gracePeriodMs = gracePeriodMs;
+        }
+
+        /**
+         * Returns how often closed windows are written.
+         *
+         * @return the flush interval in milliseconds.
+         */
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        /**
+         * Returns how many candles are kept for a retry while PostgreSQL, and how many documents while OpenSearch,
+         * cannot be written; beyond that the oldest ones are dropped and counted as lost.
+         *
+         * @return the maximum number of candles waiting for each store.
+         */
+        public int getMaxPendingCandles() {
+            return maxPendingCandles;
+        }
+
+        public void setMaxPendingCandles(int maxPendingCandles) {
+            this.maxPendingCandles = maxPendingCandles;
+        }
+    }
+
+    /**
+     * Represents the configuration of the OpenSearch bulk indexing stage.
+     */
+    public static class IndexerProperties {
+        private int bulkActions = 1000;
+        private long bulkBytes = 5 * 1024 * 1024;
+        private int maxRetries = 3;
+        private long retryBackoffMs = 200;
+
+        /**
+         * Returns the largest number of documents sent with one bulk request.
+         *
+         * @return the bulk size in documents.
+         */
+        public int getBulkActions() {
+            return bulkActions;
+        }
+
+        public void setBulkActions(int bulkActions) {
+            this.bulkActions = bulkActions;
+        }
+
+        /**
+         * Returns the largest estimated size of the documents sent with one bulk request.
+         *
+         * @return the bulk size in bytes.
+         */
+        public long getBulkBytes() {
+            return bulkBytes;
+        }
+
+        public void setBulkBytes(long bulkBytes) {
+            this.bulkBytes = bulkBytes;
+        }
+
+        /**
+         * Returns how often failed documents of a bulk request are retried before the batch fails and is
+         * redelivered by the listener container.
+         *
+         * @return the retry limit.
+         */
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        /**
+         * Returns the wait before the first retry; it doubles with every further retry.
+         *
+         * @return the retry backoff in milliseconds.
+         */
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+    }
+
+    /**
+     * Represents the configuration of the daily partitions of the rate table.
+     */
+    public static class PartitionProperties {
+        private boolean enabled = true;
+        private int premakeDays = 3;
+        private int retentionDays = 30;
+        private long maintenanceIntervalMs = 3600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Returns how many days after today get their partition ahead of time.
+         *
+         * @return the number of days.
+         */
+        public int getPremakeDays() {
+            return premakeDays;
+        }
+
+        public void setPremakeDays(int premakeDays) {
+            this.premakeDays = premakeDays;
+        }
+
+        /**
+         * Returns how many days before today are kept; older daily partitions are dropped.
+         *
+         * @return the retention in days.
+         */
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        /**
+         * Returns how often partitions are created and dropped.
+         *
+         * @return the maintenance interval in milliseconds.
+         */
+        public long getMaintenanceIntervalMs() {
+            return maintenanceIntervalMs;
+        }
+
+        public void setMaintenanceIntervalMs(long maintenanceIntervalMs) {
+            this.maintenanceIntervalMs = maintenanceIntervalMs;
+        }
+    }
+
+    /**
+     * Represents the configuration of the latest rate lookup.
+     */
+    public static class LatestRateProperties {
+        private long cacheTtlMs = 1000;
+
+        /**
+         * Returns how long a cached latest rate is served before it is read from the table again.
+         *
+         * @return the cache TTL in milliseconds.
+         */
+        public long getCacheTtlMs() {
+            return cacheTtlMs;
+        }
+
+        public void setCacheTtlMs(long cacheTtlMs) {
+            this.cacheTtlMs = cacheTtlMs;
+        }
+    }
+
+    /**
+     * Represents the configuration of the flow control adjusting the parallelism of the sinks to their lag and
+     * pausing them while their downstream pushes back.
+     */
+    public static class FlowProperties {
+        private long controlIntervalMs = 1000;
+        private int minParallelism = 1;
+        private int maxParallelism = 4;
+        private long catchUpLag = 10000;
+        private long idleLag = 1000;
+        private long maxRecordMicros = 2000;
+        private long pauseMs = 5000;
+
+        /**
+         * Returns how often lag and processing times are evaluated.
+         *
+         * @return the control interval in milliseconds.
+         */
+        public long getControlIntervalMs() {
+            return controlIntervalMs;
+        }
+
+        public void setControlIntervalMs(long controlIntervalMs) {
+            this.controlIntervalMs = controlIntervalMs;
+        }
+
+        /**
+         * Returns the number of key-ordered shards a batch is split into at least.
+         *
+         * @return the minimum parallelism.
+         */
+        public int getMinParallelism() {
+            return minParallelism;
+        }
+
+        public void setMinParallelism(int minParallelism) {
+            this.minParallelism = minParallelism;
+        }
+
+        /**
+         * Returns the number of key-ordered shards a batch is split into at most, per listener thread.
+         *
+         * @return the maximum parallelism.
+         */
+        public int getMaxParallelism() {
+            return maxParallelism;
+        }
+
+        public void setMaxParallelism(int maxParallelism) {
+            this.maxParallelism = maxParallelism;
+        }
+
+        /**
+         * Returns the lag above which a sink doubles its parallelism, as long as records stay fast.
+         *
+         * @return the catch-up lag in records.
+         */
+        public long getCatchUpLag() {
+            return catchUpLag;
+        }
+
+        public void setCatchUpLag(long catchUpLag) {
+            this.catchUpLag = catchUpLag;
+        }
+
+        /**
+         * Returns the lag below which a sink halves its parallelism again.
+         *
+         * @return the idle lag in records.
+         */
+        public long getIdleLag() {
+            return idleLag;
+        }
+
+        public void setIdleLag(long idleLag) {
+            this.idleLag = idleLag;
+        }
+
+        /**
+         * Returns the average processing time per record above which the downstream is considered slowing down;
+         * the parallelism is then halved instead of raised.
+         *
+         * @return the processing time limit in microseconds.
+         */
+        public long getMaxRecordMicros() {
+            return maxRecordMicros;
+        }
+
+        public void setMaxRecordMicros(long maxRecordMicros) {
+            this.maxRecordMicros = maxRecordMicros;
+        }
+
+        /**
+         * Returns how long a sink stays paused after a failed batch.
+         *
+         * @return the pause in milliseconds.
+         */
+        public long getPauseMs() {
+            return pauseMs;
+        }
+
+        public void setPauseMs(long pauseMs) {
+            this.pauseMs = pauseMs;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.controllers;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services.LatestRateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import rate.RateDto;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the latest rate of every rate name via LatestRateService.
+ */
+@RestController
+@RequestMapping("/rates/latest")
+public class LatestRateController {
+
+    private final LatestRateService latestRateService;
+
+    public LatestRateController(LatestRateService latestRateService) {
+        this.latestRateService = latestRateService;
+    }
+
+    /**
+     * Get the latest rate of a rate name.
+     *
+     * @param rateName rate name, e.g. PF1_USDTRY
+     * @return the rate, or 404 if no rate of that name was consumed
+     */
+    @GetMapping("/{rateName}")
+    public ResponseEntity<RateDto> getLatestRate(@PathVariable String rateName) {
+        RateDto rate = latestRateService.getLatestRate(rateName);
+        return rate != null ? ResponseEntity.ok(rate) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Get the latest rates of all rate names.
+     *
+     * @return the rates ordered by rate name
+     */
+    @GetMapping
+    public List<RateDto> getLatestRates() {
+        return latestRateService.getLatestRates();
+    }
+}
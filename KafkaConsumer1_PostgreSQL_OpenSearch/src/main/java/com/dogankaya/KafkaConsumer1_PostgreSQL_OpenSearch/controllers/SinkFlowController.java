@@ -0,0 +1,33 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.controllers;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlow;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlowManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the lag, processing times, parallelism and pause state of the sinks via SinkFlowManager.
+ */
+@RestController
+@RequestMapping("/consumer/flow")
+public class SinkFlowController {
+
+    private final SinkFlowManager sinkFlowManager;
+
+    public SinkFlowController(SinkFlowManager sinkFlowManager) {
+        this.sinkFlowManager = sinkFlowManager;
+    }
+
+    /**
+     * Get the flow state of every sink.
+     *
+     * @return the flow snapshots ordered by listener id
+     */
+    @GetMapping
+    public List<SinkFlow.Snapshot> getFlows() {
+        return sinkFlowManager.getSnapshots();
+    }
+}
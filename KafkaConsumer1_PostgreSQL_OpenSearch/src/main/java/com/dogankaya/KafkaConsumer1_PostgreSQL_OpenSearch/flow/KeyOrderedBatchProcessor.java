@@ -0,0 +1,96 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Processes a batch of records in parallel shards while keeping the order of records with the same key.
+ *
+ * <p>Records are split into {@link #getParallelism()} shards by key; records without a key are sharded by
+ * partition. One shard runs on the calling thread, the others on the shared worker pool, and the call returns
+ * when all shards are done, so the caller can commit the batch afterwards. The parallelism may be changed at any
+ * time and applies to the next batch.</p>
+ */
+public class KeyOrderedBatchProcessor {
+    private final ExecutorService workers;
+    private volatile int parallelism = 1;
+
+    /**
+     * Creates a processor.
+     *
+     * @param workers the pool running all shards but one
+     */
+    public KeyOrderedBatchProcessor(ExecutorService workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Processes the records with the current parallelism.
+     *
+     * @param records the records of the batch
+     * @param handler the handler of one shard, called with the shard's records in batch order
+     * @param <V>     the record value type
+     * @throws RuntimeException the first failure of a shard, after all shards have finished
+     */
+    public <V> void process(List<ConsumerRecord<String, V>> records, Consumer<List<ConsumerRecord<String, V>>> handler) {
+        int shardCount = Math.min(parallelism, records.size());
+        if (shardCount <= 1) {
+            handler.accept(records);
+            return;
+        }
+        List<List<ConsumerRecord<String, V>>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>(records.size() / shardCount + 1));
+        }
+        for (ConsumerRecord<String, V> record : records) {
+            int hash = record.key() != null ? record.key().hashCode() : record.partition();
+            shards.get(Math.floorMod(hash, shardCount)).add(record);
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(shardCount - 1);
+        for (int i = 1; i < shardCount; i++) {
+            List<ConsumerRecord<String, V>> shard = shards.get(i);
+            if (!shard.isEmpty()) {
+                futures.add(CompletableFuture.runAsync(() -> handler.accept(shard), workers));
+            }
+        }
+        RuntimeException failure = null;
+        try {
+            if (!shards.get(0).isEmpty()) {
+                handler.accept(shards.get(0));
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the number of shards a batch is split into.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+    }
+}
@@ -0,0 +1,216 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Flow state of one sink: processing time and lag instrumentation, the parallelism of its batches and the
+ * partitions that push back.
+ *
+ * <p>Sink listeners run every batch through {@link #process}; the {@link SinkFlowManager} reads the counters,
+ * adjusts the parallelism and pauses or resumes the partitions whose batches failed.</p>
+ */
+public class SinkFlow {
+    private final String listenerId;
+    private final KeyOrderedBatchProcessor processor;
+    private final BooleanSupplier saturated;
+
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private final Map<String, Long> lagByConsumerThread = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> failureMillisByPartition = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+    private volatile long lastFailureMillis;
+
+    /**
+     * Creates the flow state of a sink.
+     *
+     * @param listenerId the id of the sink's {@code @KafkaListener}
+     * @param processor  the processor running the sink's batches
+     * @param saturated  whether a downstream stage of the sink is full, or {@code () -> false}
+     */
+    public SinkFlow(String listenerId, KeyOrderedBatchProcessor processor, BooleanSupplier saturated) {
+        this.listenerId = listenerId;
+        this.processor = processor;
+        this.saturated = saturated;
+    }
+
+    /**
+     * Processes a batch, recording its processing time, the partitions of a failed batch and the lag of the
+     * consumer afterwards. A batch that succeeds clears the failures of its partitions, so partitions that have
+     * recovered are not paused.
+     *
+     * @param records  the records of the batch
+     * @param consumer the consumer that polled the batch
+     * @param handler  the handler of one key-ordered shard of the batch
+     * @param <V>      the record value type
+     */
+    public <V> void process(List<ConsumerRecord<String, V>> records, Consumer<?, ?> consumer,
+                            java.util.function.Consumer<List<ConsumerRecord<String, V>>> handler) {
+        long start = System.nanoTime();
+        try {
+            processor.process(records, handler);
+        } catch (RuntimeException e) {
+            long now = System.currentTimeMillis();
+            failureCount.increment();
+            lastFailureMillis = now;
+            for (ConsumerRecord<String, V> record : records) {
+                failureMillisByPartition.put(new TopicPartition(record.topic(), record.partition()), now);
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!failureMillisByPartition.isEmpty()) {
+            for (ConsumerRecord<String, V> record : records) {
+                failureMillisByPartition.remove(new TopicPartition(record.topic(), record.partition()));
+            }
+        }
+        recordCount.add(records.size());
+        batchCount.increment();
+        processingNanos.add(elapsed);
+        maxBatchNanos.accumulateAndGet(elapsed, Math::max);
+        if (consumer != null) {
+            updateLag(consumer);
+        }
+    }
+
+    private void updateLag(Consumer<?, ?> consumer) {
+        long lag = 0;
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong partitionLag = consumer.currentLag(partition);
+            if (partitionLag.isPresent()) {
+                lag += partitionLag.getAsLong();
+            }
+        }
+        lagByConsumerThread.put(Thread.currentThread().getName(), lag);
+    }
+
+    /**
+     * Forgets the lag of the calling consumer thread and the failures of partitions taken away from it, so a
+     * consumer that lost its partitions no longer adds to the lag of the sink.
+     *
+     * @param partitions the revoked partitions
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        lagByConsumerThread.remove(Thread.currentThread().getName());
+        partitions.forEach(failureMillisByPartition::remove);
+    }
+
+    public String getListenerId() {
+        return listenerId;
+    }
+
+    public KeyOrderedBatchProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Returns the records behind the log end over all partitions, as of each consumer's last batch.
+     *
+     * @return the consumer lag in records
+     */
+    public long getLag() {
+        long lag = 0;
+        for (long threadLag : lagByConsumerThread.values()) {
+            lag += threadLag;
+        }
+        return lag;
+    }
+
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getProcessingNanos() {
+        return processingNanos.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getMaxBatchNanos() {
+        return maxBatchNanos.get();
+    }
+
+    public long getLastFailureMillis() {
+        return lastFailureMillis;
+    }
+
+    /**
+     * Returns whether a downstream stage of the sink is full.
+     *
+     * @return {@code true} if the sink is saturated
+     */
+    public boolean isSaturated() {
+        return saturated.getAsBoolean();
+    }
+
+    /**
+     * Returns the partitions whose last batch failed after the given time and forgets older failures.
+     *
+     * @param sinceMillis the earliest failure time in milliseconds since the epoch
+     * @return the failed partitions
+     */
+    Set<TopicPartition> getPartitionsFailedSince(long sinceMillis) {
+        failureMillisByPartition.values().removeIf(failureMillis -> failureMillis < sinceMillis);
+        return Set.copyOf(failureMillisByPartition.keySet());
+    }
+
+    /**
+     * Returns the partitions the flow control paused.
+     *
+     * @return the paused partitions
+     */
+    public Set<TopicPartition> getPausedPartitions() {
+        return pausedPartitions;
+    }
+
+    /**
+     * Returns a snapshot of the counters for monitoring.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long records = getRecordCount();
+        return new Snapshot(listenerId, getLag(), records, getBatchCount(),
+                records == 0 ? 0 : getProcessingNanos() / 1000 / records, getMaxBatchNanos() / 1000,
+                getFailureCount(), processor.getParallelism(),
+                pausedPartitions.stream().map(TopicPartition::toString).sorted().toList());
+    }
+
+    /**
+     * Monitoring view of a sink's flow.
+     *
+     * @param listenerId            the sink's listener id
+     * @param lag                   the consumer lag in records
+     * @param records               the records processed
+     * @param batches               the batches processed
+     * @param averageRecordMicros   the average processing time per record in microseconds
+     * @param maxBatchMicros        the longest batch in microseconds
+     * @param failures              the failed batches
+     * @param parallelism           the current parallelism
+     * @param pausedPartitions      the paused partitions
+     */
+    public record Snapshot(String listenerId, long lag, long records, long batches, long averageRecordMicros,
+                           long maxBatchMicros, long failures, int parallelism, List<String> pausedPartitions) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Adjusts the sinks to their consumer lag and pauses them while their downstream pushes back.
+ * <p>
+ * Every {@code rate-consumer.flow.control-interval-ms} each registered {@link SinkFlow} is evaluated:
+ * <ul>
+ *     <li>partitions whose last batch failed within {@code pause-ms} are paused and resumed afterwards; while the
+ *     sink reports saturation all its partitions are paused. The listener containers retry a failed batch in place
+ *     only for one control interval and then hand it back, so the consumer polls the partitions that were not part
+ *     of the failed batch while the partitions of that batch are paused instead of piling up redeliveries;</li>
+ *     <li>while no partition pushes back, the parallelism within a batch is doubled while the lag is above {@code catch-up-lag} and
+ *     records take at most {@code max-record-micros}, and halved once the lag falls below {@code idle-lag} or
+ *     records get slower than that.</li>
+ * </ul>
+ * Records of one key always stay in the same shard, so the order per rate name is kept at any parallelism.
+ * </p>
+ */
+@Service
+public class SinkFlowManager {
+    private final Logger logger = LogManager.getLogger();
+    private final KafkaListenerEndpointRegistry registry;
+    private final RateConsumerProperties.FlowProperties properties;
+    private final Map<String, SinkFlow> flows = new ConcurrentHashMap<>();
+    private final Map<String, long[]> lastCounters = new ConcurrentHashMap<>();
+    private final List<ExecutorService> workerPools = new ArrayList<>();
+
+    public SinkFlowManager(KafkaListenerEndpointRegistry registry, RateConsumerProperties rateConsumerProperties) {
+        this.registry = registry;
+        this.properties = rateConsumerProperties.getFlow();
+    }
+
+    /**
+     * Creates the flow of a sink, with a worker pool large enough for the maximum parallelism of all its
+     * listener threads.
+     *
+     * @param listenerId the id of the sink's {@code @KafkaListener}
+     * @param sink       the consumer properties of the sink
+     * @param saturated  whether a downstream stage of the sink is full
+     * @return the flow the sink runs its batches through
+     */
+    public synchronized SinkFlow register(String listenerId, RateConsumerProperties.SinkProperties sink,
+                                          BooleanSupplier saturated) {
+        int workers = Math.max(sink.getConcurrency() * (properties.getMaxParallelism() - 1), 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, listenerId + "-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workerPools.add(pool);
+        KeyOrderedBatchProcessor processor = new KeyOrderedBatchProcessor(pool);
+        processor.setParallelism(properties.getMinParallelism());
+        SinkFlow flow = new SinkFlow(listenerId, processor, saturated);
+        flows.put(listenerId, flow);
+        return flow;
+    }
+
+    /**
+     * Returns the rebalance listener of a sink's listener containers, which drops the lag and failures of revoked
+     * partitions from the sink's flow.
+     *
+     * @param listenerId the id of the sink's {@code @KafkaListener}
+     * @return the rebalance listener
+     */
+    public ConsumerAwareRebalanceListener rebalanceListener(String listenerId) {
+        return new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                revoke(partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                revoke(partitions);
+            }
+
+            private void revoke(Collection<TopicPartition> partitions) {
+                SinkFlow flow = flows.get(listenerId);
+                if (flow != null) {
+                    flow.onPartitionsRevoked(partitions);
+                }
+            }
+        };
+    }
+
+    /**
+     * Stops the worker pools.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        workerPools.forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * Evaluates every sink and pauses, resumes or resizes it.
+     */
+    @Scheduled(fixedDelayString = "${rate-consumer.flow.control-interval-ms:1000}")
+    public void control() {
+        long now = System.currentTimeMillis();
+        for (SinkFlow flow : flows.values()) {
+            MessageListenerContainer container = registry.getListenerContainer(flow.getListenerId());
+            if (container == null) {
+                continue;
+            }
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned == null) {
+                assigned = List.of();
+            }
+            Set<TopicPartition> pushBack = flow.isSaturated()
+                    ? new HashSet<>(assigned)
+                    : new HashSet<>(flow.getPartitionsFailedSince(now - properties.getPauseMs()));
+            pushBack.retainAll(assigned);
+            for (TopicPartition partition : pushBack) {
+                if (flow.getPausedPartitions().add(partition)) {
+                    container.pausePartition(partition);
+                    logger.warn("Paused {} of {}: downstream pushes back", partition, flow.getListenerId());
+                }
+            }
+            for (TopicPartition partition : List.copyOf(flow.getPausedPartitions())) {
+                if (!pushBack.contains(partition)) {
+                    container.resumePartition(partition);
+                    flow.getPausedPartitions().remove(partition);
+                    logger.info("Resumed {} of {}", partition, flow.getListenerId());
+                }
+            }
+            if (!pushBack.isEmpty()) {
+                flow.getProcessor().setParallelism(properties.getMinParallelism());
+                continue;
+            }
+            long[] counters = {flow.getRecordCount(), flow.getProcessingNanos()};
+            long[] last = lastCounters.put(flow.getListenerId(), counters);
+            long records = last == null ? counters[0] : counters[0] - last[0];
+            long nanos = last == null ? counters[1] : counters[1] - last[1];
+            long recordMicros = records == 0 ? 0 : nanos / 1000 / records;
+            int current = flow.getProcessor().getParallelism();
+            int next = nextParallelism(current, flow.getLag(), recordMicros, properties);
+            if (next != current) {
+                flow.getProcessor().setParallelism(next);
+                logger.info("Parallelism of {} changed from {} to {} (lag {}, {} us/record)",
+                        flow.getListenerId(), current, next, flow.getLag(), recordMicros);
+            }
+        }
+    }
+
+    /**
+     * Decides the parallelism of a sink for the next interval.
+     *
+     * @param current      the current parallelism
+     * @param lag          the consumer lag in records
+     * @param recordMicros the average processing time per record during the last interval
+     * @param properties   the flow properties
+     * @return the new parallelism
+     */
+    static int nextParallelism(int current, long lag, long recordMicros, RateConsumerProperties.FlowProperties properties) {
+        if (recordMicros > properties.getMaxRecordMicros() || lag < properties.getIdleLag()) {
+            return Math.max(current / 2, properties.getMinParallelism());
+        }
+        if (lag > properties.getCatchUpLag()) {
+            return Math.min(current * 2, properties.getMaxParallelism());
+        }
+        return current;
+    }
+
+    /**
+     * Returns the flow state of every sink for monitoring.
+     *
+     * @return the snapshots ordered by listener id
+     */
+    public List<SinkFlow.Snapshot> getSnapshots() {
+        return flows.values().stream()
+                .map(SinkFlow::snapshot)
+                .sorted((a, b) -> a.listenerId().compareTo(b.listenerId()))
+                .toList();
+    }
+}
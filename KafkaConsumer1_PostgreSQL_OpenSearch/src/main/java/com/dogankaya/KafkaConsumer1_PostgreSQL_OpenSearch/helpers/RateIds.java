@@ -0,0 +1,46 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.helpers;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Derives {@code long} ids for rates from the Kafka record they arrived in.
+ *
+ * <p>The id packs the partition (10 bits) and the offset (53 bits) of the record, so it is unique for every
+ * record of the topic regardless of its timestamp. Every sink computes the same id for the same record without
+ * coordinating with the others, and a redelivered record keeps its id, so writes can be idempotent: an id that
+ * is already stored always means the record was delivered before. Within a partition ids follow the offsets.</p>
+ */
+public final class RateIds {
+    private static final int OFFSET_BITS = 53;
+    private static final int MAX_PARTITION = (1 << (Long.SIZE - 1 - OFFSET_BITS)) - 1;
+    private static final long MAX_OFFSET = (1L << OFFSET_BITS) - 1;
+
+    private RateIds() {
+    }
+
+    /**
+     * Returns the id of the rate carried by a record.
+     *
+     * @param record the Kafka record
+     * @return the rate id
+     * @throws IllegalArgumentException if the partition or the offset does not fit into the id
+     */
+    public static long of(ConsumerRecord<?, ?> record) {
+        return of(record.partition(), record.offset());
+    }
+
+    /**
+     * Returns the id of a rate from its record coordinates.
+     *
+     * @param partition the partition of the record
+     * @param offset    the offset of the record
+     * @return the rate id
+     * @throws IllegalArgumentException if the partition or the offset does not fit into the id
+     */
+    public static long of(int partition, long offset) {
+        if (partition < 0 || partition > MAX_PARTITION || offset < 0 || offset > MAX_OFFSET) {
+            throw new IllegalArgumentException("Record " + partition + "@" + offset + " does not fit into a rate id");
+        }
+        return (long) partition << OFFSET_BITS | offset;
+    }
+}
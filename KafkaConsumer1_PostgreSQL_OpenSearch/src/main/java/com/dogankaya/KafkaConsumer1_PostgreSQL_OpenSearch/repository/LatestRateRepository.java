@@ -0,0 +1,103 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import rate.RateDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC repository of the {@code latest_rate} table, holding the newest rate of every rate name.
+ * <p>
+ * Rates are upserted with one multi-row {@code INSERT ... ON CONFLICT DO UPDATE} statement that only replaces a
+ * stored rate with a rate of a later update time, so out-of-order or redelivered rates never move a price back.
+ * </p>
+ */
+@Repository
+public class LatestRateRepository {
+    private static final String INSERT_PREFIX =
+            "INSERT INTO latest_rate (rate_name, bid, ask, rate_update_time, db_update_time) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (rate_name) DO UPDATE SET "
+            + "bid = EXCLUDED.bid, "
+            + "ask = EXCLUDED.ask, "
+            + "rate_update_time = EXCLUDED.rate_update_time, "
+            + "db_update_time = EXCLUDED.db_update_time "
+            + "WHERE latest_rate.rate_update_time < EXCLUDED.rate_update_time";
+    private static final String SELECT = "SELECT rate_name, bid, ask, rate_update_time FROM latest_rate";
+    private static final RowMapper<RateDto> ROW_MAPPER = (rs, rowNum) -> new RateDto(
+            rs.getString("rate_name"),
+            rs.getBigDecimal("bid"),
+            rs.getBigDecimal("ask"),
+            rs.getTimestamp("rate_update_time").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LatestRateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the latest rate table if it does not exist.
+     */
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS latest_rate ("
+                + "rate_name varchar(255) PRIMARY KEY, "
+                + "bid numeric, "
+                + "ask numeric, "
+                + "rate_update_time timestamp(6) NOT NULL, "
+                + "db_update_time timestamp(6))");
+    }
+
+    /**
+     * Inserts or replaces the latest rates.
+     *
+     * @param rates        the rates, at most one per rate name, all with an update time.
+     * @param dbUpdateTime the time the rates are written.
+     */
+    public void upsertAll(Collection<RateDto> rates, LocalDateTime dbUpdateTime) {
+        if (rates.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rates.size() * 12 + INSERT_SUFFIX.length())
+                .append(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(rates.size() * 5);
+        Timestamp written = Timestamp.valueOf(dbUpdateTime);
+        for (RateDto rate : rates) {
+            sql.append(args.isEmpty() ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+            args.add(rate.getRateName());
+            args.add(rate.getBid());
+            args.add(rate.getAsk());
+            args.add(Timestamp.valueOf(rate.getRateUpdateTime()));
+            args.add(written);
+        }
+        sql.append(INSERT_SUFFIX);
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Returns the latest rate of a rate name.
+     *
+     * @param rateName the rate name.
+     * @return the rate, or {@code null} if none is stored.
+     */
+    public RateDto findByRateName(String rateName) {
+        List<RateDto> rates = jdbcTemplate.query(SELECT + " WHERE rate_name = ?", ROW_MAPPER, rateName);
+        return rates.isEmpty() ? null : rates.get(0);
+    }
+
+    /**
+     * Returns the latest rates of all rate names.
+     *
+     * @return the rates ordered by rate name.
+     */
+    public List<RateDto> findAll() {
+        return jdbcTemplate.query(SELECT + " ORDER BY rate_name", ROW_MAPPER);
+    }
+}
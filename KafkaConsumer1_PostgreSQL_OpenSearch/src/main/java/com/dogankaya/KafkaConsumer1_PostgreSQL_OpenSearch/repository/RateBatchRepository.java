@@ -0,0 +1,70 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rate.Rate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository inserting {@link Rate} entities in bulk.
+ * <p>
+ * Rates are written with multi-row {@code INSERT ... VALUES (...), (...)} statements of at most
+ * {@value #ROWS_PER_STATEMENT} rows, so a batch of rates costs one round trip per statement instead of one per
+ * rate. All statements of a call run in one transaction. Rates whose id already exists are skipped, so a
+ * redelivered batch is not stored twice.
+ * </p>
+ */
+@Repository
+public class RateBatchRepository {
+    /**
+     * Rows per statement; six parameters per row stay well below PostgreSQL's limit of 65535 parameters.
+     */
+    static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO rate (id, rate_name, bid, ask, rate_update_time, db_update_time) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (id, rate_update_time) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RateBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given rates, skipping ids that are already stored.
+     *
+     * @param rates the rates to insert.
+     * @return the number of rows inserted; the rest were already stored.
+     */
+    @Transactional
+    public int insertAll(List<Rate> rates) {
+        int inserted = 0;
+        for (int from = 0; from < rates.size(); from += ROWS_PER_STATEMENT) {
+            inserted += insertChunk(rates.subList(from, Math.min(from + ROWS_PER_STATEMENT, rates.size())));
+        }
+        return inserted;
+    }
+
+    private int insertChunk(List<Rate> rates) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rates.size() * 14 + INSERT_SUFFIX.length())
+                .append(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(rates.size() * 6);
+        for (int i = 0; i < rates.size(); i++) {
+            Rate rate = rates.get(i);
+            sql.append(i == 0 ? "(?,?,?,?,?,?)" : ",(?,?,?,?,?,?)");
+            args.add(rate.getId());
+            args.add(rate.getRateName());
+            args.add(rate.getBid());
+            args.add(rate.getAsk());
+            args.add(rate.getRateUpdateTime() != null ? Timestamp.valueOf(rate.getRateUpdateTime()) : null);
+            args.add(rate.getDbUpdateTime() != null ? Timestamp.valueOf(rate.getDbUpdateTime()) : null);
+        }
+        sql.append(INSERT_SUFFIX);
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
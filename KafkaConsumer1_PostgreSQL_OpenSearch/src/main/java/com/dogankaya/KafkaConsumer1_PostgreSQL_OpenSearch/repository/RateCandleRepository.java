@@ -0,0 +1,121 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.Candle;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.CandleInterval;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository upserting {@link Candle}s into the {@code rate_candle} table.
+ * <p>
+ * Candles are written with multi-row {@code INSERT ... ON CONFLICT DO UPDATE} statements. A candle whose window
+ * is already stored, e.g. because the window was split by a restart, is merged into the stored one: the stored
+ * open is kept, high and low are widened, the close is replaced and the tick counts are added. The merged rows are
+ * returned so other stores can be written from them.
+ * </p>
+ * <p>
+ * Every row records the flush that wrote it last. A flush that is retried after its transaction committed but the
+ * commit was not confirmed carries the same flush id, so its tick counts are not added a second time.
+ * </p>
+ */
+@Repository
+@ConditionalOnProperty(name = "rate-consumer.candles.enabled", havingValue = "true", matchIfMissing = true)
+public class RateCandleRepository {
+    static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX = "INSERT INTO rate_candle "
+            + "(rate_name, candle_interval, window_start, open, high, low, close, tick_count, flush_id) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (rate_name, candle_interval, window_start) DO UPDATE SET "
+            + "high = GREATEST(rate_candle.high, EXCLUDED.high), "
+            + "low = LEAST(rate_candle.low, EXCLUDED.low), "
+            + "close = EXCLUDED.close, "
+            + "tick_count = CASE WHEN rate_candle.flush_id = EXCLUDED.flush_id THEN rate_candle.tick_count "
+            + "ELSE rate_candle.tick_count + EXCLUDED.tick_count END, "
+            + "flush_id = EXCLUDED.flush_id "
+            + "RETURNING rate_name, candle_interval, window_start, open, high, low, close, tick_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RateCandleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the candle table if it does not exist and adds the flush id to tables created without it.
+     */
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS rate_candle ("
+                + "rate_name varchar(255) NOT NULL, "
+                + "candle_interval varchar(4) NOT NULL, "
+                + "window_start timestamp(6) NOT NULL, "
+                + "open numeric, "
+                + "high numeric, "
+                + "low numeric, "
+                + "close numeric, "
+                + "tick_count bigint, "
+                + "flush_id bigint, "
+                + "PRIMARY KEY (rate_name, candle_interval, window_start))");
+        jdbcTemplate.execute("ALTER TABLE rate_candle ADD COLUMN IF NOT EXISTS flush_id bigint");
+    }
+
+    /**
+     * Inserts or merges the given candles.
+     *
+     * @param candles the candles, at most one per rate name, interval and window.
+     * @param flushId the id of the flush, the same for every retry of it.
+     * @return the stored candles after merging.
+     */
+    @Transactional
+    public List<Candle> upsertAll(List<Candle> candles, long flushId) {
+        List<Candle> stored = new ArrayList<>(candles.size());
+        for (int from = 0; from < candles.size(); from += ROWS_PER_STATEMENT) {
+            stored.addAll(upsertChunk(candles.subList(from, Math.min(from + ROWS_PER_STATEMENT, candles.size())),
+                    flushId));
+        }
+        return stored;
+    }
+
+    private List<Candle> upsertChunk(List<Candle> candles, long flushId) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + candles.size() * 20 + INSERT_SUFFIX.length())
+                .append(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(candles.size() * 9);
+        for (int i = 0; i < candles.size(); i++) {
+            Candle candle = candles.get(i);
+            sql.append(i == 0 ? "(?,?,?,?,?,?,?,?,?)" : ",(?,?,?,?,?,?,?,?,?)");
+            args.add(candle.getRateName());
+            args.add(candle.getInterval().getName());
+            args.add(Timestamp.valueOf(toLocalDateTime(candle.getWindowStart())));
+            args.add(candle.getOpen());
+            args.add(candle.getHigh());
+            args.add(candle.getLow());
+            args.add(candle.getClose());
+            args.add(candle.getTickCount());
+            args.add(flushId);
+        }
+        sql.append(INSERT_SUFFIX);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new Candle(
+                rs.getString("rate_name"),
+                CandleInterval.fromName(rs.getString("candle_interval")),
+                rs.getTimestamp("window_start").toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                rs.getBigDecimal("open"),
+                rs.getBigDecimal("high"),
+                rs.getBigDecimal("low"),
+                rs.getBigDecimal("close"),
+                rs.getLong("tick_count")), args.toArray());
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,15 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository;
+
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import rate.RateCandleDocument;
+
+/**
+ * Elasticsearch repository interface for {@link RateCandleDocument} entity.
+ * <p>
+ * Extends {@link ElasticsearchRepository} to provide CRUD operations,
+ * search, and pagination capabilities for {@link RateCandleDocument} entities
+ * with primary key of type {@link String}.
+ * </p>
+ */
+public interface RateCandleSearchRepository extends ElasticsearchRepository<RateCandleDocument, String> {
+}
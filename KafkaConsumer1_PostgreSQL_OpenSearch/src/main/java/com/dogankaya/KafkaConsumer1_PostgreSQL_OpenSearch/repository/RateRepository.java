@@ -7,8 +7,8 @@ import rate.Rate;
  * Repository interface for {@link Rate} entity.
  * <p>
  * Extends {@link JpaRepository} to provide CRUD operations
- * and pagination for {@link Rate} entities with primary key of type {@link Integer}.
+ * and pagination for {@link Rate} entities with primary key of type {@link Long}.
  * </p>
  */
-public interface RateRepository extends JpaRepository<Rate, Integer> {
+public interface RateRepository extends JpaRepository<Rate, Long> {
 }
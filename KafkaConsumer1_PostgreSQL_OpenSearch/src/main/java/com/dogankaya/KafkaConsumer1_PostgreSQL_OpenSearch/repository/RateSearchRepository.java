@@ -8,8 +8,8 @@ import rate.RateDocument;
  * <p>
  * Extends {@link ElasticsearchRepository} to provide CRUD operations,
  * search, and pagination capabilities for {@link RateDocument} entities
- * with primary key of type {@link Integer}.
+ * with primary key of type {@link Long}.
  * </p>
  */
-public interface RateSearchRepository extends ElasticsearchRepository<RateDocument, Integer> {
+public interface RateSearchRepository extends ElasticsearchRepository<RateDocument, Long> {
 }
@@ -0,0 +1,94 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.LatestRateRepository;
+import org.springframework.stereotype.Service;
+import rate.RateDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service maintaining and serving the latest rate of every rate name.
+ * <p>
+ * Writes collapse a batch to the newest rate per rate name, upsert them through {@link LatestRateRepository} and
+ * update the in-memory cache. Reads are served from the cache and fall through to the table on a miss or once an
+ * entry is older than {@code rate-consumer.latest.cache-ttl-ms}, which bounds staleness when several consumer
+ * instances share the table.
+ * </p>
+ */
+@Service
+public class LatestRateService {
+    private final LatestRateRepository latestRateRepository;
+    private final long cacheTtlMillis;
+    private final Map<String, CachedRate> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param latestRateRepository   Repository of the latest rate table.
+     * @param rateConsumerProperties Properties containing the cache TTL.
+     */
+    public LatestRateService(LatestRateRepository latestRateRepository, RateConsumerProperties rateConsumerProperties) {
+        this.latestRateRepository = latestRateRepository;
+        this.cacheTtlMillis = rateConsumerProperties.getLatest().getCacheTtlMs();
+    }
+
+    /**
+     * Stores the newest of the given rates per rate name. Rates without an update time are ignored.
+     *
+     * @param rates        the rates.
+     * @param dbUpdateTime the time the rates are written.
+     */
+    public void updateAll(Collection<RateDto> rates, LocalDateTime dbUpdateTime) {
+        Map<String, RateDto> newest = new HashMap<>();
+        for (RateDto rate : rates) {
+            if (rate == null || rate.getRateUpdateTime() == null) continue;
+            newest.merge(rate.getRateName(), rate,
+                    (a, b) -> b.getRateUpdateTime().isAfter(a.getRateUpdateTime()) ? b : a);
+        }
+        latestRateRepository.upsertAll(newest.values(), dbUpdateTime);
+        long now = System.currentTimeMillis();
+        for (RateDto rate : newest.values()) {
+            cache.compute(rate.getRateName(), (name, cached) ->
+                    cached == null || !cached.rate().getRateUpdateTime().isAfter(rate.getRateUpdateTime())
+                            ? new CachedRate(rate, now)
+                            : cached);
+        }
+    }
+
+    /**
+     * Returns the latest rate of a rate name.
+     *
+     * @param rateName the rate name.
+     * @return the rate, or {@code null} if none is stored.
+     */
+    public RateDto getLatestRate(String rateName) {
+        long now = System.currentTimeMillis();
+        CachedRate cached = cache.get(rateName);
+        if (cached != null && now - cached.loadedAt() < cacheTtlMillis) {
+            return cached.rate();
+        }
+        RateDto rate = latestRateRepository.findByRateName(rateName);
+        if (rate != null) {
+            cache.put(rateName, new CachedRate(rate, now));
+        }
+        return rate;
+    }
+
+    /**
+     * Returns the latest rates of all rate names from the table.
+     *
+     * @return the rates ordered by rate name.
+     */
+    public List<RateDto> getLatestRates() {
+        return latestRateRepository.findAll();
+    }
+
+    private record CachedRate(RateDto rate, long loadedAt) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.Candle;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.CandleAggregator;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.CandleInterval;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.RateCandleRepository;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.RateCandleSearchRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import rate.RateCandleDocument;
+import rate.RateDto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sink aggregating the rate stream into open/high/low/close candles.
+ * <p>
+ * The sink consumes "rate-topic" in its own consumer group ({@code rate-consumer.candles.*}) and feeds the mid
+ * price of every rate into a {@link CandleAggregator} for the configured intervals. Every
+ * {@code flush-interval-ms} the candles of closed windows are upserted into PostgreSQL in one batch and the
+ * merged candles are indexed into OpenSearch, so dashboards read one document per window instead of
+ * aggregating raw ticks. Candles of open windows are flushed on shutdown and merged with the rest of the window
+ * after a restart.
+ * </p>
+ * <p>
+ * Candles PostgreSQL failed to store are kept and written again with the next flush, together with the newly
+ * closed ones and under the same flush id, so a retry of a flush that did commit does not add its tick counts
+ * twice; documents of candles that were stored but failed to index are indexed again with the next flush,
+ * replaced by a newer version of the same window if there is one. At most {@code max-pending-candles} candles
+ * and documents are kept for each store, beyond that the oldest are dropped and counted as lost.
+ * </p>
+ * <p>
+ * The offsets of a poll are committed once its ticks are in the aggregator, not once their candles are written.
+ * A crash, unlike a shutdown, therefore loses the open windows and the candles still waiting for a retry: their
+ * ticks are not redelivered, so those windows are stored incomplete or not at all.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "rate-consumer.candles.enabled", havingValue = "true", matchIfMissing = true)
+public class RateCandleSinkService {
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    private final Logger logger = LogManager.getLogger();
+    private final CandleAggregator candleAggregator;
+    private final RateCandleRepository rateCandleRepository;
+    private final RateCandleSearchRepository rateCandleSearchRepository;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+    private final int maxPendingCandles;
+    private final List<Candle> unstoredCandles = new ArrayList<>();
+    private final Map<String, RateCandleDocument> unindexedDocuments = new LinkedHashMap<>();
+    private long flushId = ThreadLocalRandom.current().nextLong();
+    private long lostCandleCount;
+    private long lostDocumentCount;
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param rateCandleRepository       Repository for upserting candles into PostgreSQL.
+     * @param rateCandleSearchRepository Repository for indexing candles in OpenSearch.
+     * @param rateConsumerProperties     Properties containing the candle intervals, grace period and retry limit.
+     * @throws IllegalArgumentException if a configured interval is unknown.
+     */
+    public RateCandleSinkService(RateCandleRepository rateCandleRepository,
+                                 RateCandleSearchRepository rateCandleSearchRepository,
+                                 RateConsumerProperties rateConsumerProperties) {
+        this.rateCandleRepository = rateCandleRepository;
+        this.rateCandleSearchRepository = rateCandleSearchRepository;
+        RateConsumerProperties.CandleProperties candles = rateConsumerProperties.getCandles();
+        this.maxPendingCandles = candles.getMaxPendingCandles();
+        this.candleAggregator = new CandleAggregator(
+                candles.getIntervals().stream().map(CandleInterval::fromName).toList(),
+                candles.getGracePeriodMs());
+    }
+
+    /**
+     * Kafka batch listener adding all {@link RateDto} messages of one poll to the candles.
+     * Rates without an update time are aggregated at their record timestamp.
+     *
+     * @param records the records of the poll.
+     */
+    @KafkaListener(topics = "rate-topic", containerFactory = "candleSinkContainerFactory")
+    public void consumeRates(List<ConsumerRecord<String, RateDto>> records) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, RateDto> record : records) {
+            RateDto rateDto = record.value();
+            if (rateDto == null) continue;
+            BigDecimal price = midPrice(rateDto);
+            if (price == null) continue;
+            long eventTime = rateDto.getRateUpdateTime() != null
+                    ? rateDto.getRateUpdateTime().toInstant(ZoneOffset.UTC).toEpochMilli()
+                    : record.timestamp();
+            candleAggregator.add(rateDto.getRateName(), price, eventTime, now);
+        }
+    }
+
+    /**
+     * Writes the candles of the windows closed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${rate-consumer.candles.flush-interval-ms:1000}")
+    public void flushClosedCandles() {
+        write(candleAggregator.takeClosed(System.currentTimeMillis()));
+    }
+
+    /**
+     * Writes the candles of all windows, including the open ones.
+     */
+    @PreDestroy
+    public void flushAllCandles() {
+        write(candleAggregator.takeAll());
+        synchronized (this) {
+            if (!unstoredCandles.isEmpty() || !unindexedDocuments.isEmpty()) {
+                logger.error("Candle aggregation stopped with {} candles not stored and {} not indexed",
+                        unstoredCandles.size(), unindexedDocuments.size());
+            }
+        }
+        logger.info("Candle aggregation stopped, {} late ticks dropped, {} candles not stored and {} not indexed "
+                + "dropped", candleAggregator.getLateTickCount(), getLostCandleCount(), getLostDocumentCount());
+    }
+
+    /**
+     * Upserts the given candles and the ones a previous flush failed to store, then indexes the stored candles
+     * and the documents a previous flush failed to index. The flush id changes only once the candles are stored.
+     *
+     * @param candles the candles to write.
+     */
+    synchronized void write(List<Candle> candles) {
+        unstoredCandles.addAll(candles);
+        if (unstoredCandles.size() > maxPendingCandles) {
+            int dropped = unstoredCandles.size() - maxPendingCandles;
+            unstoredCandles.subList(0, dropped).clear();
+            lostCandleCount += dropped;
+            logger.error("Dropped the {} oldest candles waiting to be stored, {} lost so far", dropped,
+                    lostCandleCount);
+        }
+        if (!unstoredCandles.isEmpty()) {
+            try {
+                List<Candle> stored = rateCandleRepository.upsertAll(List.copyOf(unstoredCandles), flushId);
+                logger.debug("{} candles stored", stored.size());
+                unstoredCandles.clear();
+                flushId = ThreadLocalRandom.current().nextLong();
+                for (Candle candle : stored) {
+                    RateCandleDocument document = toDocument(candle);
+                    unindexedDocuments.remove(document.getId());
+                    unindexedDocuments.put(document.getId(), document);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Cannot store {} candles, retrying with the next flush: {}", unstoredCandles.size(),
+                        e.getMessage());
+            }
+        }
+        if (unindexedDocuments.size() > maxPendingCandles) {
+            int dropped = unindexedDocuments.size() - maxPendingCandles;
+            Iterator<String> oldest = unindexedDocuments.keySet().iterator();
+            for (int i = 0; i < dropped; i++) {
+                oldest.next();
+                oldest.remove();
+            }
+            lostDocumentCount += dropped;
+            logger.error("Dropped the {} oldest candles waiting to be indexed, {} lost so far", dropped,
+                    lostDocumentCount);
+        }
+        if (unindexedDocuments.isEmpty()) {
+            return;
+        }
+        try {
+            rateCandleSearchRepository.saveAll(List.copyOf(unindexedDocuments.values()));
+            unindexedDocuments.clear();
+        } catch (RuntimeException e) {
+            logger.error("Cannot index {} candles, retrying with the next flush: {}", unindexedDocuments.size(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of candles waiting to be stored again.
+     *
+     * @return the unstored candle count.
+     */
+    public synchronized int getUnstoredCandleCount() {
+        return unstoredCandles.size();
+    }
+
+    /**
+     * Returns the number of stored candles waiting to be indexed again.
+     *
+     * @return the unindexed candle count.
+     */
+    public synchronized int getUnindexedCandleCount() {
+        return unindexedDocuments.size();
+    }
+
+    /**
+     * Returns the number of candles dropped because too many were waiting to be stored.
+     *
+     * @return the lost candle count.
+     */
+    public synchronized long getLostCandleCount() {
+        return lostCandleCount;
+    }
+
+    /**
+     * Returns the number of stored candles dropped because too many were waiting to be indexed.
+     *
+     * @return the lost document count.
+     */
+    public synchronized long getLostDocumentCount() {
+        return lostDocumentCount;
+    }
+
+    private RateCandleDocument toDocument(Candle candle) {
+        String windowStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(candle.getWindowStart()), ZoneOffset.UTC)
+                .format(formatter);
+        return RateCandleDocument.builder()
+                .id(candle.getRateName() + "|" + candle.getInterval().getName() + "|" + windowStart)
+                .rateName(candle.getRateName())
+                .interval(candle.getInterval().getName())
+                .windowStart(windowStart)
+                .open(candle.getOpen())
+                .high(candle.getHigh())
+                .low(candle.getLow())
+                .close(candle.getClose())
+                .tickCount(candle.getTickCount())
+                .build();
+    }
+
+    /**
+     * Returns the mid price of a rate, or the one side present.
+     */
+    private static BigDecimal midPrice(RateDto rateDto) {
+        if (rateDto.getBid() == null) {
+            return rateDto.getAsk();
+        }
+        if (rateDto.getAsk() == null) {
+            return rateDto.getBid();
+        }
+        return rateDto.getBid().add(rateDto.getAsk()).divide(TWO);
+    }
+}
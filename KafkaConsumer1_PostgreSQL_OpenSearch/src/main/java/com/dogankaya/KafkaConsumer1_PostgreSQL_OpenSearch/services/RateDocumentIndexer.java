@@ -0,0 +1,173 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Service;
+import rate.RateDocument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk indexing stage for {@link RateDocument}s.
+ * <p>
+ * The documents of a batch are sent to OpenSearch synchronously, in bulk requests of at most
+ * {@code rate-consumer.indexer.bulk-actions} documents or an estimated {@code bulk-bytes}. The caller returns only
+ * after every bulk request succeeded, so the Kafka listener commits the offsets of a batch only once its
+ * documents are in the index.
+ * </p>
+ * <p>
+ * Only the documents a bulk request failed to index are retried, with exponential backoff; documents rejected
+ * with a client error (e.g. a mapping conflict) can never succeed and are logged and counted instead. Documents
+ * still failing after {@code max-retries} fail the whole batch, which the listener container redelivers; the
+ * document ids make the redelivery idempotent.
+ * </p>
+ */
+@Service
+public class RateDocumentIndexer {
+    /**
+     * Rough size of one document and its bulk action line, used for the byte limit.
+     */
+    static final int ESTIMATED_DOCUMENT_BYTES = 256;
+
+    private final Logger logger = LogManager.getLogger();
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final RateConsumerProperties.IndexerProperties properties;
+
+    private final LongAdder indexedCount = new LongAdder();
+    private final LongAdder retriedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param elasticsearchOperations operations used to send the bulk requests.
+     * @param rateConsumerProperties  properties containing the indexer configuration.
+     */
+    public RateDocumentIndexer(ElasticsearchOperations elasticsearchOperations,
+                               RateConsumerProperties rateConsumerProperties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = rateConsumerProperties.getIndexer();
+    }
+
+    /**
+     * Indexes documents with as many bulk requests as the size limits require.
+     *
+     * @param rateDocuments the documents to index.
+     * @throws IllegalStateException if documents still fail after the retries, or the thread is interrupted.
+     */
+    public void indexAll(List<RateDocument> rateDocuments) {
+        int bulkSize = (int) Math.max(1, Math.min(properties.getBulkActions(),
+                properties.getBulkBytes() / ESTIMATED_DOCUMENT_BYTES));
+        for (int from = 0; from < rateDocuments.size(); from += bulkSize) {
+            index(rateDocuments.subList(from, Math.min(from + bulkSize, rateDocuments.size())));
+        }
+    }
+
+    /**
+     * Indexes a batch with one bulk request and retries the documents that failed.
+     *
+     * @param batch the documents to index.
+     * @throws IllegalStateException if documents still fail after the retries, or the thread is interrupted.
+     */
+    void index(List<RateDocument> batch) {
+        List<RateDocument> pending = batch;
+        for (int attempt = 0; ; attempt++) {
+            RuntimeException failure;
+            try {
+                elasticsearchOperations.bulkIndex(toQueries(pending), RateDocument.class);
+                indexedCount.add(pending.size());
+                return;
+            } catch (BulkFailureException e) {
+                failure = e;
+                pending = retryableFailures(pending, e.getFailedDocuments());
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.warn("Bulk request of {} documents failed: {}", pending.size(), e.getMessage());
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (attempt >= properties.getMaxRetries()) {
+                throw new IllegalStateException(
+                        "Cannot index " + pending.size() + " documents after " + attempt + " retries", failure);
+            }
+            retriedCount.add(pending.size());
+            try {
+                Thread.sleep(properties.getRetryBackoffMs() << Math.min(attempt, 16));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while indexing " + pending.size() + " documents", e);
+            }
+        }
+    }
+
+    private List<RateDocument> retryableFailures(List<RateDocument> pending,
+                                                 Map<String, BulkFailureException.FailureDetails> failures) {
+        List<RateDocument> retry = new ArrayList<>(failures.size());
+        for (RateDocument rateDocument : pending) {
+            BulkFailureException.FailureDetails details = failures.get(String.valueOf(rateDocument.getId()));
+            if (details == null) {
+                indexedCount.increment();
+            } else if (isRetryable(details.status())) {
+                retry.add(rateDocument);
+            } else {
+                rejectedCount.increment();
+                logger.warn("Document {} rejected: {}", rateDocument.getId(), details.errorMessage());
+            }
+        }
+        return retry;
+    }
+
+    /**
+     * Returns whether a failed item may succeed when sent again: rejected for load (429) or a server error.
+     */
+    private static boolean isRetryable(Integer status) {
+        return status == null || status == 429 || status >= 500;
+    }
+
+    private static List<IndexQuery> toQueries(List<RateDocument> rateDocuments) {
+        List<IndexQuery> queries = new ArrayList<>(rateDocuments.size());
+        for (RateDocument rateDocument : rateDocuments) {
+            queries.add(new IndexQueryBuilder()
+                    .withId(String.valueOf(rateDocument.getId()))
+                    .withObject(rateDocument)
+                    .build());
+        }
+        return queries;
+    }
+
+    /**
+     * Returns the number of documents indexed.
+     *
+     * @return the indexed count.
+     */
+    public long getIndexedCount() {
+        return indexedCount.sum();
+    }
+
+    /**
+     * Returns the number of document retries.
+     *
+     * @return the retried count.
+     */
+    public long getRetriedCount() {
+        return retriedCount.sum();
+    }
+
+    /**
+     * Returns the number of documents OpenSearch rejected with a client error.
+     *
+     * @return the rejected count.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
@@ -0,0 +1,97 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlow;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlowManager;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.helpers.RateIds;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import rate.RateDocument;
+import rate.RateDto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sink consuming RateDto messages from Kafka in batches and indexing them into OpenSearch.
+ * <p>
+ * The sink has its own consumer group, concurrency and batching ({@code rate-consumer.opensearch.*}), so a slow
+ * OpenSearch cluster does not hold back the {@link RatePostgresSinkService} and vice versa. Documents get the
+ * same {@link RateIds} id as the database rows, computed from the record instead of waiting for the database,
+ * and are indexed by the {@link RateDocumentIndexer} before the listener returns, so the offsets of a batch are
+ * committed only after its bulk requests succeeded; a failed batch is redelivered like in the
+ * {@link RatePostgresSinkService}.
+ * </p>
+ * <p>
+ * Batches run through a {@link SinkFlow}, which splits them into key-ordered shards indexed in parallel while the
+ * sink lags behind and pauses the sink for a while after a batch failed.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "rate-consumer.opensearch.enabled", havingValue = "true", matchIfMissing = true)
+public class RateOpenSearchSinkService {
+    /**
+     * Id of the sink's listener container.
+     */
+    public static final String LISTENER_ID = "opensearch-sink";
+
+    private final Logger logger = LogManager.getLogger();
+    private final RateDocumentIndexer rateDocumentIndexer;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
+    private final SinkFlow sinkFlow;
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param rateDocumentIndexer Bulk indexing stage for RateDocument entities in OpenSearch.
+     * @param sinkFlowManager     Flow control adjusting the parallelism of the sink.
+     * @param properties          Consumer properties of the sinks.
+     */
+    public RateOpenSearchSinkService(RateDocumentIndexer rateDocumentIndexer, SinkFlowManager sinkFlowManager,
+                                     RateConsumerProperties properties) {
+        this.rateDocumentIndexer = rateDocumentIndexer;
+        this.sinkFlow = sinkFlowManager.register(LISTENER_ID, properties.getOpensearch(), () -> false);
+    }
+
+    /**
+     * Kafka batch listener consuming all {@link RateDto} messages of one poll from the "rate-topic".
+     * Null records, which the deserializer returns for empty values, are skipped.
+     *
+     * @param records  the records of the poll.
+     * @param consumer the consumer that polled the records, for the lag of its partitions.
+     */
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "rate-topic",
+            containerFactory = "openSearchSinkContainerFactory")
+    public void consumeRates(List<ConsumerRecord<String, RateDto>> records, Consumer<?, ?> consumer) {
+        sinkFlow.process(records, consumer, this::indexRates);
+    }
+
+    private void indexRates(List<ConsumerRecord<String, RateDto>> records) {
+        String indexTime = LocalDateTime.now().format(formatter);
+        List<RateDocument> rateDocuments = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, RateDto> record : records) {
+            RateDto rateDto = record.value();
+            if (rateDto == null) continue;
+            rateDocuments.add(RateDocument.builder()
+                    .id(RateIds.of(record))
+                    .rateName(rateDto.getRateName())
+                    .ask(rateDto.getAsk())
+                    .bid(rateDto.getBid())
+                    .rateUpdateTime(rateDto.getRateUpdateTime() != null ? rateDto.getRateUpdateTime().format(formatter) : null)
+                    .dbUpdateTime(indexTime)
+                    .build());
+        }
+        if (rateDocuments.isEmpty()) {
+            return;
+        }
+        rateDocumentIndexer.indexAll(rateDocuments);
+        logger.debug("{} rates indexed in OpenSearch", rateDocuments.size());
+    }
+}
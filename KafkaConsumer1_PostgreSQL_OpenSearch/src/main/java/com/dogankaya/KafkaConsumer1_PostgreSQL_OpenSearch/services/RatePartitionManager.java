@@ -0,0 +1,195 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Creates the {@code rate} table and manages its daily range partitions.
+ * <p>
+ * On startup the table is created, if missing, as a table partitioned by {@code rate_update_time} with a default
+ * partition for rows outside every daily partition and a {@code (rate_name, rate_update_time)} index that
+ * PostgreSQL creates on every partition. Partitions for today and the next
+ * {@code rate-consumer.partitions.premake-days} days (UTC) are created ahead of time, and partitions older than
+ * {@code retention-days} are dropped as a whole instead of deleting their rows. Both run again every
+ * {@code maintenance-interval-ms}.
+ * </p>
+ * <p>
+ * The default partition only parks rows no daily partition accepts yet. When the partition of a day is created
+ * while the default partition holds rows of that day, which PostgreSQL would refuse, the default partition is
+ * detached, the partition created, the parked rows moved into it and the default partition attached again, all in
+ * one transaction. Parked rows older than {@code retention-days} are deleted with the expired partitions.
+ * </p>
+ * <p>
+ * With {@code rate-consumer.partitions.enabled=false} a plain, unpartitioned {@code rate} table is created
+ * instead and nothing is maintained. A {@code rate} table created earlier without partitioning is left as it is;
+ * it has to be migrated by hand.
+ * </p>
+ */
+@Service
+public class RatePartitionManager {
+    static final String TABLE = "rate";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final String COLUMNS = "id bigint NOT NULL, "
+            + "rate_name varchar(255), "
+            + "bid numeric, "
+            + "ask numeric, "
+            + "rate_update_time timestamp(6) NOT NULL, "
+            + "db_update_time timestamp(6), "
+            + "PRIMARY KEY (id, rate_update_time)";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Logger logger = LogManager.getLogger();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RateConsumerProperties.PartitionProperties properties;
+    private boolean partitioned;
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param jdbcTemplate           JdbcTemplate used to run the DDL statements.
+     * @param transactionManager     transaction manager moving parked rows out of the default partition.
+     * @param rateConsumerProperties properties containing the partitioning configuration.
+     */
+    public RatePartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                RateConsumerProperties rateConsumerProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = rateConsumerProperties.getPartitions();
+    }
+
+    /**
+     * Creates the table and the upcoming partitions before the listeners start.
+     */
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + COLUMNS + ")");
+            createIndex();
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + COLUMNS + ") "
+                + "PARTITION BY RANGE (rate_update_time)");
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)", Integer.class, TABLE);
+        partitioned = count != null && count > 0;
+        if (!partitioned) {
+            logger.warn("Table {} exists but is not partitioned; partition maintenance is disabled", TABLE);
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+        createIndex();
+        maintain();
+    }
+
+    private void createIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + TABLE + "_rate_name_rate_update_time_idx ON "
+                + TABLE + " (rate_name, rate_update_time)");
+    }
+
+    /**
+     * Creates the upcoming daily partitions and drops the expired ones.
+     */
+    @Scheduled(initialDelayString = "${rate-consumer.partitions.maintenance-interval-ms:3600000}",
+            fixedDelayString = "${rate-consumer.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!partitioned) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= properties.getPremakeDays(); i++) {
+            createPartition(today.plusDays(i));
+        }
+        dropPartitionsBefore(today.minusDays(properties.getRetentionDays()));
+    }
+
+    private void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+                return;
+            }
+            String createPartition = "CREATE TABLE " + partition + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')";
+            String dayRows = "rate_update_time >= '" + day + "' AND rate_update_time < '" + day.plusDays(1) + "'";
+            Integer parked = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM " + DEFAULT_PARTITION + " WHERE " + dayRows, Integer.class);
+            if (parked == null || parked == 0) {
+                jdbcTemplate.execute(createPartition);
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+                jdbcTemplate.execute(createPartition);
+                jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM " + DEFAULT_PARTITION
+                        + " WHERE " + dayRows);
+                jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + dayRows);
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            });
+            logger.info("Created partition {} and moved {} parked rates into it", partition, parked);
+        } catch (DataAccessException e) {
+            logger.error("Cannot create partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private void dropPartitionsBefore(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass(?)", String.class, TABLE);
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && day.isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                logger.info("Dropped expired partition {}", partition);
+            }
+        }
+        int expired = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE rate_update_time < ?",
+                cutoff.atStartOfDay());
+        if (expired > 0) {
+            logger.info("Deleted {} expired rates from {}", expired, DEFAULT_PARTITION);
+        }
+    }
+
+    /**
+     * Returns the name of the partition holding the rates of a day.
+     *
+     * @param day the day.
+     * @return the partition name, e.g. {@code rate_p20250601}.
+     */
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Returns the day of a daily partition.
+     *
+     * @param partitionName the partition name.
+     * @return the day, or {@code null} if the name is not a daily partition such as the default partition.
+     */
+    static LocalDate partitionDay(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlow;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlowManager;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.helpers.RateIds;
+import org.apache.kafka.clients.consumer.Consumer;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.RateBatchRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import rate.Rate;
+import rate.RateDto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sink consuming RateDto messages from Kafka in batches and persisting them into PostgreSQL database.
+ * <p>
+ * The sink has its own consumer group, concurrency and batching ({@code rate-consumer.postgres.*}), so it
+ * advances independently of the {@link RateOpenSearchSinkService}. Every poll of the "rate-topic" is handed over
+ * as one list, inserted with multi-row JDBC statements through {@link RateBatchRepository} and upserted into the
+ * latest rate table through {@link LatestRateService}. The listener
+ * container commits the offsets of a batch only after this method returns; a batch that failed to reach
+ * PostgreSQL is redelivered with a growing backoff until it succeeds instead of lost, and ids from
+ * {@link RateIds} make the redelivery idempotent. As the ids are unique per record, rows skipped because their
+ * id was already stored are redeliveries; they are counted and logged.
+ * </p>
+ * <p>
+ * Batches run through a {@link SinkFlow}, which splits them into key-ordered shards written in parallel while the
+ * sink lags behind and pauses the sink for a while after a batch failed.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "rate-consumer.postgres.enabled", havingValue = "true", matchIfMissing = true)
+public class RatePostgresSinkService {
+    /**
+     * Id of the sink's listener container.
+     */
+    public static final String LISTENER_ID = "postgres-sink";
+
+    private final Logger logger = LogManager.getLogger();
+    private final RateBatchRepository rateBatchRepository;
+    private final LatestRateService latestRateService;
+    private final SinkFlow sinkFlow;
+    private final LongAdder duplicateCount = new LongAdder();
+
+    /**
+     * Constructor with dependencies injected by Spring.
+     *
+     * @param rateBatchRepository Repository for inserting Rate entities in bulk into PostgreSQL.
+     * @param latestRateService   Service maintaining the latest rate of every rate name.
+     * @param sinkFlowManager     Flow control adjusting the parallelism of the sink.
+     * @param properties          Consumer properties of the sinks.
+     */
+    public RatePostgresSinkService(RateBatchRepository rateBatchRepository, LatestRateService latestRateService,
+                                   SinkFlowManager sinkFlowManager, RateConsumerProperties properties) {
+        this.rateBatchRepository = rateBatchRepository;
+        this.latestRateService = latestRateService;
+        this.sinkFlow = sinkFlowManager.register(LISTENER_ID, properties.getPostgres(), () -> false);
+    }
+
+    /**
+     * Kafka batch listener consuming all {@link RateDto} messages of one poll from the "rate-topic".
+     * Null records, which the deserializer returns for empty values, are skipped. Rates without an update time
+     * are stored with the record timestamp, as the update time selects the partition of the rate table.
+     *
+     * @param records  the records of the poll.
+     * @param consumer the consumer that polled the records, for the lag of its partitions.
+     */
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "rate-topic",
+            containerFactory = "postgresSinkContainerFactory")
+    public void consumeRates(List<ConsumerRecord<String, RateDto>> records, Consumer<?, ?> consumer) {
+        sinkFlow.process(records, consumer, this::saveRates);
+    }
+
+    private void saveRates(List<ConsumerRecord<String, RateDto>> records) {
+        LocalDateTime dbUpdateTime = LocalDateTime.now();
+        List<Rate> rates = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, RateDto> record : records) {
+            RateDto rateDto = record.value();
+            if (rateDto == null) continue;
+            rates.add(Rate.builder()
+                    .id(RateIds.of(record))
+                    .rateName(rateDto.getRateName())
+                    .ask(rateDto.getAsk())
+                    .bid(rateDto.getBid())
+                    .rateUpdateTime(rateDto.getRateUpdateTime() != null
+                            ? rateDto.getRateUpdateTime()
+                            : LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneOffset.UTC))
+                    .dbUpdateTime(dbUpdateTime)
+                    .build());
+        }
+        if (rates.isEmpty()) {
+            return;
+        }
+        int inserted = rateBatchRepository.insertAll(rates);
+        latestRateService.updateAll(records.stream().map(ConsumerRecord::value).toList(), dbUpdateTime);
+        if (inserted < rates.size()) {
+            duplicateCount.add(rates.size() - inserted);
+            logger.info("{} of {} rates were already stored, {} redelivered rates skipped so far",
+                    rates.size() - inserted, rates.size(), duplicateCount.sum());
+        }
+        logger.debug("{} rates saved to PostgreSQL", inserted);
+    }
+}
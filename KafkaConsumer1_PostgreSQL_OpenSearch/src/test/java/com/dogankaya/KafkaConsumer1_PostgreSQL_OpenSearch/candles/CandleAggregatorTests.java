@@ -0,0 +1,70 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTests {
+
+	private static final long MINUTE = 1_750_000_020_000L;
+
+	@Test
+	void aggregatesOutOfOrderTicksWithinTheGracePeriod() {
+		CandleAggregator aggregator = new CandleAggregator(List.of(CandleInterval.MINUTE), 2000);
+		aggregator.add("USDTRY", new BigDecimal("34.2"), MINUTE + 10_000, 0);
+		aggregator.add("USDTRY", new BigDecimal("34.5"), MINUTE + 30_000, 0);
+		aggregator.add("USDTRY", new BigDecimal("34.0"), MINUTE + 50_000, 0);
+		aggregator.add("USDTRY", new BigDecimal("34.1"), MINUTE + 61_000, 0);
+		aggregator.add("USDTRY", new BigDecimal("34.3"), MINUTE + 5_000, 0);
+
+		assertTrue(aggregator.takeClosed(0).isEmpty());
+		aggregator.add("USDTRY", new BigDecimal("34.2"), MINUTE + 62_000, 0);
+		List<Candle> closed = aggregator.takeClosed(0);
+
+		assertEquals(1, closed.size());
+		Candle candle = closed.get(0);
+		assertEquals(MINUTE, candle.getWindowStart());
+		assertEquals(new BigDecimal("34.3"), candle.getOpen());
+		assertEquals(new BigDecimal("34.5"), candle.getHigh());
+		assertEquals(new BigDecimal("34.0"), candle.getLow());
+		assertEquals(new BigDecimal("34.0"), candle.getClose());
+		assertEquals(4, candle.getTickCount());
+		assertEquals(1, aggregator.getOpenCandleCount());
+	}
+
+	@Test
+	void dropsTicksOfClosedWindowsAndClosesQuietWindowsByWallClock() {
+		CandleAggregator aggregator = new CandleAggregator(List.of(CandleInterval.SECOND, CandleInterval.MINUTE), 0);
+		aggregator.add("USDTRY", BigDecimal.ONE, MINUTE + 500, 1_000);
+
+		assertEquals(1, aggregator.takeClosed(1_600).size());
+		aggregator.add("USDTRY", BigDecimal.TEN, MINUTE + 900, 1_700);
+
+		assertEquals(1, aggregator.getLateTickCount());
+		assertEquals(1, aggregator.getOpenCandleCount());
+		assertEquals(1, aggregator.takeClosed(61_000).size());
+	}
+
+	@Test
+	void aSourceWhoseClockRunsAheadDoesNotCloseTheWindowsOfOtherRates() {
+		long threeHours = 3 * 3_600_000L;
+		CandleAggregator aggregator = new CandleAggregator(List.of(CandleInterval.SECOND, CandleInterval.MINUTE), 0);
+		aggregator.add("PF2_USDTRY", BigDecimal.ONE, MINUTE + threeHours + 500, 1_000);
+		aggregator.add("PF1_USDTRY", BigDecimal.ONE, MINUTE + 500, 1_000);
+
+		assertTrue(aggregator.takeClosed(1_100).isEmpty());
+		aggregator.add("PF1_USDTRY", BigDecimal.TEN, MINUTE + 700, 1_200);
+		aggregator.add("PF2_USDTRY", BigDecimal.TEN, MINUTE + threeHours + 1_500, 2_000);
+		aggregator.add("PF1_USDTRY", BigDecimal.TEN, MINUTE + 1_500, 2_000);
+
+		assertEquals(0, aggregator.getLateTickCount());
+		List<Candle> closed = aggregator.takeClosed(2_000);
+		assertEquals(2, closed.size());
+		Candle pf1 = closed.stream().filter(candle -> candle.getRateName().equals("PF1_USDTRY")).findFirst().orElseThrow();
+		assertEquals(MINUTE, pf1.getWindowStart());
+		assertEquals(2, pf1.getTickCount());
+	}
+}
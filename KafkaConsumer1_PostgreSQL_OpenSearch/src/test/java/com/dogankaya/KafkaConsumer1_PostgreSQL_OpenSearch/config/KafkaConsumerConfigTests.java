@@ -0,0 +1,240 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlow;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow.SinkFlowManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaConsumerConfigTests {
+
+	private static final TopicPartition PARTITION = new TopicPartition("rate-topic", 0);
+
+	/**
+	 * Mock consumer that redelivers its records after a seek back, like a broker does; {@link MockConsumer} drops
+	 * records once they were polled.
+	 */
+	private static class RewindableMockConsumer<K, V> extends MockConsumer<K, V> {
+		private final List<ConsumerRecord<K, V>> log = new ArrayList<>();
+
+		RewindableMockConsumer() {
+			super(OffsetResetStrategy.EARLIEST);
+		}
+
+		@Override
+		public synchronized void addRecord(ConsumerRecord<K, V> record) {
+			log.add(record);
+			super.addRecord(record);
+		}
+
+		@Override
+		public synchronized void seek(TopicPartition partition, long offset) {
+			super.seek(partition, offset);
+			for (ConsumerRecord<K, V> record : log) {
+				if (record.partition() == partition.partition() && record.offset() >= offset) {
+					super.addRecord(record);
+				}
+			}
+		}
+	}
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withPropertyValues("spring.kafka.bootstrap-servers=localhost:9092")
+			.withBean(RateConsumerProperties.class)
+			.withBean(SinkFlowManager.class, () -> mock(SinkFlowManager.class))
+			.withUserConfiguration(KafkaConsumerConfig.class);
+
+	private static Object autoOffsetReset(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+		return factory.getConsumerFactory().getConfigurationProperties().get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG);
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static long committedOffset(Consumer<?, ?> consumer) {
+		return committedOffset(consumer, PARTITION);
+	}
+
+	private static long committedOffset(Consumer<?, ?> consumer, TopicPartition partition) {
+		OffsetAndMetadata committed = consumer.committed(Set.of(partition)).get(partition);
+		return committed == null ? 0 : committed.offset();
+	}
+
+	private static <K, V> DefaultKafkaConsumerFactory<K, V> consumerFactory(MockConsumer<K, V> consumer) {
+		return new DefaultKafkaConsumerFactory<>(
+				Map.of(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false, ConsumerConfig.GROUP_ID_CONFIG, "test-group")) {
+			@Override
+			protected Consumer<K, V> createKafkaConsumer(Map<String, Object> configProps) {
+				return consumer;
+			}
+		};
+	}
+
+	@Test
+	void newSinkGroupsStartFromTheEarliestOffsetByDefault() {
+		contextRunner.run(context -> {
+			KafkaConsumerConfig config = context.getBean(KafkaConsumerConfig.class);
+			assertEquals("earliest", autoOffsetReset(config.postgresSinkContainerFactory()));
+			assertEquals("earliest", autoOffsetReset(config.openSearchSinkContainerFactory()));
+			assertEquals("earliest", autoOffsetReset(config.candleSinkContainerFactory()));
+			assertEquals("earliest", config.consumerFactory().getConfigurationProperties()
+					.get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG));
+		});
+	}
+
+	@Test
+	void autoOffsetResetIsBoundFromTheConsumerProperty() {
+		contextRunner.withPropertyValues("spring.kafka.consumer.auto-offset-reset=latest").run(context -> {
+			KafkaConsumerConfig config = context.getBean(KafkaConsumerConfig.class);
+			assertEquals("latest", autoOffsetReset(config.postgresSinkContainerFactory()));
+		});
+	}
+
+	@Test
+	void offsetsOfAFailingBatchStayUncommittedUntilItSucceeds() throws Exception {
+		MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+		consumer.schedulePollTask(() -> {
+			consumer.rebalance(List.of(PARTITION));
+			consumer.addRecord(new ConsumerRecord<>("rate-topic", 0, 0, "PF1_USDTRY", "a"));
+			consumer.addRecord(new ConsumerRecord<>("rate-topic", 0, 1, "PF1_USDTRY", "b"));
+		});
+		DefaultKafkaConsumerFactory<String, String> consumerFactory = consumerFactory(consumer);
+
+		AtomicBoolean databaseDown = new AtomicBoolean(true);
+		AtomicInteger attempts = new AtomicInteger();
+		ContainerProperties containerProperties = new ContainerProperties("rate-topic");
+		containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+		containerProperties.setMessageListener((BatchMessageListener<String, String>) records -> {
+			attempts.incrementAndGet();
+			if (databaseDown.get()) {
+				throw new IllegalStateException("database down");
+			}
+		});
+		RateConsumerProperties.SinkProperties sink = new RateConsumerProperties.SinkProperties();
+		sink.setRetryBackoffMs(5);
+		sink.setMaxRetryBackoffMs(20);
+		KafkaMessageListenerContainer<String, String> container =
+				new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
+		container.setCommonErrorHandler(KafkaConsumerConfig.sinkErrorHandler(sink));
+		container.start();
+		try {
+			waitFor(() -> attempts.get() >= 15);
+			assertTrue(attempts.get() >= 15);
+			// the container commits the initial position on assignment, never past the failing batch
+			assertEquals(0, committedOffset(consumer));
+
+			databaseDown.set(false);
+			waitFor(() -> committedOffset(consumer) == 2);
+			assertEquals(2, committedOffset(consumer));
+		} finally {
+			container.stop();
+		}
+	}
+
+	@Test
+	void failedBatchIsHandedBackToTheFlowControlWhichPausesOnlyItsPartitions() throws Exception {
+		TopicPartition failing = new TopicPartition("rate-topic", 0);
+		TopicPartition healthy = new TopicPartition("rate-topic", 1);
+		MockConsumer<String, String> consumer = new RewindableMockConsumer<>();
+		consumer.updateBeginningOffsets(Map.of(failing, 0L, healthy, 0L));
+		consumer.schedulePollTask(() -> {
+			consumer.rebalance(List.of(failing, healthy));
+			consumer.addRecord(new ConsumerRecord<>("rate-topic", 0, 0, "PF1_USDTRY", "a"));
+			consumer.addRecord(new ConsumerRecord<>("rate-topic", 0, 1, "PF1_USDTRY", "b"));
+		});
+
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getFlow().setControlIntervalMs(50);
+		properties.getFlow().setPauseMs(300);
+		RateConsumerProperties.SinkProperties sink = properties.getPostgres();
+		sink.setRetryBackoffMs(5);
+		sink.setMaxRetryBackoffMs(20);
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		SinkFlowManager sinkFlowManager = new SinkFlowManager(registry, properties);
+		SinkFlow flow = sinkFlowManager.register("sink", sink, () -> false);
+
+		AtomicBoolean databaseDown = new AtomicBoolean(true);
+		ContainerProperties containerProperties = new ContainerProperties("rate-topic");
+		containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+		containerProperties.setMessageListener((BatchMessageListener<String, String>) records ->
+				flow.process(records, null, shard -> {
+					if (databaseDown.get() && shard.stream().anyMatch(record -> record.partition() == 0)) {
+						throw new IllegalStateException("database down");
+					}
+				}));
+		KafkaMessageListenerContainer<String, String> container =
+				new KafkaMessageListenerContainer<>(consumerFactory(consumer), containerProperties);
+		container.setCommonErrorHandler(
+				KafkaConsumerConfig.flowControlledSinkErrorHandler(sink, properties.getFlow()));
+		when(registry.getListenerContainer("sink")).thenReturn(container);
+
+		AtomicBoolean controlling = new AtomicBoolean(true);
+		Thread control = new Thread(() -> {
+			while (controlling.get()) {
+				sinkFlowManager.control();
+				try {
+					Thread.sleep(properties.getFlow().getControlIntervalMs());
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		});
+		container.start();
+		control.start();
+		try {
+			waitFor(() -> container.isPartitionPaused(failing));
+			assertTrue(container.isPartitionPaused(failing));
+
+			// the consumer is out of the retry loop and goes on with the partition that did not fail
+			consumer.addRecord(new ConsumerRecord<>("rate-topic", 1, 0, "PF1_EURUSD", "c"));
+			waitFor(() -> committedOffset(consumer, healthy) == 1);
+			assertEquals(1, committedOffset(consumer, healthy));
+			assertFalse(container.isPartitionPaused(healthy));
+			assertEquals(0, committedOffset(consumer, failing));
+
+			databaseDown.set(false);
+			waitFor(() -> committedOffset(consumer, failing) == 2);
+			assertEquals(2, committedOffset(consumer, failing));
+			waitFor(() -> flow.getPausedPartitions().isEmpty());
+			assertTrue(flow.getPausedPartitions().isEmpty());
+			// the partition has recovered, so the flow control does not pause it again
+			Thread.sleep(3 * properties.getFlow().getControlIntervalMs());
+			assertFalse(container.isPartitionPaused(failing));
+			assertTrue(flow.getPausedPartitions().isEmpty());
+		} finally {
+			controlling.set(false);
+			control.join();
+			container.stop();
+			sinkFlowManager.stop();
+		}
+	}
+}
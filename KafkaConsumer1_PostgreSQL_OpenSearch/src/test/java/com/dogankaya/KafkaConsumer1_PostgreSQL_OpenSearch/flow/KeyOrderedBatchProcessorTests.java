@@ -0,0 +1,73 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedBatchProcessorTests {
+
+	private final ExecutorService workers = Executors.newFixedThreadPool(3);
+
+	@AfterEach
+	void tearDown() {
+		workers.shutdown();
+	}
+
+	@Test
+	void keepsOrderPerKeyAcrossShards() {
+		KeyOrderedBatchProcessor processor = new KeyOrderedBatchProcessor(workers);
+		processor.setParallelism(4);
+		List<ConsumerRecord<String, Integer>> records = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			records.add(new ConsumerRecord<>("rate-topic", i % 3, i, "PF1_RATE" + (i % 10), i));
+		}
+		Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		processor.process(records, shard -> {
+			threads.add(Thread.currentThread().getName());
+			for (ConsumerRecord<String, Integer> record : shard) {
+				seen.computeIfAbsent(record.key(), k -> Collections.synchronizedList(new ArrayList<>())).add(record.value());
+			}
+		});
+
+		Map<String, List<Integer>> expected = new HashMap<>();
+		for (ConsumerRecord<String, Integer> record : records) {
+			expected.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record.value());
+		}
+		assertEquals(expected, seen);
+		assertTrue(threads.size() > 1);
+	}
+
+	@Test
+	void rethrowsShardFailureAfterAllShardsFinished() {
+		KeyOrderedBatchProcessor processor = new KeyOrderedBatchProcessor(workers);
+		processor.setParallelism(2);
+		List<ConsumerRecord<String, Integer>> records = List.of(
+				new ConsumerRecord<>("rate-topic", 0, 0, "A", 1),
+				new ConsumerRecord<>("rate-topic", 0, 1, "B", 2));
+		Set<String> processed = ConcurrentHashMap.newKeySet();
+
+		RuntimeException e = assertThrows(RuntimeException.class, () -> processor.process(records, shard -> {
+			if (shard.get(0).key().equals("A")) {
+				throw new IllegalStateException("down");
+			}
+			processed.add(shard.get(0).key());
+		}));
+
+		assertEquals("down", e.getMessage());
+		assertEquals(Set.of("B"), processed);
+	}
+}
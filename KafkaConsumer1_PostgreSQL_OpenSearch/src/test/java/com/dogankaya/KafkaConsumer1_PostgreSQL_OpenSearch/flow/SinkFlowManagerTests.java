@@ -0,0 +1,109 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.flow;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SinkFlowManagerTests {
+
+	@Test
+	void growsOnLagAndShrinksWhenIdleOrSlow() {
+		RateConsumerProperties.FlowProperties properties = new RateConsumerProperties.FlowProperties();
+
+		assertEquals(2, SinkFlowManager.nextParallelism(1, 50000, 100, properties));
+		assertEquals(4, SinkFlowManager.nextParallelism(4, 50000, 100, properties));
+		assertEquals(2, SinkFlowManager.nextParallelism(4, 50000, 5000, properties));
+		assertEquals(2, SinkFlowManager.nextParallelism(4, 10, 100, properties));
+		assertEquals(1, SinkFlowManager.nextParallelism(1, 10, 100, properties));
+		assertEquals(3, SinkFlowManager.nextParallelism(3, 5000, 100, properties));
+	}
+
+	@Test
+	void pausesOnlyThePartitionsOfAFailedBatchAndResumesThemAfterThePause() throws Exception {
+		TopicPartition failing = new TopicPartition("rate-topic", 0);
+		TopicPartition healthy = new TopicPartition("rate-topic", 1);
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		when(registry.getListenerContainer("sink")).thenReturn(container);
+		when(container.getAssignedPartitions()).thenReturn(List.of(failing, healthy));
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getFlow().setPauseMs(50);
+		SinkFlowManager manager = new SinkFlowManager(registry, properties);
+		SinkFlow flow = manager.register("sink", properties.getPostgres(), () -> false);
+
+		List<ConsumerRecord<String, String>> batch = List.of(new ConsumerRecord<>("rate-topic", 0, 7, "USDTRY", "a"));
+		assertThrows(IllegalStateException.class, () -> flow.process(batch, null, records -> {
+			throw new IllegalStateException("database down");
+		}));
+		manager.control();
+
+		verify(container).pausePartition(failing);
+		verify(container, never()).pausePartition(healthy);
+		verify(container, never()).pause();
+		assertEquals(List.of("rate-topic-0"), flow.snapshot().pausedPartitions());
+
+		Thread.sleep(60);
+		manager.control();
+
+		verify(container).resumePartition(failing);
+		assertTrue(flow.getPausedPartitions().isEmpty());
+		manager.stop();
+	}
+
+	@Test
+	void doesNotPauseAPartitionWhoseBatchSucceededAfterItFailed() {
+		TopicPartition partition = new TopicPartition("rate-topic", 0);
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		when(registry.getListenerContainer("sink")).thenReturn(container);
+		when(container.getAssignedPartitions()).thenReturn(List.of(partition));
+		RateConsumerProperties properties = new RateConsumerProperties();
+		SinkFlowManager manager = new SinkFlowManager(registry, properties);
+		SinkFlow flow = manager.register("sink", properties.getPostgres(), () -> false);
+
+		List<ConsumerRecord<String, String>> batch = List.of(new ConsumerRecord<>("rate-topic", 0, 7, "USDTRY", "a"));
+		assertThrows(IllegalStateException.class, () -> flow.process(batch, null, records -> {
+			throw new IllegalStateException("database down");
+		}));
+		flow.process(batch, null, records -> {
+		});
+		manager.control();
+
+		verify(container, never()).pausePartition(any());
+		assertTrue(flow.getPausedPartitions().isEmpty());
+		manager.stop();
+	}
+
+	@Test
+	void revokedPartitionsNoLongerCountTowardsTheLag() throws Exception {
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		RateConsumerProperties properties = new RateConsumerProperties();
+		SinkFlowManager manager = new SinkFlowManager(registry, properties);
+		SinkFlow flow = manager.register("sink", properties.getPostgres(), () -> false);
+		TopicPartition partition = new TopicPartition("rate-topic", 0);
+		Consumer<?, ?> consumer = mock(Consumer.class);
+		doReturn(Set.of(partition)).when(consumer).assignment();
+		when(consumer.currentLag(any())).thenReturn(OptionalLong.of(500));
+
+		flow.process(List.<ConsumerRecord<String, String>>of(), consumer, records -> {
+		});
+		assertEquals(500, flow.getLag());
+
+		manager.rebalanceListener("sink").onPartitionsRevokedAfterCommit(consumer, List.of(partition));
+
+		assertEquals(0, flow.getLag());
+		manager.stop();
+	}
+}
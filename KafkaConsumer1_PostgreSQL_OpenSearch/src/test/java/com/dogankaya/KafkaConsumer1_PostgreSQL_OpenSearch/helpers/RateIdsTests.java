@@ -0,0 +1,31 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateIdsTests {
+
+	@Test
+	void sameRecordAlwaysGetsTheSameId() {
+		assertEquals(RateIds.of(3, 12345), RateIds.of(3, 12345));
+	}
+
+	@Test
+	void idsAreDistinctPerPartitionAndOffset() {
+		long id = RateIds.of(3, 12345);
+
+		assertNotEquals(id, RateIds.of(4, 12345));
+		assertNotEquals(id, RateIds.of(3, 12346));
+		assertNotEquals(RateIds.of(0, 0), RateIds.of(0, 4096));
+		assertTrue(RateIds.of(3, 12346) > id);
+		assertTrue(RateIds.of(1023, (1L << 53) - 1) > 0);
+	}
+
+	@Test
+	void coordinatesOutsideTheIdRangeAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> RateIds.of(1024, 0));
+		assertThrows(IllegalArgumentException.class, () -> RateIds.of(0, -1));
+		assertThrows(IllegalArgumentException.class, () -> RateIds.of(0, 1L << 53));
+	}
+}
@@ -0,0 +1,55 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.LatestRateRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import rate.RateDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LatestRateServiceTests {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+	private static RateDto rate(String name, String ask, LocalDateTime time) {
+		return new RateDto(name, null, new BigDecimal(ask), time);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void upsertsOnlyTheNewestRatePerNameAndServesItFromTheCache() {
+		LatestRateRepository repository = mock(LatestRateRepository.class);
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getLatest().setCacheTtlMs(60_000);
+		LatestRateService service = new LatestRateService(repository, properties);
+
+		service.updateAll(List.of(
+				rate("USDTRY", "34.2", T0.plusSeconds(2)),
+				rate("USDTRY", "34.1", T0.plusSeconds(1)),
+				rate("EURUSD", "1.08", T0)), T0);
+
+		ArgumentCaptor<Collection<RateDto>> upserted = ArgumentCaptor.forClass(Collection.class);
+		verify(repository).upsertAll(upserted.capture(), any());
+		assertEquals(2, upserted.getValue().size());
+		assertEquals(new BigDecimal("34.2"), service.getLatestRate("USDTRY").getAsk());
+		verify(repository, never()).findByRateName(any());
+	}
+
+	@Test
+	void readsThroughToTheTableOnAMiss() {
+		LatestRateRepository repository = mock(LatestRateRepository.class);
+		when(repository.findByRateName("USDTRY")).thenReturn(rate("USDTRY", "34.3", T0));
+		LatestRateService service = new LatestRateService(repository, new RateConsumerProperties());
+
+		assertEquals(new BigDecimal("34.3"), service.getLatestRate("USDTRY").getAsk());
+		assertNull(service.getLatestRate("XAUUSD"));
+	}
+}
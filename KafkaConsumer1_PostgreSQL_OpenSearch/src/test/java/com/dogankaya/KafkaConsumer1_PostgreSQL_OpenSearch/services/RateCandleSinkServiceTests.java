@@ -0,0 +1,129 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.Candle;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.candles.CandleInterval;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.RateCandleRepository;
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.repository.RateCandleSearchRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RateCandleSinkServiceTests {
+
+	private static final long MINUTE = 1_750_000_020_000L;
+
+	private final RateCandleRepository rateCandleRepository = mock(RateCandleRepository.class);
+	private final RateCandleSearchRepository rateCandleSearchRepository = mock(RateCandleSearchRepository.class);
+	private final RateCandleSinkService service = new RateCandleSinkService(rateCandleRepository,
+			rateCandleSearchRepository, new RateConsumerProperties());
+
+	@Test
+	void candlesThatFailedToStoreAreWrittenWithTheNextFlush() {
+		Candle first = new Candle("USDTRY", CandleInterval.MINUTE, BigDecimal.ONE, MINUTE);
+		Candle second = new Candle("EURTRY", CandleInterval.MINUTE, BigDecimal.TEN, MINUTE);
+		when(rateCandleRepository.upsertAll(anyList(), anyLong()))
+				.thenThrow(new DataAccessResourceFailureException("database down"))
+				.thenReturn(List.of(first, second));
+
+		service.write(List.of(first));
+		assertEquals(1, service.getUnstoredCandleCount());
+		verifyNoInteractions(rateCandleSearchRepository);
+
+		service.write(List.of(second));
+
+		verify(rateCandleRepository).upsertAll(eq(List.of(first)), anyLong());
+		verify(rateCandleRepository).upsertAll(eq(List.of(first, second)), anyLong());
+		verify(rateCandleSearchRepository).saveAll(anyList());
+		assertEquals(0, service.getUnstoredCandleCount());
+		assertEquals(0, service.getUnindexedCandleCount());
+	}
+
+	@Test
+	void storedCandlesThatFailedToIndexAreIndexedWithTheNextFlush() {
+		Candle candle = new Candle("USDTRY", CandleInterval.MINUTE, BigDecimal.ONE, MINUTE);
+		when(rateCandleRepository.upsertAll(anyList(), anyLong())).thenReturn(List.of(candle));
+		when(rateCandleSearchRepository.saveAll(anyList()))
+				.thenThrow(new IllegalStateException("cluster unavailable"))
+				.thenReturn(List.of());
+
+		service.write(List.of(candle));
+		assertEquals(1, service.getUnindexedCandleCount());
+
+		service.write(List.of());
+
+		verify(rateCandleRepository).upsertAll(anyList(), anyLong());
+		verify(rateCandleSearchRepository, times(2)).saveAll(anyList());
+		assertEquals(0, service.getUnindexedCandleCount());
+	}
+
+	@Test
+	void retriedFlushKeepsItsFlushIdUntilItIsStored() {
+		Candle first = new Candle("USDTRY", CandleInterval.MINUTE, BigDecimal.ONE, MINUTE);
+		Candle second = new Candle("EURTRY", CandleInterval.MINUTE, BigDecimal.TEN, MINUTE);
+		when(rateCandleRepository.upsertAll(anyList(), anyLong()))
+				.thenThrow(new DataAccessResourceFailureException("commit not confirmed"))
+				.thenReturn(List.of(first))
+				.thenReturn(List.of(second));
+
+		service.write(List.of(first));
+		service.write(List.of());
+		service.write(List.of(second));
+
+		ArgumentCaptor<Long> flushIds = ArgumentCaptor.forClass(Long.class);
+		verify(rateCandleRepository, times(3)).upsertAll(anyList(), flushIds.capture());
+		assertEquals(flushIds.getAllValues().get(0), flushIds.getAllValues().get(1));
+		assertNotEquals(flushIds.getAllValues().get(1), flushIds.getAllValues().get(2));
+	}
+
+	@Test
+	void oldestPendingCandlesAreDroppedAndCountedBeyondTheLimit() {
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getCandles().setMaxPendingCandles(2);
+		RateCandleSinkService limited = new RateCandleSinkService(rateCandleRepository, rateCandleSearchRepository,
+				properties);
+		Candle first = new Candle("USDTRY", CandleInterval.MINUTE, BigDecimal.ONE, MINUTE);
+		Candle second = new Candle("EURTRY", CandleInterval.MINUTE, BigDecimal.TEN, MINUTE);
+		Candle third = new Candle("GBPTRY", CandleInterval.MINUTE, BigDecimal.TWO, MINUTE);
+		when(rateCandleRepository.upsertAll(anyList(), anyLong()))
+				.thenThrow(new DataAccessResourceFailureException("database down"))
+				.thenThrow(new DataAccessResourceFailureException("database down"))
+				.thenReturn(List.of());
+
+		limited.write(List.of(first, second));
+		limited.write(List.of(third));
+		assertEquals(2, limited.getUnstoredCandleCount());
+		assertEquals(1, limited.getLostCandleCount());
+		limited.write(List.of());
+
+		verify(rateCandleRepository, times(2)).upsertAll(eq(List.of(second, third)), anyLong());
+		assertEquals(0, limited.getUnstoredCandleCount());
+	}
+
+	@Test
+	void oldestUnindexedDocumentsAreDroppedAndCountedBeyondTheLimit() {
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getCandles().setMaxPendingCandles(1);
+		RateCandleSinkService limited = new RateCandleSinkService(rateCandleRepository, rateCandleSearchRepository,
+				properties);
+		Candle first = new Candle("USDTRY", CandleInterval.MINUTE, BigDecimal.ONE, MINUTE);
+		Candle second = new Candle("EURTRY", CandleInterval.MINUTE, BigDecimal.TEN, MINUTE);
+		when(rateCandleRepository.upsertAll(anyList(), anyLong())).thenReturn(List.of(first), List.of(second));
+		when(rateCandleSearchRepository.saveAll(anyList())).thenThrow(new IllegalStateException("cluster unavailable"));
+
+		limited.write(List.of(first));
+		limited.write(List.of(second));
+
+		assertEquals(1, limited.getUnindexedCandleCount());
+		assertEquals(1, limited.getLostDocumentCount());
+	}
+}
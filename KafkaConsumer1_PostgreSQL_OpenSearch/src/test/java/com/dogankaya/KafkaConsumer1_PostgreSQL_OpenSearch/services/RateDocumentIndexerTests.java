@@ -0,0 +1,80 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import rate.RateDocument;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RateDocumentIndexerTests {
+
+	private static RateDocument document(int id) {
+		return RateDocument.builder().id(id).rateName("PF1_USDTRY").build();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void retriesOnlyTheItemsThatFailedWithARetryableStatus() {
+		ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+		when(operations.bulkIndex(any(List.class), eq(RateDocument.class)))
+				.thenThrow(new BulkFailureException("partial failure", Map.of(
+						"2", new BulkFailureException.FailureDetails(429, "rejected"),
+						"3", new BulkFailureException.FailureDetails(400, "mapping conflict"))))
+				.thenReturn(List.of());
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getIndexer().setRetryBackoffMs(1);
+		RateDocumentIndexer indexer = new RateDocumentIndexer(operations, properties);
+
+		indexer.index(List.of(document(1), document(2), document(3)));
+
+		ArgumentCaptor<List<IndexQuery>> queries = ArgumentCaptor.forClass(List.class);
+		verify(operations, times(2)).bulkIndex(queries.capture(), eq(RateDocument.class));
+		assertEquals(List.of("1", "2", "3"), queries.getAllValues().get(0).stream().map(IndexQuery::getId).toList());
+		assertEquals(List.of("2"), queries.getAllValues().get(1).stream().map(IndexQuery::getId).toList());
+		assertEquals(2, indexer.getIndexedCount());
+		assertEquals(1, indexer.getRetriedCount());
+		assertEquals(1, indexer.getRejectedCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void splitsBatchesIntoBulkRequestsOfTheBulkSize() {
+		ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getIndexer().setBulkActions(2);
+		RateDocumentIndexer indexer = new RateDocumentIndexer(operations, properties);
+
+		indexer.indexAll(List.of(document(1), document(2), document(3)));
+
+		verify(operations, times(2)).bulkIndex(any(List.class), eq(RateDocument.class));
+		assertEquals(3, indexer.getIndexedCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failsTheBatchWhenDocumentsStillFailAfterTheRetries() {
+		ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+		when(operations.bulkIndex(any(List.class), eq(RateDocument.class)))
+				.thenThrow(new IllegalStateException("cluster unavailable"));
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getIndexer().setMaxRetries(2);
+		properties.getIndexer().setRetryBackoffMs(1);
+		RateDocumentIndexer indexer = new RateDocumentIndexer(operations, properties);
+
+		assertThrows(IllegalStateException.class, () -> indexer.indexAll(List.of(document(1), document(2))));
+
+		verify(operations, times(3)).bulkIndex(any(List.class), eq(RateDocument.class));
+		assertEquals(0, indexer.getIndexedCount());
+		assertEquals(4, indexer.getRetriedCount());
+	}
+}
@@ -0,0 +1,72 @@
+package com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.services;
+
+import com.dogankaya.KafkaConsumer1_PostgreSQL_OpenSearch.config.RateConsumerProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class RatePartitionManagerTests {
+
+	@Test
+	void dailyPartitionNamesRoundTripAndOtherTablesAreIgnored() {
+		LocalDate day = LocalDate.of(2025, 6, 1);
+
+		assertEquals("rate_p20250601", RatePartitionManager.partitionName(day));
+		assertEquals(day, RatePartitionManager.partitionDay(RatePartitionManager.partitionName(day)));
+		assertNull(RatePartitionManager.partitionDay("rate_default"));
+		assertNull(RatePartitionManager.partitionDay("rate_pold"));
+	}
+
+	@Test
+	void parkedRowsAreMovedOutOfTheDefaultPartitionWhenTheirPartitionIsCreated() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM pg_partitioned_table"), eq(Integer.class), any()))
+				.thenReturn(1);
+		when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any()))
+				.thenReturn(false);
+		when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM rate_default"), eq(Integer.class)))
+				.thenReturn(3);
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getPartitions().setPremakeDays(0);
+		RatePartitionManager manager = new RatePartitionManager(jdbcTemplate, mock(PlatformTransactionManager.class),
+				properties);
+
+		manager.init();
+
+		String partition = RatePartitionManager.partitionName(LocalDate.now(ZoneOffset.UTC));
+		InOrder inOrder = inOrder(jdbcTemplate);
+		inOrder.verify(jdbcTemplate).execute("ALTER TABLE rate DETACH PARTITION rate_default");
+		inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + partition + " PARTITION OF rate"));
+		inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO " + partition + " SELECT * FROM rate_default"));
+		inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM rate_default WHERE rate_update_time >="));
+		inOrder.verify(jdbcTemplate).execute("ALTER TABLE rate ATTACH PARTITION rate_default DEFAULT");
+		inOrder.verify(jdbcTemplate).update(eq("DELETE FROM rate_default WHERE rate_update_time < ?"), any(Object[].class));
+	}
+
+	@Test
+	void createsAPlainTableWhenPartitioningIsDisabled() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		RateConsumerProperties properties = new RateConsumerProperties();
+		properties.getPartitions().setEnabled(false);
+		RatePartitionManager manager = new RatePartitionManager(jdbcTemplate, mock(PlatformTransactionManager.class),
+				properties);
+
+		manager.init();
+		manager.maintain();
+
+		verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS rate ("));
+		verify(jdbcTemplate, never()).execute(contains("PARTITION"));
+		verify(jdbcTemplate).execute(startsWith("CREATE INDEX IF NOT EXISTS"));
+	}
+}
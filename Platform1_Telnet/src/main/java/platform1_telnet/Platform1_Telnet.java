@@ -3,22 +3,33 @@ package platform1_telnet;
 import enums.TickerType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import platform1_telnet.handlers.NioTelnetServer;
 import platform1_telnet.handlers.TelnetServerHandler;
 import platform1_telnet.helpers.ConfigurationHelper;
+import platform1_telnet.recording.TickRecorder;
+import platform1_telnet.recording.TickReplayer;
 import platform1_telnet.services.FinancialDataGenerator;
+import platform1_telnet.services.SyntheticLoadGenerator;
+import rate.RateDto;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * The {@code Platform1_Telnet} class serves as the entry point for the Telnet server application.
  * It initializes the server, loads configuration properties, starts the financial data generation,
- * and manages incoming client connections. Each client connection is handled in a separate thread
- * from a fixed-size thread pool.
+ * and manages incoming client connections. In the {@code blocking} server mode each client connection is
+ * handled in a separate thread from a fixed-size thread pool; in the {@code nio} mode all clients are served by
+ * the event loops of a {@link NioTelnetServer}.
  */
 public class Platform1_Telnet {
     private static final Logger logger = LogManager.getLogger(Platform1_Telnet.class);
@@ -27,9 +38,11 @@ public class Platform1_Telnet {
      * The main method to start the Telnet server.
      * It performs the following steps:
      * 1. Loads server port and supported tickers from configuration.
-     * 2. Initializes a fixed thread pool for handling client connections.
-     * 3. Starts the {@link FinancialDataGenerator} to produce market data.
-     * 4. Enters a loop to accept incoming client connections, submitting each to the thread pool.
+     * 2. Starts the {@link FinancialDataGenerator}, and in load mode the {@link SyntheticLoadGenerator}, to produce
+     *    market data, or a {@link TickReplayer} in replay mode, optionally recording it with a {@link TickRecorder},
+     *    and schedules the batch flushes and the client statistics log.
+     * 3. In the {@code nio} server mode, hands the connections over to a {@link NioTelnetServer}.
+     * 4. Otherwise, enters a loop to accept incoming client connections, submitting each to a fixed thread pool.
      * 5. Handles potential {@link IOException} during server operation and ensures proper cleanup.
      *
      * @param args Command line arguments (not used in this application).
@@ -37,10 +50,35 @@ public class Platform1_Telnet {
     public static void main(String[] args) {
         int port = ConfigurationHelper.getServerPort();
         TickerType[] supportedTickers = ConfigurationHelper.getSupportedTickers();
-        ExecutorService clientThreadPool = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
 
-        FinancialDataGenerator financialDataGenerator = new FinancialDataGenerator(supportedTickers);
-        financialDataGenerator.startGenerating(TelnetServerHandler::distributeMarketData);
+        ScheduledExecutorService serverScheduler = Executors.newSingleThreadScheduledExecutor();
+        TickRecorder tickRecorder = startCapture(serverScheduler);
+        Consumer<RateDto> marketData = tickRecorder == null ? TelnetServerHandler::distributeMarketData
+                : tickRecorder.andThen(TelnetServerHandler::distributeMarketData);
+        Runnable stopMarketData = startMarketData(supportedTickers, marketData);
+        long statsInterval = ConfigurationHelper.getStatsIntervalMs();
+        serverScheduler.scheduleAtFixedRate(TelnetServerHandler::logClientStatistics, statsInterval, statsInterval,
+                TimeUnit.MILLISECONDS);
+        long batchWindow = ConfigurationHelper.getBatchWindowMs();
+        serverScheduler.scheduleAtFixedRate(TelnetServerHandler::flushBatches, batchWindow, batchWindow,
+                TimeUnit.MILLISECONDS);
+
+        if ("nio".equals(ConfigurationHelper.getServerMode())) {
+            logger.info("Supported Tickers: {}", Arrays.toString(supportedTickers));
+            try {
+                new NioTelnetServer(port, ConfigurationHelper.getServerEventLoops()).serve();
+            } catch (IOException e) {
+                logger.error("Server error: {}", e.getMessage(), e);
+            } finally {
+                stopMarketData.run();
+                serverScheduler.shutdownNow();
+                if (tickRecorder != null) tickRecorder.close();
+                logger.info("Telnet Server stopped.");
+            }
+            return;
+        }
+
+        ExecutorService clientThreadPool = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
 
         try (ServerSocket serverSocket = new ServerSocket(port)) {
             logger.info("Telnet Server started on port {}", port);
@@ -54,9 +92,87 @@ public class Platform1_Telnet {
         } catch (IOException e) {
             logger.error("Server error: {}", e.getMessage(), e);
         } finally {
-            financialDataGenerator.stopGenerating();
+            stopMarketData.run();
+            serverScheduler.shutdownNow();
+            if (tickRecorder != null) tickRecorder.close();
             clientThreadPool.shutdown();
             logger.info("Telnet Server stopped.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts producing market data for the given consumer: in replay mode a {@link TickReplayer} streams the
+     * configured recording, otherwise the {@link FinancialDataGenerator} and, in load mode, the
+     * {@link SyntheticLoadGenerator} generate it.
+     *
+     * @param supportedTickers the tickers of the {@link FinancialDataGenerator}
+     * @param marketData       the consumer of the market data
+     * @return an action stopping the market data
+     */
+    private static Runnable startMarketData(TickerType[] supportedTickers, Consumer<RateDto> marketData) {
+        if (ConfigurationHelper.isReplayEnabled()) {
+            try {
+                TickReplayer replayer = new TickReplayer(Path.of(ConfigurationHelper.getReplayFile()),
+                        ConfigurationHelper.getReplaySpeed(), ConfigurationHelper.isReplayLoop(),
+                        ConfigurationHelper.isReplayRetime());
+                TelnetServerHandler.registerTickers(replayer.getRateNames());
+                replayer.start(marketData);
+                logger.info("Replaying {} rates from {}", replayer.getRateNames().size(),
+                        ConfigurationHelper.getReplayFile());
+                return replayer::stop;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot replay " + ConfigurationHelper.getReplayFile(), e);
+            }
+        }
+        FinancialDataGenerator financialDataGenerator = new FinancialDataGenerator(supportedTickers);
+        financialDataGenerator.startGenerating(marketData);
+        SyntheticLoadGenerator syntheticLoadGenerator = startSyntheticLoad(marketData);
+        return () -> {
+            financialDataGenerator.stopGenerating();
+            if (syntheticLoadGenerator != null) syntheticLoadGenerator.stop();
+        };
+    }
+
+    /**
+     * Opens the tick recording if capture is enabled, schedules its flushes and closes it when the JVM shuts down.
+     *
+     * @param serverScheduler the scheduler of the periodic server tasks
+     * @return the recorder, or {@code null} if capture is disabled
+     */
+    private static TickRecorder startCapture(ScheduledExecutorService serverScheduler) {
+        if (!ConfigurationHelper.isCaptureEnabled()) {
+            return null;
+        }
+        try {
+            TickRecorder tickRecorder = new TickRecorder(Path.of(ConfigurationHelper.getCaptureFile()));
+            long flushInterval = ConfigurationHelper.getCaptureFlushIntervalMs();
+            serverScheduler.scheduleAtFixedRate(tickRecorder::flush, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(tickRecorder::close, "tick-recorder-close"));
+            return tickRecorder;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot record to " + ConfigurationHelper.getCaptureFile(), e);
+        }
+    }
+
+    /**
+     * Starts the {@link SyntheticLoadGenerator} if the load mode is enabled and makes its instruments available
+     * for subscription.
+     *
+     * @param marketData the consumer of the market data
+     * @return the started generator, or {@code null} if the load mode is disabled
+     */
+    private static SyntheticLoadGenerator startSyntheticLoad(Consumer<RateDto> marketData) {
+        if (!ConfigurationHelper.isLoadEnabled()) {
+            return null;
+        }
+        SyntheticLoadGenerator generator = new SyntheticLoadGenerator(ConfigurationHelper.getLoadPrefix(),
+                ConfigurationHelper.getLoadInstruments(), ConfigurationHelper.getLoadTicksPerSecond(),
+                ConfigurationHelper.getLoadSeed(), ConfigurationHelper.getLoadProfiles(),
+                ConfigurationHelper.getLoadThreads(), ConfigurationHelper.getLoadBurstPeriodMs(),
+                ConfigurationHelper.getLoadBurstDurationMs(), ConfigurationHelper.getLoadBurstMultiplier());
+        TelnetServerHandler.registerTickers(generator.getInstrumentNames());
+        generator.start(marketData);
+        return generator;
+    }
+}
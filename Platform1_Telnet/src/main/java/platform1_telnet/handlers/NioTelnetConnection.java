@@ -0,0 +1,232 @@
+package platform1_telnet.handlers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code NioTelnetConnection} class is one client connection of a {@link NioTelnetServer}.
+ * <p>
+ * Incoming bytes are collected in a per-connection read buffer and split into lines, which are passed to the
+ * connection's {@link TelnetServerHandler}. Outgoing lines and market data frames may be written from any thread;
+ * they are queued on the connection's {@link OutboundQueue} and written by the event loop, several frames per
+ * gathering write, which waits for {@link SelectionKey#OP_WRITE} when the socket buffer is full.
+ * </p>
+ * <p>
+ * A connection being closed, e.g. after {@code exit} or a line that is too long, stops reading and processing
+ * lines while the queued lines are still written; it is closed once they are.
+ * </p>
+ */
+class NioTelnetConnection implements TelnetClientChannel {
+    private static final Logger logger = LogManager.getLogger(NioTelnetConnection.class);
+    private static final int MAX_LINE_LENGTH = 1024;
+    private static final int MAX_FRAMES_PER_WRITE = 64;
+
+    private final NioTelnetServer.EventLoop eventLoop;
+    private final SocketChannel channel;
+    private final TelnetServerHandler handler;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(MAX_LINE_LENGTH);
+    private final OutboundQueue outbound = OutboundQueue.fromConfiguration();
+    private final ByteBuffer[] writeBatch = new ByteBuffer[MAX_FRAMES_PER_WRITE];
+    private volatile int writeBatchSize;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private SelectionKey key;
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    NioTelnetConnection(NioTelnetServer.EventLoop eventLoop, SocketChannel channel) throws IOException {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.handler = new TelnetServerHandler(String.valueOf(channel.getRemoteAddress()), this);
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Reads the available bytes and processes every complete line until the connection is being closed. Runs on
+     * the event loop.
+     */
+    void onReadable() {
+        if (!isOpen()) {
+            return;
+        }
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            logger.warn("Client disconnected unexpectedly or error: {}", e.getMessage());
+            closeNow();
+            return;
+        }
+        if (read < 0) {
+            closeNow();
+            return;
+        }
+        readBuffer.flip();
+        int lineStart = 0;
+        for (int i = readBuffer.position(); i < readBuffer.limit(); i++) {
+            if (readBuffer.get(i) == '\n') {
+                int end = i > lineStart && readBuffer.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(readBuffer.array(), lineStart, end - lineStart, StandardCharsets.UTF_8);
+                lineStart = i + 1;
+                handler.processLine(line);
+                if (!isOpen()) {
+                    return;
+                }
+            }
+        }
+        readBuffer.position(lineStart);
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            handler.sendResponse("ERROR|Line too long");
+            close();
+        }
+    }
+
+    /**
+     * Continues writing queued lines once the socket accepts data again. Runs on the event loop.
+     */
+    void onWritable() {
+        flush();
+    }
+
+    @Override
+    public void write(String line) {
+        if (isOpen() && outbound.offer(null, OutboundQueue.encodeLine(line)) == OutboundQueue.Result.QUEUED) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public OutboundQueue.Result send(String ticker, ByteBuffer frame) {
+        if (!isOpen()) {
+            return OutboundQueue.Result.CLOSED;
+        }
+        OutboundQueue.Result result = outbound.offer(ticker, frame);
+        if (result == OutboundQueue.Result.QUEUED) {
+            scheduleFlush();
+        }
+        return result;
+    }
+
+    @Override
+    public OutboundQueue.Result sendBatch(ByteBuffer frame) {
+        if (!isOpen()) {
+            return OutboundQueue.Result.CLOSED;
+        }
+        OutboundQueue.Result result = outbound.offerBatch(frame);
+        if (result == OutboundQueue.Result.QUEUED) {
+            scheduleFlush();
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public void abort() {
+        outbound.clear();
+        if (eventLoop.inEventLoop()) {
+            closeNow();
+        } else {
+            eventLoop.execute(this::closeNow);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closing && !closed;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return outbound.size() + writeBatchSize;
+    }
+
+    private void scheduleFlush() {
+        if (eventLoop.inEventLoop()) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    private void flush() {
+        if (closed || key == null) {
+            return;
+        }
+        if (closing) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        try {
+            while (true) {
+                int start = 0;
+                while (start < writeBatchSize && !writeBatch[start].hasRemaining()) {
+                    start++;
+                }
+                if (start > 0) {
+                    System.arraycopy(writeBatch, start, writeBatch, 0, writeBatchSize - start);
+                    Arrays.fill(writeBatch, writeBatchSize - start, writeBatchSize, null);
+                    writeBatchSize -= start;
+                }
+                ByteBuffer frame;
+                while (writeBatchSize < MAX_FRAMES_PER_WRITE && (frame = outbound.poll()) != null) {
+                    writeBatch[writeBatchSize++] = frame;
+                }
+                if (writeBatchSize == 0) {
+                    break;
+                }
+                channel.write(writeBatch, 0, writeBatchSize);
+                if (writeBatch[writeBatchSize - 1].hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closing) {
+                closeNow();
+            }
+        } catch (IOException e) {
+            logger.warn("Client disconnected unexpectedly or error: {}", e.getMessage());
+            closeNow();
+        }
+    }
+
+    /**
+     * Closes the connection immediately and removes the client's subscriptions. Runs on the event loop.
+     */
+    void closeNow() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        outbound.clear();
+        Arrays.fill(writeBatch, null);
+        writeBatchSize = 0;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Error closing client channel", e);
+        }
+        handler.cleanup();
+    }
+}
@@ -0,0 +1,164 @@
+package platform1_telnet.handlers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The {@code NioTelnetServer} class serves Telnet clients with non-blocking sockets.
+ * <p>
+ * The calling thread accepts connections and assigns them round-robin to a small, fixed number of event loop
+ * threads. Each event loop owns a {@link Selector} and performs all reads and writes of its connections, so the
+ * number of clients is not bound by the number of threads. Commands are framed by line and processed by a
+ * {@link TelnetServerHandler} per connection, with the same protocol as the blocking server.
+ * </p>
+ */
+public class NioTelnetServer {
+    private static final Logger logger = LogManager.getLogger(NioTelnetServer.class);
+    private final int port;
+    private final EventLoop[] eventLoops;
+
+    /**
+     * Constructs a new {@code NioTelnetServer}.
+     *
+     * @param port           the port to listen on
+     * @param eventLoopCount the number of event loop threads
+     */
+    public NioTelnetServer(int port, int eventLoopCount) {
+        this.port = port;
+        this.eventLoops = new EventLoop[Math.max(eventLoopCount, 1)];
+    }
+
+    /**
+     * Starts the event loops and accepts connections on the calling thread until the server socket fails.
+     *
+     * @throws IOException if the server socket cannot be opened or accepting fails
+     */
+    public void serve() throws IOException {
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(Selector.open());
+            Thread thread = new Thread(eventLoops[i], "telnet-event-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+            logger.info("NIO Telnet Server started on port {} with {} event loops", port, eventLoops.length);
+            int next = 0;
+            while (true) {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                logger.info("New client connected: {}", channel.getRemoteAddress());
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            }
+        } finally {
+            for (EventLoop eventLoop : eventLoops) {
+                if (eventLoop != null) {
+                    eventLoop.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * One event loop thread with its selector and the tasks other threads hand to it.
+     */
+    static final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+        private volatile Thread thread;
+
+        EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Returns whether the calling thread is this event loop.
+         *
+         * @return {@code true} on the event loop thread
+         */
+        boolean inEventLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        /**
+         * Runs a task on the event loop thread.
+         *
+         * @param task the task
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void register(SocketChannel channel) {
+            execute(() -> {
+                try {
+                    NioTelnetConnection connection = new NioTelnetConnection(this, channel);
+                    connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+                } catch (IOException e) {
+                    logger.warn("Cannot register client: {}", e.getMessage());
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            });
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            while (running) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioTelnetConnection connection = (NioTelnetConnection) key.attachment();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Event loop error: {}", e.getMessage(), e);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                ((NioTelnetConnection) key.attachment()).closeNow();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package platform1_telnet.handlers;
+
+import platform1_telnet.helpers.ConfigurationHelper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code OutboundQueue} class holds the frames waiting to be written to one client.
+ * <p>
+ * Market data frames are bounded by the queue capacity and handled according to a {@link SlowClientPolicy} when
+ * the client falls behind. Responses to commands are always queued. The queue is drained by the client's I/O
+ * thread, either polling from a {@link NioTelnetServer} event loop or blocking in {@link #take()}.
+ * </p>
+ */
+public final class OutboundQueue {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The outcome of offering a frame.
+     */
+    public enum Result {
+        QUEUED, CONFLATED, DROPPED, OVERFLOW, CLOSED
+    }
+
+    private final int capacity;
+    private final SlowClientPolicy policy;
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final Map<String, Entry> pendingByTicker = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code OutboundQueue}.
+     *
+     * @param capacity the number of market data frames a client may fall behind
+     * @param policy   what happens to market data once the client is behind
+     */
+    public OutboundQueue(int capacity, SlowClientPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a queue with the configured capacity and slow client policy.
+     *
+     * @return a new queue
+     */
+    static OutboundQueue fromConfiguration() {
+        return new OutboundQueue(ConfigurationHelper.getOutboundQueueCapacity(),
+                SlowClientPolicy.fromName(ConfigurationHelper.getSlowClientPolicy()));
+    }
+
+    /**
+     * Encodes a line with line separator into a frame.
+     *
+     * @param line the line
+     * @return a read-only frame
+     */
+    public static ByteBuffer encodeLine(String line) {
+        return encodeLine(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends the line separator to encoded content.
+     *
+     * @param content the UTF-8 encoded line
+     * @return a read-only frame
+     */
+    public static ByteBuffer encodeLine(byte[] content) {
+        byte[] frame = new byte[content.length + LINE_SEPARATOR.length];
+        System.arraycopy(content, 0, frame, 0, content.length);
+        System.arraycopy(LINE_SEPARATOR, 0, frame, content.length, LINE_SEPARATOR.length);
+        return ByteBuffer.wrap(frame).asReadOnlyBuffer();
+    }
+
+    /**
+     * Offers a frame. Frames with a ticker are market data and subject to the capacity and policy; frames without
+     * are responses and always queued.
+     *
+     * @param ticker the ticker of a market data frame, or {@code null}
+     * @param frame  the frame; the queue takes ownership of its position
+     * @return the outcome; {@link Result#OVERFLOW} asks the caller to disconnect the client
+     */
+    public synchronized Result offer(String ticker, ByteBuffer frame) {
+        if (closed) {
+            return Result.CLOSED;
+        }
+        if (ticker != null) {
+            if (policy == SlowClientPolicy.CONFLATE) {
+                Entry pending = pendingByTicker.get(ticker);
+                if (pending != null) {
+                    pending.frame = frame;
+                    return Result.CONFLATED;
+                }
+            }
+            if (entries.size() >= capacity) {
+                return policy == SlowClientPolicy.DISCONNECT ? Result.OVERFLOW : Result.DROPPED;
+            }
+        }
+        Entry entry = new Entry(ticker, frame);
+        entries.add(entry);
+        if (ticker != null && policy == SlowClientPolicy.CONFLATE) {
+            pendingByTicker.put(ticker, entry);
+        }
+        notifyAll();
+        return Result.QUEUED;
+    }
+
+    /**
+     * Offers a frame of several ticks. It counts against the capacity like a single tick but is never conflated,
+     * so once the client is behind it is dropped, or the client is disconnected.
+     *
+     * @param frame the frame; the queue takes ownership of its position
+     * @return the outcome; {@link Result#OVERFLOW} asks the caller to disconnect the client
+     */
+    public synchronized Result offerBatch(ByteBuffer frame) {
+        if (closed) {
+            return Result.CLOSED;
+        }
+        if (entries.size() >= capacity) {
+            return policy == SlowClientPolicy.DISCONNECT ? Result.OVERFLOW : Result.DROPPED;
+        }
+        entries.add(new Entry(null, frame));
+        notifyAll();
+        return Result.QUEUED;
+    }
+
+    /**
+     * Takes the next frame without waiting.
+     *
+     * @return the frame, or {@code null} if the queue is empty
+     */
+    public synchronized ByteBuffer poll() {
+        Entry entry = entries.poll();
+        if (entry == null) {
+            return null;
+        }
+        if (entry.ticker != null && pendingByTicker.get(entry.ticker) == entry) {
+            pendingByTicker.remove(entry.ticker);
+        }
+        return entry.frame;
+    }
+
+    /**
+     * Takes the next frame, waiting until one is queued.
+     *
+     * @return the frame, or {@code null} once the queue is closed and drained
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized ByteBuffer take() throws InterruptedException {
+        while (entries.isEmpty() && !closed) {
+            wait();
+        }
+        return poll();
+    }
+
+    /**
+     * Refuses further frames; frames already queued are still taken.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Discards all queued frames and refuses further frames.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        pendingByTicker.clear();
+        close();
+    }
+
+    /**
+     * Returns whether the queue has been closed.
+     *
+     * @return {@code true} if no further frames are accepted
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of queued frames.
+     *
+     * @return the queue depth
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final String ticker;
+        private ByteBuffer frame;
+
+        private Entry(String ticker, ByteBuffer frame) {
+            this.ticker = ticker;
+            this.frame = frame;
+        }
+    }
+}
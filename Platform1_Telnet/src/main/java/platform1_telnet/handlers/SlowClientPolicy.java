@@ -0,0 +1,36 @@
+package platform1_telnet.handlers;
+
+/**
+ * The {@code SlowClientPolicy} enum defines what happens to market data for a client whose outbound queue is
+ * full because it reads slower than ticks are generated.
+ */
+public enum SlowClientPolicy {
+    /**
+     * Keeps only the latest pending tick per ticker; a new tick replaces the queued one of the same ticker.
+     */
+    CONFLATE,
+    /**
+     * Drops new ticks until the client has caught up.
+     */
+    DROP,
+    /**
+     * Disconnects the client.
+     */
+    DISCONNECT;
+
+    /**
+     * Resolves a policy from its configuration name.
+     *
+     * @param name {@code conflate}, {@code drop} or {@code disconnect}, case-insensitive
+     * @return the policy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static SlowClientPolicy fromName(String name) {
+        for (SlowClientPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported slow client policy: " + name);
+    }
+}
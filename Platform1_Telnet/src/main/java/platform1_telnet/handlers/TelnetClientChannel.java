@@ -0,0 +1,59 @@
+package platform1_telnet.handlers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code TelnetClientChannel} interface is the outbound side of a Telnet client connection as seen by
+ * {@link TelnetServerHandler}. It hides whether the client is served by a blocking socket thread or by a
+ * {@link NioTelnetServer} event loop. Writes only queue the data on the client's {@link OutboundQueue}; the
+ * client's I/O thread sends it, so a slow client never blocks the caller.
+ */
+public interface TelnetClientChannel {
+    /**
+     * Queues a line for the client. May be called from any thread.
+     *
+     * @param line the line, without line separator
+     */
+    void write(String line);
+
+    /**
+     * Queues a market data frame for the client. May be called from any thread.
+     *
+     * @param ticker the ticker of the frame, or {@code null} to queue it like a line, outside the capacity
+     * @param frame  the encoded line, owned by the channel from now on
+     * @return the outcome of queueing the frame
+     */
+    OutboundQueue.Result send(String ticker, ByteBuffer frame);
+
+    /**
+     * Queues a frame of several market data ticks for the client. May be called from any thread.
+     *
+     * @param frame the encoded line, owned by the channel from now on
+     * @return the outcome of queueing the frame
+     */
+    OutboundQueue.Result sendBatch(ByteBuffer frame);
+
+    /**
+     * Closes the connection once the lines written so far have been sent.
+     */
+    void close();
+
+    /**
+     * Closes the connection immediately, discarding queued data.
+     */
+    void abort();
+
+    /**
+     * Returns whether the connection is still open.
+     *
+     * @return {@code true} if lines can still be written
+     */
+    boolean isOpen();
+
+    /**
+     * Returns the number of frames waiting to be sent.
+     *
+     * @return the outbound queue depth
+     */
+    int getQueueDepth();
+}
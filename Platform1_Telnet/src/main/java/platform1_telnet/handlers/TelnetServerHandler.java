@@ -10,30 +10,63 @@ import org.apache.logging.log4j.Logger;
 import platform1_telnet.helpers.ConfigurationHelper;
 import rate.RateDto;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.math.BigDecimal;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * The {@code TelnetServerHandler} class runs on a separate thread for each connected Telnet client.
- * It manages client connections, processes incoming commands (subscribe, unsubscribe, exit),
- * and distributes market data to the relevant subscribers.
+ * The {@code TelnetServerHandler} class handles one connected Telnet client.
+ * It processes incoming commands (subscribe, unsubscribe, exit) and distributes market data to the relevant
+ * subscribers. In the blocking server mode it runs on a separate thread per client; in the NIO mode the
+ * {@link NioTelnetServer} event loops feed it the received lines. Either way it writes through a
+ * {@link TelnetClientChannel}, whose own I/O thread sends the data, so distributing market data never waits for a
+ * client; clients that fall behind are handled according to the configured {@link SlowClientPolicy}.
+ * Clients that sent {@code batch|on} receive the ticks of each flush window as one JSON array line instead of one
+ * line per tick.
+ * Every tick carries the {@code seq} number of its ticker from a {@link TickerHistory}: a new subscription starts
+ * with the latest tick, and {@code resume|ticker|seq} sends the ticks a reconnecting client missed after
+ * {@code seq} before the live ones. Sequence numbers start again when the server restarts, so {@code hello} answers
+ * with the server's epoch, which changes on every start; a client that sees a new epoch subscribes afresh instead of
+ * resuming.
+ * {@code stats} answers with the client count, the slow client counters and the outbound queue depth of every
+ * client.
  */
 public class TelnetServerHandler implements Runnable {
     private static final Logger logger = LogManager.getLogger(TelnetServerHandler.class);
     private static final TickerType[] supportedTickers = ConfigurationHelper.getSupportedTickers();
     private final Socket clientSocket;
-    private PrintWriter out;
+    private final String clientAddress;
+    private TelnetClientChannel channel;
     private BufferedReader in;
     private final Set<String> subscribedTickers = Collections.synchronizedSet(new HashSet<>());
     private static final ConcurrentHashMap<String, Set<TelnetServerHandler>> subscribers = new ConcurrentHashMap<>();
+    private static final Set<TelnetServerHandler> clients = ConcurrentHashMap.newKeySet();
+    private static final NavigableSet<String> registeredTickers = new ConcurrentSkipListSet<>();
+    private static final ConcurrentHashMap<String, TickerHistory> histories = new ConcurrentHashMap<>();
+    private static final int historySize = ConfigurationHelper.getHistorySize();
+    private static final long epoch = System.currentTimeMillis();
+    private static final LongAdder conflatedCount = new LongAdder();
+    private static final LongAdder droppedCount = new LongAdder();
+    private static final LongAdder disconnectedCount = new LongAdder();
+    private static final byte[] BATCH_END = ("]" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+    private volatile boolean batchMode;
+    private final Object batchLock = new Object();
+    private ByteArrayOutputStream batch;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
     static {
@@ -50,6 +83,20 @@ public class TelnetServerHandler implements Runnable {
      */
     public TelnetServerHandler(Socket socket) {
         this.clientSocket = socket;
+        this.clientAddress = String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    /**
+     * Constructs a new {@code TelnetServerHandler} for a client served by the NIO server.
+     *
+     * @param clientAddress the address of the client, for logging
+     * @param channel       the channel lines are written to
+     */
+    TelnetServerHandler(String clientAddress, TelnetClientChannel channel) {
+        this.clientSocket = null;
+        this.clientAddress = clientAddress;
+        this.channel = channel;
+        clients.add(this);
     }
 
     /**
@@ -59,13 +106,13 @@ public class TelnetServerHandler implements Runnable {
     @Override
     public void run() {
         try {
-            out = new PrintWriter(clientSocket.getOutputStream(), true);
+            channel = new SocketClientChannel(clientSocket, clientAddress);
+            clients.add(this);
             in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
 
             String line;
             while ((line = in.readLine()) != null) {
-                logger.info("Received from {}: {}", clientSocket.getInetAddress(), line);
-                processCommand(line);
+                processLine(line);
             }
         } catch (IOException e) {
             logger.warn("Client disconnected unexpectedly or error: {}", e.getMessage());
@@ -74,9 +121,20 @@ public class TelnetServerHandler implements Runnable {
         }
     }
 
+    /**
+     * Processes a line received from the client.
+     *
+     * @param line the received line, without line separator
+     */
+    void processLine(String line) {
+        logger.info("Received from {}: {}", clientAddress, line);
+        processCommand(line);
+    }
+
     /**
      * Parses and processes a single command string received from the client.
-     * Supported commands are "subscribe|ticker", "unsubscribe|ticker", and "exit".
+     * Supported commands are "subscribe|ticker", "unsubscribe|ticker", "resume|ticker|seq", "hello", "batch|on",
+     * "batch|off", "stats" and "exit".
      *
      * @param command the raw command string from the client
      */
@@ -88,13 +146,24 @@ public class TelnetServerHandler implements Runnable {
         } else if (command.startsWith("unsubscribe|")) {
             String ticker = command.substring("unsubscribe|".length());
             unsubscribe(ticker);
+        } else if (command.startsWith("resume|")) {
+            resume(command.substring("resume|".length()));
+        } else if (command.equals("hello")) {
+            sendResponse("Hello|epoch=" + epoch);
+        } else if (command.equals("batch|on")) {
+            batchMode = true;
+            sendResponse("Batch mode on");
+        } else if (command.equals("batch|off")) {
+            synchronized (batchLock) {
+                batchMode = false;
+                flushBatch();
+            }
+            sendResponse("Batch mode off");
+        } else if (command.equals("stats")) {
+            sendResponse(statistics());
         } else if (command.equals("exit")) {
             sendResponse("Good-bye!");
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                logger.error("Error closing client socket", e);
-            }
+            channel.close();
         } else {
             sendResponse("ERROR|Invalid request format");
         }
@@ -102,122 +171,523 @@ public class TelnetServerHandler implements Runnable {
 
     /**
      * Subscribes the client to market data updates for the given ticker.
-     * Validates ticker support and notifies client of subscription status.
+     * Validates ticker support and notifies client of subscription status, then sends the latest tick of each newly
+     * subscribed ticker.
+     * A ticker ending with {@code *} subscribes to all registered tickers starting with the given prefix.
      *
      * @param tickerString the ticker name string
      */
     private void subscribe(String tickerString) {
-        TickerType tickerEnum = TickerType.fromString(tickerString);
-
-        if (tickerEnum == null) {
-            sendResponse("ERROR|Rate data not found for " + tickerString);
+        if (tickerString.endsWith("*")) {
+            String prefix = tickerString.substring(0, tickerString.length() - 1).toUpperCase();
+            int count = 0;
+            for (String ticker : registeredTickersWithPrefix(prefix)) {
+                if (subscribedTickers.add(ticker)) {
+                    attach(ticker, -1);
+                    count++;
+                }
+            }
+            sendResponse("Subscribed to " + count + " tickers matching " + tickerString);
+            logger.info("Client {} subscribed to {} tickers matching {}", clientAddress, count, tickerString);
             return;
         }
 
-        if (!Arrays.asList(supportedTickers).contains(tickerEnum)) {
-            sendResponse("ERROR|Rate not supported for " + tickerString);
+        String actualTickerValue = resolveTicker(tickerString);
+        if (actualTickerValue == null) {
             return;
         }
 
-        String actualTickerValue = tickerEnum.getValue();
-
         if (subscribedTickers.add(actualTickerValue)) {
-            subscribers.computeIfAbsent(actualTickerValue, k -> Collections.synchronizedSet(new HashSet<>())).add(this);
             sendResponse("Subscribed to " + actualTickerValue);
-            logger.info("Client {} subscribed to {}", clientSocket.getInetAddress(), actualTickerValue);
+            attach(actualTickerValue, -1);
+            logger.info("Client {} subscribed to {}", clientAddress, actualTickerValue);
         } else {
             sendResponse("Already subscribed to " + actualTickerValue);
         }
     }
 
+    /**
+     * Subscribes the client to the given ticker and sends the ticks it missed after the given sequence number, as
+     * far as the history still holds them, or else the latest tick. Handles "resume|ticker|seq".
+     *
+     * @param arguments the ticker name and the last sequence number the client received, separated by {@code |}
+     */
+    private void resume(String arguments) {
+        int separator = arguments.indexOf('|');
+        long afterSequence;
+        try {
+            afterSequence = separator < 0 ? -1 : Long.parseLong(arguments.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            afterSequence = -1;
+        }
+        if (afterSequence < 0) {
+            sendResponse("ERROR|Invalid resume request: " + arguments);
+            return;
+        }
+        String actualTickerValue = resolveTicker(arguments.substring(0, separator));
+        if (actualTickerValue == null) {
+            return;
+        }
+        subscribedTickers.add(actualTickerValue);
+        attach(actualTickerValue, afterSequence);
+        logger.info("Client {} resumed {} after {}", clientAddress, actualTickerValue, afterSequence);
+    }
+
+    /**
+     * Returns the ticker value of a ticker name the client may subscribe to, or sends an error response.
+     *
+     * @param tickerString the ticker name string
+     * @return the ticker value, or {@code null} if the ticker is unknown or not supported
+     */
+    private String resolveTicker(String tickerString) {
+        TickerType tickerEnum = TickerType.fromString(tickerString);
+
+        if (tickerEnum == null) {
+            String actualTickerValue = registeredTicker(tickerString);
+            if (actualTickerValue == null) {
+                sendResponse("ERROR|Rate data not found for " + tickerString);
+            }
+            return actualTickerValue;
+        } else if (!Arrays.asList(supportedTickers).contains(tickerEnum)) {
+            sendResponse("ERROR|Rate not supported for " + tickerString);
+            return null;
+        }
+        return tickerEnum.getValue();
+    }
+
+    /**
+     * Adds this client to the subscribers of a ticker and sends the ticks it has not seen yet: the ticks after
+     * {@code afterSequence} if the history still holds all of them, otherwise the latest tick. While this runs no
+     * new tick of the ticker is distributed, so the client receives every tick once and in order. The ticks after
+     * {@code afterSequence} are queued like responses, outside the capacity of the outbound queue, since the
+     * history bounds them.
+     *
+     * @param ticker        the ticker value
+     * @param afterSequence the last sequence number the client received, or {@code -1} for only the latest tick
+     */
+    private void attach(String ticker, long afterSequence) {
+        TickerHistory history = historyOf(ticker);
+        synchronized (history) {
+            history.retain();
+            addSubscriber(ticker, this);
+            long latest = history.getSequence();
+            if (afterSequence < 0 || !history.canResumeAfter(afterSequence)) {
+                if (afterSequence >= 0) {
+                    sendResponse("Resumed " + ticker + " from latest " + latest);
+                }
+                if (latest > 0) {
+                    deliver(ticker, latest, history.get(latest));
+                }
+                return;
+            }
+            sendResponse("Resumed " + ticker + " after " + afterSequence + " with " + (latest - afterSequence)
+                    + " updates");
+            if (batchMode) {
+                synchronized (batchLock) {
+                    flushBatch();
+                }
+            }
+            for (long sequence = afterSequence + 1; sequence <= latest; sequence++) {
+                byte[] json = serialize(history.get(sequence), sequence);
+                if (json != null && channel != null) {
+                    channel.send(null, OutboundQueue.encodeLine(json));
+                }
+            }
+        }
+    }
+
     /**
      * Unsubscribes the client from market data updates for the given ticker.
      * Notifies client of unsubscription status.
+     * A ticker ending with {@code *} unsubscribes from all registered tickers starting with the given prefix.
      *
      * @param tickerString the ticker name string
      */
     private void unsubscribe(String tickerString) {
+        if (tickerString.endsWith("*")) {
+            String prefix = tickerString.substring(0, tickerString.length() - 1).toUpperCase();
+            int count = 0;
+            for (String ticker : registeredTickersWithPrefix(prefix)) {
+                if (subscribedTickers.remove(ticker)) {
+                    removeSubscriber(ticker, this);
+                    count++;
+                }
+            }
+            sendResponse("Unsubscribed from " + count + " tickers matching " + tickerString);
+            logger.info("Client {} unsubscribed from {} tickers matching {}", clientAddress, count, tickerString);
+            return;
+        }
+
         TickerType tickerEnum = TickerType.fromString(tickerString);
+        String actualTickerValue = tickerEnum != null ? tickerEnum.getValue() : registeredTicker(tickerString);
 
-        if (tickerEnum == null) {
+        if (actualTickerValue == null) {
             sendResponse("ERROR|Invalid ticker for unsubscribe: " + tickerString);
             return;
         }
 
-        String actualTickerValue = tickerEnum.getValue();
-
         if (subscribedTickers.remove(actualTickerValue)) {
-            Set<TelnetServerHandler> tickerSubscribers = subscribers.get(actualTickerValue);
-            if (tickerSubscribers != null) {
-                tickerSubscribers.remove(this);
-                if (tickerSubscribers.isEmpty()) {
-                    subscribers.remove(actualTickerValue);
-                }
-            }
+            removeSubscriber(actualTickerValue, this);
             sendResponse("Unsubscribed from " + actualTickerValue);
-            logger.info("Client {} unsubscribed from {}", clientSocket.getInetAddress(), actualTickerValue);
+            logger.info("Client {} unsubscribed from {}", clientAddress, actualTickerValue);
         } else {
             sendResponse("Not subscribed to " + actualTickerValue);
         }
     }
 
+    /**
+     * Makes tickers outside {@code supported.tickers}, such as synthetic load or replayed instruments, available
+     * for subscription.
+     *
+     * @param tickers the ticker names, upper case
+     */
+    public static void registerTickers(Collection<String> tickers) {
+        registeredTickers.addAll(tickers);
+    }
+
+    private static String registeredTicker(String tickerString) {
+        String ticker = tickerString.toUpperCase();
+        return registeredTickers.contains(ticker) ? ticker : null;
+    }
+
+    private static Set<String> registeredTickersWithPrefix(String prefix) {
+        return registeredTickers.subSet(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    private static TickerHistory historyOf(String ticker) {
+        TickerHistory history = histories.get(ticker);
+        return history != null ? history : histories.computeIfAbsent(ticker, k -> new TickerHistory(historySize));
+    }
+
+    private static void addSubscriber(String ticker, TelnetServerHandler handler) {
+        subscribers.compute(ticker, (k, tickerSubscribers) -> {
+            if (tickerSubscribers == null) {
+                tickerSubscribers = ConcurrentHashMap.newKeySet();
+            }
+            tickerSubscribers.add(handler);
+            return tickerSubscribers;
+        });
+    }
+
+    private static void removeSubscriber(String ticker, TelnetServerHandler handler) {
+        subscribers.computeIfPresent(ticker, (k, tickerSubscribers) -> {
+            tickerSubscribers.remove(handler);
+            return tickerSubscribers.isEmpty() ? null : tickerSubscribers;
+        });
+    }
+
     /**
      * Sends a message back to the connected client.
      *
      * @param message the message string to send
      */
     public void sendResponse(String message) {
-        if (out != null && !clientSocket.isClosed()) {
-            out.println(message);
-            logger.info("Sent to {}: {}", clientSocket.getInetAddress(), message);
+        if (channel != null && channel.isOpen()) {
+            channel.write(message);
+            logger.info("Sent to {}: {}", clientAddress, message);
         }
     }
 
     /**
      * Distributes a {@link RateDto} market data update to all clients subscribed to its ticker.
-     * Serializes the data to JSON before sending.
+     * The update gets the next sequence number of its ticker and is kept in the ticker's history. The data is
+     * serialized to JSON once; every subscriber gets a view of the same immutable frame on its outbound queue, or
+     * the JSON appended to its pending batch in batch mode.
      *
      * @param data the market data update to distribute
      */
     public static void distributeMarketData(RateDto data) {
         String ticker = data.getRateName();
+        TickerHistory history = historyOf(ticker);
 
-        Set<TelnetServerHandler> tickerSubscribers = subscribers.get(ticker);
-        if (tickerSubscribers != null) {
-            try {
-                String marketDataJson = objectMapper.writeValueAsString(data);
-                for (TelnetServerHandler handler : tickerSubscribers) {
-                    handler.sendResponse(marketDataJson);
+        synchronized (history) {
+            long sequence = history.append(data);
+            Set<TelnetServerHandler> tickerSubscribers = subscribers.get(ticker);
+            if (tickerSubscribers != null && !tickerSubscribers.isEmpty()) {
+                byte[] json = serialize(data, sequence);
+                if (json != null) {
+                    ByteBuffer frame = OutboundQueue.encodeLine(json);
+                    for (TelnetServerHandler handler : tickerSubscribers) {
+                        handler.deliver(ticker, json, frame);
+                    }
                 }
-            } catch (JsonProcessingException e) {
-                logger.error("Error serializing market data: {}", e.getMessage());
             }
         }
     }
 
+    /**
+     * Serializes a tick with its sequence number.
+     *
+     * @param data     the tick
+     * @param sequence the sequence number of the tick
+     * @return the JSON, or {@code null} if the tick cannot be serialized
+     */
+    private static byte[] serialize(RateDto data, long sequence) {
+        try {
+            return objectMapper.writeValueAsBytes(new SequencedRate(data.getRateName(), data.getBid(), data.getAsk(),
+                    data.getRateUpdateTime(), sequence));
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing market data: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Serializes a single tick for this client and delivers it like a distributed one.
+     *
+     * @param ticker   the ticker of the tick
+     * @param sequence the sequence number of the tick
+     * @param data     the tick
+     */
+    private void deliver(String ticker, long sequence, RateDto data) {
+        byte[] json = serialize(data, sequence);
+        if (json != null) {
+            deliver(ticker, json, OutboundQueue.encodeLine(json));
+        }
+    }
+
+    /**
+     * Appends a tick to this client's pending batch in batch mode, or queues it as its own frame otherwise.
+     *
+     * @param ticker the ticker of the tick
+     * @param json   the tick as JSON
+     * @param frame  the shared frame of the tick
+     */
+    private void deliver(String ticker, byte[] json, ByteBuffer frame) {
+        if (batchMode) {
+            synchronized (batchLock) {
+                if (batchMode) {
+                    if (batch == null) {
+                        batch = new ByteArrayOutputStream(1024);
+                        batch.write('[');
+                    } else {
+                        batch.write(',');
+                    }
+                    batch.writeBytes(json);
+                    return;
+                }
+            }
+        }
+        if (channel != null) {
+            handleSendResult(channel.send(ticker, frame.duplicate()));
+        }
+    }
+
+    /**
+     * Sends the pending batch of every client in batch mode as one JSON array line. Called once per flush window.
+     */
+    public static void flushBatches() {
+        for (TelnetServerHandler client : clients) {
+            if (client.batchMode) {
+                synchronized (client.batchLock) {
+                    client.flushBatch();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the pending batch, if any. The caller holds the batch lock.
+     */
+    private void flushBatch() {
+        if (batch == null || channel == null) {
+            return;
+        }
+        batch.writeBytes(BATCH_END);
+        ByteBuffer frame = ByteBuffer.wrap(batch.toByteArray()).asReadOnlyBuffer();
+        batch = null;
+        handleSendResult(channel.sendBatch(frame));
+    }
+
+    /**
+     * Applies the slow client policy to the outcome of queueing market data for this client.
+     *
+     * @param result the outcome
+     */
+    private void handleSendResult(OutboundQueue.Result result) {
+        switch (result) {
+            case CONFLATED -> conflatedCount.increment();
+            case DROPPED -> droppedCount.increment();
+            case OVERFLOW -> {
+                disconnectedCount.increment();
+                logger.warn("Disconnecting slow client {} with {} queued frames", clientAddress, channel.getQueueDepth());
+                channel.abort();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Returns the number of frames waiting to be sent to this client.
+     *
+     * @return the outbound queue depth
+     */
+    public int getQueueDepth() {
+        return channel != null ? channel.getQueueDepth() : 0;
+    }
+
+    /**
+     * Returns the outbound queue depth of every connected client.
+     *
+     * @return the queue depths keyed by client address
+     */
+    public static Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        for (TelnetServerHandler client : clients) {
+            depths.put(client.clientAddress, client.getQueueDepth());
+        }
+        return depths;
+    }
+
+    /**
+     * Logs the number of clients, the deepest outbound queue and how often slow clients were handled, and at debug
+     * level the outbound queue depth of every client.
+     */
+    public static void logClientStatistics() {
+        int maxDepth = 0;
+        String deepestClient = null;
+        for (TelnetServerHandler client : clients) {
+            int depth = client.getQueueDepth();
+            if (depth > maxDepth) {
+                maxDepth = depth;
+                deepestClient = client.clientAddress;
+            }
+        }
+        logger.info("Clients: {}, max queue depth: {} ({}), conflated: {}, dropped: {}, disconnected: {}",
+                clients.size(), maxDepth, deepestClient, conflatedCount.sum(), droppedCount.sum(),
+                disconnectedCount.sum());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Queue depths: {}", getQueueDepths());
+        }
+    }
+
+    /**
+     * Returns the response of the {@code stats} command, e.g.
+     * {@code Stats|clients=2|conflated=0|dropped=5|disconnected=0|queues=/127.0.0.1:50412=0,/127.0.0.1:50413=12}.
+     *
+     * @return the statistics line
+     */
+    static String statistics() {
+        StringJoiner queues = new StringJoiner(",");
+        getQueueDepths().forEach((client, depth) -> queues.add(client + "=" + depth));
+        return "Stats|clients=" + clients.size() + "|conflated=" + conflatedCount.sum() + "|dropped="
+                + droppedCount.sum() + "|disconnected=" + disconnectedCount.sum() + "|queues=" + queues;
+    }
+
     /**
      * Cleans up resources when the client disconnects.
      * Removes this handler from all subscription lists and closes streams and sockets.
      */
-    private void cleanup() {
-        logger.info("Client disconnected: {}", clientSocket.getInetAddress());
+    void cleanup() {
+        logger.info("Client disconnected: {}", clientAddress);
+        clients.remove(this);
         for (String ticker : new HashSet<>(subscribedTickers)) {
-            Set<TelnetServerHandler> tickerSubscribers = subscribers.get(ticker);
-            if (tickerSubscribers != null) {
-                tickerSubscribers.remove(this);
-                if (tickerSubscribers.isEmpty()) {
-                    subscribers.remove(ticker);
-                }
-            }
+            removeSubscriber(ticker, this);
         }
         subscribedTickers.clear();
 
         try {
             if (in != null) in.close();
-            if (out != null) out.close();
-            clientSocket.close();
         } catch (IOException e) {
             logger.error("Error closing client resources", e);
         }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * The JSON form of a tick: the fields of {@link RateDto} followed by the sequence number of its ticker.
+     */
+    private record SequencedRate(String rateName, BigDecimal bid, BigDecimal ask, LocalDateTime rateUpdateTime,
+                                 long seq) {
+    }
+
+    /**
+     * {@link TelnetClientChannel} of the blocking server mode. A writer thread per client drains its
+     * {@link OutboundQueue} into the socket and flushes whenever the queue runs empty.
+     */
+    private static final class SocketClientChannel implements TelnetClientChannel, Runnable {
+        private final Socket socket;
+        private final String clientAddress;
+        private final OutboundQueue outbound = OutboundQueue.fromConfiguration();
+        private final BufferedOutputStream stream;
+        private final WritableByteChannel out;
+
+        SocketClientChannel(Socket socket, String clientAddress) throws IOException {
+            this.socket = socket;
+            this.clientAddress = clientAddress;
+            this.stream = new BufferedOutputStream(socket.getOutputStream());
+            this.out = Channels.newChannel(stream);
+            Thread writer = new Thread(this, "telnet-writer-" + clientAddress);
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                ByteBuffer frame;
+                while ((frame = outbound.take()) != null) {
+                    out.write(frame);
+                    if (outbound.size() == 0) {
+                        stream.flush();
+                    }
+                }
+                stream.flush();
+            } catch (IOException e) {
+                logger.warn("Cannot write to {}: {}", clientAddress, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                outbound.clear();
+                closeSocket();
+            }
+        }
+
+        @Override
+        public void write(String line) {
+            outbound.offer(null, OutboundQueue.encodeLine(line));
+        }
+
+        @Override
+        public OutboundQueue.Result send(String ticker, ByteBuffer frame) {
+            return outbound.offer(ticker, frame);
+        }
+
+        @Override
+        public OutboundQueue.Result sendBatch(ByteBuffer frame) {
+            return outbound.offerBatch(frame);
+        }
+
+        @Override
+        public void close() {
+            outbound.close();
+        }
+
+        @Override
+        public void abort() {
+            outbound.clear();
+            closeSocket();
+        }
+
+        private void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.error("Error closing client socket", e);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !outbound.isClosed() && !socket.isClosed();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return outbound.size();
+        }
     }
 }
@@ -0,0 +1,95 @@
+package platform1_telnet.handlers;
+
+import rate.RateDto;
+
+/**
+ * The {@code TickerHistory} class numbers the market data updates of one ticker and keeps the most recent of
+ * them in a ring, so a new subscriber gets the current value right away and a reconnecting client the updates it
+ * missed. Sequence numbers start at 1 and grow by one per update.
+ *
+ * <p>Until the ticker is first subscribed to only the latest update is kept, so the many tickers nobody watches,
+ * such as synthetic load instruments, cost one slot each; {@link #retain()} grows the ring to its full capacity.</p>
+ *
+ * <p>Instances are not thread-safe; {@link TelnetServerHandler} holds the monitor of the history while it
+ * distributes an update or attaches a subscriber, which also orders both for the ticker.</p>
+ */
+final class TickerHistory {
+    private final int capacity;
+    private RateDto[] updates = new RateDto[1];
+    private long sequence;
+    private long keptAfter;
+
+    /**
+     * Creates an empty history that keeps only the latest update until {@link #retain()} is called.
+     *
+     * @param capacity the number of updates kept once retained, at least 1
+     */
+    TickerHistory(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+    }
+
+    /**
+     * Grows the ring to its full capacity, keeping the latest update. Does nothing if it is already full size.
+     */
+    void retain() {
+        if (updates.length == capacity) {
+            return;
+        }
+        RateDto latest = updates[0];
+        updates = new RateDto[capacity];
+        keptAfter = Math.max(sequence - 1, 0);
+        if (sequence > 0) {
+            updates[(int) (sequence % capacity)] = latest;
+        }
+    }
+
+    /**
+     * Returns the number of updates the ring currently holds at most.
+     *
+     * @return the ring size, 1 until the history is retained
+     */
+    int getCapacity() {
+        return updates.length;
+    }
+
+    /**
+     * Appends an update, replacing the oldest one when the ring is full.
+     *
+     * @param update the update
+     * @return the sequence number of the update
+     */
+    long append(RateDto update) {
+        sequence++;
+        updates[(int) (sequence % updates.length)] = update;
+        return sequence;
+    }
+
+    /**
+     * Returns the sequence number of the latest update.
+     *
+     * @return the latest sequence number, 0 before the first update
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns whether the updates following a sequence number are all still kept.
+     *
+     * @param afterSequence the last sequence number a client received
+     * @return {@code true} if the client can catch up from the history
+     */
+    boolean canResumeAfter(long afterSequence) {
+        return afterSequence >= Math.max(sequence - updates.length, keptAfter) && afterSequence <= sequence;
+    }
+
+    /**
+     * Returns a kept update.
+     *
+     * @param updateSequence the sequence number, between the oldest kept and the latest
+     * @return the update
+     */
+    RateDto get(long updateSequence) {
+        return updates[(int) (updateSequence % updates.length)];
+    }
+}
@@ -5,6 +5,7 @@ import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import platform1_telnet.services.LoadProfile;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -33,6 +34,64 @@ public class ConfigurationHelper {
     public static int getServerPort() {
         return config.getInt("server.port", 8081);
     }
+    /**
+     * Retrieves the server mode from the configuration: {@code blocking} serves every client on its own thread,
+     * {@code nio} serves all clients from a few selector-based event loops.
+     *
+     * @return The server mode. Defaults to {@code blocking} if not specified.
+     */
+    public static String getServerMode() {
+        return config.getString("server.mode", "blocking");
+    }
+    /**
+     * Retrieves the number of event loop threads of the NIO server mode from the configuration.
+     *
+     * @return The number of event loops. Defaults to 2 if not specified.
+     */
+    public static int getServerEventLoops() {
+        return config.getInt("server.nio.event-loops", 2);
+    }
+    /**
+     * Retrieves how many market data frames a client may fall behind before the slow client policy applies.
+     *
+     * @return The outbound queue capacity per client. Defaults to 1024 if not specified.
+     */
+    public static int getOutboundQueueCapacity() {
+        return config.getInt("server.outbound.queue-capacity", 1024);
+    }
+    /**
+     * Retrieves what happens to market data for a client that falls behind:
+     * {@code conflate}, {@code drop} or {@code disconnect}.
+     *
+     * @return The slow client policy name. Defaults to {@code conflate} if not specified.
+     */
+    public static String getSlowClientPolicy() {
+        return config.getString("server.outbound.slow-client-policy", "conflate");
+    }
+    /**
+     * Retrieves how long ticks are collected into one frame for clients in batch mode.
+     *
+     * @return The batch flush window in milliseconds. Defaults to 20ms if not specified.
+     */
+    public static long getBatchWindowMs() {
+        return config.getLong("server.batch.window.ms", 20);
+    }
+    /**
+     * Retrieves how many of the latest ticks of each ticker are kept for clients resuming after a reconnect.
+     *
+     * @return The history size per ticker. Defaults to 64 if not specified.
+     */
+    public static int getHistorySize() {
+        return config.getInt("server.history.size", 64);
+    }
+    /**
+     * Retrieves how often client statistics such as the outbound queue depths are logged.
+     *
+     * @return The statistics interval in milliseconds. Defaults to 10000ms if not specified.
+     */
+    public static long getStatsIntervalMs() {
+        return config.getLong("server.stats.interval.ms", 10000);
+    }
     /**
      * Retrieves the data generator interval in milliseconds from the configuration.
      * This interval determines how frequently new market data is generated.
@@ -69,4 +128,151 @@ public class ConfigurationHelper {
     public static BigDecimal getTickerInitialValueFromTickerType(TickerType tickerType) {
         return config.getBigDecimal(String.format("data.%s", tickerType.toString()));
     }
-}
\ No newline at end of file
+    /**
+     * Retrieves whether the synthetic load generator runs in addition to the supported tickers.
+     *
+     * @return {@code true} if the load mode is enabled. Defaults to {@code false}.
+     */
+    public static boolean isLoadEnabled() {
+        return config.getBoolean("load.enabled", false);
+    }
+    /**
+     * Retrieves the name prefix of the synthetic instruments, e.g. {@code PF1_SYN} for {@code PF1_SYN00042}.
+     *
+     * @return The instrument name prefix. Defaults to {@code PF1_SYN}.
+     */
+    public static String getLoadPrefix() {
+        return config.getString("load.prefix", "PF1_SYN");
+    }
+    /**
+     * Retrieves the number of synthetic instruments.
+     *
+     * @return The number of instruments. Defaults to 10000.
+     */
+    public static int getLoadInstruments() {
+        return config.getInt("load.instruments", 10000);
+    }
+    /**
+     * Retrieves the aggregate tick rate of all synthetic instruments outside bursts.
+     *
+     * @return The ticks per second. Defaults to 10000.
+     */
+    public static double getLoadTicksPerSecond() {
+        return config.getDouble("load.ticks-per-second", 10000);
+    }
+    /**
+     * Retrieves the seed of the synthetic price paths; the same seed produces the same paths.
+     *
+     * @return The seed. Defaults to 42.
+     */
+    public static long getLoadSeed() {
+        return config.getLong("load.seed", 42);
+    }
+    /**
+     * Retrieves the profiles assigned to the synthetic instruments at random.
+     *
+     * @return The load profiles. Defaults to {@code normal}.
+     */
+    public static List<LoadProfile> getLoadProfiles() {
+        List<Object> names = config.getList("load.profiles", List.of("normal"));
+        return names.stream().map(Object::toString).map(LoadProfile::fromName).toList();
+    }
+    /**
+     * Retrieves the number of synthetic load generator threads.
+     *
+     * @return The number of threads. Defaults to 2.
+     */
+    public static int getLoadThreads() {
+        return config.getInt("load.threads", 2);
+    }
+    /**
+     * Retrieves the time between the starts of two tick rate bursts.
+     *
+     * @return The burst period in milliseconds, {@code 0} for no bursts. Defaults to 0.
+     */
+    public static long getLoadBurstPeriodMs() {
+        return config.getLong("load.burst.period-ms", 0);
+    }
+    /**
+     * Retrieves how long a tick rate burst lasts.
+     *
+     * @return The burst duration in milliseconds. Defaults to 5000ms.
+     */
+    public static long getLoadBurstDurationMs() {
+        return config.getLong("load.burst.duration-ms", 5000);
+    }
+    /**
+     * Retrieves the factor the tick rate is multiplied with during a burst.
+     *
+     * @return The burst multiplier. Defaults to 5.
+     */
+    public static double getLoadBurstMultiplier() {
+        return config.getDouble("load.burst.multiplier", 5);
+    }
+    /**
+     * Retrieves whether every generated tick is appended to a tick recording.
+     *
+     * @return {@code true} if capture is enabled. Defaults to {@code false}.
+     */
+    public static boolean isCaptureEnabled() {
+        return config.getBoolean("capture.enabled", false);
+    }
+    /**
+     * Retrieves the file the ticks are recorded to; an existing file is replaced.
+     *
+     * @return The capture file. Defaults to {@code ticks.bin}.
+     */
+    public static String getCaptureFile() {
+        return config.getString("capture.file", "ticks.bin");
+    }
+    /**
+     * Retrieves how often the recorded ticks are written from the buffer to the capture file.
+     *
+     * @return The flush interval in milliseconds. Defaults to 1000ms.
+     */
+    public static long getCaptureFlushIntervalMs() {
+        return config.getLong("capture.flush.interval.ms", 1000);
+    }
+    /**
+     * Retrieves whether a tick recording is replayed instead of generating market data.
+     *
+     * @return {@code true} if replay is enabled. Defaults to {@code false}.
+     */
+    public static boolean isReplayEnabled() {
+        return config.getBoolean("replay.enabled", false);
+    }
+    /**
+     * Retrieves the tick recording to replay.
+     *
+     * @return The replay file. Defaults to {@code ticks.bin}.
+     */
+    public static String getReplayFile() {
+        return config.getString("replay.file", "ticks.bin");
+    }
+    /**
+     * Retrieves the replay speed multiplier, e.g. {@code 1} for the recorded pace or {@code 10};
+     * {@code max} replays without gaps.
+     *
+     * @return The speed multiplier, {@code 0} for {@code max}. Defaults to 1.
+     */
+    public static double getReplaySpeed() {
+        String speed = config.getString("replay.speed", "1");
+        return "max".equalsIgnoreCase(speed) ? 0 : Double.parseDouble(speed);
+    }
+    /**
+     * Retrieves whether the replay starts over at the end of the recording.
+     *
+     * @return {@code true} to loop. Defaults to {@code false}.
+     */
+    public static boolean isReplayLoop() {
+        return config.getBoolean("replay.loop", false);
+    }
+    /**
+     * Retrieves whether replayed ticks are stamped with the replay time instead of the recorded update time.
+     *
+     * @return {@code true} to retime the ticks. Defaults to {@code true}.
+     */
+    public static boolean isReplayRetime() {
+        return config.getBoolean("replay.retime", true);
+    }
+}
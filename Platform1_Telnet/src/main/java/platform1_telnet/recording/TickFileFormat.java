@@ -0,0 +1,68 @@
+package platform1_telnet.recording;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The {@code TickFileFormat} class defines the binary format of tick recordings.
+ *
+ * <p>A file starts with a header of {@link #MAGIC}, {@link #VERSION} and the capture start as epoch nanoseconds
+ * (UTC). It is followed by records of two kinds, all numbers big-endian:</p>
+ * <ul>
+ *     <li>{@link #NAME_RECORD}: {@code int} name id, {@code short} length and the UTF-8 rate name; written before
+ *     the first tick of a name.</li>
+ *     <li>{@link #TICK_RECORD}: {@code int} name id, {@code long} nanoseconds since the capture start,
+ *     {@code byte} price scale, {@code long} bid and ask as unscaled values and {@code long} update time as epoch
+ *     nanoseconds (UTC). Missing values are stored as {@link #MISSING}.</li>
+ * </ul>
+ */
+public final class TickFileFormat {
+    public static final int MAGIC = 0x46544B52;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final byte NAME_RECORD = 1;
+    public static final byte TICK_RECORD = 2;
+    public static final int TICK_RECORD_SIZE = 1 + 4 + 8 + 1 + 8 + 8 + 8;
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private TickFileFormat() {
+    }
+
+    /**
+     * Returns the number of decimal places needed for both prices.
+     *
+     * @param bid the bid, may be {@code null}
+     * @param ask the ask, may be {@code null}
+     * @return the common scale, at least 0
+     */
+    static int scaleOf(BigDecimal bid, BigDecimal ask) {
+        int scale = 0;
+        if (bid != null) scale = Math.max(scale, bid.scale());
+        if (ask != null) scale = Math.max(scale, ask.scale());
+        return scale;
+    }
+
+    static long toUnscaled(BigDecimal price, int scale) {
+        return price == null ? MISSING : price.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toDecimal(long unscaled, int scale) {
+        return unscaled == MISSING ? null : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    static long toEpochNanos(LocalDateTime time) {
+        if (time == null) {
+            return MISSING;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochNanos) {
+        if (epochNanos == MISSING) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,131 @@
+package platform1_telnet.recording;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import rate.RateDto;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The {@code TickRecorder} class appends every {@link RateDto} it receives to a tick recording in the
+ * {@link TickFileFormat}, together with the time it was received, so a {@link TickReplayer} can reproduce the
+ * traffic with its original gaps.
+ *
+ * <p>Ticks are written to a buffer and reach the file when it is full or on {@link #flush()}; a failing disk stops
+ * the recording but never the market data. Instances are thread-safe.</p>
+ */
+public class TickRecorder implements Consumer<RateDto>, Closeable {
+    private static final Logger logger = LogManager.getLogger(TickRecorder.class);
+    private final Path file;
+    private final DataOutputStream out;
+    private final long startNanos;
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private long recordedCount;
+    private boolean failed;
+    private boolean closed;
+
+    /**
+     * Creates a recording, replacing an existing file.
+     *
+     * @param file the recording file
+     * @throws IOException if the file cannot be created
+     */
+    public TickRecorder(Path file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        this.startNanos = System.nanoTime();
+        Instant start = Instant.now();
+        out.writeInt(TickFileFormat.MAGIC);
+        out.writeInt(TickFileFormat.VERSION);
+        out.writeLong(start.getEpochSecond() * 1_000_000_000L + start.getNano());
+        logger.info("Recording ticks to {}", file);
+    }
+
+    /**
+     * Appends a tick to the recording.
+     *
+     * @param rateDto the tick
+     */
+    @Override
+    public synchronized void accept(RateDto rateDto) {
+        if (failed || closed) {
+            return;
+        }
+        long offsetNanos = System.nanoTime() - startNanos;
+        try {
+            Integer nameId = nameIds.get(rateDto.getRateName());
+            if (nameId == null) {
+                nameId = nameIds.size();
+                nameIds.put(rateDto.getRateName(), nameId);
+                byte[] name = rateDto.getRateName().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(TickFileFormat.NAME_RECORD);
+                out.writeInt(nameId);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            int scale = TickFileFormat.scaleOf(rateDto.getBid(), rateDto.getAsk());
+            out.writeByte(TickFileFormat.TICK_RECORD);
+            out.writeInt(nameId);
+            out.writeLong(offsetNanos);
+            out.writeByte(scale);
+            out.writeLong(TickFileFormat.toUnscaled(rateDto.getBid(), scale));
+            out.writeLong(TickFileFormat.toUnscaled(rateDto.getAsk(), scale));
+            out.writeLong(TickFileFormat.toEpochNanos(rateDto.getRateUpdateTime()));
+            recordedCount++;
+        } catch (IOException | ArithmeticException e) {
+            failed = true;
+            logger.error("Recording to {} stopped: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buffered ticks to the file.
+     */
+    public synchronized void flush() {
+        if (failed || closed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            failed = true;
+            logger.error("Recording to {} stopped: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of ticks recorded.
+     *
+     * @return the recorded count
+     */
+    public synchronized long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Writes the buffered ticks and closes the file. Later ticks are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+            logger.info("Recorded {} ticks to {}", recordedCount, file);
+        } catch (IOException e) {
+            logger.error("Error closing recording {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package platform1_telnet.recording;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import rate.RateDto;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The {@code TickReplayer} class streams a tick recording written by a {@link TickRecorder} to a consumer,
+ * keeping the original gaps between the ticks divided by a speed multiplier, or without any gaps at speed
+ * {@code 0}.
+ *
+ * <p>The file is memory-mapped in windows of up to {@link #MAP_WINDOW} bytes, so recordings larger than the
+ * address space of a single mapping can be replayed without reading them onto the heap.</p>
+ */
+public class TickReplayer {
+    private static final Logger logger = LogManager.getLogger(TickReplayer.class);
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final int MAX_RECORD_SIZE = 1 + 4 + 2 + 65535;
+    private final Path file;
+    private final double speed;
+    private final boolean loop;
+    private final boolean retime;
+    private final List<String> names;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Opens a recording and reads its rate names.
+     *
+     * @param file   the recording file
+     * @param speed  the speed multiplier, e.g. {@code 1} for real time or {@code 10}; {@code 0} replays as fast as
+     *               possible
+     * @param loop   whether to start over at the end of the recording
+     * @param retime whether the ticks get the replay time as their update time instead of the recorded one; like
+     *               the generated ticks, update times are UTC
+     * @throws IOException if the file cannot be read or is not a tick recording
+     */
+    public TickReplayer(Path file, double speed, boolean loop, boolean retime) throws IOException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must not be negative: " + speed);
+        }
+        this.file = file;
+        this.speed = speed;
+        this.loop = loop;
+        this.retime = retime;
+        this.names = new ArrayList<>();
+        replay(record -> {
+        }, false);
+    }
+
+    /**
+     * Returns the rate names in the recording.
+     *
+     * @return the rate names
+     */
+    public Collection<String> getRateNames() {
+        return names;
+    }
+
+    /**
+     * Starts the replay on a daemon thread.
+     *
+     * @param consumer the consumer of the replayed ticks
+     */
+    public synchronized void start(Consumer<RateDto> consumer) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                do {
+                    long replayed = replay(consumer, true);
+                    logger.debug("Replayed {} ticks from {}", replayed, file);
+                } while (loop && running);
+                logger.info("Replay of {} finished", file);
+            } catch (IOException e) {
+                logger.error("Replay of {} failed: {}", file, e.getMessage());
+            } finally {
+                running = false;
+            }
+        }, "tick-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the replay.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Reads the recording once. On the first pass only the rate names are collected; on later passes the ticks
+     * are paced and handed to the consumer.
+     *
+     * @param consumer the consumer of the ticks
+     * @param emit     {@code false} to only collect the rate names
+     * @return the number of ticks read
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    private long replay(Consumer<RateDto> consumer, boolean emit) throws IOException {
+        String[] nameById = names.toArray(new String[0]);
+        long ticks = 0;
+        long firstOffset = -1;
+        long wallStart = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+            long bufferStart = 0;
+            if (size < TickFileFormat.HEADER_SIZE || buffer.getInt() != TickFileFormat.MAGIC) {
+                throw new IOException("Not a tick recording: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != TickFileFormat.VERSION) {
+                throw new IOException("Unsupported tick recording version " + version + ": " + file);
+            }
+            buffer.getLong();
+            while (!emit || running) {
+                if (buffer.remaining() < MAX_RECORD_SIZE && bufferStart + buffer.limit() < size) {
+                    bufferStart += buffer.position();
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, bufferStart,
+                            Math.min(size - bufferStart, MAP_WINDOW));
+                }
+                if (!buffer.hasRemaining()) {
+                    break;
+                }
+                byte type = buffer.get();
+                if (type == TickFileFormat.NAME_RECORD && buffer.remaining() >= 4 + 2
+                        && buffer.remaining() >= 4 + 2 + (buffer.getShort(buffer.position() + 4) & 0xFFFF)) {
+                    int id = buffer.getInt();
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+                    if (!emit) {
+                        names.add(id, new String(name, StandardCharsets.UTF_8));
+                    }
+                    continue;
+                }
+                if (type != TickFileFormat.TICK_RECORD || buffer.remaining() < TickFileFormat.TICK_RECORD_SIZE - 1) {
+                    // a recording cut off while it was written ends with a partial record
+                    logger.warn("Recording {} ends with an incomplete record", file);
+                    break;
+                }
+                int id = buffer.getInt();
+                long offsetNanos = buffer.getLong();
+                int scale = buffer.get();
+                long bid = buffer.getLong();
+                long ask = buffer.getLong();
+                long updateTime = buffer.getLong();
+                ticks++;
+                if (!emit) {
+                    continue;
+                }
+                if (firstOffset < 0) {
+                    firstOffset = offsetNanos;
+                    wallStart = System.nanoTime();
+                }
+                if (speed > 0) {
+                    long target = wallStart + (long) ((offsetNanos - firstOffset) / speed);
+                    long wait;
+                    while ((wait = target - System.nanoTime()) > 0 && running) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                consumer.accept(RateDto.builder()
+                        .rateName(nameById[id])
+                        .bid(TickFileFormat.toDecimal(bid, scale))
+                        .ask(TickFileFormat.toDecimal(ask, scale))
+                        .rateUpdateTime(retime ? LocalDateTime.now(ZoneOffset.UTC)
+                                : TickFileFormat.toLocalDateTime(updateTime))
+                        .build());
+            }
+        }
+        return ticks;
+    }
+}
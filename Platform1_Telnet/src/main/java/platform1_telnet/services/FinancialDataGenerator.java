@@ -27,6 +27,8 @@ import java.util.function.Consumer;
  * <p>Each ticker's bid price fluctuates randomly within a small range,
  * and the ask price is calculated as the bid price plus a fixed delta spread.</p>
  *
+ * <p>For high tick rates over many instruments see {@link SyntheticLoadGenerator}.</p>
+ *
  * <p>This class manages a scheduled executor service to generate data at a configurable interval.</p>
  */
 public class FinancialDataGenerator {
@@ -66,8 +68,8 @@ public class FinancialDataGenerator {
 
     /**
      * Starts generating market data for all supported tickers at fixed intervals.
-     * Each generated {@link RateDto} is passed to the provided {@code dataConsumer} and
-     * also distributed to connected Telnet clients via {@link TelnetServerHandler}.
+     * Each generated {@link RateDto} is passed to the provided {@code dataConsumer}, such as
+     * {@link TelnetServerHandler#distributeMarketData(RateDto)}.
      *
      * @param dataConsumer a {@link Consumer} that accepts generated {@link RateDto} objects
      */
@@ -77,8 +79,9 @@ public class FinancialDataGenerator {
             for (TickerType ticker : supportedTickers) {
                 RateDto generatedData = generateMarketData(ticker);
                 dataConsumer.accept(generatedData);
-                TelnetServerHandler.distributeMarketData(generatedData);
-                logger.info("Generated market data: {} {} {} {}", generatedData.getRateName(), generatedData.getAsk(), generatedData.getBid(), generatedData);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Generated market data: {}", generatedData);
+                }
             }
         }, 0, interval, TimeUnit.MILLISECONDS);
     }
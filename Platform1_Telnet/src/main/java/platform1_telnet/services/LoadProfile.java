@@ -0,0 +1,53 @@
+package platform1_telnet.services;
+
+/**
+ * The {@code LoadProfile} enum defines the spread and volatility of a synthetic load instrument.
+ * Both are given in basis points of the mid price; the volatility is the standard deviation of one tick's move.
+ */
+public enum LoadProfile {
+    CALM(1, 0.2),
+    NORMAL(3, 1),
+    VOLATILE(10, 5);
+
+    private final double spread;
+    private final double volatility;
+
+    LoadProfile(double spreadBps, double volatilityBps) {
+        this.spread = spreadBps / 10_000;
+        this.volatility = volatilityBps / 10_000;
+    }
+
+    /**
+     * Returns the spread between bid and ask.
+     *
+     * @return the spread as a fraction of the mid price
+     */
+    public double getSpread() {
+        return spread;
+    }
+
+    /**
+     * Returns the standard deviation of one tick's relative price move.
+     *
+     * @return the volatility as a fraction of the mid price
+     */
+    public double getVolatility() {
+        return volatility;
+    }
+
+    /**
+     * Resolves a profile from its configuration name.
+     *
+     * @param name {@code calm}, {@code normal} or {@code volatile}, case-insensitive
+     * @return the profile
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static LoadProfile fromName(String name) {
+        for (LoadProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported load profile: " + name);
+    }
+}
@@ -0,0 +1,188 @@
+package platform1_telnet.services;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import rate.RateDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The {@code SyntheticLoadGenerator} class produces market data for a large number of synthetic instruments at a
+ * configurable aggregate tick rate, to put realistic pressure on the consumers of the Telnet platform.
+ *
+ * <p>Instruments are split evenly over the generator threads. Each thread keeps the mid prices of its instruments
+ * in a primitive array and moves them by a random walk driven by its own {@link SplittableRandom}, seeded from the
+ * configured seed, so the price paths are the same on every run with the same seed. Spread and volatility come
+ * from the {@link LoadProfile} assigned to each instrument.</p>
+ *
+ * <p>Every {@code burstPeriodMs}, starting with the first one, the tick rate is multiplied by
+ * {@code burstMultiplier} for {@code burstDurationMs}, simulating e.g. a market open.</p>
+ */
+public class SyntheticLoadGenerator {
+    private static final Logger logger = LogManager.getLogger(SyntheticLoadGenerator.class);
+    private static final int SCALE = 4;
+    private static final double PRICE_FACTOR = 10_000;
+    private static final long PAUSE_NANOS = 200_000;
+    private static final long REPORT_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final String[] names;
+    private final LoadProfile[] profiles;
+    private final double[] mids;
+    private final long seed;
+    private final double ticksPerSecond;
+    private final int threadCount;
+    private final long burstPeriodNanos;
+    private final long burstDurationNanos;
+    private final double burstMultiplier;
+    private final LongAdder generatedCount = new LongAdder();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Constructs a new {@code SyntheticLoadGenerator} and creates its instruments.
+     *
+     * @param prefix          the prefix of the instrument names, followed by a zero-padded index
+     * @param instruments     the number of instruments
+     * @param ticksPerSecond  the aggregate tick rate outside bursts
+     * @param seed            the seed of all random numbers
+     * @param profiles        the profiles assigned to the instruments at random
+     * @param threadCount     the number of generator threads
+     * @param burstPeriodMs   the time between burst starts, {@code 0} for no bursts
+     * @param burstDurationMs the duration of a burst
+     * @param burstMultiplier the tick rate multiplier during a burst
+     */
+    public SyntheticLoadGenerator(String prefix, int instruments, double ticksPerSecond, long seed,
+                                  List<LoadProfile> profiles, int threadCount, long burstPeriodMs,
+                                  long burstDurationMs, double burstMultiplier) {
+        this.names = new String[instruments];
+        this.profiles = new LoadProfile[instruments];
+        this.mids = new double[instruments];
+        this.seed = seed;
+        this.ticksPerSecond = ticksPerSecond;
+        this.threadCount = Math.max(1, Math.min(threadCount, instruments));
+        this.burstPeriodNanos = burstPeriodMs * 1_000_000;
+        this.burstDurationNanos = burstDurationMs * 1_000_000;
+        this.burstMultiplier = burstMultiplier;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        String format = "%s%0" + Math.max(String.valueOf(instruments - 1).length(), 1) + "d";
+        for (int i = 0; i < instruments; i++) {
+            names[i] = String.format(format, prefix, i).toUpperCase();
+            this.profiles[i] = profiles.get(random.nextInt(profiles.size()));
+            mids[i] = Math.exp(random.nextDouble(Math.log(0.5), Math.log(200)));
+        }
+    }
+
+    /**
+     * Returns the names of the synthetic instruments.
+     *
+     * @return the instrument names
+     */
+    public List<String> getInstrumentNames() {
+        return List.of(names);
+    }
+
+    /**
+     * Returns the number of ticks generated so far.
+     *
+     * @return the generated count
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+
+    /**
+     * Starts the generator threads.
+     *
+     * @param dataConsumer receiver of the generated {@link RateDto}s, called from the generator threads
+     */
+    public synchronized void start(Consumer<RateDto> dataConsumer) {
+        running = true;
+        long startNanos = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            int from = (int) ((long) names.length * t / threadCount);
+            int to = (int) ((long) names.length * (t + 1) / threadCount);
+            int index = t;
+            Thread thread = new Thread(() -> generate(index, from, to, startNanos, dataConsumer),
+                    "synthetic-load-" + t);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        logger.info("Generating {} ticks/s for {} synthetic instruments on {} threads (seed {})",
+                ticksPerSecond, names.length, threadCount, seed);
+    }
+
+    /**
+     * Stops the generator threads.
+     */
+    public synchronized void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+    }
+
+    /**
+     * Generates the ticks of the instruments {@code [from, to)} at this thread's share of the tick rate.
+     */
+    private void generate(int threadIndex, int from, int to, long startNanos, Consumer<RateDto> dataConsumer) {
+        SplittableRandom random = new SplittableRandom(seed + 1 + threadIndex);
+        double ratePerThread = ticksPerSecond / threadCount;
+        double budget = 0;
+        long last = System.nanoTime();
+        long lastReport = last;
+        long lastReportCount = 0;
+        int cursor = from;
+        while (running) {
+            long now = System.nanoTime();
+            double rate = ratePerThread * rateMultiplier(now - startNanos);
+            budget = Math.min(budget + rate * (now - last) / 1e9, Math.max(rate / 10, 1));
+            last = now;
+            for (; budget >= 1; budget--) {
+                dataConsumer.accept(nextTick(cursor, random));
+                if (++cursor == to) {
+                    cursor = from;
+                }
+                generatedCount.increment();
+            }
+            if (threadIndex == 0 && now - lastReport >= REPORT_INTERVAL_NANOS) {
+                long count = generatedCount.sum();
+                logger.info("Synthetic load: {} ticks/s", (count - lastReportCount) * 1_000_000_000L / (now - lastReport));
+                lastReport = now;
+                lastReportCount = count;
+            }
+            LockSupport.parkNanos(PAUSE_NANOS);
+        }
+    }
+
+    private double rateMultiplier(long elapsedNanos) {
+        if (burstPeriodNanos <= 0 || burstMultiplier == 1) {
+            return 1;
+        }
+        return elapsedNanos % burstPeriodNanos < burstDurationNanos ? burstMultiplier : 1;
+    }
+
+    /**
+     * Moves the mid price of an instrument by one random step and returns the resulting tick.
+     */
+    private RateDto nextTick(int instrument, SplittableRandom random) {
+        LoadProfile profile = profiles[instrument];
+        double mid = mids[instrument] * (1 + profile.getVolatility() * random.nextGaussian());
+        mids[instrument] = mid;
+        double halfSpread = mid * profile.getSpread() / 2;
+        return RateDto.builder()
+                .rateName(names[instrument])
+                .bid(BigDecimal.valueOf(Math.round((mid - halfSpread) * PRICE_FACTOR), SCALE))
+                .ask(BigDecimal.valueOf(Math.round((mid + halfSpread) * PRICE_FACTOR), SCALE))
+                .rateUpdateTime(LocalDateTime.now(ZoneOffset.UTC))
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package platform1_telnet.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTelnetConnectionTests {
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void closingConnectionStopsReadingWhileItsQueuedLinesAreWritten() throws Exception {
+		Selector selector = Selector.open();
+		NioTelnetServer.EventLoop eventLoop = new NioTelnetServer.EventLoop(selector);
+		Thread loopThread = new Thread(eventLoop, "nio-connection-test");
+		loopThread.setDaemon(true);
+		loopThread.start();
+		try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+			 Socket client = new Socket()) {
+			client.setReceiveBufferSize(4096);
+			client.connect(server.getLocalAddress());
+			client.setSoTimeout(10000);
+			SocketChannel accepted = server.accept();
+			accepted.configureBlocking(false);
+			accepted.socket().setSendBufferSize(4096);
+			eventLoop.register(accepted);
+			waitFor(() -> !selector.keys().isEmpty());
+			SelectionKey key = selector.keys().iterator().next();
+			NioTelnetConnection connection = (NioTelnetConnection) key.attachment();
+
+			String queued = "x".repeat(1000);
+			for (int i = 0; i < 4000; i++) {
+				connection.write(queued);
+			}
+			client.getOutputStream().write("a".repeat(1100).getBytes(StandardCharsets.US_ASCII));
+			waitFor(() -> (key.interestOps() & SelectionKey.OP_READ) == 0);
+
+			assertEquals(0, key.interestOps() & SelectionKey.OP_READ);
+			assertTrue(key.isValid());
+			assertFalse(connection.isOpen());
+
+			BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+			for (int i = 0; i < 4000; i++) {
+				assertEquals(queued, in.readLine());
+			}
+			assertEquals("ERROR|Line too long", in.readLine());
+			assertNull(in.readLine());
+		} finally {
+			eventLoop.stop();
+			loopThread.join(1000);
+		}
+	}
+}
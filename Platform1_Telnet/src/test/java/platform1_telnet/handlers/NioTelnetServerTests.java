@@ -0,0 +1,103 @@
+package platform1_telnet.handlers;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import rate.RateDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTelnetServerTests {
+
+	private static int port;
+
+	@BeforeAll
+	static void startServer() throws IOException {
+		try (ServerSocket probe = new ServerSocket(0)) {
+			port = probe.getLocalPort();
+		}
+		Thread server = new Thread(() -> {
+			try {
+				new NioTelnetServer(port, 2).serve();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}, "nio-telnet-test");
+		server.setDaemon(true);
+		server.start();
+		TelnetServerHandler.registerTickers(List.of("PF1_NIOTEST"));
+	}
+
+	private static Socket connect() throws Exception {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (true) {
+			try {
+				Socket socket = new Socket("localhost", port);
+				socket.setSoTimeout(10000);
+				return socket;
+			} catch (ConnectException e) {
+				if (System.currentTimeMillis() > deadline) {
+					throw e;
+				}
+				Thread.sleep(20);
+			}
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void subscribedClientReceivesTicksUntilItDisconnects() throws Exception {
+		try (Socket socket = connect()) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			OutputStream out = socket.getOutputStream();
+			String client = String.valueOf(socket.getLocalSocketAddress());
+
+			out.write("subscribe|pf1_niotest\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals("Subscribed to PF1_NIOTEST", in.readLine());
+			TelnetServerHandler.distributeMarketData(new RateDto("PF1_NIOTEST", new BigDecimal("1.5"),
+					new BigDecimal("1.6"), LocalDateTime.of(2025, 6, 1, 12, 0)));
+
+			String tick = in.readLine();
+			assertTrue(tick.startsWith("{\"rateName\":\"PF1_NIOTEST\",\"bid\":1.5,\"ask\":1.6,"), tick);
+			assertTrue(tick.endsWith("\"seq\":1}"), tick);
+			assertTrue(TelnetServerHandler.statistics().contains(client));
+
+			out.write("exit\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals("Good-bye!", in.readLine());
+			assertNull(in.readLine());
+			waitFor(() -> !TelnetServerHandler.statistics().contains(client));
+			assertFalse(TelnetServerHandler.statistics().contains(client));
+		}
+	}
+
+	@Test
+	void unknownCommandsAndTickersAreAnsweredWithErrors() throws Exception {
+		try (Socket socket = connect()) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			OutputStream out = socket.getOutputStream();
+
+			out.write("subscribe|PF1_UNKNOWN\nhelp\r\n".getBytes(StandardCharsets.US_ASCII));
+
+			assertEquals("ERROR|Rate data not found for PF1_UNKNOWN", in.readLine());
+			assertEquals("ERROR|Invalid request format", in.readLine());
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package platform1_telnet.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTests {
+
+	private static String text(ByteBuffer frame) {
+		return StandardCharsets.UTF_8.decode(frame.duplicate()).toString().strip();
+	}
+
+	@Test
+	void conflatesPendingTicksOfTheSameTicker() {
+		OutboundQueue queue = new OutboundQueue(2, SlowClientPolicy.CONFLATE);
+
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("a")));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_EURUSD", OutboundQueue.encodeLine("b")));
+		assertEquals(OutboundQueue.Result.CONFLATED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("c")));
+		assertEquals(OutboundQueue.Result.DROPPED, queue.offer("PF1_GBPUSD", OutboundQueue.encodeLine("d")));
+
+		assertEquals(2, queue.size());
+		assertEquals("c", text(queue.poll()));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("e")));
+		assertEquals("b", text(queue.poll()));
+		assertEquals("e", text(queue.poll()));
+		assertNull(queue.poll());
+	}
+
+	@Test
+	void dropsTicksOnceTheCapacityIsReached() {
+		OutboundQueue queue = new OutboundQueue(2, SlowClientPolicy.DROP);
+
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("a")));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("b")));
+		assertEquals(OutboundQueue.Result.DROPPED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("c")));
+
+		assertEquals("a", text(queue.poll()));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("d")));
+		assertEquals("b", text(queue.poll()));
+		assertEquals("d", text(queue.poll()));
+	}
+
+	@Test
+	void asksToDisconnectOnceTheCapacityIsReached() {
+		OutboundQueue queue = new OutboundQueue(1, SlowClientPolicy.DISCONNECT);
+
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("a")));
+		assertEquals(OutboundQueue.Result.OVERFLOW, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("b")));
+		assertEquals(OutboundQueue.Result.OVERFLOW, queue.offerBatch(OutboundQueue.encodeLine("[b]")));
+	}
+
+	@Test
+	void responsesAreQueuedBeyondTheCapacity() {
+		OutboundQueue queue = new OutboundQueue(1, SlowClientPolicy.DROP);
+
+		queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("a"));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offer(null, OutboundQueue.encodeLine("Subscribed to PF1_EURUSD")));
+
+		assertEquals(2, queue.size());
+	}
+
+	@Test
+	void batchesCountAgainstTheCapacityAndAreNeverConflated() {
+		OutboundQueue queue = new OutboundQueue(2, SlowClientPolicy.CONFLATE);
+
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offerBatch(OutboundQueue.encodeLine("[a]")));
+		assertEquals(OutboundQueue.Result.QUEUED, queue.offerBatch(OutboundQueue.encodeLine("[b]")));
+		assertEquals(OutboundQueue.Result.DROPPED, queue.offerBatch(OutboundQueue.encodeLine("[c]")));
+
+		assertEquals("[a]", text(queue.poll()));
+		assertEquals("[b]", text(queue.poll()));
+	}
+
+	@Test
+	void closedQueueRefusesFramesButIsDrained() throws InterruptedException {
+		OutboundQueue queue = new OutboundQueue(4, SlowClientPolicy.DROP);
+		queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("a"));
+
+		queue.close();
+
+		assertEquals(OutboundQueue.Result.CLOSED, queue.offer("PF1_USDTRY", OutboundQueue.encodeLine("b")));
+		assertEquals(OutboundQueue.Result.CLOSED, queue.offerBatch(OutboundQueue.encodeLine("[b]")));
+		assertEquals("a", text(queue.take()));
+		assertNull(queue.take());
+	}
+}
@@ -0,0 +1,134 @@
+package platform1_telnet.handlers;
+
+import org.junit.jupiter.api.Test;
+import rate.RateDto;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelnetServerHandlerTests {
+
+	private static final LocalDateTime UPDATE_TIME = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+	/**
+	 * Collects what a handler writes instead of sending it to a client.
+	 */
+	private static final class RecordingChannel implements TelnetClientChannel {
+		private final List<String> responses = new ArrayList<>();
+		private final List<String> ticks = new ArrayList<>();
+		private final List<String> batches = new ArrayList<>();
+
+		private static String text(ByteBuffer frame) {
+			return StandardCharsets.UTF_8.decode(frame.duplicate()).toString().strip();
+		}
+
+		@Override
+		public synchronized void write(String line) {
+			responses.add(line);
+		}
+
+		@Override
+		public synchronized OutboundQueue.Result send(String ticker, ByteBuffer frame) {
+			ticks.add(text(frame));
+			return OutboundQueue.Result.QUEUED;
+		}
+
+		@Override
+		public synchronized OutboundQueue.Result sendBatch(ByteBuffer frame) {
+			batches.add(text(frame));
+			return OutboundQueue.Result.QUEUED;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void abort() {
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public int getQueueDepth() {
+			return 0;
+		}
+	}
+
+	private static void distribute(String ticker, String... bids) {
+		for (String bid : bids) {
+			TelnetServerHandler.distributeMarketData(new RateDto(ticker, new BigDecimal(bid), new BigDecimal(bid),
+					UPDATE_TIME));
+		}
+	}
+
+	@Test
+	void batchClientsReceiveTheTicksOfAFlushWindowAsOneArray() {
+		TelnetServerHandler.registerTickers(List.of("PF1_BATCHTEST"));
+		RecordingChannel batchChannel = new RecordingChannel();
+		RecordingChannel lineChannel = new RecordingChannel();
+		TelnetServerHandler batchClient = new TelnetServerHandler("batch-client", batchChannel);
+		TelnetServerHandler lineClient = new TelnetServerHandler("line-client", lineChannel);
+		try {
+			batchClient.processLine("batch|on");
+			batchClient.processLine("subscribe|PF1_BATCHTEST");
+			lineClient.processLine("subscribe|PF1_BATCHTEST");
+
+			distribute("PF1_BATCHTEST", "1.1", "1.2", "1.3");
+			assertTrue(batchChannel.batches.isEmpty());
+			TelnetServerHandler.flushBatches();
+			distribute("PF1_BATCHTEST", "1.4");
+			TelnetServerHandler.flushBatches();
+
+			assertEquals(List.of("Batch mode on", "Subscribed to PF1_BATCHTEST"), batchChannel.responses);
+			assertTrue(batchChannel.ticks.isEmpty());
+			assertEquals(2, batchChannel.batches.size());
+			String window = batchChannel.batches.get(0);
+			assertTrue(window.startsWith("[{\"rateName\":\"PF1_BATCHTEST\",\"bid\":1.1,"), window);
+			assertTrue(window.contains("\"seq\":1},{\"rateName\":\"PF1_BATCHTEST\",\"bid\":1.2,"), window);
+			assertTrue(window.endsWith("\"seq\":3}]"), window);
+			assertTrue(batchChannel.batches.get(1).endsWith("\"seq\":4}]"));
+
+			assertTrue(lineChannel.batches.isEmpty());
+			assertEquals(4, lineChannel.ticks.size());
+			for (int i = 0; i < 4; i++) {
+				assertTrue(lineChannel.ticks.get(i).startsWith("{\"rateName\":\"PF1_BATCHTEST\""));
+				assertTrue(lineChannel.ticks.get(i).endsWith("\"seq\":" + (i + 1) + "}"));
+			}
+		} finally {
+			batchClient.cleanup();
+			lineClient.cleanup();
+		}
+	}
+
+	@Test
+	void turningBatchModeOffSendsThePendingBatch() {
+		TelnetServerHandler.registerTickers(List.of("PF1_BATCHOFFTEST"));
+		RecordingChannel channel = new RecordingChannel();
+		TelnetServerHandler client = new TelnetServerHandler("batch-off-client", channel);
+		try {
+			client.processLine("batch|on");
+			client.processLine("subscribe|PF1_BATCHOFFTEST");
+			distribute("PF1_BATCHOFFTEST", "2.1", "2.2");
+
+			client.processLine("batch|off");
+			distribute("PF1_BATCHOFFTEST", "2.3");
+
+			assertEquals(1, channel.batches.size());
+			assertTrue(channel.batches.get(0).endsWith("\"seq\":2}]"));
+			assertEquals(1, channel.ticks.size());
+			assertTrue(channel.ticks.get(0).endsWith("\"seq\":3}"));
+		} finally {
+			client.cleanup();
+		}
+	}
+}
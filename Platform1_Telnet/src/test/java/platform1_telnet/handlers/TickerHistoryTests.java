@@ -0,0 +1,72 @@
+package platform1_telnet.handlers;
+
+import org.junit.jupiter.api.Test;
+import rate.RateDto;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickerHistoryTests {
+
+	private static RateDto tick(int price) {
+		return new RateDto("PF1_USDTRY", BigDecimal.valueOf(price), BigDecimal.valueOf(price + 1), null);
+	}
+
+	@Test
+	void keepsOnlyTheLatestUpdateUntilRetained() {
+		TickerHistory history = new TickerHistory(4);
+		history.append(tick(1));
+		history.append(tick(2));
+
+		assertEquals(1, history.getCapacity());
+		assertEquals(2, history.getSequence());
+		assertEquals(0, BigDecimal.valueOf(2).compareTo(history.get(2).getBid()));
+		assertTrue(history.canResumeAfter(1));
+		assertFalse(history.canResumeAfter(0));
+	}
+
+	@Test
+	void retainingKeepsTheLatestUpdateButNotTheOnesBeforeIt() {
+		TickerHistory history = new TickerHistory(4);
+		history.append(tick(1));
+		history.append(tick(2));
+
+		history.retain();
+
+		assertEquals(4, history.getCapacity());
+		assertEquals(0, BigDecimal.valueOf(2).compareTo(history.get(2).getBid()));
+		assertFalse(history.canResumeAfter(0));
+		assertTrue(history.canResumeAfter(1));
+		history.append(tick(3));
+		assertTrue(history.canResumeAfter(1));
+		assertEquals(0, BigDecimal.valueOf(3).compareTo(history.get(3).getBid()));
+	}
+
+	@Test
+	void wrapsAroundAndOnlyResumesWithinTheKeptUpdates() {
+		TickerHistory history = new TickerHistory(4);
+		history.retain();
+		for (int i = 1; i <= 10; i++) {
+			assertEquals(i, history.append(tick(i)));
+		}
+
+		for (long sequence = 7; sequence <= 10; sequence++) {
+			assertEquals(0, BigDecimal.valueOf(sequence).compareTo(history.get(sequence).getBid()));
+		}
+		assertTrue(history.canResumeAfter(6));
+		assertTrue(history.canResumeAfter(10));
+		assertFalse(history.canResumeAfter(5));
+		assertFalse(history.canResumeAfter(11));
+	}
+
+	@Test
+	void emptyHistoryOnlyResumesFromTheStart() {
+		TickerHistory history = new TickerHistory(4);
+		history.retain();
+
+		assertEquals(0, history.getSequence());
+		assertTrue(history.canResumeAfter(0));
+		assertFalse(history.canResumeAfter(1));
+	}
+}
@@ -0,0 +1,105 @@
+package platform1_telnet.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rate.RateDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickRecorderTests {
+
+	private static final LocalDateTime UPDATE_TIME = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_456_789);
+	private static final int NAME_RECORD_SIZE = 1 + 4 + 2 + "PF1_USDTRY".length();
+
+	@TempDir
+	Path directory;
+
+	private Path record() throws IOException {
+		Path file = directory.resolve("ticks.bin");
+		try (TickRecorder recorder = new TickRecorder(file)) {
+			recorder.accept(new RateDto("PF1_USDTRY", new BigDecimal("34.1234"), new BigDecimal("34.1264"), UPDATE_TIME));
+			recorder.accept(new RateDto("PF1_EURUSD", new BigDecimal("1.08"), new BigDecimal("1.0812"), UPDATE_TIME));
+			recorder.accept(new RateDto("PF1_USDTRY", new BigDecimal("34.125"), null, UPDATE_TIME.plusSeconds(1)));
+			assertEquals(3, recorder.getRecordedCount());
+		}
+		return file;
+	}
+
+	private static void truncate(Path file, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(size);
+		}
+	}
+
+	private static List<RateDto> replay(TickReplayer replayer, int expected) throws InterruptedException {
+		List<RateDto> ticks = new CopyOnWriteArrayList<>();
+		CountDownLatch replayed = new CountDownLatch(expected);
+		replayer.start(tick -> {
+			ticks.add(tick);
+			replayed.countDown();
+		});
+		assertTrue(replayed.await(10, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		replayer.stop();
+		return ticks;
+	}
+
+	@Test
+	void replaysTheRecordedTicks() throws Exception {
+		TickReplayer replayer = new TickReplayer(record(), 0, false, false);
+
+		List<RateDto> ticks = replay(replayer, 3);
+
+		assertEquals(List.of("PF1_USDTRY", "PF1_EURUSD"), List.copyOf(replayer.getRateNames()));
+		assertEquals(List.of("PF1_USDTRY", "PF1_EURUSD", "PF1_USDTRY"),
+				ticks.stream().map(RateDto::getRateName).toList());
+		assertEquals(0, new BigDecimal("34.1234").compareTo(ticks.get(0).getBid()));
+		assertEquals(0, new BigDecimal("1.0812").compareTo(ticks.get(1).getAsk()));
+		assertNull(ticks.get(2).getAsk());
+		assertEquals(UPDATE_TIME, ticks.get(0).getRateUpdateTime());
+		assertEquals(UPDATE_TIME.plusSeconds(1), ticks.get(2).getRateUpdateTime());
+	}
+
+	@Test
+	void stopsAtATickCutOffAtTheEnd() throws Exception {
+		Path file = record();
+		truncate(file, Files.size(file) - 10);
+		TickReplayer replayer = new TickReplayer(file, 0, false, false);
+
+		List<RateDto> ticks = replay(replayer, 2);
+
+		assertEquals(List.of("PF1_USDTRY", "PF1_EURUSD"), ticks.stream().map(RateDto::getRateName).toList());
+	}
+
+	@Test
+	void stopsAtANameRecordCutOffAtTheEnd() throws Exception {
+		Path file = record();
+		truncate(file, TickFileFormat.HEADER_SIZE + NAME_RECORD_SIZE + TickFileFormat.TICK_RECORD_SIZE + 10);
+		TickReplayer replayer = new TickReplayer(file, 0, false, false);
+
+		List<RateDto> ticks = replay(replayer, 1);
+
+		assertEquals(List.of("PF1_USDTRY"), List.copyOf(replayer.getRateNames()));
+		assertEquals(List.of("PF1_USDTRY"), ticks.stream().map(RateDto::getRateName).toList());
+	}
+
+	@Test
+	void rejectsAFileThatIsNotARecording() throws IOException {
+		Path file = directory.resolve("ticks.txt");
+		Files.writeString(file, "PF1_USDTRY|34.1234|34.1264");
+
+		assertThrows(IOException.class, () -> new TickReplayer(file, 0, false, false));
+	}
+}
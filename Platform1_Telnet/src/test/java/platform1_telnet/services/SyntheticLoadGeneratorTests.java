@@ -0,0 +1,59 @@
+package platform1_telnet.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticLoadGeneratorTests {
+
+	private static final int TICKS_PER_INSTRUMENT = 50;
+
+	/**
+	 * Runs a generator until every instrument has produced {@link #TICKS_PER_INSTRUMENT} ticks and returns the
+	 * first ones of each instrument as {@code bid/ask} strings.
+	 */
+	private static Map<String, List<String>> generate(long seed) throws InterruptedException {
+		SyntheticLoadGenerator generator = new SyntheticLoadGenerator("syn", 6, 100_000, seed,
+				List.of(LoadProfile.values()), 3, 0, 0, 1);
+		Map<String, List<String>> ticks = new ConcurrentHashMap<>();
+		generator.getInstrumentNames().forEach(name -> ticks.put(name, new ArrayList<>()));
+		CountDownLatch complete = new CountDownLatch(generator.getInstrumentNames().size());
+		generator.start(tick -> {
+			List<String> instrumentTicks = ticks.get(tick.getRateName());
+			if (instrumentTicks.size() < TICKS_PER_INSTRUMENT) {
+				instrumentTicks.add(tick.getBid() + "/" + tick.getAsk());
+				if (instrumentTicks.size() == TICKS_PER_INSTRUMENT) {
+					complete.countDown();
+				}
+			}
+		});
+		try {
+			assertTrue(complete.await(10, TimeUnit.SECONDS));
+		} finally {
+			generator.stop();
+		}
+		return ticks;
+	}
+
+	@Test
+	void sameSeedProducesTheSamePricePaths() throws InterruptedException {
+		Map<String, List<String>> first = generate(42);
+		Map<String, List<String>> second = generate(42);
+
+		assertEquals(List.of("SYN0", "SYN1", "SYN2", "SYN3", "SYN4", "SYN5"),
+				first.keySet().stream().sorted().toList());
+		assertEquals(first, second);
+	}
+
+	@Test
+	void differentSeedsProduceDifferentPricePaths() throws InterruptedException {
+		assertNotEquals(generate(42), generate(43));
+	}
+}